@@ -32,6 +32,8 @@ public enum Group
     TASK_SCHEDULER( "Scheduler", ExecutorServiceFactory.unschedulable() ),
     /* Page cache background eviction. */
     PAGE_CACHE_EVICTION( "PageCacheEviction" ),
+    /* Page cache background write-back of dirty pages. */
+    PAGE_CACHE_WRITE_BACK( "PageCacheWriteBack" ),
     /* Page cache background eviction. */
     PAGE_CACHE_PRE_FETCHER( "PageCachePreFetcher", ExecutorServiceFactory.cachedWithDiscard() ),
     /** Watch out for, and report, external manipulation of store files. */
@@ -40,6 +42,10 @@ public enum Group
     VM_PAUSE_MONITOR( "VmPauseMonitor" ),
     /** Rotates diagnostic text logs. */
     LOG_ROTATION( "LogRotation" ),
+    /** Appends the next group of a pipelined commit to the transaction log, while the previous group is applied to the store. */
+    COMMIT_PIPELINE( "CommitPipeline" ),
+    /** Forces the transaction log in the background, after transactions that committed with relaxed durability. */
+    TRANSACTION_LOG_FLUSH( "TransactionLogFlush" ),
     /** Checkpoint and store flush. */
     CHECKPOINT( "CheckPoint" ),
     /** Various little periodic tasks that need to be done on a regular basis to keep the store in good shape. */
@@ -50,6 +56,8 @@ public enum Group
     INDEX_CLEANUP_WORK( "IndexCleanupWork" ),
     /** Terminates kernel transactions that have timed out. */
     TRANSACTION_TIMEOUT_MONITOR( "TransactionTimeoutMonitor" ),
+    /** Samples the queries waiting for locks, for the lock contention profiler. */
+    LOCK_CONTENTION_PROFILER( "LockContentionProfiler" ),
     /** Background index population. */
     INDEX_POPULATION( "IndexPopulationMain" ),
     /** Background index population work. */
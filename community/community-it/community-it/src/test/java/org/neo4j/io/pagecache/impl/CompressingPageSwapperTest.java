@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.IOUtils;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+class CompressingPageSwapperTest
+{
+    private static final int PAGE_SIZE = 8192;
+
+    private EphemeralFileSystemAbstraction fs;
+    private PageSwapperFactory factory;
+    private PageSwapper swapper;
+    private long page;
+    private long readPage;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        fs = new EphemeralFileSystemAbstraction();
+        factory = new CompressingPageSwapperFactory( fs, new SingleFilePageSwapperFactory( fs ), List.of( "*.strings" ) );
+        swapper = factory.createPageSwapper( Path.of( "store.strings" ).toAbsolutePath(), PAGE_SIZE, filePageId -> {}, true, false );
+        page = UnsafeUtil.allocateMemory( PAGE_SIZE, INSTANCE );
+        readPage = UnsafeUtil.allocateMemory( PAGE_SIZE, INSTANCE );
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        UnsafeUtil.free( page, PAGE_SIZE, INSTANCE );
+        UnsafeUtil.free( readPage, PAGE_SIZE, INSTANCE );
+        swapper.close();
+        factory.close();
+        IOUtils.closeAll( fs );
+    }
+
+    @Test
+    void compressiblePagesMustBeWrittenWithLessIOAndReadBackIntact() throws IOException
+    {
+        // Writing the last page first gives the file its full length, so the pages before it are written compressed.
+        fillCompressible( page, 3 );
+        assertThat( swapper.write( 3, page ) ).isEqualTo( PAGE_SIZE );
+        for ( int filePageId = 0; filePageId < 3; filePageId++ )
+        {
+            fillCompressible( page, filePageId );
+            assertThat( swapper.write( filePageId, page ) ).isLessThan( PAGE_SIZE );
+        }
+        assertThat( fs.getFileSize( swapper.path() ) ).isEqualTo( 4L * PAGE_SIZE );
+
+        for ( int filePageId = 0; filePageId < 4; filePageId++ )
+        {
+            fillCompressible( page, filePageId );
+            swapper.read( filePageId, readPage );
+            assertSamePage( page, readPage );
+        }
+    }
+
+    @Test
+    void vectoredWritesAndReadsMustCompressEachPage() throws IOException
+    {
+        long otherPage = UnsafeUtil.allocateMemory( PAGE_SIZE, INSTANCE );
+        long otherReadPage = UnsafeUtil.allocateMemory( PAGE_SIZE, INSTANCE );
+        try
+        {
+            fillCompressible( page, 0 );
+            fillCompressible( otherPage, 1 );
+            swapper.write( 0, new long[]{page, otherPage}, new int[]{PAGE_SIZE, PAGE_SIZE}, 2, 2 );
+            swapper.read( 0, new long[]{readPage, otherReadPage}, new int[]{PAGE_SIZE, PAGE_SIZE}, 2 );
+            assertSamePage( page, readPage );
+            assertSamePage( otherPage, otherReadPage );
+        }
+        finally
+        {
+            UnsafeUtil.free( otherPage, PAGE_SIZE, INSTANCE );
+            UnsafeUtil.free( otherReadPage, PAGE_SIZE, INSTANCE );
+        }
+    }
+
+    @Test
+    void incompressiblePagesMustBeWrittenAsTheyAre() throws IOException
+    {
+        fillRandom( page );
+        swapper.write( 1, page );
+        assertThat( swapper.write( 0, page ) ).isEqualTo( PAGE_SIZE );
+
+        swapper.read( 0, readPage );
+        assertSamePage( page, readPage );
+    }
+
+    @Test
+    void pagesThatOnlyLookCompressedMustBeReadAsTheyAre() throws IOException
+    {
+        fillRandom( page );
+        UnsafeUtil.putByte( page, (byte) (CompressingPageSwapper.MAGIC >>> 24) );
+        UnsafeUtil.putByte( page + 1, (byte) (CompressingPageSwapper.MAGIC >>> 16) );
+        UnsafeUtil.putByte( page + 2, (byte) (CompressingPageSwapper.MAGIC >>> 8) );
+        UnsafeUtil.putByte( page + 3, (byte) CompressingPageSwapper.MAGIC );
+        UnsafeUtil.putByte( page + 4, (byte) 0 );
+        UnsafeUtil.putByte( page + 5, (byte) 0 );
+        UnsafeUtil.putByte( page + 6, (byte) 1 );
+        UnsafeUtil.putByte( page + 7, (byte) 0 );
+        swapper.write( 0, page );
+
+        swapper.read( 0, readPage );
+        assertSamePage( page, readPage );
+    }
+
+    @Test
+    void filesThatMatchNoGlobMustNotBeCompressed() throws IOException
+    {
+        PageSwapper other = factory.createPageSwapper( Path.of( "store.db" ).toAbsolutePath(), PAGE_SIZE, filePageId -> {}, true, false );
+        assertThat( other ).isInstanceOf( SingleFilePageSwapper.class );
+        other.close();
+    }
+
+    @Test
+    void compressedFilesMustStayCompressedWhenTheirGlobIsGone() throws IOException
+    {
+        fillCompressible( page, 1 );
+        swapper.write( 1, page );
+        fillCompressible( page, 0 );
+        assertThat( swapper.write( 0, page ) ).isLessThan( PAGE_SIZE );
+        Path path = swapper.path();
+        assertThat( fs.fileExists( CompressingPageSwapperFactory.compressionMarker( path ) ) ).isTrue();
+
+        PageSwapperFactory uncompressedFactory = new CompressingPageSwapperFactory( fs, new SingleFilePageSwapperFactory( fs ), List.of() );
+        PageSwapper reopened = uncompressedFactory.createPageSwapper( path, PAGE_SIZE, filePageId -> {}, false, false );
+        try
+        {
+            assertThat( reopened ).isInstanceOf( CompressingPageSwapper.class );
+            reopened.read( 0, readPage );
+            assertSamePage( page, readPage );
+            assertThrows( IOException.class, () -> uncompressedFactory.createPageSwapper( path, PAGE_SIZE, filePageId -> {}, false, true ) );
+        }
+        finally
+        {
+            reopened.close();
+            uncompressedFactory.close();
+        }
+    }
+
+    @Test
+    void deletingCompressedFileMustDeleteItsMarker() throws IOException
+    {
+        Path path = swapper.path();
+        swapper.closeAndDelete();
+        swapper = factory.createPageSwapper( Path.of( "store.db" ).toAbsolutePath(), PAGE_SIZE, filePageId -> {}, true, false );
+
+        assertThat( fs.fileExists( path ) ).isFalse();
+        assertThat( fs.fileExists( CompressingPageSwapperFactory.compressionMarker( path ) ) ).isFalse();
+    }
+
+    private static void fillCompressible( long address, int filePageId )
+    {
+        for ( int i = 0; i < PAGE_SIZE; i += Long.BYTES )
+        {
+            UnsafeUtil.putLong( address + i, filePageId * 1000 + (i / 64) );
+        }
+    }
+
+    private static void fillRandom( long address )
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for ( int i = 0; i < PAGE_SIZE; i += Long.BYTES )
+        {
+            UnsafeUtil.putLong( address + i, random.nextLong() );
+        }
+    }
+
+    private static void assertSamePage( long expected, long actual )
+    {
+        for ( int i = 0; i < PAGE_SIZE; i += Long.BYTES )
+        {
+            assertThat( UnsafeUtil.getLong( actual + i ) ).as( "long at offset " + i ).isEqualTo( UnsafeUtil.getLong( expected + i ) );
+        }
+    }
+}
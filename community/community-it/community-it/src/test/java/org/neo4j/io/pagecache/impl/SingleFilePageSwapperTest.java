@@ -178,6 +178,22 @@ public class SingleFilePageSwapperTest extends PageSwapperTest
         assertThat( array( target ) ).containsExactly( 5, 6, 0, 0 );
     }
 
+    @Test
+    void preferringDirectIOMustStillOpenFilesWithPagesNotMultipleOfBlockSize() throws Exception
+    {
+        byte[] bytes = new byte[] { 1, 2, 3, 4 };
+        StoreChannel channel = getFs().write( getPath() );
+        channel.writeAll( wrap( bytes ) );
+        channel.close();
+
+        PageSwapperFactory factory = new SingleFilePageSwapperFactory( getFs(), true );
+        PageSwapper swapper = createSwapper( factory, getPath(), 4, null, false );
+        long target = createPage( 4 );
+        assertEquals( 4, swapper.read( 0, target ) );
+
+        assertThat( array( target ) ).containsExactly( bytes );
+    }
+
     @Test
     void uninterruptibleRead() throws Exception
     {
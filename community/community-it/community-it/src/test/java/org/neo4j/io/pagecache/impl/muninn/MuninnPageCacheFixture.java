@@ -36,6 +36,8 @@ import org.neo4j.time.Clocks;
 public class MuninnPageCacheFixture extends PageCacheTestSupport.Fixture<MuninnPageCache>
 {
     CountDownLatch backgroundFlushLatch;
+    EvictionPolicy evictionPolicy = EvictionPolicy.CLOCK;
+    FileQuotas fileQuotas = FileQuotas.NONE;
     private MemoryAllocator allocator;
 
     @Override
@@ -46,7 +48,8 @@ public class MuninnPageCacheFixture extends PageCacheTestSupport.Fixture<MuninnP
         var memoryTracker = new LocalMemoryTracker();
         allocator = MemoryAllocator.createAllocator( memory, memoryTracker );
         var usedBufferFactory = selectBufferFactory( bufferFactory, memoryTracker );
-        return new MuninnPageCache( swapperFactory, allocator, tracer, contextSupplier, jobScheduler, Clocks.nanoClock(), memoryTracker, usedBufferFactory );
+        return new MuninnPageCache( swapperFactory, allocator, tracer, contextSupplier, jobScheduler, Clocks.nanoClock(), memoryTracker, usedBufferFactory,
+                evictionPolicy, fileQuotas );
     }
 
     private static IOBufferFactory selectBufferFactory( IOBufferFactory bufferFactory, LocalMemoryTracker memoryTracker )
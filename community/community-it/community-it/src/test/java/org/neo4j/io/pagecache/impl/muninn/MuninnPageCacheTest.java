@@ -21,7 +21,9 @@ package org.neo4j.io.pagecache.impl.muninn;
 
 import org.apache.commons.lang3.mutable.MutableBoolean;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 
+import java.io.Flushable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.OpenOption;
@@ -32,6 +34,9 @@ import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.IntSupplier;
 import java.util.function.LongSupplier;
 
@@ -51,6 +56,7 @@ import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageEvictionCallback;
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PageWriteBarrier;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
@@ -60,6 +66,8 @@ import org.neo4j.io.pagecache.tracing.FlushEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContext;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer;
@@ -68,10 +76,13 @@ import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer.Fault;
 import org.neo4j.memory.ScopedMemoryTracker;
 
 import static java.time.Duration.ofMillis;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -87,6 +98,7 @@ import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
 import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
 import static org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer.Evict;
 import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+import static org.neo4j.test.assertion.Assert.assertEventually;
 
 public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
 {
@@ -291,6 +303,65 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    @Test
+    void mustGoThroughWriteBarrierBeforeEvictingDirtyPage() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        AtomicInteger barrierCalls = new AtomicInteger();
+        PageWriteBarrier writeBarrier = () ->
+        {
+            assertThat( readIntoBuffer( "a" ).getLong() ).isEqualTo( x );
+            barrierCalls.incrementAndGet();
+        };
+        VersionContextSupplier versionContextSupplier = new ConfiguredVersionContextSupplier( EmptyVersionContext.EMPTY, writeBarrier );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2, PageCacheTracer.NULL, versionContextSupplier );
+                PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( 0L );
+            }
+
+            pageCache.evictPages( 1, 0, PageCacheTracer.NULL.beginPageEvictions( 1 ) );
+
+            assertEquals( 1, barrierCalls.get() );
+            assertThat( readIntoBuffer( "a" ).getLong() ).isEqualTo( 0L );
+        }
+    }
+
+    @Test
+    void mustNotFlushDirtyPagesWhenWriteBarrierFails() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        AtomicInteger barrierCalls = new AtomicInteger();
+        PageWriteBarrier writeBarrier = () ->
+        {
+            if ( barrierCalls.incrementAndGet() == 1 )
+            {
+                throw new IOException( "Log could not be forced" );
+            }
+        };
+        VersionContextSupplier versionContextSupplier = new ConfiguredVersionContextSupplier( EmptyVersionContext.EMPTY, writeBarrier );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2, PageCacheTracer.NULL, versionContextSupplier );
+                PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( 0L );
+            }
+
+            assertThrows( IOException.class, pagedFile::flushAndForce );
+            assertThat( readIntoBuffer( "a" ).getLong() ).isEqualTo( x );
+
+            // The page stayed dirty, and is written once the barrier lets it through.
+            pagedFile.flushAndForce();
+            assertEquals( 2, barrierCalls.get() );
+            assertThat( readIntoBuffer( "a" ).getLong() ).isEqualTo( 0L );
+        }
+    }
+
     @Test
     void trackPageModificationTransactionId() throws Exception
     {
@@ -1320,6 +1391,234 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         } );
     }
 
+    @Test
+    void scanResistantEvictionMustKeepHotPagesInCacheDuringLargeScans()
+    {
+        assertTimeoutPreemptively( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+        {
+            fixture.evictionPolicy = EvictionPolicy.SCAN_RESISTANT;
+            int cachePages = 200;
+            int hotPages = 20;
+            int scanPages = 10 * cachePages;
+            DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+            try ( MuninnPageCache pageCache = createPageCache( fs, cachePages, tracer );
+                  PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+                {
+                    for ( int i = 0; i < hotPages + scanPages; i++ )
+                    {
+                        assertTrue( cursor.next() );
+                        cursor.putLong( i );
+                    }
+                }
+                pagedFile.flushAndForce();
+
+                // Access the hot pages a few times, so they are promoted out of the probation queue.
+                for ( int i = 0; i < 4; i++ )
+                {
+                    readPages( pagedFile, 0, hotPages, NULL );
+                }
+                // One big scan over a range of the file that is much larger than the cache.
+                readPages( pagedFile, hotPages, scanPages, NULL );
+
+                try ( var cursorTracer = tracer.createPageCursorTracer( "scanResistantEvictionMustKeepHotPagesInCacheDuringLargeScans" ) )
+                {
+                    readPages( pagedFile, 0, hotPages, cursorTracer );
+                    assertEquals( hotPages, cursorTracer.hits() );
+                    assertEquals( 0, cursorTracer.faults() );
+                }
+            }
+        } );
+    }
+
+    @Test
+    @EnabledIfSystemProperty( named = "org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.adaptiveReadAhead", matches = "true" )
+    void sequentialReadScanMustBePreFetchedWithoutReadAheadFlag()
+    {
+        assertTimeoutPreemptively( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+        {
+            int cachePages = 100;
+            int scanPages = 10 * cachePages;
+            DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+            try ( MuninnPageCache pageCache = createPageCache( fs, cachePages, tracer );
+                  PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+                {
+                    for ( int i = 0; i < scanPages; i++ )
+                    {
+                        assertTrue( cursor.next() );
+                        cursor.putLong( i );
+                    }
+                }
+                pagedFile.flushAndForce();
+
+                // The beginning of the file has been evicted by now, so this scan is page faulting in a sequential pattern.
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+                {
+                    while ( cursor.next() )
+                    {
+                        LockSupport.parkNanos( MILLISECONDS.toNanos( 1 ) );
+                    }
+                }
+                assertEventually( tracer::preFetchFaults, faults -> faults > 0, 1, MINUTES );
+            }
+        } );
+    }
+
+    @Test
+    void fileWithQuotaMustEvictItsOwnPagesInsteadOfPagesOfOtherFiles()
+    {
+        assertTimeoutPreemptively( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+        {
+            fixture.fileQuotas = FileQuotas.parse( List.of( "capped*=10" ) );
+            int cachePages = 200;
+            int otherPages = 100;
+            DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+            try ( MuninnPageCache pageCache = createPageCache( fs, cachePages, tracer );
+                  PagedFile otherFile = map( pageCache, existingFile( "other" ), filePageSize );
+                  PagedFile cappedFile = map( pageCache, existingFile( "capped" ), filePageSize ) )
+            {
+                try ( PageCursor cursor = otherFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+                {
+                    for ( int i = 0; i < otherPages; i++ )
+                    {
+                        assertTrue( cursor.next() );
+                        cursor.putLong( i );
+                    }
+                }
+                try ( PageCursor cursor = cappedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+                {
+                    for ( int i = 0; i < 10 * cachePages; i++ )
+                    {
+                        assertTrue( cursor.next() );
+                        cursor.putLong( i );
+                    }
+                }
+
+                assertThat( ((MuninnPagedFile) cappedFile).getResidentPages() ).isLessThanOrEqualTo( cachePages / 10 );
+                try ( var cursorTracer = tracer.createPageCursorTracer( "fileWithQuotaMustEvictItsOwnPagesInsteadOfPagesOfOtherFiles" ) )
+                {
+                    readPages( otherFile, 0, otherPages, cursorTracer );
+                    assertEquals( otherPages, cursorTracer.hits() );
+                    assertEquals( 0, cursorTracer.faults() );
+                }
+            }
+        } );
+    }
+
+    @Test
+    void flushAndForceOfLargeFileMustFlushAllRangesUnderTheLimiter()
+    {
+        assertTimeoutPreemptively( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+        {
+            // Small file pages, so a file that spans many translation table chunks still fits in the cache.
+            int smallFilePageSize = 16;
+            int pagesPerChunk = 4096;
+            int chunks = 20;
+            AtomicLong limitedIOs = new AtomicLong();
+            IOLimiter limiter = new IOLimiter()
+            {
+                @Override
+                public long maybeLimitIO( long previousStamp, int recentlyCompletedIOs, Flushable flushable )
+                {
+                    limitedIOs.addAndGet( recentlyCompletedIOs );
+                    return previousStamp;
+                }
+
+                @Override
+                public boolean isLimited()
+                {
+                    return true;
+                }
+            };
+
+            try ( MuninnPageCache pageCache = createPageCache( fs, 100, PageCacheTracer.NULL );
+                  PagedFile pagedFile = map( pageCache, file( "a" ), smallFilePageSize ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+                {
+                    for ( int chunk = 0; chunk < chunks; chunk++ )
+                    {
+                        assertTrue( cursor.next( (long) chunk * pagesPerChunk + 7 ) );
+                        cursor.putLong( chunk );
+                    }
+                }
+                pagedFile.flushAndForce( limiter );
+                assertThat( limitedIOs.get() ).isGreaterThanOrEqualTo( chunks );
+            }
+
+            try ( MuninnPageCache pageCache = createPageCache( fs, 100, PageCacheTracer.NULL );
+                  PagedFile pagedFile = map( pageCache, file( "a" ), smallFilePageSize );
+                  PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                for ( int chunk = 0; chunk < chunks; chunk++ )
+                {
+                    assertTrue( cursor.next( (long) chunk * pagesPerChunk + 7 ) );
+                    assertEquals( chunk, cursor.getLong() );
+                }
+            }
+        } );
+    }
+
+    @Test
+    void backgroundWriteBackMustWriteOldDirtyPagesWithoutFlush() throws IOException
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        int dirtyPages = 10;
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, tracer ) )
+        {
+            pageCache.enableBackgroundWriteBack( 0, 1000 );
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+                {
+                    for ( int i = 0; i < dirtyPages; i++ )
+                    {
+                        assertTrue( cursor.next() );
+                        cursor.putLong( i );
+                    }
+                }
+
+                assertEventually( tracer::writeBackPages, pages -> pages >= dirtyPages, 1, MINUTES );
+                assertEventually( tracer::dirtyRatio, ratio -> ratio == 0d, 1, MINUTES );
+                assertThat( fs.getFileSize( file( "a" ) ) ).isEqualTo( 8L * dirtyPages );
+            }
+        }
+    }
+
+    @Test
+    void backgroundWriteBackMustRejectInvalidTargets()
+    {
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, PageCacheTracer.NULL ) )
+        {
+            assertThrows( IllegalArgumentException.class, () -> pageCache.enableBackgroundWriteBack( 1.5, 1000 ) );
+            assertThrows( IllegalArgumentException.class, () -> pageCache.enableBackgroundWriteBack( 0.1, 0 ) );
+        }
+    }
+
+    @Test
+    void fileQuotasMustRejectMalformedEntries()
+    {
+        assertThrows( IllegalArgumentException.class, () -> FileQuotas.parse( List.of( "neostore" ) ) );
+        assertThrows( IllegalArgumentException.class, () -> FileQuotas.parse( List.of( "=10" ) ) );
+        assertThrows( IllegalArgumentException.class, () -> FileQuotas.parse( List.of( "neostore=ten" ) ) );
+        assertThrows( IllegalArgumentException.class, () -> FileQuotas.parse( List.of( "neostore=0" ) ) );
+        assertThrows( IllegalArgumentException.class, () -> FileQuotas.parse( List.of( "neostore=101" ) ) );
+    }
+
+    private static void readPages( PagedFile pagedFile, long startPageId, int count, PageCursorTracer cursorTracer ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( startPageId, PF_SHARED_READ_LOCK, cursorTracer ) )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                assertTrue( cursor.next() );
+            }
+        }
+    }
+
     private static class FlushRendezvousTracer extends DefaultPageCacheTracer
     {
         private final CountDownLatch latch;
@@ -1390,10 +1689,17 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
     {
 
         private final VersionContext versionContext;
+        private final PageWriteBarrier writeBarrier;
 
         ConfiguredVersionContextSupplier( VersionContext versionContext )
+        {
+            this( versionContext, PageWriteBarrier.NONE );
+        }
+
+        ConfiguredVersionContextSupplier( VersionContext versionContext, PageWriteBarrier writeBarrier )
         {
             this.versionContext = versionContext;
+            this.writeBarrier = writeBarrier;
         }
 
         @Override
@@ -1406,6 +1712,12 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         {
             return versionContext;
         }
+
+        @Override
+        public PageWriteBarrier pageWriteBarrier()
+        {
+            return writeBarrier;
+        }
     }
 
     private static class TestVersionContext implements VersionContext
@@ -80,6 +80,18 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         return delegate.hits();
     }
 
+    @Override
+    public long preFetchHits()
+    {
+        return delegate.preFetchHits();
+    }
+
+    @Override
+    public long preFetchFaults()
+    {
+        return delegate.preFetchFaults();
+    }
+
     @Override
     public MajorFlushEvent beginCacheFlush()
     {
@@ -128,6 +140,18 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         return delegate.usageRatio();
     }
 
+    @Override
+    public long writeBackPages()
+    {
+        return delegate.writeBackPages();
+    }
+
+    @Override
+    public double dirtyRatio()
+    {
+        return delegate.dirtyRatio();
+    }
+
     @Override
     public void pins( long pins )
     {
@@ -146,6 +170,18 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.hits( hits );
     }
 
+    @Override
+    public void preFetchHits( long hits )
+    {
+        delegate.preFetchHits( hits );
+    }
+
+    @Override
+    public void preFetchFaults( long faults )
+    {
+        delegate.preFetchFaults( faults );
+    }
+
     @Override
     public void faults( long faults )
     {
@@ -194,6 +230,18 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.maxPages( maxPages );
     }
 
+    @Override
+    public void writeBackPages( long pages )
+    {
+        delegate.writeBackPages( pages );
+    }
+
+    @Override
+    public void dirtyPages( long dirtyPages )
+    {
+        delegate.dirtyPages( dirtyPages );
+    }
+
     @Override
     public long filesMapped()
     {
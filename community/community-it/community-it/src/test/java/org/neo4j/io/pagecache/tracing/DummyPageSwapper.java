@@ -102,6 +102,16 @@ public class DummyPageSwapper implements PageSwapper
     {
     }
 
+    @Override
+    public void readAhead( long startFilePageId, int pageCount )
+    {
+    }
+
+    @Override
+    public void startWriteBack( long startFilePageId, int pageCount )
+    {
+    }
+
     @Override
     public void closeAndDelete()
     {
@@ -115,6 +115,18 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public long preFetchHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long preFetchFaults()
+    {
+        return 0;
+    }
+
     @Override
     public long flushes()
     {
@@ -169,6 +181,18 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0d;
     }
 
+    @Override
+    public long writeBackPages()
+    {
+        return 0;
+    }
+
+    @Override
+    public double dirtyRatio()
+    {
+        return 0d;
+    }
+
     @Override
     public void pins( long pins )
     {
@@ -184,6 +208,16 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     {
     }
 
+    @Override
+    public void preFetchHits( long hits )
+    {
+    }
+
+    @Override
+    public void preFetchFaults( long faults )
+    {
+    }
+
     @Override
     public void faults( long faults )
     {
@@ -223,4 +257,14 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     public void maxPages( long maxPages )
     {
     }
+
+    @Override
+    public void writeBackPages( long pages )
+    {
+    }
+
+    @Override
+    public void dirtyPages( long dirtyPages )
+    {
+    }
 }
@@ -120,6 +120,18 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         return 0;
     }
 
+    @Override
+    public long preFetchHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long preFetchFaults()
+    {
+        return 0;
+    }
+
     @Override
     public long flushes()
     {
@@ -174,6 +186,18 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         return 0d;
     }
 
+    @Override
+    public long writeBackPages()
+    {
+        return 0;
+    }
+
+    @Override
+    public double dirtyRatio()
+    {
+        return 0d;
+    }
+
     @Override
     public void pins( long pins )
     {
@@ -190,6 +214,16 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
     {
     }
 
+    @Override
+    public void preFetchHits( long hits )
+    {
+    }
+
+    @Override
+    public void preFetchFaults( long faults )
+    {
+    }
+
     @Override
     public void faults( long faults )
     {
@@ -232,6 +266,16 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
     {
     }
 
+    @Override
+    public void writeBackPages( long pages )
+    {
+    }
+
+    @Override
+    public void dirtyPages( long dirtyPages )
+    {
+    }
+
     private void evicted( long filePageId, PageSwapper swapper )
     {
         record( new Evict( swapper, filePageId ) );
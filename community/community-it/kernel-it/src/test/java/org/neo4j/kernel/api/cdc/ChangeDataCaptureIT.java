@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.cdc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.extension.DbmsExtension;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.storageengine.api.LogicalChangesVisitor.Change;
+import org.neo4j.token.TokenHolders;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.neo4j.common.EntityType.NODE;
+import static org.neo4j.common.EntityType.RELATIONSHIP;
+import static org.neo4j.graphdb.Label.label;
+import static org.neo4j.graphdb.RelationshipType.withName;
+import static org.neo4j.storageengine.api.LogicalChangesVisitor.Change.CREATED;
+import static org.neo4j.storageengine.api.LogicalChangesVisitor.Change.DELETED;
+import static org.neo4j.storageengine.api.LogicalChangesVisitor.Change.UPDATED;
+import static org.neo4j.values.storable.Values.NO_VALUE;
+
+@DbmsExtension
+class ChangeDataCaptureIT
+{
+    @Inject
+    private GraphDatabaseAPI db;
+    @Inject
+    private ChangeDataCapture changeDataCapture;
+    @Inject
+    private TokenHolders tokenHolders;
+
+    @Test
+    void shouldStreamCreatedUpdatedAndDeletedNodesAndRelationships() throws IOException
+    {
+        long nodeId;
+        long otherNodeId;
+        long relationshipId;
+        try ( ChangeStream stream = changeDataCapture.stream( changeDataCapture.currentTransactionId() ) )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                Node node = tx.createNode( label( "Person" ) );
+                node.setProperty( "name", "Alice" );
+                Node otherNode = tx.createNode();
+                Relationship relationship = node.createRelationshipTo( otherNode, withName( "KNOWS" ) );
+                relationship.setProperty( "since", 2020 );
+                nodeId = node.getId();
+                otherNodeId = otherNode.getId();
+                relationshipId = relationship.getId();
+                tx.commit();
+            }
+            try ( Transaction tx = db.beginTx() )
+            {
+                Node node = tx.getNodeById( nodeId );
+                node.setProperty( "name", "Bob" );
+                node.addLabel( label( "Admin" ) );
+                tx.commit();
+            }
+            try ( Transaction tx = db.beginTx() )
+            {
+                tx.getRelationshipById( relationshipId ).delete();
+                tx.getNodeById( otherNodeId ).delete();
+                tx.commit();
+            }
+
+            List<TransactionChanges> transactions = pullEntityChanges( stream, 100 );
+            assertEquals( 3, transactions.size() );
+            int person = tokenHolders.labelTokens().getIdByName( "Person" );
+            int admin = tokenHolders.labelTokens().getIdByName( "Admin" );
+            int knows = tokenHolders.relationshipTypeTokens().getIdByName( "KNOWS" );
+            int name = tokenHolders.propertyKeyTokens().getIdByName( "name" );
+            int since = tokenHolders.propertyKeyTokens().getIdByName( "since" );
+
+            List<EntityChange> created = transactions.get( 0 ).changes();
+            assertEquals( 3, created.size() );
+            assertNode( created.get( 0 ), nodeId, CREATED, new long[0], new long[]{person} );
+            assertProperty( created.get( 0 ), name, NO_VALUE, Values.stringValue( "Alice" ) );
+            assertNode( created.get( 1 ), otherNodeId, CREATED, new long[0], new long[0] );
+            assertThat( created.get( 1 ).propertyChanges() ).isEmpty();
+            assertRelationship( created.get( 2 ), relationshipId, CREATED, knows, nodeId, otherNodeId );
+            assertProperty( created.get( 2 ), since, NO_VALUE, Values.intValue( 2020 ) );
+
+            List<EntityChange> updated = transactions.get( 1 ).changes();
+            assertEquals( 1, updated.size() );
+            long[] labelsAfter = person < admin ? new long[]{person, admin} : new long[]{admin, person};
+            assertNode( updated.get( 0 ), nodeId, UPDATED, new long[]{person}, labelsAfter );
+            assertProperty( updated.get( 0 ), name, Values.stringValue( "Alice" ), Values.stringValue( "Bob" ) );
+
+            // The node that had its relationship chain updated by the deletion is not a change of its own.
+            List<EntityChange> deleted = transactions.get( 2 ).changes();
+            assertEquals( 2, deleted.size() );
+            assertNode( deleted.get( 0 ), otherNodeId, DELETED, new long[0], new long[0] );
+            assertRelationship( deleted.get( 1 ), relationshipId, DELETED, knows, nodeId, otherNodeId );
+            assertProperty( deleted.get( 1 ), since, Values.intValue( 2020 ), NO_VALUE );
+        }
+    }
+
+    @Test
+    void shouldReportPropertyOnlyChangesWithoutEntityDetails() throws IOException
+    {
+        long nodeId;
+        try ( Transaction tx = db.beginTx() )
+        {
+            nodeId = tx.createNode().getId();
+            tx.commit();
+        }
+
+        try ( ChangeStream stream = changeDataCapture.stream( changeDataCapture.currentTransactionId() ) )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                tx.getNodeById( nodeId ).setProperty( "count", 1 );
+                tx.commit();
+            }
+            try ( Transaction tx = db.beginTx() )
+            {
+                tx.getNodeById( nodeId ).setProperty( "count", 2 );
+                tx.commit();
+            }
+
+            List<TransactionChanges> transactions = pullEntityChanges( stream, 100 );
+            assertEquals( 2, transactions.size() );
+            int count = tokenHolders.propertyKeyTokens().getIdByName( "count" );
+            EntityChange change = transactions.get( 1 ).changes().get( 0 );
+            assertNode( change, nodeId, UPDATED, null, null );
+            assertProperty( change, count, Values.intValue( 1 ), Values.intValue( 2 ) );
+        }
+    }
+
+    @Test
+    void shouldDecodeDynamicValuesAsOfTheirTransactionAfterLaterTransactionsChangedThem() throws IOException
+    {
+        String firstText = "a".repeat( 500 );
+        String secondText = "b".repeat( 600 );
+        long[] firstArray = LongStream.range( 0, 100 ).map( i -> i * 1_000_000_007L ).toArray();
+        long nodeId;
+        try ( ChangeStream stream = changeDataCapture.stream( changeDataCapture.currentTransactionId() ) )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                Node node = tx.createNode();
+                node.setProperty( "text", firstText );
+                node.setProperty( "array", firstArray );
+                nodeId = node.getId();
+                tx.commit();
+            }
+            try ( Transaction tx = db.beginTx() )
+            {
+                Node node = tx.getNodeById( nodeId );
+                node.setProperty( "text", secondText );
+                node.removeProperty( "array" );
+                tx.commit();
+            }
+            // Reuses the dynamic records freed by the transactions above.
+            try ( Transaction tx = db.beginTx() )
+            {
+                tx.getNodeById( nodeId ).delete();
+                tx.createNode().setProperty( "text", "c".repeat( 700 ) );
+                tx.commit();
+            }
+
+            List<TransactionChanges> transactions = pullEntityChanges( stream, 100 );
+            assertEquals( 3, transactions.size() );
+            int text = tokenHolders.propertyKeyTokens().getIdByName( "text" );
+            int array = tokenHolders.propertyKeyTokens().getIdByName( "array" );
+
+            EntityChange created = transactions.get( 0 ).changes().get( 0 );
+            assertThat( created.propertyChanges() )
+                    .extracting( PropertyChange::propertyKeyId, PropertyChange::before, PropertyChange::after )
+                    .containsExactlyInAnyOrder(
+                            tuple( text, NO_VALUE, Values.stringValue( firstText ) ),
+                            tuple( array, NO_VALUE, Values.longArray( firstArray ) ) );
+            EntityChange updated = transactions.get( 1 ).changes().get( 0 );
+            assertThat( updated.propertyChanges() )
+                    .extracting( PropertyChange::propertyKeyId, PropertyChange::before, PropertyChange::after )
+                    .containsExactlyInAnyOrder(
+                            tuple( text, Values.stringValue( firstText ), Values.stringValue( secondText ) ),
+                            tuple( array, Values.longArray( firstArray ), NO_VALUE ) );
+            EntityChange deleted = transactions.get( 2 ).changes().get( 0 );
+            assertNode( deleted, nodeId, DELETED, new long[0], new long[0] );
+            assertProperty( deleted, text, Values.stringValue( secondText ), NO_VALUE );
+        }
+    }
+
+    @Test
+    void shouldPullInBatchesAndResumeFromNextTransactionId() throws IOException
+    {
+        long fromTransactionId = changeDataCapture.currentTransactionId();
+        createNodes( 5 );
+
+        long resumeFrom;
+        try ( ChangeStream stream = changeDataCapture.stream( fromTransactionId ) )
+        {
+            List<TransactionChanges> first = stream.pull( 2 );
+            List<TransactionChanges> second = stream.pull( 2 );
+            assertEquals( 2, first.size() );
+            assertEquals( 2, second.size() );
+            assertEquals( fromTransactionId, first.get( 0 ).transactionId() );
+            assertEquals( fromTransactionId + 3, second.get( 1 ).transactionId() );
+            resumeFrom = stream.nextTransactionId();
+            assertEquals( fromTransactionId + 4, resumeFrom );
+        }
+
+        try ( ChangeStream stream = changeDataCapture.stream( resumeFrom ) )
+        {
+            List<TransactionChanges> rest = stream.pull( 10 );
+            assertEquals( 1, rest.size() );
+            assertEquals( resumeFrom, rest.get( 0 ).transactionId() );
+            assertThat( stream.pull( 10 ) ).isEmpty();
+
+            createNodes( 1 );
+            List<TransactionChanges> caughtUp = stream.pull( 10 );
+            assertEquals( 1, caughtUp.size() );
+            assertEquals( resumeFrom + 1, caughtUp.get( 0 ).transactionId() );
+            assertEquals( resumeFrom + 2, stream.nextTransactionId() );
+        }
+    }
+
+    private void createNodes( int count )
+    {
+        for ( int i = 0; i < count; i++ )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                tx.createNode();
+                tx.commit();
+            }
+        }
+    }
+
+    private static List<TransactionChanges> pullEntityChanges( ChangeStream stream, int maxTransactions ) throws IOException
+    {
+        // Transactions creating the tokens used by the transactions of the tests have no changes of their own.
+        List<TransactionChanges> transactions = new ArrayList<>();
+        for ( TransactionChanges transaction : stream.pull( maxTransactions ) )
+        {
+            if ( !transaction.changes().isEmpty() )
+            {
+                transactions.add( transaction );
+            }
+        }
+        return transactions;
+    }
+
+    private static void assertNode( EntityChange entity, long nodeId, Change change, long[] labelsBefore, long[] labelsAfter )
+    {
+        assertEquals( NODE, entity.entityType() );
+        assertEquals( nodeId, entity.id() );
+        assertEquals( change, entity.change() );
+        assertArrayEquals( labelsBefore, entity.labelsBefore() );
+        assertArrayEquals( labelsAfter, entity.labelsAfter() );
+    }
+
+    private static void assertRelationship( EntityChange entity, long relationshipId, Change change, int type, long startNodeId, long endNodeId )
+    {
+        assertEquals( RELATIONSHIP, entity.entityType() );
+        assertEquals( relationshipId, entity.id() );
+        assertEquals( change, entity.change() );
+        assertEquals( type, entity.relationshipType() );
+        assertEquals( startNodeId, entity.startNodeId() );
+        assertEquals( endNodeId, entity.endNodeId() );
+        assertNull( entity.labelsBefore() );
+    }
+
+    private static void assertProperty( EntityChange entity, int propertyKeyId, Value before, Value after )
+    {
+        assertEquals( 1, entity.propertyChanges().size() );
+        PropertyChange property = entity.propertyChanges().get( 0 );
+        assertEquals( propertyKeyId, property.propertyKeyId() );
+        assertEquals( before, property.before() );
+        assertEquals( after, property.after() );
+    }
+}
@@ -46,6 +46,11 @@ public interface ProcedureITBase
                         stringArray( "reader", "editor", "publisher", "architect", "admin" ), "DBMS", true ),
                 proc( "dbms.listConfig", "(searchString =  :: STRING?) :: (name :: STRING?, description :: STRING?, value :: STRING?, dynamic :: BOOLEAN?)",
                         "List the currently active config of Neo4j.", stringArray( "admin" ), "DBMS" ),
+                proc( "dbms.listLockContention", "(limit = 10 :: INTEGER?) :: (database :: STRING?, kind :: STRING?, resourceType :: STRING?, " +
+                                "resourceId :: INTEGER?, query :: STRING?, waits :: INTEGER?, waitTimeMillis :: INTEGER?, waitTimeErrorMillis :: INTEGER?, " +
+                                "maxWaitTimeMillis :: INTEGER?)",
+                        "List where the transactions of each database have waited for locks: the time waited for each resource type, for the most " +
+                                "waited for resources, and, as sampled, by the queries most often found waiting for locks.", stringArray( "admin" ), "DBMS" ),
                 proc( "db.constraints", "() :: (name :: STRING?, description :: STRING?, details :: STRING?)",
                         "List all constraints in the database.",
                         stringArray( "reader", "editor", "publisher", "architect", "admin" ), "READ" ),
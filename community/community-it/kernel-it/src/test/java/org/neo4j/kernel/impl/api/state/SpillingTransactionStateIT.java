@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.io.ByteUnit;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.ExtensionCallback;
+import org.neo4j.test.extension.ImpermanentDbmsExtension;
+import org.neo4j.test.extension.Inject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ImpermanentDbmsExtension( configurationCallback = "configure" )
+class SpillingTransactionStateIT
+{
+    private static final int NODES = 20_000;
+
+    @Inject
+    private GraphDatabaseService db;
+
+    @ExtensionCallback
+    void configure( TestDatabaseManagementServiceBuilder builder )
+    {
+        builder.setConfig( GraphDatabaseInternalSettings.tx_state_values_spill_threshold, ByteUnit.mebiBytes( 1 ) );
+    }
+
+    @Test
+    void shouldCommitPropertyValuesSpilledByLargeTransaction()
+    {
+        List<Long> nodeIds = new ArrayList<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < NODES; i++ )
+            {
+                Node node = tx.createNode();
+                node.setProperty( "name", name( i ) );
+                nodeIds.add( node.getId() );
+            }
+            // The values added first are spilled by now, and read back from the spill file
+            for ( int i = 0; i < NODES; i += 100 )
+            {
+                assertEquals( name( i ), tx.getNodeById( nodeIds.get( i ) ).getProperty( "name" ) );
+            }
+            for ( int i = 0; i < NODES; i += 2 )
+            {
+                tx.getNodeById( nodeIds.get( i ) ).removeProperty( "name" );
+            }
+            tx.commit();
+        }
+
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < NODES; i++ )
+            {
+                Node node = tx.getNodeById( nodeIds.get( i ) );
+                assertEquals( i % 2 == 0 ? null : name( i ), node.getProperty( "name", null ) );
+            }
+        }
+    }
+
+    private static String name( int i )
+    {
+        return "a name long enough that twenty thousand of them take up more than a mebibyte " + i;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EphemeralTestDirectoryExtension
+class TransactionStateSpillDirectoryIT
+{
+    @Inject
+    private EphemeralFileSystemAbstraction fs;
+    @Inject
+    private TestDirectory testDirectory;
+
+    @Test
+    void shouldOnlyDeleteSpillFilesLeftBehindOnStartup() throws IOException
+    {
+        // given
+        Path spillDirectory = testDirectory.directory( "spill" );
+        Path leftBehindSpillFile = spillDirectory.resolve( ValuesSpillFile.FILE_NAME_PREFIX + "left-behind" );
+        Path otherFile = spillDirectory.resolve( "other" );
+        fs.write( leftBehindSpillFile ).close();
+        fs.write( otherFile ).close();
+
+        // when
+        DatabaseManagementService managementService = new TestDatabaseManagementServiceBuilder( testDirectory.homePath() )
+                .setFileSystem( fs )
+                .impermanent()
+                .setConfig( GraphDatabaseInternalSettings.tx_state_values_spill_threshold, ByteUnit.mebiBytes( 1 ) )
+                .setConfig( GraphDatabaseInternalSettings.tx_state_spill_directory, spillDirectory )
+                .build();
+        try
+        {
+            // then
+            assertFalse( fs.fileExists( leftBehindSpillFile ) );
+            assertTrue( fs.fileExists( otherFile ) );
+        }
+        finally
+        {
+            managementService.shutdown();
+        }
+    }
+}
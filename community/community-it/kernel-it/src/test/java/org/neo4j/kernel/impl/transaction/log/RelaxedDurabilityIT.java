@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.helpers.collection.Iterables;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.kernel.impl.coreapi.TransactionImpl;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.storageengine.api.TransactionIdStore;
+import org.neo4j.test.Race;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.DbmsController;
+import org.neo4j.test.extension.DbmsExtension;
+import org.neo4j.test.extension.ExtensionCallback;
+import org.neo4j.test.extension.Inject;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.relaxed_durability_enabled;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.relaxed_durability_flush_interval;
+import static org.neo4j.configuration.GraphDatabaseSettings.logical_log_rotation_threshold;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory;
+import static org.neo4j.io.ByteUnit.kibiBytes;
+import static org.neo4j.kernel.api.KernelTransaction.RELAXED_DURABILITY_META_DATA_KEY;
+import static org.neo4j.test.assertion.Assert.assertEventually;
+import static org.neo4j.test.conditions.Conditions.equalityCondition;
+
+@DbmsExtension( configurationCallback = "configure" )
+class RelaxedDurabilityIT
+{
+    @Inject
+    private GraphDatabaseAPI db;
+    @Inject
+    private TransactionIdStore transactionIdStore;
+    @Inject
+    private TransactionLogFlusher logFlusher;
+    @Inject
+    private PageCache pageCache;
+    @Inject
+    private LogFiles logFiles;
+    @Inject
+    private DbmsController controller;
+
+    @ExtensionCallback
+    void configure( TestDatabaseManagementServiceBuilder builder )
+    {
+        builder.setConfig( relaxed_durability_enabled, true );
+    }
+
+    @Test
+    void shouldMakeTransactionsCommittedWithRelaxedDurabilityDurableInTheBackground()
+    {
+        try ( TransactionImpl tx = (TransactionImpl) db.beginTx() )
+        {
+            tx.setRelaxedDurability( true );
+            tx.createNode();
+            tx.commit();
+        }
+        try ( InternalTransaction tx = (InternalTransaction) db.beginTx() )
+        {
+            tx.setMetaData( Map.of( RELAXED_DURABILITY_META_DATA_KEY, true ) );
+            tx.createNode();
+            tx.commit();
+        }
+
+        long lastCommittedTransactionId = transactionIdStore.getLastCommittedTransactionId();
+        assertEventually( logFlusher::getLastDurableTransactionId, equalityCondition( lastCommittedTransactionId ), 1, MINUTES );
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( 2, Iterables.count( tx.getAllNodes() ) );
+        }
+    }
+
+    @Test
+    void shouldForceTheLogBeforeWritingStorePagesChangedByTransactionsWithRelaxedDurability() throws Exception
+    {
+        // The background flush never comes around during this test, so only writing the changed store pages can force the log.
+        controller.restartDbms( builder -> builder.setConfig( relaxed_durability_flush_interval, Duration.ofHours( 1 ) ) );
+
+        try ( TransactionImpl tx = (TransactionImpl) db.beginTx() )
+        {
+            tx.setRelaxedDurability( true );
+            tx.createNode();
+            tx.commit();
+        }
+        long lastCommittedTransactionId = transactionIdStore.getLastCommittedTransactionId();
+        assertTrue( logFlusher.getLastDurableTransactionId() < lastCommittedTransactionId );
+
+        pageCache.flushAndForce();
+
+        assertEquals( lastCommittedTransactionId, logFlusher.getLastDurableTransactionId() );
+    }
+
+    @Test
+    void shouldRotateTheLogUnderPageCachePressureWhileTransactionsCommitWithRelaxedDurability() throws Throwable
+    {
+        // A small page cache makes rotation evict dirty store pages, which forces the log, while it holds the log file monitor.
+        // Committers with full durability keep taking the force lock meanwhile, and need the monitor to force the log.
+        controller.restartDbms( builder -> builder
+                .setConfig( pagecache_memory, "8m" )
+                .setConfig( logical_log_rotation_threshold, kibiBytes( 128 ) ) );
+        long initialLogVersion = logFiles.getLogFile().getHighestLogVersion();
+
+        String value = "v".repeat( 1_000 );
+        Race race = new Race();
+        race.addContestants( 4, contestant -> () ->
+        {
+            try ( TransactionImpl tx = (TransactionImpl) db.beginTx() )
+            {
+                tx.setRelaxedDurability( contestant % 2 == 0 );
+                for ( int i = 0; i < 50; i++ )
+                {
+                    tx.createNode().setProperty( "value", value );
+                }
+                tx.commit();
+            }
+        }, 100 );
+        race.go( 5, MINUTES );
+
+        assertTrue( logFiles.getLogFile().getHighestLogVersion() > initialLogVersion );
+        long lastCommittedTransactionId = transactionIdStore.getLastCommittedTransactionId();
+        assertEventually( logFlusher::getLastDurableTransactionId, equalityCondition( lastCommittedTransactionId ), 1, MINUTES );
+    }
+}
@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.impl.transaction.log.files;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledOnOs;
@@ -37,6 +38,7 @@ import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.kernel.database.DatabaseTracers;
 import org.neo4j.kernel.impl.api.TestCommandReaderFactory;
+import org.neo4j.kernel.impl.scheduler.JobSchedulerFactory;
 import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
 import org.neo4j.kernel.impl.transaction.log.LogHeaderCache;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
@@ -49,12 +51,15 @@ import org.neo4j.memory.EmptyMemoryTracker;
 import org.neo4j.monitoring.DatabaseHealth;
 import org.neo4j.monitoring.Monitors;
 import org.neo4j.monitoring.PanicEventGenerator;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StoreId;
 import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
 import org.neo4j.test.rule.TestDirectory;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FORMAT_LOG_HEADER_SIZE;
 
 @TestDirectoryExtension
@@ -67,14 +72,22 @@ class TransactionLogChannelAllocatorIT
     private FileSystemAbstraction fileSystem;
     private TransactionLogFilesHelper fileHelper;
     private TransactionLogChannelAllocator fileAllocator;
+    private JobScheduler jobScheduler;
 
     @BeforeEach
     void setUp()
     {
         fileHelper = new TransactionLogFilesHelper( fileSystem, testDirectory.homePath() );
+        jobScheduler = JobSchedulerFactory.createInitialisedScheduler();
         fileAllocator = createLogFileAllocator();
     }
 
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        jobScheduler.close();
+    }
+
     @Test
     @EnabledOnOs( OS.LINUX )
     void allocateNewTransactionLogFile() throws IOException
@@ -93,6 +106,28 @@ class TransactionLogChannelAllocatorIT
         }
     }
 
+    @Test
+    @EnabledOnOs( OS.LINUX )
+    void allocateNewTransactionLogFileFromFilePreallocatedInBackground() throws IOException
+    {
+        TransactionLogChannelAllocator fileAllocator = createLogFileAllocator( true );
+        Path preallocatedFile = fileHelper.getPreallocatedLogFile();
+        fileAllocator.createLogChannel( 10, () -> 1L ).close();
+        fileAllocator.awaitPreallocation();
+        assertEquals( ROTATION_THRESHOLD, fileSystem.getFileSize( preallocatedFile ) );
+
+        try ( PhysicalLogVersionedStoreChannel logChannel = fileAllocator.createLogChannel( 11, () -> 1L ) )
+        {
+            assertEquals( ROTATION_THRESHOLD, logChannel.size() );
+            assertEquals( 11, logChannel.getVersion() );
+        }
+        fileAllocator.awaitPreallocation();
+        assertTrue( fileSystem.fileExists( preallocatedFile ) );
+
+        fileAllocator.close();
+        assertFalse( fileSystem.fileExists( preallocatedFile ) );
+    }
+
     @Test
     void openExistingFileDoesNotPerformAnyAllocations() throws IOException
     {
@@ -107,11 +142,16 @@ class TransactionLogChannelAllocatorIT
     }
 
     private TransactionLogChannelAllocator createLogFileAllocator()
+    {
+        return createLogFileAllocator( false );
+    }
+
+    private TransactionLogChannelAllocator createLogFileAllocator( boolean preallocateInBackground )
     {
         LogHeaderCache logHeaderCache = new LogHeaderCache( 10 );
         var logFileContext = createLogFileContext();
         var nativeChannelAccessor = new LogFileChannelNativeAccessor( fileSystem, logFileContext );
-        return new TransactionLogChannelAllocator( logFileContext, fileHelper, logHeaderCache, nativeChannelAccessor );
+        return new TransactionLogChannelAllocator( logFileContext, fileHelper, logHeaderCache, nativeChannelAccessor, preallocateInBackground );
     }
 
     private TransactionLogFilesContext createLogFileContext()
@@ -122,6 +162,6 @@ class TransactionLogChannelAllocatorIT
                 SimpleLogVersionRepository::new, fileSystem, NullLogProvider.getInstance(), DatabaseTracers.EMPTY, () -> StoreId.UNKNOWN,
                 NativeAccessProvider.getNativeAccess(), EmptyMemoryTracker.INSTANCE, new Monitors(), true,
                 new DatabaseHealth( PanicEventGenerator.NO_OP, NullLog.getInstance() ), TransactionLogVersionSelector.LATEST::version,
-                Clock.systemUTC(), Config.defaults() );
+                Clock.systemUTC(), Config.defaults(), jobScheduler );
     }
 }
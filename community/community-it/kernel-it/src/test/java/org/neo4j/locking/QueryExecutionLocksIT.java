@@ -778,6 +778,18 @@ class QueryExecutionLocksIT
             return internal.getMetaData();
         }
 
+        @Override
+        public void setRelaxedDurability( boolean relaxedDurability )
+        {
+            internal.setRelaxedDurability( relaxedDurability );
+        }
+
+        @Override
+        public boolean isRelaxedDurability()
+        {
+            return internal.isRelaxedDurability();
+        }
+
         @Override
         public void assertOpen()
         {
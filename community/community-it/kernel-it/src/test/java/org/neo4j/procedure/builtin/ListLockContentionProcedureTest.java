@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.procedure.builtin;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.helpers.collection.Iterators;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.DbmsExtension;
+import org.neo4j.test.extension.ExtensionCallback;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.rule.concurrent.ThreadingExtension;
+import org.neo4j.test.rule.concurrent.ThreadingRule;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.graphdb.Label.label;
+import static org.neo4j.test.assertion.Assert.assertEventually;
+import static org.neo4j.test.rule.concurrent.ThreadingRule.waitingWhileIn;
+
+@DbmsExtension( configurationCallback = "configure" )
+@ExtendWith( ThreadingExtension.class )
+class ListLockContentionProcedureTest
+{
+    private static final String QUERY = "MATCH (n:Hot) REMOVE n.p";
+
+    @Inject
+    private GraphDatabaseService db;
+    @Inject
+    private ThreadingRule threads;
+
+    @ExtensionCallback
+    void configure( TestDatabaseManagementServiceBuilder builder )
+    {
+        builder.setConfig( GraphDatabaseInternalSettings.lock_contention_profiler_sample_interval, Duration.ofMillis( 10 ) );
+    }
+
+    @Test
+    void shouldListResourcesAndQueriesWaitedFor() throws Exception
+    {
+        Node node;
+        try ( Transaction tx = db.beginTx() )
+        {
+            node = tx.createNode( label( "Hot" ) );
+            tx.commit();
+        }
+        CountDownLatch nodeLocked = new CountDownLatch( 1 );
+        CountDownLatch releaseNode = new CountDownLatch( 1 );
+        threads.execute( parameter ->
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                tx.acquireWriteLock( tx.getNodeById( node.getId() ) );
+                nodeLocked.countDown();
+                releaseNode.await();
+            }
+            return null;
+        }, null );
+        nodeLocked.await();
+
+        Future<Object> waiting = threads.executeAndAwait( parameter ->
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                tx.execute( QUERY ).close();
+                tx.commit();
+            }
+            return null;
+        }, null, waitingWhileIn( Locks.Client.class, "acquireExclusive" ), 60, SECONDS );
+
+        assertEventually( () -> listLockContention( "QUERY" ), rows -> rows.stream().anyMatch( row -> QUERY.equals( row.get( "query" ) ) ),
+                60, SECONDS );
+        releaseNode.countDown();
+        waiting.get();
+
+        Map<String,Object> resourceType = Iterators.single( listLockContention( "RESOURCE_TYPE" ).iterator() );
+        assertThat( resourceType ).containsEntry( "database", db.databaseName() ).containsEntry( "resourceType", "NODE" ).containsEntry( "waits", 1L );
+        assertThat( listLockContention( "RESOURCE" ) ).anySatisfy( row ->
+                assertThat( row ).containsEntry( "resourceType", "NODE" ).containsEntry( "resourceId", node.getId() ).containsEntry( "waits", 1L ) );
+    }
+
+    private List<Map<String,Object>> listLockContention( String kind )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            return Iterators.asList( tx.execute( "CALL dbms.listLockContention() YIELD database, kind, resourceType, resourceId, query, waits " +
+                    "WHERE kind = $kind RETURN database, resourceType, resourceId, query, waits", Map.of( "kind", kind ) ) );
+        }
+    }
+}
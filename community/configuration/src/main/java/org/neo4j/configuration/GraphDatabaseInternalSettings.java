@@ -21,9 +21,11 @@ package org.neo4j.configuration;
 
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.List;
 
 import org.neo4j.annotations.service.ServiceProvider;
 import org.neo4j.graphdb.config.Setting;
+import org.neo4j.io.pagecache.impl.muninn.EvictionPolicy;
 import org.neo4j.logging.FormattedLogFormat;
 
 import static java.time.Duration.ofMillis;
@@ -42,6 +44,7 @@ import static org.neo4j.configuration.SettingValueParsers.INT;
 import static org.neo4j.configuration.SettingValueParsers.LONG;
 import static org.neo4j.configuration.SettingValueParsers.PATH;
 import static org.neo4j.configuration.SettingValueParsers.STRING;
+import static org.neo4j.configuration.SettingValueParsers.listOf;
 import static org.neo4j.configuration.SettingValueParsers.ofEnum;
 import static org.neo4j.io.ByteUnit.kibiBytes;
 import static org.neo4j.io.ByteUnit.mebiBytes;
@@ -527,4 +530,167 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     @Description( "Whether or not to dump system and database diagnostics. This takes a non-negligible amount of time to do and therefore " +
             "test databases can disable this to reduce startup times" )
     public static final Setting<Boolean> dump_diagnostics = newBuilder( "unsupported.dbms.dump_diagnostics", BOOL, Boolean.TRUE ).build();
+
+    @Internal
+    @Description( "The policy the page cache uses for choosing which pages to evict. 'CLOCK' sweeps all pages with a single clock arm. " +
+            "'SCAN_RESISTANT' first evicts pages that have not been accessed again since they were faulted in, such as the pages touched by " +
+            "a large scan, so that such scans do not push the hot working set out of the page cache." )
+    public static final Setting<EvictionPolicy> pagecache_eviction_policy =
+            newBuilder( "unsupported.dbms.memory.pagecache.eviction_policy", ofEnum( EvictionPolicy.class ), EvictionPolicy.CLOCK ).build();
+
+    @Internal
+    @Description( "Caps on how large a part of the page cache the pages of individual files may occupy. Each entry is on the form " +
+            "'<glob>=<percentage>', where the glob is matched against the file name, for instance 'neostore.propertystore.db.strings=10'. " +
+            "The first matching entry applies. A file that has reached its cap evicts its own pages to make room for new ones, " +
+            "which keeps the working set of other files in the page cache. Files that match no entry can use the whole page cache." )
+    public static final Setting<List<String>> pagecache_file_quotas =
+            newBuilder( "unsupported.dbms.memory.pagecache.file_quotas", listOf( STRING ), List.of() ).build();
+
+    @Internal
+    @Description( "Allocate the page cache memory in huge page aligned chunks, and advise the operating system to back it with transparent huge pages. " +
+            "This reduces the number of TLB misses when the page cache is accessed randomly. Transparent huge pages must be enabled in at least " +
+            "the 'madvise' mode for this to have any effect. This is currently only supported on Linux." )
+    public static final Setting<Boolean> pagecache_huge_pages = newBuilder( "unsupported.dbms.memory.pagecache.huge_pages", BOOL, false ).build();
+
+    @Internal
+    @Description( "Open every file mapped by the page cache with direct I/O when possible, and not only the stores of the record formats that use " +
+            "platform aligned page size. The pages of those files are then only cached by the page cache, and not also by the operating system. " +
+            "This is only possible on Linux, for files whose page size is a multiple of the file system block size, on file systems that support " +
+            "direct I/O. Other files, and files that are compressed, are read and written as usual." )
+    public static final Setting<Boolean> pagecache_prefer_direct_io =
+            newBuilder( "unsupported.dbms.memory.pagecache.directio.all_files", BOOL, false ).build();
+
+    @Internal
+    @Description( "Profile which pages of the database files are resident in the page cache, and load those pages back in when the database " +
+            "starts. The profiles are written to the 'profiles' directory of the database, as one '<file name>.cacheprof' file per mapped " +
+            "file, every 'dbms.memory.pagecache.warmup.profile.interval'. The start of the database waits for the pages to be loaded. " +
+            "This also requires 'dbms.memory.pagecache.warmup.enable'." )
+    public static final Setting<Boolean> pagecache_warmer_enabled =
+            newBuilder( "unsupported.dbms.memory.pagecache.warmer.enabled", BOOL, false ).build();
+
+    @Internal
+    @Description( "Write old dirty pages back to their files in the background, between checkpoints. This spreads the writing of dirty pages out " +
+            "over time, so that checkpoints have less to flush, and page faulting threads are less likely to have to evict dirty pages." )
+    public static final Setting<Boolean> pagecache_write_back_enabled =
+            newBuilder( "unsupported.dbms.memory.pagecache.write_back.enabled", BOOL, false ).build();
+
+    @Internal
+    @Description( "The fraction of the pages in the page cache that may be dirty before the background write-back starts writing old dirty pages " +
+            "back to their files." )
+    public static final Setting<Double> pagecache_write_back_dirty_ratio =
+            newBuilder( "unsupported.dbms.memory.pagecache.write_back.dirty_ratio", DOUBLE, 0.1 ).addConstraint( range( 0.0, 1.0 ) ).build();
+
+    @Internal
+    @Description( "The maximum number of pages the background write-back writes per second. Nothing is written back while a checkpoint, " +
+            "or any other flush, is in progress, since those are paced by their own IO limit." )
+    public static final Setting<Integer> pagecache_write_back_max_pages_per_second =
+            newBuilder( "unsupported.dbms.memory.pagecache.write_back.max_pages_per_second", INT, 1000 ).addConstraint( min( 1 ) ).build();
+
+    @Internal
+    @Description( "Compress the pages of the files whose names match any of these globs with zstd, when they are written to disk. " +
+            "The pages stay uncompressed in the page cache. A file that has been opened with compression gets a marker file next to it, " +
+            "with the '.compressed' suffix, and stays compressed regardless of this setting for as long as the marker exists. " +
+            "Files opened with direct IO are not compressed, and compressed files cannot be opened with direct IO." )
+    public static final Setting<List<String>> pagecache_compressed_files =
+            newBuilder( "unsupported.dbms.memory.pagecache.compressed_files", listOf( STRING ), List.of() ).build();
+
+    @Internal
+    @Description( "Commit batches of more than this many transactions in groups of this size, where the next group is appended to and forced " +
+            "in the transaction log while the previous group is being applied to the store. The groups are still applied one after another, in " +
+            "transaction id order. Transactions committed one at a time are not affected. Zero, the default, commits every batch as a whole." )
+    public static final Setting<Integer> pipelined_commit_group_size =
+            newBuilder( "unsupported.dbms.tx_log.pipelined_commit_group_size", INT, 0 ).addConstraint( min( 0 ) ).build();
+
+    @Internal
+    @Description( "Preallocate the space of the next transaction log file in the background, so that log rotation only has to move the " +
+            "preallocated file into place, instead of allocating the space while committing transactions wait. Only has an effect when " +
+            "`dbms.tx_log.preallocate` is enabled." )
+    public static final Setting<Boolean> preallocate_logical_logs_in_background =
+            newBuilder( "unsupported.dbms.tx_log.preallocate_in_background", BOOL, false ).build();
+
+    @Internal
+    @Description( "Write the commands of each transaction to the transaction log as one block compressed with zstd. This makes the " +
+            "transaction logs smaller, at the cost of compressing on commit and decompressing on read. Transaction logs written with this " +
+            "enabled can only be read by versions that support the compressed log entry format." )
+    public static final Setting<Boolean> compress_transaction_log_commands =
+            newBuilder( "unsupported.dbms.tx_log.compress_commands", BOOL, false ).build();
+
+    @Internal
+    @Description( "Index the position of every N:th transaction in the transaction log files, in a file written next to each log file when it " +
+            "is rotated. Looking up transactions from a given id, like catch-up and backup do, can then start reading the log file close to " +
+            "the transaction, instead of at the start of the log file. Zero, the default, disables the index." )
+    public static final Setting<Integer> transaction_log_index_interval =
+            newBuilder( "unsupported.dbms.tx_log.index_interval", INT, 0 ).addConstraint( min( 0 ) ).build();
+
+    @Internal
+    @Description( "Let transactions ask to commit with relaxed durability, without waiting for the transaction log to be forced. When disabled, " +
+            "such transactions commit with full durability. When enabled, store pages are written to their files under exclusive page locks, " +
+            "after forcing the log past the transactions that may have changed them, which blocks concurrent writers to those pages for longer." )
+    public static final Setting<Boolean> relaxed_durability_enabled =
+            newBuilder( "unsupported.dbms.tx_log.relaxed_durability_enabled", BOOL, false ).build();
+
+    @Internal
+    @Description( "The maximum time that transactions committed with relaxed durability, which do not wait for the transaction log to be forced " +
+            "when committing, are kept in the log buffer before the log is forced in the background. A crash within this time may lose them." )
+    public static final Setting<Duration> relaxed_durability_flush_interval =
+            newBuilder( "unsupported.dbms.tx_log.relaxed_durability_flush_interval", DURATION, ofMillis( 100 ) )
+                    .addConstraint( min( ofMillis( 1 ) ) ).build();
+
+    @Internal
+    @Description( "Serialize the commands of committing transactions into pooled off-heap buffers before appending them to the transaction log, " +
+            "so that appending them, which is done one batch of transactions at a time, only copies their bytes into the log. This keeps large " +
+            "transactions from holding up the small transactions committing after them." )
+    public static final Setting<Boolean> pre_serialize_transaction_commands =
+            newBuilder( "unsupported.dbms.tx_log.pre_serialize_commands", BOOL, false ).build();
+
+    @Internal
+    @Description( "The number of transactions that recovery reads and decodes from the transaction log ahead of the transaction it applies to the " +
+            "store, in a background job. Zero, the default, reads each transaction just before it is applied." )
+    public static final Setting<Integer> recovery_read_ahead_transactions =
+            newBuilder( "unsupported.dbms.recovery.read_ahead_transactions", INT, 0 ).addConstraint( min( 0 ) ).build();
+
+    @Internal
+    @Description( "Make every checkpoint in two steps. The first flushes the store and records a checkpoint for the transactions that were " +
+            "closed when it started. The second chooses its position after that, so it covers the transactions committed while the first flush " +
+            "ran, and only has to write the pages they dirtied. If the database stops during the second flush, recovery starts from the first " +
+            "checkpoint instead of the one before it. This keeps the distance recovery has to replay short when checkpoints take a long time." )
+    public static final Setting<Boolean> checkpoint_pre_flush =
+            newBuilder( "unsupported.dbms.checkpoint.pre_flush", BOOL, false ).build();
+
+    @Internal
+    @Description( "Use a lock service backed by striped, open-addressed tables for the node and relationship locks taken while applying " +
+            "committed transactions to the store, rather than one that allocates a queue element per lock and synchronizes on it." )
+    public static final Setting<Boolean> striped_record_lock_service =
+            newBuilder( "unsupported.dbms.record_lock_service.striped", BOOL, false ).build();
+
+    @Internal
+    @Description( "Profile the lock waits of each database: the number of waits and the time spent waiting, per resource type, for the most " +
+            "contended resources, and for the queries most often found waiting for locks. The profile is listed by dbms.listLockContention." )
+    public static final Setting<Boolean> lock_contention_profiler =
+            newBuilder( "unsupported.dbms.lock_contention_profiler.enabled", BOOL, true ).build();
+
+    @Internal
+    @Description( "How often the lock contention profiler samples the queries waiting for locks." )
+    public static final Setting<Duration> lock_contention_profiler_sample_interval =
+            newBuilder( "unsupported.dbms.lock_contention_profiler.sample_interval", DURATION, ofMillis( 100 ) )
+                    .addConstraint( min( ofMillis( 1 ) ) ).build();
+
+    @Internal
+    @Description( "The number of resources, and of queries, the lock contention profiler keeps track of. When that many are tracked, the " +
+            "least contended one is forgotten to make room for a new one." )
+    public static final Setting<Integer> lock_contention_profiler_tracked_entries =
+            newBuilder( "unsupported.dbms.lock_contention_profiler.tracked_entries", INT, 1000 ).addConstraint( min( 1 ) ).build();
+
+    @Internal
+    @Description( "Spill the oldest property values of a transaction to a temporary file once the values of the transaction take up more than " +
+            "this much off-heap memory, so that the memory used by a large transaction stays bounded. Zero, the default, keeps all values in " +
+            "memory. Only used when dbms.tx_state.memory_allocation is OFF_HEAP." )
+    public static final Setting<Long> tx_state_values_spill_threshold =
+            newBuilder( "unsupported.dbms.tx_state.values_spill_threshold", BYTES, 0L ).addConstraint( min( 0L ) ).build();
+
+    @Internal
+    @Description( "The directory that the property values of transactions are spilled to." )
+    public static final Setting<Path> tx_state_spill_directory =
+            newBuilder( "unsupported.dbms.directories.tx_state_spill", PATH, Path.of( "tx-state-spill" ) )
+                    .setDependency( GraphDatabaseSettings.data_directory ).immutable().build();
 }
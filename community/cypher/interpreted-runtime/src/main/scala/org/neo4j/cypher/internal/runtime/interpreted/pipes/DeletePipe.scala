@@ -60,6 +60,8 @@ case class DeletePipe(src: Pipe, expression: Expression, forced: Boolean)
     if (!state.query.relationshipOps.isDeletedInThisTx(r.id())) state.query.relationshipOps.delete(r.id())
 
   private def deletePath(p: PathValue, state: QueryState): Unit = {
+    // Lock the nodes of the path up front, all at once and in id order, rather than one at a time in path order
+    state.query.lockNodes(p.nodes().map(_.id()).filterNot(state.query.nodeOps.isDeletedInThisTx): _*)
     val entities = p.asList().iterator()
     while (entities.hasNext) {
        entities.next() match {
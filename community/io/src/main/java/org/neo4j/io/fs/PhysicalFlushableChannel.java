@@ -136,6 +136,20 @@ public class PhysicalFlushableChannel implements FlushableChannel
         return this;
     }
 
+    @Override
+    public FlushableChannel putAll( ByteBuffer src ) throws IOException
+    {
+        int limit = src.limit();
+        while ( src.position() < limit )
+        {
+            int chunkSize = min( limit - src.position(), buffer.capacity() >> 1 );
+            src.limit( src.position() + chunkSize );
+            bufferWithGuaranteedSpace( chunkSize ).put( src );
+            src.limit( limit );
+        }
+        return this;
+    }
+
     /**
      * External synchronization between this method and emptyBufferIntoChannelAndClearIt is required so that they
      * aren't called concurrently. Currently that's done by acquiring the PhysicalLogFile monitor.
@@ -20,6 +20,7 @@
 package org.neo4j.io.fs;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Represents an infinite channel to write primitive data to.
@@ -89,4 +90,23 @@ public interface WritableChannel
      * @throws IOException if I/O error occurs.
      */
     WritableChannel put( byte[] value, int length ) throws IOException;
+
+    /**
+     * Writes all remaining bytes of a {@link ByteBuffer} to this channel, leaving the position of the buffer at its limit.
+     *
+     * @param src buffer to write the remaining bytes of.
+     * @return this channel, for fluent usage.
+     * @throws IOException if I/O error occurs.
+     */
+    default WritableChannel putAll( ByteBuffer src ) throws IOException
+    {
+        byte[] chunk = new byte[Math.min( src.remaining(), 4096 )];
+        while ( src.hasRemaining() )
+        {
+            int length = Math.min( src.remaining(), chunk.length );
+            src.get( chunk, 0, length );
+            put( chunk, length );
+        }
+        return this;
+    }
 }
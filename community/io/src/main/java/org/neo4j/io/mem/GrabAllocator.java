@@ -19,21 +19,30 @@
  */
 package org.neo4j.io.mem;
 
+import org.neo4j.internal.nativeimpl.NativeAccessProvider;
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.memory.MemoryTracker;
 
 import java.lang.ref.Cleaner;
 
 import static org.neo4j.io.ByteUnit.kibiBytes;
+import static org.neo4j.io.ByteUnit.mebiBytes;
 import static org.neo4j.util.FeatureToggles.getInteger;
 
 /**
  * This memory allocator is allocating memory in large segments, called "grabs", and the memory returned by the memory
  * manager is page aligned, and plays well with transparent huge pages and other operating system optimisations.
+ * <p>
+ * When asked to use huge pages, the grabs are made larger and aligned to huge page boundaries, and the operating system is advised to back them
+ * with transparent huge pages. This needs transparent huge pages to be enabled in at least the "madvise" mode.
  */
 public final class GrabAllocator implements MemoryAllocator
 {
     private static final Cleaner globalCleaner = globalCleaner();
+    /**
+     * The size of transparent huge pages, which is 2 MiB on the platforms we run on.
+     */
+    private static final long HUGE_PAGE_SIZE = mebiBytes( 2 );
 
     private final Grabs grabs;
     private final Cleaner.Cleanable cleanable;
@@ -45,10 +54,11 @@ public final class GrabAllocator implements MemoryAllocator
      * @param expectedMaxMemory The maximum amount of memory that this memory manager is expected to allocate. The
      * actual amount of memory used can end up greater than this value, if some of it gets wasted on alignment padding.
      * @param memoryTracker memory usage tracker
+     * @param hugePages {@code true} if the allocated memory should be backed by transparent huge pages.
      */
-    GrabAllocator( long expectedMaxMemory, MemoryTracker memoryTracker )
+    GrabAllocator( long expectedMaxMemory, MemoryTracker memoryTracker, boolean hugePages )
     {
-        this.grabs = new Grabs( expectedMaxMemory, memoryTracker );
+        this.grabs = new Grabs( expectedMaxMemory, memoryTracker, hugePages );
         this.cleanable = globalCleaner.register( this, new GrabsDeallocator( grabs ) );
     }
 
@@ -80,23 +90,37 @@ public final class GrabAllocator implements MemoryAllocator
     {
         public final Grab next;
         private final long address;
+        private final long allocatedSize;
         private final long limit;
         private final MemoryTracker memoryTracker;
         private long nextPointer;
 
-        Grab( Grab next, long size, MemoryTracker memoryTracker )
+        Grab( Grab next, long size, MemoryTracker memoryTracker, boolean hugePages )
         {
             this.next = next;
-            this.address = UnsafeUtil.allocateMemory( size, memoryTracker );
-            this.limit = address + size;
             this.memoryTracker = memoryTracker;
-            nextPointer = address;
+            if ( hugePages )
+            {
+                // Over-allocate, so the usable part of the grab can start at a huge page boundary.
+                this.allocatedSize = size + HUGE_PAGE_SIZE;
+                this.address = UnsafeUtil.allocateMemory( allocatedSize, memoryTracker );
+                nextPointer = nextAligned( address, HUGE_PAGE_SIZE );
+                NativeAccessProvider.getNativeAccess().tryAdviseHugePages( nextPointer, size );
+            }
+            else
+            {
+                this.allocatedSize = size;
+                this.address = UnsafeUtil.allocateMemory( size, memoryTracker );
+                nextPointer = address;
+            }
+            this.limit = nextPointer + size;
         }
 
-        Grab( Grab next, long address, long limit, long nextPointer, MemoryTracker memoryTracker )
+        Grab( Grab next, long address, long allocatedSize, long limit, long nextPointer, MemoryTracker memoryTracker )
         {
             this.next = next;
             this.address = address;
+            this.allocatedSize = allocatedSize;
             this.limit = limit;
             this.nextPointer = nextPointer;
             this.memoryTracker = memoryTracker;
@@ -125,7 +149,7 @@ public final class GrabAllocator implements MemoryAllocator
 
         void free()
         {
-            UnsafeUtil.free( address, limit - address, memoryTracker );
+            UnsafeUtil.free( address, allocatedSize, memoryTracker );
         }
 
         boolean canAllocate( long bytes, long alignment )
@@ -135,13 +159,13 @@ public final class GrabAllocator implements MemoryAllocator
 
         Grab setNext( Grab grab )
         {
-            return new Grab( grab, address, limit, nextPointer, memoryTracker );
+            return new Grab( grab, address, allocatedSize, limit, nextPointer, memoryTracker );
         }
 
         @Override
         public String toString()
         {
-            long size = limit - address;
+            long size = allocatedSize;
             long reserve = nextPointer > limit ? 0 : limit - nextPointer;
             double use = (1.0 - reserve / ((double) size)) * 100.0;
             return String.format( "Grab[size = %d bytes, reserve = %d bytes, use = %5.2f %%]", size, reserve, use );
@@ -154,15 +178,24 @@ public final class GrabAllocator implements MemoryAllocator
          * The amount of memory, in bytes, to grab in each Grab.
          */
         private static final long GRAB_SIZE = getInteger( GrabAllocator.class, "GRAB_SIZE", (int) kibiBytes( 512 ) );
+        /**
+         * The amount of memory, in bytes, to grab in each Grab when using huge pages. This is larger than the normal grab size, because every grab
+         * spends up to one huge page on alignment.
+         */
+        private static final long HUGE_PAGES_GRAB_SIZE = getInteger( GrabAllocator.class, "HUGE_PAGES_GRAB_SIZE", (int) mebiBytes( 32 ) );
 
         private final MemoryTracker memoryTracker;
+        private final boolean hugePages;
+        private final long grabSize;
         private long expectedMaxMemory;
         private Grab head;
 
-        Grabs( long expectedMaxMemory, MemoryTracker memoryTracker )
+        Grabs( long expectedMaxMemory, MemoryTracker memoryTracker, boolean hugePages )
         {
             this.expectedMaxMemory = expectedMaxMemory;
             this.memoryTracker = memoryTracker;
+            this.hugePages = hugePages;
+            this.grabSize = hugePages ? HUGE_PAGES_GRAB_SIZE : GRAB_SIZE;
         }
 
         long usedMemory()
@@ -206,19 +239,19 @@ public final class GrabAllocator implements MemoryAllocator
             {
                 throw new IllegalArgumentException( "Invalid alignment: " + alignment + ". Alignment must be positive." );
             }
-            long grabSize = Math.min( GRAB_SIZE, expectedMaxMemory );
+            long grabSize = Math.min( this.grabSize, expectedMaxMemory );
             long maxAllocationSize = bytes + alignment - 1;
-            if ( maxAllocationSize > GRAB_SIZE )
+            if ( maxAllocationSize > this.grabSize )
             {
                 // This is a huge allocation. Put it in its own grab and keep any existing grab at the head.
                 grabSize = bytes;
                 Grab nextGrab = head == null ? null : head.next;
-                Grab allocationGrab = new Grab( nextGrab, grabSize, memoryTracker );
+                Grab allocationGrab = new Grab( nextGrab, grabSize, memoryTracker, hugePages );
                 if ( !allocationGrab.canAllocate( bytes, alignment ) )
                 {
                     allocationGrab.free();
                     grabSize = maxAllocationSize;
-                    allocationGrab = new Grab( nextGrab, grabSize, memoryTracker );
+                    allocationGrab = new Grab( nextGrab, grabSize, memoryTracker, hugePages );
                 }
                 long allocation = allocationGrab.allocate( bytes, alignment );
                 head = head == null ? allocationGrab : head.setNext( allocationGrab );
@@ -231,7 +264,7 @@ public final class GrabAllocator implements MemoryAllocator
                 if ( grabSize < maxAllocationSize )
                 {
                     grabSize = bytes;
-                    Grab grab = new Grab( head, grabSize, memoryTracker );
+                    Grab grab = new Grab( head, grabSize, memoryTracker, hugePages );
                     if ( grab.canAllocate( bytes, alignment ) )
                     {
                         expectedMaxMemory -= grabSize;
@@ -241,7 +274,7 @@ public final class GrabAllocator implements MemoryAllocator
                     grab.free();
                     grabSize = maxAllocationSize;
                 }
-                head = new Grab( head, grabSize, memoryTracker );
+                head = new Grab( head, grabSize, memoryTracker, hugePages );
                 expectedMaxMemory -= grabSize;
             }
             return head.allocate( bytes, alignment );
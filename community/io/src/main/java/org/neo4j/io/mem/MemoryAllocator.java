@@ -28,7 +28,18 @@ public interface MemoryAllocator
 {
     static MemoryAllocator createAllocator( long expectedMemory, MemoryTracker memoryTracker )
     {
-        return new GrabAllocator( expectedMemory, memoryTracker );
+        return createAllocator( expectedMemory, memoryTracker, false );
+    }
+
+    /**
+     * @param expectedMemory the amount of memory that is expected to be allocated.
+     * @param memoryTracker the tracker of the allocated memory.
+     * @param hugePages {@code true} if the allocated memory should be backed by transparent huge pages, when the operating system supports it.
+     * @return a new allocator.
+     */
+    static MemoryAllocator createAllocator( long expectedMemory, MemoryTracker memoryTracker, boolean hugePages )
+    {
+        return new GrabAllocator( expectedMemory, memoryTracker, hugePages );
     }
 
     /**
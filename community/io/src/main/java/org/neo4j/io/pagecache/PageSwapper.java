@@ -179,4 +179,22 @@ public interface PageSwapper
      * @param newFileSize The new size of the file; following this call, the file system may anticipate to receive IOs in this range.
      */
     void allocate( long newFileSize ) throws IOException;
+
+    /**
+     * Send a hint to the file system that the given range of pages will be read in the near future.
+     * The file system may then start reading the range in asynchronously, so that subsequent calls to {@link #read(long, long)} for pages in the range
+     * will not have to wait for the storage device. This is only a hint, and implementations are free to ignore it.
+     * @param startFilePageId The file page id of the first page in the range.
+     * @param pageCount The number of pages in the range.
+     */
+    void readAhead( long startFilePageId, int pageCount );
+
+    /**
+     * Send a hint to the file system that it may start writing out the given range of recently written pages to the storage device, without waiting
+     * for the write-out to complete. This does not make the pages durable; {@link #force()} must still be called for that, but will then have less work
+     * left to do. This is only a hint, and implementations are free to ignore it.
+     * @param startFilePageId The file page id of the first page in the range.
+     * @param pageCount The number of pages in the range.
+     */
+    void startWriteBack( long startFilePageId, int pageCount );
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache;
+
+import java.io.IOException;
+
+import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
+
+/**
+ * Lets the owner of mapped files enforce write-ahead logging on them. The page cache goes through the barrier of a file, as given by the
+ * {@link VersionContextSupplier} it was mapped with, every time it is about to write modified pages of the file. The pages are locked
+ * exclusively at that point, so the barrier can make the log records of all changes in them durable before they reach the file.
+ */
+@FunctionalInterface
+public interface PageWriteBarrier
+{
+    /**
+     * Barrier of files that have no write-ahead log to wait for. Pages of those files are written under flush locks, which do not block
+     * concurrent writers.
+     */
+    PageWriteBarrier NONE = () ->
+    {
+    };
+
+    /**
+     * Called before modified pages are written to their file.
+     *
+     * @throws IOException if the changes in the pages could not be made durable, in which case the pages are not written and stay modified.
+     */
+    void beforePageWrite() throws IOException;
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.util.FeatureToggles;
+
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+/**
+ * A PageSwapper that compresses pages with zstd when they are written to the underlying PageSwapper, and decompresses them when they are
+ * read back in. The pages in the page cache are never compressed.
+ * <p>
+ * Every page keeps its place in the file, so no mapping table is needed. A compressed page is stored at the start of its place in the file, as
+ * a header with a magic number and the compressed length, followed by the zstd frame. Only that part, rounded up to the write alignment, is
+ * written, which is where the IO is saved. The rest of the place of the page in the file is left as it is, and is ignored when the page is read.
+ * Pages that do not compress well enough to save at least one unit of the write alignment are stored as they are.
+ * <p>
+ * A page that is stored as it is could in theory start with the same bytes as the header of a compressed page. It is then only treated as a
+ * compressed page if its contents also decompress to exactly one page, and otherwise read as it is.
+ */
+final class CompressingPageSwapper implements PageSwapper
+{
+    static final int MAGIC = 0x5A535450;
+    static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private static final int COMPRESSION_LEVEL = FeatureToggles.getInteger( CompressingPageSwapper.class, "compressionLevel", 3 );
+    private static final int WRITE_ALIGNMENT = FeatureToggles.getInteger( CompressingPageSwapper.class, "writeAlignment", 4096 );
+    private static final ThreadLocal<ByteBuffer> PROXY_CACHE = new ThreadLocal<>();
+
+    private final PageSwapper delegate;
+    private final int filePageSize;
+    private final FileSystemAbstraction fs;
+    private final Path compressionMarker;
+    private final int scratchBufferSize;
+    // Buffers for compressed pages, that are taken by the threads doing IO, and given back when they are done.
+    private final ConcurrentLinkedQueue<ByteBuffer> scratchBuffers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param compressionMarker the marker file of the file of the delegate, which is deleted together with the file.
+     */
+    CompressingPageSwapper( PageSwapper delegate, int filePageSize, FileSystemAbstraction fs, Path compressionMarker )
+    {
+        this.delegate = delegate;
+        this.filePageSize = filePageSize;
+        this.fs = fs;
+        this.compressionMarker = compressionMarker;
+        this.scratchBufferSize = (int) Math.max( filePageSize, HEADER_SIZE + Zstd.compressBound( filePageSize ) );
+    }
+
+    @Override
+    public long read( long filePageId, long bufferAddress ) throws IOException
+    {
+        return read( filePageId, bufferAddress, filePageSize );
+    }
+
+    @Override
+    public long read( long filePageId, long bufferAddress, int bufferLength ) throws IOException
+    {
+        long bytesRead = delegate.read( filePageId, bufferAddress, bufferLength );
+        if ( bytesRead > HEADER_SIZE )
+        {
+            ByteBuffer scratch = takeScratchBuffer();
+            try
+            {
+                decompressInPlace( bufferAddress, bufferLength, scratch );
+            }
+            finally
+            {
+                scratchBuffers.offer( scratch );
+            }
+        }
+        return bytesRead;
+    }
+
+    @Override
+    public long read( long startFilePageId, long[] bufferAddresses, int[] bufferLengths, int length ) throws IOException
+    {
+        long bytesRead = delegate.read( startFilePageId, bufferAddresses, bufferLengths, length );
+        if ( bytesRead > 0 )
+        {
+            ByteBuffer scratch = takeScratchBuffer();
+            try
+            {
+                for ( int i = 0; i < length; i++ )
+                {
+                    decompressInPlace( bufferAddresses[i], bufferLengths[i], scratch );
+                }
+            }
+            finally
+            {
+                scratchBuffers.offer( scratch );
+            }
+        }
+        return bytesRead;
+    }
+
+    @Override
+    public long write( long filePageId, long bufferAddress ) throws IOException
+    {
+        return write( filePageId, bufferAddress, filePageSize );
+    }
+
+    @Override
+    public long write( long filePageId, long bufferAddress, int bufferLength ) throws IOException
+    {
+        if ( bufferLength > filePageSize )
+        {
+            return delegate.write( filePageId, bufferAddress, bufferLength );
+        }
+        ByteBuffer scratch = takeScratchBuffer();
+        try
+        {
+            int compressedLength = compress( bufferAddress, bufferLength, scratch );
+            if ( compressedLength == -1 )
+            {
+                return delegate.write( filePageId, bufferAddress, bufferLength );
+            }
+            // The last page of the file is written in full, so the file keeps being a whole number of pages long.
+            int writeLength = filePageId >= delegate.getLastPageId() ? bufferLength : compressedLength;
+            return delegate.write( filePageId, UnsafeUtil.getDirectByteBufferAddress( scratch ), writeLength );
+        }
+        finally
+        {
+            scratchBuffers.offer( scratch );
+        }
+    }
+
+    @Override
+    public long write( long startFilePageId, long[] bufferAddresses, int[] bufferLengths, int length, int totalAffectedPages ) throws IOException
+    {
+        // The compressed pages are not contiguous in the file, so they are written one by one.
+        long bytesWritten = 0;
+        for ( int i = 0; i < length; i++ )
+        {
+            bytesWritten += write( startFilePageId + i, bufferAddresses[i], bufferLengths[i] );
+        }
+        return bytesWritten;
+    }
+
+    /**
+     * Compress the page into the scratch buffer, after a header.
+     *
+     * @return the number of bytes to write from the scratch buffer, rounded up to the write alignment, or -1 if the page should be written as it is.
+     */
+    private static int compress( long bufferAddress, int bufferLength, ByteBuffer scratch ) throws IOException
+    {
+        ByteBuffer page = proxy( bufferAddress, bufferLength );
+        long result;
+        try
+        {
+            result = Zstd.compressDirectByteBuffer( scratch, HEADER_SIZE, scratch.capacity() - HEADER_SIZE, page, 0, bufferLength, COMPRESSION_LEVEL );
+        }
+        catch ( ZstdException e )
+        {
+            return -1;
+        }
+        int length = HEADER_SIZE + (int) result;
+        int alignedLength = (length + WRITE_ALIGNMENT - 1) / WRITE_ALIGNMENT * WRITE_ALIGNMENT;
+        if ( alignedLength >= bufferLength )
+        {
+            return -1;
+        }
+        scratch.putInt( 0, MAGIC );
+        scratch.putInt( Integer.BYTES, (int) result );
+        long scratchAddress = UnsafeUtil.getDirectByteBufferAddress( scratch );
+        UnsafeUtil.setMemory( scratchAddress + length, bufferLength - length, (byte) 0 );
+        return alignedLength;
+    }
+
+    private void decompressInPlace( long bufferAddress, int bufferLength, ByteBuffer scratch ) throws IOException
+    {
+        if ( bufferLength <= HEADER_SIZE || bufferLength > filePageSize )
+        {
+            return;
+        }
+        ByteBuffer page = proxy( bufferAddress, bufferLength );
+        if ( page.getInt( 0 ) != MAGIC )
+        {
+            return;
+        }
+        int compressedLength = page.getInt( Integer.BYTES );
+        if ( compressedLength <= 0 || compressedLength > bufferLength - HEADER_SIZE )
+        {
+            return;
+        }
+        long scratchAddress = UnsafeUtil.getDirectByteBufferAddress( scratch );
+        UnsafeUtil.copyMemory( bufferAddress, scratchAddress, bufferLength );
+        long result;
+        try
+        {
+            result = Zstd.decompressDirectByteBuffer( page, 0, bufferLength, scratch, HEADER_SIZE, compressedLength );
+        }
+        catch ( ZstdException e )
+        {
+            result = -1;
+        }
+        if ( result != bufferLength )
+        {
+            // This was a page stored as it is, that only looked like a compressed page.
+            UnsafeUtil.copyMemory( scratchAddress, bufferAddress, bufferLength );
+        }
+    }
+
+    private ByteBuffer takeScratchBuffer()
+    {
+        ByteBuffer scratch = scratchBuffers.poll();
+        return scratch != null ? scratch : UnsafeUtil.allocateByteBuffer( scratchBufferSize, INSTANCE );
+    }
+
+    private void freeScratchBuffers()
+    {
+        ByteBuffer scratch;
+        while ( (scratch = scratchBuffers.poll()) != null )
+        {
+            UnsafeUtil.freeByteBuffer( scratch, INSTANCE );
+        }
+    }
+
+    private static ByteBuffer proxy( long bufferAddress, int bufferLength ) throws IOException
+    {
+        ByteBuffer buf = PROXY_CACHE.get();
+        if ( buf != null )
+        {
+            UnsafeUtil.initDirectByteBuffer( buf, bufferAddress, bufferLength );
+            return buf;
+        }
+        try
+        {
+            buf = UnsafeUtil.newDirectByteBuffer( bufferAddress, bufferLength );
+        }
+        catch ( Exception e )
+        {
+            throw new IOException( e );
+        }
+        PROXY_CACHE.set( buf );
+        return buf;
+    }
+
+    @Override
+    public void evicted( long pageId )
+    {
+        delegate.evicted( pageId );
+    }
+
+    @Override
+    public Path path()
+    {
+        return delegate.path();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        freeScratchBuffers();
+        delegate.close();
+    }
+
+    @Override
+    public void closeAndDelete() throws IOException
+    {
+        freeScratchBuffers();
+        delegate.closeAndDelete();
+        fs.deleteFile( compressionMarker );
+    }
+
+    @Override
+    public void force() throws IOException
+    {
+        delegate.force();
+    }
+
+    @Override
+    public long getLastPageId() throws IOException
+    {
+        return delegate.getLastPageId();
+    }
+
+    @Override
+    public void truncate() throws IOException
+    {
+        delegate.truncate();
+    }
+
+    @Override
+    public boolean canAllocate()
+    {
+        return delegate.canAllocate();
+    }
+
+    @Override
+    public void allocate( long newFileSize ) throws IOException
+    {
+        delegate.allocate( newFileSize );
+    }
+
+    @Override
+    public void readAhead( long startFilePageId, int pageCount )
+    {
+        delegate.readAhead( startFilePageId, pageCount );
+    }
+
+    @Override
+    public void startWriteBack( long startFilePageId, int pageCount )
+    {
+        delegate.startWriteBack( startFilePageId, pageCount );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CompressingPageSwapper{" + delegate + "}";
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.List;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A factory that compresses the pages of the files whose names match any of the given globs, by decorating the page swappers of another factory.
+ * <p>
+ * A file is marked as compressed by an empty {@link #compressionMarker(Path) marker file} next to it, which is created when the file is first
+ * opened with compression, before any page is written to it. Marked files are compressed whether their names match any of the globs or not, so
+ * that they can still be read after the globs change. Files that are not marked can be opened with direct IO, and are then never compressed.
+ * Marked files cannot be opened with direct IO.
+ *
+ * @see CompressingPageSwapper
+ */
+public class CompressingPageSwapperFactory implements PageSwapperFactory
+{
+    private static final String COMPRESSION_MARKER_SUFFIX = ".compressed";
+
+    private final FileSystemAbstraction fs;
+    private final PageSwapperFactory delegate;
+    private final PageSwapperFactory compressedDelegate;
+    private final List<PathMatcher> compressedFiles;
+
+    /**
+     * @param fs the file system of the files, and their compression markers.
+     * @param delegate the factory of the page swappers that the pages are read from and written to.
+     * @param compressedFiles globs that are matched against the file names of the files to compress, for instance
+     * {@code *.propertystore.db.strings}.
+     */
+    public CompressingPageSwapperFactory( FileSystemAbstraction fs, PageSwapperFactory delegate, List<String> compressedFiles )
+    {
+        this( fs, delegate, delegate, compressedFiles );
+    }
+
+    /**
+     * @param fs the file system of the files, and their compression markers.
+     * @param delegate the factory of the page swappers of the files that are not compressed.
+     * @param compressedDelegate the factory of the page swappers that the compressed pages are read from and written to. Compressed pages are
+     * written from unaligned buffers, so this factory must not open files with direct IO on its own accord.
+     * @param compressedFiles globs that are matched against the file names of the files to compress, for instance
+     * {@code *.propertystore.db.strings}.
+     */
+    public CompressingPageSwapperFactory( FileSystemAbstraction fs, PageSwapperFactory delegate, PageSwapperFactory compressedDelegate,
+            List<String> compressedFiles )
+    {
+        this.fs = fs;
+        this.delegate = delegate;
+        this.compressedDelegate = compressedDelegate;
+        this.compressedFiles = compressedFiles.stream().map( glob -> FileSystems.getDefault().getPathMatcher( "glob:" + glob ) ).collect( toList() );
+    }
+
+    /**
+     * @return the marker file whose existence tells that the pages of the given file are compressed.
+     */
+    public static Path compressionMarker( Path path )
+    {
+        return path.resolveSibling( path.getFileName() + COMPRESSION_MARKER_SUFFIX );
+    }
+
+    @Override
+    public PageSwapper createPageSwapper( Path path, int filePageSize, PageEvictionCallback onEviction, boolean createIfNotExist, boolean useDirectIO )
+            throws IOException
+    {
+        Path marker = compressionMarker( path );
+        boolean marked = fs.fileExists( marker );
+        if ( marked && useDirectIO )
+        {
+            throw new IOException( "Cannot open " + path + " with direct IO, since its pages are compressed." );
+        }
+        if ( marked || (!useDirectIO && isCompressed( path )) )
+        {
+            PageSwapper swapper = compressedDelegate.createPageSwapper( path, filePageSize, onEviction, createIfNotExist, false );
+            if ( !marked )
+            {
+                try ( StoreChannel channel = fs.write( marker ) )
+                {
+                    channel.force( false );
+                }
+                catch ( IOException e )
+                {
+                    swapper.close();
+                    throw e;
+                }
+            }
+            return new CompressingPageSwapper( swapper, filePageSize, fs, marker );
+        }
+        return delegate.createPageSwapper( path, filePageSize, onEviction, createIfNotExist, useDirectIO );
+    }
+    private boolean isCompressed( Path path )
+    {
+        Path fileName = path.getFileName();
+        return fileName != null && compressedFiles.stream().anyMatch( matcher -> matcher.matches( fileName ) );
+    }
+
+    @Override
+    public void close()
+    {
+        delegate.close();
+        if ( compressedDelegate != delegate )
+        {
+            compressedDelegate.close();
+        }
+    }
+}
@@ -57,6 +57,7 @@ import static org.neo4j.io.fs.DefaultFileSystemAbstraction.WRITE_OPTIONS;
 public class SingleFilePageSwapper implements PageSwapper
 {
     private static final boolean PREALLOCATE_MAPPED_FILES = FeatureToggles.flag( SingleFilePageSwapper.class, "PREALLOCATE_MAPPED_FILES", true );
+    private static final boolean ASYNC_IO_HINTS = FeatureToggles.flag( SingleFilePageSwapper.class, "ASYNC_IO_HINTS", true );
     private static final long FILE_SIZE_OFFSET = UnsafeUtil.getFieldOffset( SingleFilePageSwapper.class, "fileSize" );
     private static final ThreadLocal<ByteBuffer> PROXY_CACHE = new ThreadLocal<>();
 
@@ -94,6 +95,7 @@ public class SingleFilePageSwapper implements PageSwapper
     private StoreChannel channel;
     private FileLock fileLock;
     private final boolean hasPositionLock;
+    private final boolean useAsyncIOHints;
 
     // Guarded by synchronized(this). See tryReopen() and close().
     private boolean closed;
@@ -136,6 +138,8 @@ public class SingleFilePageSwapper implements PageSwapper
             throw e;
         }
         hasPositionLock = channel.hasPositionLock();
+        // Direct IO bypasses the OS page cache, so there is nothing for the kernel to read ahead or write back on our behalf.
+        useAsyncIOHints = ASYNC_IO_HINTS && !useDirectIO && NativeAccessProvider.getNativeAccess().isAvailable();
     }
 
     private StoreChannel createStoreChannel() throws IOException
@@ -145,6 +149,25 @@ public class SingleFilePageSwapper implements PageSwapper
         return storeChannel;
     }
 
+    /**
+     * @return {@code true} if the given file can be opened with direct IO for pages of the given size, {@code false} otherwise.
+     */
+    static boolean isDirectIOPossible( FileSystemAbstraction fs, Path file, int filePageSize )
+    {
+        if ( !IS_OS_LINUX )
+        {
+            return false;
+        }
+        try
+        {
+            return filePageSize % fs.getBlockSize( file ) == 0;
+        }
+        catch ( IOException e )
+        {
+            return false;
+        }
+    }
+
     private void validateDirectIOPossibility( Path file, int filePageSize ) throws IOException
     {
         if ( !IS_OS_LINUX )
@@ -725,6 +748,28 @@ public class SingleFilePageSwapper implements PageSwapper
         }
     }
 
+    @Override
+    public void readAhead( long startFilePageId, int pageCount )
+    {
+        if ( useAsyncIOHints && pageCount > 0 )
+        {
+            // Advice is best effort, so any failure is ignored, and the pages will be read synchronously when faulted in.
+            NativeAccessProvider.getNativeAccess().tryAdviseWillNeed(
+                    channel.getFileDescriptor(), pageIdToPosition( startFilePageId ), (long) pageCount * filePageSize );
+        }
+    }
+
+    @Override
+    public void startWriteBack( long startFilePageId, int pageCount )
+    {
+        if ( useAsyncIOHints && pageCount > 0 )
+        {
+            // Write-back is best effort, so any failure is ignored, and the pages will be written out when the file is forced.
+            NativeAccessProvider.getNativeAccess().tryStartWriteBack(
+                    channel.getFileDescriptor(), pageIdToPosition( startFilePageId ), (long) pageCount * filePageSize );
+        }
+    }
+
     @Override
     public String toString()
     {
@@ -20,6 +20,7 @@
 package org.neo4j.io.pagecache.impl;
 
 import java.io.IOException;
+import java.nio.file.FileSystemException;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 
@@ -30,16 +31,40 @@ import org.neo4j.io.pagecache.PageSwapperFactory;
 
 /**
  * A factory for SingleFilePageSwapper instances.
+ * <p>
+ * A factory that prefers direct IO opens every file with direct IO when possible, and not only the files that are mapped with
+ * {@link org.neo4j.io.pagecache.PageCacheOpenOptions#DIRECT}. That way the pages of those files are only cached by the page cache, and not also by
+ * the operating system. Files where direct IO is not possible, because their page size is not a multiple of the file system block size or because
+ * the platform or the file system does not support it, are opened as usual. The {@link Monitor} is told when a file system rejects direct IO.
  *
  * @see org.neo4j.io.pagecache.impl.SingleFilePageSwapper
  */
 public class SingleFilePageSwapperFactory implements PageSwapperFactory
 {
     private final FileSystemAbstraction fs;
+    private final boolean preferDirectIO;
+    private final Monitor monitor;
 
     public SingleFilePageSwapperFactory( FileSystemAbstraction fs )
+    {
+        this( fs, false, Monitor.NONE );
+    }
+
+    public SingleFilePageSwapperFactory( FileSystemAbstraction fs, boolean preferDirectIO )
+    {
+        this( fs, preferDirectIO, Monitor.NONE );
+    }
+
+    /**
+     * @param fs the file system to open the files with.
+     * @param preferDirectIO {@code true} if all files should be opened with direct IO when possible.
+     * @param monitor told about the files that are opened as usual, because their file system does not support direct IO.
+     */
+    public SingleFilePageSwapperFactory( FileSystemAbstraction fs, boolean preferDirectIO, Monitor monitor )
     {
         this.fs = fs;
+        this.preferDirectIO = preferDirectIO;
+        this.monitor = monitor;
     }
 
     @Override
@@ -54,12 +79,48 @@ public class SingleFilePageSwapperFactory implements PageSwapperFactory
         {
             throw new NoSuchFileException( file.toString(), null, "Cannot map non-existing file" );
         }
+        if ( !useDirectIO && preferDirectIO && SingleFilePageSwapper.isDirectIOPossible( fs, file, filePageSize ) )
+        {
+            try
+            {
+                return new SingleFilePageSwapper( file, fs, filePageSize, onEviction, true );
+            }
+            catch ( FileSystemException e )
+            {
+                if ( !isDirectIOUnsupported( e ) )
+                {
+                    throw e;
+                }
+                monitor.directIOUnsupported( file, e );
+            }
+        }
         return new SingleFilePageSwapper( file, fs, filePageSize, onEviction, useDirectIO );
     }
 
+    /**
+     * File systems that do not support direct IO, such as tmpfs, fail the open with {@code EINVAL}, which the JDK reports as a plain
+     * {@link FileSystemException}. Permission, lock and other failures are reported as sub-classes, or with other reasons, and are not hidden.
+     */
+    private static boolean isDirectIOUnsupported( FileSystemException e )
+    {
+        return e.getClass() == FileSystemException.class && "Invalid argument".equals( e.getReason() );
+    }
+
     @Override
     public void close()
     {
         // We have nothing to close
     }
+
+    public interface Monitor
+    {
+        Monitor NONE = ( file, cause ) ->
+        {
+        };
+
+        /**
+         * Called when a file that was to be opened with direct IO is opened as usual instead, because its file system does not support direct IO.
+         */
+        void directIOUnsupported( Path file, IOException cause );
+    }
 }
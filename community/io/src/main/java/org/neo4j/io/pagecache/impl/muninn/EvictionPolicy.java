@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The policy that a {@link MuninnPageCache} uses for choosing which pages to evict, when it needs free pages for page faulting.
+ */
+public enum EvictionPolicy
+{
+    /**
+     * A single clock arm sweeps through all the pages in the cache, and decrements their usage counters.
+     * Pages are evicted when their usage counter reaches zero.
+     */
+    CLOCK,
+
+    /**
+     * Newly faulted pages are first placed in a small probationary FIFO queue. Pages that have not been accessed again by the time they reach
+     * the head of the queue, are evicted straight from the queue, without the clock arm touching the rest of the cache. Pages that have been
+     * accessed again are left to the clock arm, just like with {@link #CLOCK}.
+     * <p>
+     * This way, a single large scan, for instance a label scan or a consistency check over a store that is larger than the cache, will mostly
+     * evict its own pages rather than the hot working set.
+     */
+    SCAN_RESISTANT
+}
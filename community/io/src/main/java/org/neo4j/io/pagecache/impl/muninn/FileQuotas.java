@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Caps on how large a part of the page cache the pages of individual mapped files may occupy.
+ * <p>
+ * Each quota is given as {@code <glob>=<percentage>}, where the glob is matched against the file name of mapped files, for instance
+ * {@code *.propertystore.db.strings=10}. The first matching quota applies. Files that match no quota can use the whole page cache.
+ * <p>
+ * A file that has reached its quota will evict one of its own pages when it needs to fault in another, instead of taking a page from the rest of
+ * the cache. The cap is soft, in that a file can temporarily go above its quota if none of its own pages can be evicted at the time.
+ */
+public final class FileQuotas
+{
+    public static final FileQuotas NONE = new FileQuotas( List.of() );
+
+    private final List<Quota> quotas;
+
+    private FileQuotas( List<Quota> quotas )
+    {
+        this.quotas = quotas;
+    }
+
+    /**
+     * @param quotas quotas in the {@code <glob>=<percentage>} format.
+     * @return the parsed quotas.
+     * @throws IllegalArgumentException if any of the quotas are malformed.
+     */
+    public static FileQuotas parse( List<String> quotas )
+    {
+        if ( quotas.isEmpty() )
+        {
+            return NONE;
+        }
+        List<Quota> parsed = new ArrayList<>( quotas.size() );
+        for ( String quota : quotas )
+        {
+            int separator = quota.lastIndexOf( '=' );
+            if ( separator <= 0 )
+            {
+                throw new IllegalArgumentException( "Page cache quota '" + quota + "' is not on the form '<glob>=<percentage>'." );
+            }
+            String glob = quota.substring( 0, separator ).trim();
+            double percentage;
+            try
+            {
+                percentage = Double.parseDouble( quota.substring( separator + 1 ).trim() );
+            }
+            catch ( NumberFormatException e )
+            {
+                throw new IllegalArgumentException( "Page cache quota '" + quota + "' does not end with a percentage.", e );
+            }
+            if ( percentage <= 0 || percentage > 100 )
+            {
+                throw new IllegalArgumentException( "Page cache quota '" + quota + "' must be above 0 and at most 100 percent." );
+            }
+            parsed.add( new Quota( FileSystems.getDefault().getPathMatcher( "glob:" + glob ), percentage / 100 ) );
+        }
+        return new FileQuotas( List.copyOf( parsed ) );
+    }
+
+    /**
+     * @param file the mapped file.
+     * @param cachePages the number of pages in the page cache.
+     * @return the maximum number of pages of the given file that should be resident in the page cache.
+     */
+    long maxResidentPages( Path file, long cachePages )
+    {
+        Path fileName = file.getFileName();
+        for ( Quota quota : quotas )
+        {
+            if ( fileName != null && quota.matcher.matches( fileName ) )
+            {
+                return Math.max( 1, (long) (cachePages * quota.fraction) );
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static class Quota
+    {
+        private final PathMatcher matcher;
+        private final double fraction;
+
+        Quota( PathMatcher matcher, double fraction )
+        {
+            this.matcher = matcher;
+            this.fraction = fraction;
+        }
+    }
+}
@@ -43,9 +43,12 @@ import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCacheOpenOptions;
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PageWriteBarrier;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.buffer.IOBufferFactory;
+import org.neo4j.io.pagecache.tracing.EvictionEventOpportunity;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
+import org.neo4j.io.pagecache.tracing.FlushEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
@@ -137,6 +140,15 @@ public class MuninnPageCache implements PageCache
     private static final int cooperativeEvictionLiveLockThreshold = getInteger(
             MuninnPageCache.class, "cooperativeEvictionLiveLockThreshold", 100 );
 
+    // How long the background write-back thread sleeps between its runs.
+    private static final long writeBackIntervalMillis = getInteger(
+            MuninnPageCache.class, "writeBackIntervalMillis", 100 );
+
+    // The background write-back thread looks at this fraction of the pages in the cache in each of its runs, such that it has looked at all
+    // of the pages after this many runs.
+    private static final int writeBackRunsPerSweep = getInteger(
+            MuninnPageCache.class, "writeBackRunsPerSweep", 10 );
+
     // This is a pre-allocated constant, so we can throw it without allocating any objects:
     @SuppressWarnings( "ThrowableInstanceNeverThrown" )
     private static final IOException oomException = new IOException(
@@ -172,6 +184,11 @@ public class MuninnPageCache implements PageCache
     private final PageCacheTracer pageCacheTracer;
     private final VersionContextSupplier versionContextSupplier;
     private final IOBufferFactory bufferFactory;
+    private final EvictionPolicy evictionPolicy;
+    private final FileQuotas fileQuotas;
+    // The queue of recently faulted pages, that have yet to prove that they are worth keeping in the cache.
+    // This is null unless we use the scan resistant eviction policy.
+    private final ProbationQueue probationQueue;
     final PageList pages;
     // All PageCursors are initialised with their pointers pointing to the victim page. This way, we don't have to throw
     // exceptions on bounds checking failures; we can instead return the victim page pointer, and permit the page
@@ -201,6 +218,15 @@ public class MuninnPageCache implements PageCache
     private volatile boolean evictorParked;
     private volatile IOException evictorException;
 
+    // The thread that writes old dirty pages back to their files in the background, if background write-back is enabled.
+    private volatile Thread writeBackThread;
+    // Background write-back is disabled until a target dirty ratio has been given - guarded by synchronized(this).
+    private boolean writeBackEnabled;
+    private volatile double targetDirtyRatio;
+    private volatile int maxWriteBackPagesPerSecond;
+    // The number of files currently being flushed. The background write-back pauses while this is above zero.
+    private final AtomicInteger activeFlushes = new AtomicInteger();
+
     // Flag for when page cache is closed - writes guarded by synchronized(this), reads can be unsynchronized
     private volatile boolean closed;
 
@@ -253,7 +279,45 @@ public class MuninnPageCache implements PageCache
             VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
             IOBufferFactory bufferFactory )
     {
-        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory );
+        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory,
+                EvictionPolicy.CLOCK, FileQuotas.NONE );
+    }
+
+    /**
+     * Create page cache.
+     * @param swapperFactory page cache swapper factory
+     * @param memoryAllocator the source of native memory the page cache should use
+     * @param pageCacheTracer global page cache tracer
+     * @param versionContextSupplier supplier of thread local (transaction local) version context that will provide access to thread local version context
+     * @param memoryTracker underlying buffers allocation memory tracker
+     * @param bufferFactory temporal flush buffer factories
+     * @param evictionPolicy the policy used for choosing which pages to evict
+     */
+    public MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, PageCacheTracer pageCacheTracer,
+            VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
+            IOBufferFactory bufferFactory, EvictionPolicy evictionPolicy )
+    {
+        this( swapperFactory, memoryAllocator, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory, evictionPolicy,
+                FileQuotas.NONE );
+    }
+
+    /**
+     * Create page cache.
+     * @param swapperFactory page cache swapper factory
+     * @param memoryAllocator the source of native memory the page cache should use
+     * @param pageCacheTracer global page cache tracer
+     * @param versionContextSupplier supplier of thread local (transaction local) version context that will provide access to thread local version context
+     * @param memoryTracker underlying buffers allocation memory tracker
+     * @param bufferFactory temporal flush buffer factories
+     * @param evictionPolicy the policy used for choosing which pages to evict
+     * @param fileQuotas caps on how many pages individual mapped files may keep in the cache
+     */
+    public MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, PageCacheTracer pageCacheTracer,
+            VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
+            IOBufferFactory bufferFactory, EvictionPolicy evictionPolicy, FileQuotas fileQuotas )
+    {
+        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory,
+                evictionPolicy, fileQuotas );
     }
 
     /**
@@ -265,6 +329,14 @@ public class MuninnPageCache implements PageCache
     public MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, int cachePageSize, PageCacheTracer pageCacheTracer,
             VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
             IOBufferFactory bufferFactory )
+    {
+        this( swapperFactory, memoryAllocator, cachePageSize, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory,
+                EvictionPolicy.CLOCK, FileQuotas.NONE );
+    }
+
+    private MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, int cachePageSize, PageCacheTracer pageCacheTracer,
+            VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
+            IOBufferFactory bufferFactory, EvictionPolicy evictionPolicy, FileQuotas fileQuotas )
     {
         verifyHacks();
         verifyCachePageSizeIsPowerOfTwo( cachePageSize );
@@ -283,6 +355,9 @@ public class MuninnPageCache implements PageCache
         this.bufferFactory = bufferFactory;
         this.victimPage = VictimPageReference.getVictimPage( cachePageSize, memoryTracker );
         this.pages = new PageList( maxPages, cachePageSize, memoryAllocator, new SwapperSet(), victimPage, UnsafeUtil.pageSize() );
+        this.evictionPolicy = evictionPolicy;
+        this.probationQueue = evictionPolicy == EvictionPolicy.SCAN_RESISTANT ? new ProbationQueue( maxPages ) : null;
+        this.fileQuotas = fileQuotas;
         this.scheduler = jobScheduler;
         this.clock = clock;
 
@@ -488,6 +563,10 @@ public class MuninnPageCache implements PageCache
         {
             var monitoringParams = systemJob( "Eviction of pages from the page cache" );
             scheduler.schedule( Group.PAGE_CACHE_EVICTION, monitoringParams, new EvictionTask( this ) );
+            if ( writeBackEnabled )
+            {
+                scheduleWriteBack();
+            }
         }
         catch ( Exception e )
         {
@@ -570,6 +649,56 @@ public class MuninnPageCache implements PageCache
         this.printExceptionsOnClose = enabled;
     }
 
+    /**
+     * Start writing old dirty pages back to their files in the background, between the flushes done by checkpoints.
+     * <p>
+     * The background write-back looks at all the pages in the cache about once a second. Pages that were dirty the last time it looked at
+     * them, and are still dirty, are written back while the dirty ratio is above the given target. Never more than the given number of
+     * pages are written per second, and nothing is written while any file is being flushed, since those flushes are already paced by
+     * their {@link IOLimiter}.
+     *
+     * @param targetDirtyRatio the fraction of the pages in the cache that are allowed to be dirty, before the write-back starts writing pages.
+     * @param maxPagesPerSecond the maximum number of pages to write back per second.
+     */
+    public synchronized void enableBackgroundWriteBack( double targetDirtyRatio, int maxPagesPerSecond )
+    {
+        if ( targetDirtyRatio < 0 || targetDirtyRatio > 1 )
+        {
+            throw new IllegalArgumentException( "The target dirty ratio must be between 0 and 1, but was " + targetDirtyRatio + "." );
+        }
+        if ( maxPagesPerSecond <= 0 )
+        {
+            throw new IllegalArgumentException( "The background write-back must be allowed to write at least one page per second." );
+        }
+        assertNotClosed();
+        this.targetDirtyRatio = targetDirtyRatio;
+        this.maxWriteBackPagesPerSecond = maxPagesPerSecond;
+        if ( writeBackEnabled )
+        {
+            return;
+        }
+        writeBackEnabled = true;
+        if ( threadsInitialised )
+        {
+            scheduleWriteBack();
+        }
+    }
+
+    private void scheduleWriteBack()
+    {
+        scheduler.schedule( Group.PAGE_CACHE_WRITE_BACK, systemJob( "Background write-back of dirty pages" ), new WriteBackTask( this ) );
+    }
+
+    void flushStarted()
+    {
+        activeFlushes.incrementAndGet();
+    }
+
+    void flushFinished()
+    {
+        activeFlushes.decrementAndGet();
+    }
+
     @Override
     public void flushAndForce() throws IOException
     {
@@ -587,26 +716,12 @@ public class MuninnPageCache implements PageCache
 
         try ( MajorFlushEvent ignored = pageCacheTracer.beginCacheFlush() )
         {
-            if ( limiter.isLimited() )
-            {
-                flushAllPages( files, limiter );
-            }
-            else
-            {
-                flushAllPagesParallel( files, limiter );
-            }
+            // The files are flushed in parallel also when the IO is limited. They then share the budget of the limiter.
+            flushAllPagesParallel( files, SharedIOLimiter.share( limiter ) );
         }
         clearEvictorException();
     }
 
-    private void flushAllPages( List<PagedFile> files, IOLimiter limiter ) throws IOException
-    {
-        for ( PagedFile file : files )
-        {
-            flushFile( (MuninnPagedFile) file, limiter );
-        }
-    }
-
     private void flushAllPagesParallel( List<PagedFile> files, IOLimiter limiter ) throws IOException
     {
         List<JobHandle<?>> flushes = new ArrayList<>( files.size() );
@@ -643,6 +758,15 @@ public class MuninnPageCache implements PageCache
         }
     }
 
+    /**
+     * Schedule a job that helps flushing a range of the given file, while another thread is flushing the rest of it.
+     */
+    JobHandle<?> scheduleFlushHelper( MuninnPagedFile file, Runnable job )
+    {
+        return scheduler.schedule( FILE_IO_HELPER,
+                systemJob( file.getDatabaseName().orElse( null ), "Helping to flush changes to file '" + file.path().getFileName() + "'" ), job );
+    }
+
     private void flushFile( MuninnPagedFile muninnPagedFile, IOLimiter limiter ) throws IOException
     {
         try ( MajorFlushEvent fileFlush = pageCacheTracer.beginFileFlush( muninnPagedFile.swapper );
@@ -682,6 +806,8 @@ public class MuninnPageCache implements PageCache
 
         interrupt( evictionThread );
         evictionThread = null;
+        interrupt( writeBackThread );
+        writeBackThread = null;
 
         // Close the page swapper factory last. If this fails then we will still consider ourselves closed.
         swapperFactory.close();
@@ -808,8 +934,36 @@ public class MuninnPageCache implements PageCache
         }
     }
 
+    /**
+     * @return the maximum number of pages the given file may keep in the cache, according to the configured file quotas.
+     */
+    long maxResidentPages( Path file )
+    {
+        return fileQuotas.maxResidentPages( file, pages.getPageCount() );
+    }
+
+    /**
+     * Called when a page has been faulted into the cache, and its page fault latch is about to be released.
+     */
+    void pageFaulted( long pageRef )
+    {
+        if ( probationQueue != null )
+        {
+            probationQueue.offer( pages.toId( pageRef ) );
+        }
+    }
+
     private long cooperativelyEvict( PageFaultEvent faultEvent ) throws IOException
     {
+        if ( probationQueue != null )
+        {
+            long pageRef = evictProbationaryPage( faultEvent );
+            if ( pageRef != 0 )
+            {
+                return pageRef;
+            }
+        }
+
         int iterations = 0;
         int pageCount = pages.getPageCount();
         int clockArm = ThreadLocalRandom.current().nextInt( pageCount );
@@ -844,6 +998,26 @@ public class MuninnPageCache implements PageCache
         return pageRef;
     }
 
+    /**
+     * Try to evict a page from the probation queue. Pages that have been accessed again since they were faulted in, are simply removed from the
+     * queue, and are from then on left for the clock arm to deal with.
+     *
+     * @return the page reference of the evicted page, which is still exclusively locked, or {@code 0} if no page could be evicted from the queue.
+     */
+    private long evictProbationaryPage( EvictionEventOpportunity evictionOpportunity ) throws IOException
+    {
+        int pageId;
+        while ( (pageId = probationQueue.poll()) != ProbationQueue.EMPTY )
+        {
+            long pageRef = pages.deref( pageId );
+            if ( pages.isLoaded( pageRef ) && pages.isUsedAtMostOnce( pageRef ) && pages.tryEvict( pageRef, evictionOpportunity ) )
+            {
+                return pageRef;
+            }
+        }
+        return 0;
+    }
+
     private CacheLiveLockException cooperativeEvictionLiveLock()
     {
         return new CacheLiveLockException(
@@ -939,6 +1113,164 @@ public class MuninnPageCache implements PageCache
         }
     }
 
+    /**
+     * Runs the background write-back, until the page cache is closed.
+     * <p>
+     * Every run looks at a slice of the pages in the cache with a clock arm, and counts the dirty pages it sees. The dirty ratio is known
+     * once the clock arm has gone all the way around. Pages that were dirty already the previous time the clock arm passed them are old, and
+     * are written back while the dirty ratio is above the target, within the pages-per-second budget.
+     *
+     * @see WriteBackTask
+     */
+    void continuouslyWriteBackPages()
+    {
+        writeBackThread = Thread.currentThread();
+        int pageCount = pages.getPageCount();
+        long[] dirtyOnLastSweep = new long[(pageCount + Long.SIZE - 1) / Long.SIZE];
+        int pagesPerRun = Math.max( 1, pageCount / writeBackRunsPerSweep );
+        long parkNanos = TimeUnit.MILLISECONDS.toNanos( writeBackIntervalMillis );
+        int clockArm = 0;
+        int dirtyPages = 0;
+        double dirtyRatio = 0;
+
+        while ( !closed )
+        {
+            LockSupport.parkNanos( this, parkNanos );
+            if ( Thread.interrupted() || closed )
+            {
+                continue;
+            }
+            if ( activeFlushes.get() > 0 )
+            {
+                // Someone is flushing, and that will take care of the dirty pages at a pace that is governed by their IOLimiter.
+                continue;
+            }
+
+            long budget = dirtyRatio > targetDirtyRatio ? Math.max( 1, maxWriteBackPagesPerSecond * writeBackIntervalMillis / 1000 ) : 0;
+            long writtenPages = 0;
+            for ( int i = 0; i < pagesPerRun; i++ )
+            {
+                long pageRef = pages.deref( clockArm );
+                int word = clockArm / Long.SIZE;
+                long bit = 1L << clockArm;
+                boolean dirty = pages.isModified( pageRef );
+                boolean old = (dirtyOnLastSweep[word] & bit) != 0;
+                if ( dirty && old && writtenPages < budget && writeBackPage( pageRef ) )
+                {
+                    writtenPages++;
+                    dirty = false;
+                }
+                if ( dirty )
+                {
+                    dirtyPages++;
+                    dirtyOnLastSweep[word] |= bit;
+                }
+                else
+                {
+                    dirtyOnLastSweep[word] &= ~bit;
+                }
+
+                clockArm++;
+                if ( clockArm == pageCount )
+                {
+                    clockArm = 0;
+                    dirtyRatio = dirtyPages / (double) pageCount;
+                    pageCacheTracer.dirtyPages( dirtyPages );
+                    dirtyPages = 0;
+                }
+            }
+            if ( writtenPages > 0 )
+            {
+                pageCacheTracer.writeBackPages( writtenPages );
+            }
+        }
+    }
+
+    private boolean writeBackPage( long pageRef )
+    {
+        int swapperId = pages.getSwapperId( pageRef );
+        SwapperSet.SwapperMapping mapping = swapperId == 0 ? null : pages.getSwappers().getAllocation( swapperId );
+        if ( mapping == null )
+        {
+            return false;
+        }
+        if ( mapping.writeBarrier != PageWriteBarrier.NONE )
+        {
+            return writeBackPageExclusively( pageRef, mapping );
+        }
+        long stamp = pages.tryFlushLock( pageRef );
+        if ( stamp == 0 )
+        {
+            // The page is exclusively locked, which means it is being evicted, flushed or written to right now.
+            return false;
+        }
+        boolean success = false;
+        try
+        {
+            // The page cannot be evicted while we hold the flush lock, so it is still bound to the file we looked up if the id is the same.
+            if ( pages.getSwapperId( pageRef ) == swapperId && pages.isModified( pageRef ) )
+            {
+                success = writeBackLockedPage( pageRef, mapping );
+            }
+        }
+        finally
+        {
+            pages.unlockFlush( pageRef, stamp, success );
+        }
+        return success;
+    }
+
+    /**
+     * Flush locks do not keep writers out, so pages of files with a {@link PageWriteBarrier} are written back under the exclusive lock instead,
+     * to make sure they do not change after we went through the barrier.
+     */
+    private boolean writeBackPageExclusively( long pageRef, SwapperSet.SwapperMapping mapping )
+    {
+        if ( !pages.tryExclusiveLock( pageRef ) )
+        {
+            return false;
+        }
+        try
+        {
+            if ( pages.getSwapperId( pageRef ) == mapping.id && pages.isModified( pageRef ) && writeBackLockedPage( pageRef, mapping ) )
+            {
+                pages.explicitlyMarkPageUnmodifiedUnderExclusiveLock( pageRef );
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            pages.unlockExclusive( pageRef );
+        }
+    }
+
+    private boolean writeBackLockedPage( long pageRef, SwapperSet.SwapperMapping mapping )
+    {
+        PageSwapper swapper = mapping.swapper;
+        long filePageId = pages.getFilePageId( pageRef );
+        try ( MajorFlushEvent flushEvent = pageCacheTracer.beginFileFlush( swapper ) )
+        {
+            FlushEvent flush = flushEvent.flushEventOpportunity().beginFlush( filePageId, pages.toId( pageRef ), swapper, 1, 0 );
+            try
+            {
+                mapping.writeBarrier.beforePageWrite();
+                long bytesWritten = swapper.write( filePageId, pages.getAddress( pageRef ) );
+                flush.addBytesWritten( bytesWritten );
+                flush.addPagesFlushed( 1 );
+                flush.done();
+                return true;
+            }
+            catch ( IOException e )
+            {
+                // The page stays dirty, and will be written by the next flush or eviction instead.
+                // The file may also have been closed concurrently, in which case it was flushed when it was closed.
+                flush.done( e );
+                return false;
+            }
+        }
+    }
+
     private int tryGetNumberOfAvailablePages( int keepFree )
     {
         Object freelistHead = getFreelistHead();
@@ -969,6 +1301,11 @@ public class MuninnPageCache implements PageCache
 
     int evictPages( int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
     {
+        if ( probationQueue != null )
+        {
+            pageCountToEvict -= evictProbationaryPages( pageCountToEvict, evictionRunEvent );
+        }
+
         while ( pageCountToEvict > 0 && !closed )
         {
             if ( clockArm == pages.getPageCount() )
@@ -985,28 +1322,8 @@ public class MuninnPageCache implements PageCache
             long pageRef = pages.deref( clockArm );
             if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
             {
-                try
-                {
-                    pageCountToEvict--;
-                    if ( pages.tryEvict( pageRef, evictionRunEvent ) )
-                    {
-                        clearEvictorException();
-                        addFreePageToFreelist( pageRef );
-                    }
-                }
-                catch ( IOException e )
-                {
-                    evictorException = e;
-                }
-                catch ( OutOfMemoryError oom )
-                {
-                    evictorException = oomException;
-                }
-                catch ( Throwable th )
-                {
-                    evictorException = new IOException(
-                            "Eviction thread encountered a problem", th );
-                }
+                pageCountToEvict--;
+                evictAndFreePage( pageRef, evictionRunEvent );
             }
 
             clockArm++;
@@ -1015,6 +1332,47 @@ public class MuninnPageCache implements PageCache
         return clockArm;
     }
 
+    private int evictProbationaryPages( int pageCountToEvict, EvictionRunEvent evictionRunEvent )
+    {
+        int evictionAttempts = 0;
+        int pageId;
+        while ( evictionAttempts < pageCountToEvict && !closed && (pageId = probationQueue.poll()) != ProbationQueue.EMPTY )
+        {
+            long pageRef = pages.deref( pageId );
+            if ( pages.isLoaded( pageRef ) && pages.isUsedAtMostOnce( pageRef ) )
+            {
+                evictionAttempts++;
+                evictAndFreePage( pageRef, evictionRunEvent );
+            }
+        }
+        return evictionAttempts;
+    }
+
+    private void evictAndFreePage( long pageRef, EvictionRunEvent evictionRunEvent )
+    {
+        try
+        {
+            if ( pages.tryEvict( pageRef, evictionRunEvent ) )
+            {
+                clearEvictorException();
+                addFreePageToFreelist( pageRef );
+            }
+        }
+        catch ( IOException e )
+        {
+            evictorException = e;
+        }
+        catch ( OutOfMemoryError oom )
+        {
+            evictorException = oomException;
+        }
+        catch ( Throwable th )
+        {
+            evictorException = new IOException(
+                    "Eviction thread encountered a problem", th );
+        }
+    }
+
     void addFreePageToFreelist( long pageRef )
     {
         Object current;
@@ -1043,8 +1401,9 @@ public class MuninnPageCache implements PageCache
     public String toString()
     {
         int availablePages = tryGetNumberOfAvailablePages( keepFree );
-        return format( "%s[pageCacheId:%d, pageSize:%d, pages:%d, availablePages:%s]", getClass().getSimpleName(),
-                pageCacheId, cachePageSize, pages.getPageCount(), availablePages != UNKNOWN_AVAILABLE_PAGES ? String.valueOf( availablePages ) : "N/A" );
+        return format( "%s[pageCacheId:%d, pageSize:%d, pages:%d, availablePages:%s, evictionPolicy:%s]", getClass().getSimpleName(),
+                pageCacheId, cachePageSize, pages.getPageCount(), availablePages != UNKNOWN_AVAILABLE_PAGES ? String.valueOf( availablePages ) : "N/A",
+                evictionPolicy );
     }
 
     void vacuum( SwapperSet swappers )
@@ -1080,8 +1439,8 @@ public class MuninnPageCache implements PageCache
 
     void startPreFetching( MuninnPageCursor cursor, CursorFactory cursorFactory )
     {
-        PreFetcher preFetcher = new PreFetcher( cursor, cursorFactory, pageCacheTracer, clock );
         var pagedFile = cursor.pagedFile;
+        PreFetcher preFetcher = new PreFetcher( cursor, cursorFactory, pagedFile.swapper, pageCacheTracer, clock );
         var fileName = pagedFile.swapper.path().getFileName();
         var monitoringParams = systemJob( pagedFile.databaseName, "Pre-fetching of file '" + fileName + "'" );
         cursor.preFetcher = scheduler.schedule( Group.PAGE_CACHE_PRE_FETCHER, monitoringParams, preFetcher );
@@ -210,10 +210,10 @@ public abstract class MuninnPageCursor extends PageCursor
             cursor.pagedFile = null;
             // Signal to any pre-fetchers that the cursor is closed.
             cursor.storeCurrentPageId( UNBOUND_PAGE_ID );
-            if ( preFetcher != null )
+            if ( cursor.preFetcher != null )
             {
-                preFetcher.cancel();
-                preFetcher = null;
+                cursor.preFetcher.cancel();
+                cursor.preFetcher = null;
             }
             cursor = cursor.linkedCursor;
         }
@@ -436,9 +436,11 @@ public abstract class MuninnPageCursor extends PageCursor
             // Put the page in the translation table before we undo the exclusive lock, as we could otherwise race with
             // eviction, and the onEvict callback expects to find a MuninnPage object in the table.
             UnsafeUtil.putIntVolatile( chunk, chunkOffset, pagedFile.toId( pageRef ) );
+            pagedFile.pageFaulted();
             // Once we page has been published to the translation table, we can convert our exclusive lock to whatever we
             // need for the page cursor.
             convertPageFaultLock( pageRef );
+            pagedFile.pageCache.pageFaulted( pageRef );
             faultEvent.done();
             return pageRef;
         }
@@ -21,16 +21,23 @@ package org.neo4j.io.pagecache.impl.muninn;
 
 import java.io.Flushable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.neo4j.internal.helpers.Exceptions;
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageEvictionCallback;
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PageWriteBarrier;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.buffer.IOBufferFactory;
 import org.neo4j.io.pagecache.buffer.NativeIOBuffer;
@@ -42,6 +49,7 @@ import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
+import org.neo4j.scheduler.JobHandle;
 
 import static java.util.Arrays.fill;
 import static org.neo4j.util.FeatureToggles.flag;
@@ -51,6 +59,15 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
 {
     static final int UNMAPPED_TTE = -1;
     private static final boolean mergePagesOnFlush = flag( MuninnPagedFile.class, "mergePagesOnFlush", true );
+    private static final boolean adaptiveReadAhead = flag( MuninnPagedFile.class, "adaptiveReadAhead", false );
+    // Files with more translation table chunks than flushRangeChunks are flushed in ranges of that many chunks, by up to rangeFlushers concurrent
+    // flushers. One chunk is 32 MiB, by default.
+    private static final int flushRangeChunks = getInteger( MuninnPagedFile.class, "flushRangeChunks", 4 );
+    private static final int rangeFlushers = getInteger( MuninnPagedFile.class, "rangeFlushers", 4 );
+    // A file that has reached its quota visits about as many pages, when looking for one of its own pages to evict, as it takes to come across
+    // ownPagesPerQuotaSweep of its own pages, given how large a part of the cache it occupies. At least minQuotaSweepPages are visited.
+    private static final int ownPagesPerQuotaSweep = getInteger( MuninnPagedFile.class, "ownPagesPerQuotaSweep", 8 );
+    private static final int minQuotaSweepPages = getInteger( MuninnPagedFile.class, "minQuotaSweepPages", 1024 );
     private static final int maxChunkGrowth = getInteger( MuninnPagedFile.class, "maxChunkGrowth", 16 ); // One chunk is 32 MiB, by default.
     private static final int translationTableChunkSizePower = getInteger( MuninnPagedFile.class, "translationTableChunkSizePower", 12 );
     private static final int translationTableChunkSize = 1 << translationTableChunkSizePower;
@@ -77,6 +94,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
 
     final PageSwapper swapper;
     final int swapperId;
+    private final PageWriteBarrier writeBarrier;
     private final CursorFactory cursorFactory;
     final String databaseName;
 
@@ -90,6 +108,18 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     @SuppressWarnings( "unused" ) // accessed using unsafe
     private volatile long highestEvictedTransactionId;
 
+    // Moving average of how long the pre-fetchers of this file have spent on each page fault, in nanoseconds. See PreFetcher.
+    private volatile long preFetchFaultLatencyNanos;
+
+    // The number of pages of this file that are currently in the cache, and how many we allow before we start evicting our own pages to make room
+    // for new ones. The count is only maintained when the file has a quota. See FileQuotas.
+    private static final long residentPagesOffset = UnsafeUtil.getFieldOffset( MuninnPagedFile.class, "residentPages" );
+    @SuppressWarnings( "unused" ) // accessed using unsafe
+    private volatile long residentPages;
+    private final long maxResidentPages;
+    // Where the search for our own pages to evict continues from. Racy updates are fine, since this is only a hint.
+    private int quotaClockArm;
+
     /**
      * The header state includes both the reference count of the PagedFile – 15 bits – and the ID of the last page in
      * the file – 48 bits, plus an empty file marker bit. Because our pages are usually 2^13 bytes, this means that we
@@ -130,10 +160,12 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         this.pageCache = pageCache;
         this.filePageSize = filePageSize;
         this.cursorFactory = new CursorFactory( this, versionContextSupplier );
+        this.writeBarrier = versionContextSupplier.pageWriteBarrier();
         this.pageCacheTracer = pageCacheTracer;
         this.pageFaultLatches = new LatchMap();
         this.bufferFactory = pageCache.getBufferFactory();
         this.databaseName = databaseName;
+        this.maxResidentPages = pageCache.maxResidentPages( path );
 
         // The translation table is an array of arrays of integers that are either UNMAPPED_TTE, or the id of a page in
         // the page list. The table only grows the outer array, and all the inner "chunks" all stay the same size. This
@@ -168,7 +200,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         translationTable = tt;
 
         initialiseLastPageId( lastPageId );
-        this.swapperId = getSwappers().allocate( swapper );
+        this.swapperId = getSwappers().allocate( swapper, writeBarrier );
     }
 
     @Override
@@ -196,13 +228,38 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         }
 
         cursor.rewind();
-        if ( ( pf_flags & PF_READ_AHEAD ) == PF_READ_AHEAD && ( pf_flags & PF_NO_FAULT ) != PF_NO_FAULT )
+        if ( ( pf_flags & PF_NO_FAULT ) != PF_NO_FAULT )
         {
-            pageCache.startPreFetching( cursor, cursorFactory );
+            if ( ( pf_flags & PF_READ_AHEAD ) == PF_READ_AHEAD )
+            {
+                startPreFetching( cursor );
+            }
+            else if ( adaptiveReadAhead && lockFlags == PF_SHARED_READ_LOCK )
+            {
+                // Read cursors that did not ask for read-ahead get it anyway, once they are seen to fault in pages in a sequential pattern.
+                ((MuninnReadPageCursor) cursor).detectSequentialAccess();
+            }
         }
         return cursor;
     }
 
+    void startPreFetching( MuninnPageCursor cursor )
+    {
+        pageCache.startPreFetching( cursor, cursorFactory );
+    }
+
+    long getPreFetchFaultLatencyNanos()
+    {
+        return preFetchFaultLatencyNanos;
+    }
+
+    void recordPreFetchFaultLatency( long nanos )
+    {
+        // Racy updates are fine here; this is only a heuristic for sizing the pre-fetch window.
+        long latency = preFetchFaultLatencyNanos;
+        preFetchFaultLatencyNanos = latency == 0 ? nanos : (latency * 3 + nanos) / 4;
+    }
+
     private IllegalArgumentException wrongLocksArgument( int lockFlags )
     {
         if ( lockFlags == 0 )
@@ -368,6 +425,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     void flushAndForceInternal( FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter, NativeIOBuffer ioBuffer )
             throws IOException
     {
+        pageCache.flushStarted();
         try
         {
             doFlushAndForceInternal( flushes, forClosing, limiter, ioBuffer );
@@ -386,25 +444,112 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
             // anyway, we can safely assume that this is not a problem. The file was flushed, and it doesn't
             // really matter how that happened. We'll ignore this exception.
         }
+        finally
+        {
+            pageCache.flushFinished();
+        }
     }
 
     private void doFlushAndForceInternal( FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter, NativeIOBuffer ioBuffer )
             throws IOException
     {
-        // TODO it'd be awesome if, on Linux, we'd call sync_file_range(2) instead of fsync
+        int[][] tt = this.translationTable;
+        flushes.startFlush( tt );
+
+        if ( forClosing || tt.length <= flushRangeChunks || rangeFlushers <= 1 )
+        {
+            flushChunks( tt, 0, tt.length, flushes, forClosing, limiter, ioBuffer );
+        }
+        else
+        {
+            flushRangesInParallel( tt, flushes, limiter, ioBuffer );
+        }
+
+        swapper.force();
+    }
+
+    /**
+     * Split the translation table into ranges of chunks, and flush them with a number of concurrent flushers, where the current thread is one of
+     * them. The flushers all share the budget of the given limiter, so flushing in parallel does not exceed the configured IO rate.
+     */
+    private void flushRangesInParallel( int[][] tt, FlushEventOpportunity flushes, IOLimiter limiter, NativeIOBuffer ioBuffer ) throws IOException
+    {
+        IOLimiter sharedLimiter = SharedIOLimiter.share( limiter );
+        AtomicInteger nextRange = new AtomicInteger();
+        int ranges = (tt.length + flushRangeChunks - 1) / flushRangeChunks;
+        int helpers = Math.min( rangeFlushers, ranges ) - 1;
+        List<JobHandle<?>> jobs = new ArrayList<>( helpers );
+        for ( int i = 0; i < helpers; i++ )
+        {
+            jobs.add( pageCache.scheduleFlushHelper( this, () ->
+            {
+                try ( NativeIOBuffer buffer = bufferFactory.createBuffer() )
+                {
+                    flushRanges( tt, nextRange, flushes, sharedLimiter, buffer );
+                }
+                catch ( IOException e )
+                {
+                    throw new UncheckedIOException( e );
+                }
+            } ) );
+        }
+
+        IOException failure = null;
+        try
+        {
+            flushRanges( tt, nextRange, flushes, sharedLimiter, ioBuffer );
+        }
+        catch ( IOException e )
+        {
+            failure = e;
+        }
+        for ( JobHandle<?> job : jobs )
+        {
+            try
+            {
+                job.waitTermination();
+            }
+            catch ( InterruptedException | ExecutionException e )
+            {
+                Throwable cause = e instanceof ExecutionException && e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e;
+                IOException exception = cause instanceof IOException ? (IOException) cause : new IOException( cause );
+                failure = Exceptions.chain( failure, exception );
+            }
+        }
+        if ( failure != null )
+        {
+            throw failure;
+        }
+    }
+
+    private void flushRanges( int[][] tt, AtomicInteger nextRange, FlushEventOpportunity flushes, IOLimiter limiter, NativeIOBuffer ioBuffer )
+            throws IOException
+    {
+        int fromChunk;
+        while ( (fromChunk = nextRange.getAndIncrement() * flushRangeChunks) < tt.length )
+        {
+            flushChunks( tt, fromChunk, Math.min( fromChunk + flushRangeChunks, tt.length ), flushes, false, limiter, ioBuffer );
+        }
+    }
+
+    private void flushChunks( int[][] tt, int fromChunk, int toChunk, FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter,
+            NativeIOBuffer ioBuffer ) throws IOException
+    {
+        // Every vectored flush below hints the swapper to start write-back of the written range, so the final force has less left to do.
+        // Pages of files with a write barrier are locked exclusively, like when closing, so they cannot change after we went through the barrier.
+        boolean exclusive = forClosing || hasWriteBarrier();
         long[] pages = new long[translationTableChunkSize];
-        long[] flushStamps = forClosing ? null : new long[translationTableChunkSize];
+        long[] flushStamps = exclusive ? null : new long[translationTableChunkSize];
         long[] bufferAddresses = new long[translationTableChunkSize];
         int[] bufferLengths = new int[translationTableChunkSize];
-        long filePageId = -1; // Start at -1 because we increment at the *start* of the chunk-loop iteration.
+        // Start one before the first page of the range, because we increment at the *start* of the chunk-loop iteration.
+        long filePageId = ((long) fromChunk << translationTableChunkSizePower) - 1;
         long limiterStamp = IOLimiter.INITIAL_STAMP;
-        int[][] tt = this.translationTable;
         boolean useTemporaryBuffer = ioBuffer.isEnabled();
 
-        flushes.startFlush( tt );
-
-        for ( int[] chunk : tt )
+        for ( int chunkId = fromChunk; chunkId < toChunk; chunkId++ )
         {
+            int[] chunk = tt[chunkId];
             var chunkEvent = flushes.startChunk( chunk );
             long notModifiedPages = 0;
             long flushPerChunk = 0;
@@ -450,8 +595,16 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                         }
 
                         long flushStamp = 0;
-                        if ( !(forClosing ? tryExclusiveLock( pageRef ) : ((flushStamp = tryFlushLock( pageRef )) != 0)) )
+                        if ( !(exclusive ? tryExclusiveLock( pageRef ) : ((flushStamp = tryFlushLock( pageRef )) != 0)) )
                         {
+                            if ( exclusive && !forClosing && pagesGrabbed > 0 )
+                            {
+                                // A writer holding this page may be waiting for one of the pages we have grabbed, so we write those out
+                                // and unlock them first, and then come back to this page.
+                                i--;
+                                filePageId--;
+                                break;
+                            }
                             continue; // retry lock
                         }
                         if ( isBoundTo( pageRef, swapperId, filePageId ) && (isModified( pageRef ) || fillingDirtyBuffer) )
@@ -462,7 +615,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                             // so we didn't race with eviction and faulting, and the page is dirty.
                             // So we add it to our IO vector.
                             pages[pagesGrabbed] = pageRef;
-                            if ( !forClosing )
+                            if ( !exclusive )
                             {
                                 flushStamps[pagesGrabbed] = flushStamp;
                             }
@@ -509,7 +662,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                         }
                         else
                         {
-                            if ( forClosing )
+                            if ( exclusive )
                             {
                                 unlockExclusive( pageRef );
                             }
@@ -528,7 +681,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                 }
                 if ( pagesGrabbed > 0 )
                 {
-                    vectoredFlush( pages, bufferAddresses, flushStamps, bufferLengths, numberOfBuffers, pagesGrabbed, mergedPages, flushes, forClosing );
+                    vectoredFlush( pages, bufferAddresses, flushStamps, bufferLengths, numberOfBuffers, pagesGrabbed, mergedPages, flushes, exclusive );
                     limiterStamp = limiter.maybeLimitIO( limiterStamp, numberOfBuffers, this );
                     pagesGrabbed = 0;
                     nextSequentialAddress = -1;
@@ -542,29 +695,30 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
             }
             if ( pagesGrabbed > 0 )
             {
-                vectoredFlush( pages, bufferAddresses, flushStamps, bufferLengths, numberOfBuffers, pagesGrabbed, mergedPages, flushes, forClosing );
+                vectoredFlush( pages, bufferAddresses, flushStamps, bufferLengths, numberOfBuffers, pagesGrabbed, mergedPages, flushes, exclusive );
                 limiterStamp = limiter.maybeLimitIO( limiterStamp, numberOfBuffers, this );
                 flushPerChunk++;
             }
             chunkEvent.chunkFlushed( notModifiedPages, flushPerChunk, buffersPerChunk, mergesPerChunk );
         }
-
-        swapper.force();
     }
 
     private void vectoredFlush(
             long[] pages, long[] bufferAddresses, long[] flushStamps, int[] bufferLengths, int numberOfBuffers, int pagesGrabbed, int pagesMerged,
-            FlushEventOpportunity flushOpportunity, boolean forClosing ) throws IOException
+            FlushEventOpportunity flushOpportunity, boolean exclusive ) throws IOException
     {
         FlushEvent flush = null;
         boolean successful = false;
         try
         {
+            writeBarrier.beforePageWrite();
+
             // Write the pages vector
             long firstPageRef = pages[0];
             long startFilePageId = getFilePageId( firstPageRef );
             flush = flushOpportunity.beginFlush( startFilePageId, toId( firstPageRef ), swapper, pagesGrabbed, pagesMerged );
             long bytesWritten = swapper.write( startFilePageId, bufferAddresses, bufferLengths, numberOfBuffers, pagesGrabbed );
+            swapper.startWriteBack( startFilePageId, pagesGrabbed );
 
             // Update the flush event
             flush.addBytesWritten( bytesWritten );
@@ -586,7 +740,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         finally
         {
             // Always unlock all the pages in the vector
-            if ( forClosing )
+            if ( exclusive )
             {
                 for ( int i = 0; i < pagesGrabbed; i++ )
                 {
@@ -608,6 +762,14 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         }
     }
 
+    /**
+     * @return {@code true} if modified pages of this file must be written through a {@link PageWriteBarrier}, under an exclusive lock.
+     */
+    boolean hasWriteBarrier()
+    {
+        return writeBarrier != PageWriteBarrier.NONE;
+    }
+
     boolean flushLockedPage( long pageRef, long filePageId )
     {
         boolean success = false;
@@ -617,6 +779,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
             long address = getAddress( pageRef );
             try
             {
+                writeBarrier.beforePageWrite();
                 long bytesWritten = swapper.write( filePageId, address );
                 flush.addBytesWritten( bytesWritten );
                 flush.addPagesFlushed( 1 );
@@ -780,9 +943,77 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
      */
     long grabFreeAndExclusivelyLockedPage( PageFaultEvent faultEvent ) throws IOException
     {
+        if ( hasQuota() && getResidentPages() >= maxResidentPages )
+        {
+            long pageRef = evictOwnPage( faultEvent );
+            if ( pageRef != 0 )
+            {
+                return pageRef;
+            }
+        }
         return pageCache.grabFreeAndExclusivelyLockedPage( faultEvent );
     }
 
+    /**
+     * Sweep a clock arm over the page list, looking for a page of this file that can be evicted. This keeps files that have reached their quota from
+     * taking pages away from other files. The number of pages visited by one sweep is bounded by how large a part of the cache this file occupies, so
+     * that a page fault does not cost a sweep over the whole cache. If the sweep gives up, the page fault will take a page from the rest of the cache
+     * instead, and the next sweep continues where this one stopped.
+     *
+     * @return the page reference of the evicted page, which is still exclusively locked, or {@code 0} if none of our pages could be evicted.
+     */
+    private long evictOwnPage( PageFaultEvent faultEvent ) throws IOException
+    {
+        int pageCount = getPageCount();
+        long pagesPerOwnPage = pageCount / Math.max( 1, getResidentPages() );
+        int sweepPages = (int) Math.min( pageCount, Math.max( minQuotaSweepPages, ownPagesPerQuotaSweep * pagesPerOwnPage ) );
+        int clockArm = quotaClockArm;
+        try
+        {
+            for ( int i = 0; i < sweepPages; i++ )
+            {
+                if ( ++clockArm >= pageCount )
+                {
+                    clockArm = 0;
+                }
+                long pageRef = deref( clockArm );
+                if ( getSwapperId( pageRef ) == swapperId && isLoaded( pageRef ) && decrementUsage( pageRef ) && tryEvict( pageRef, faultEvent ) )
+                {
+                    return pageRef;
+                }
+            }
+            return 0;
+        }
+        finally
+        {
+            quotaClockArm = clockArm;
+        }
+    }
+
+    private boolean hasQuota()
+    {
+        return maxResidentPages != Long.MAX_VALUE;
+    }
+
+    /**
+     * Called when a page of this file has been faulted into the cache, and published in the translation table.
+     */
+    void pageFaulted()
+    {
+        if ( hasQuota() )
+        {
+            UnsafeUtil.getAndAddLong( this, residentPagesOffset, 1 );
+        }
+    }
+
+    /**
+     * @return the number of pages of this file that are in the cache, if the file has a quota, otherwise {@code 0}.
+     */
+    long getResidentPages()
+    {
+        return UnsafeUtil.getLongVolatile( this, residentPagesOffset );
+    }
+
     /**
      * Remove the mapping of the given filePageId from the translation table, and return the evicted page object.
      * @param filePageId The id of the file page to evict.
@@ -797,6 +1028,10 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         long pageRef = deref( mappedPageId );
         setHighestEvictedTransactionId( getAndResetLastModifiedTransactionId( pageRef ) );
         UnsafeUtil.putIntVolatile( chunk, chunkOffset, UNMAPPED_TTE );
+        if ( hasQuota() )
+        {
+            UnsafeUtil.getAndAddLong( this, residentPagesOffset, -1 );
+        }
     }
 
     private void setHighestEvictedTransactionId( long modifiedTransactionId )
@@ -25,9 +25,20 @@ import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 
+import static org.neo4j.util.FeatureToggles.getInteger;
+
 final class MuninnReadPageCursor extends MuninnPageCursor
 {
+    private static final int sequentialFaultsBeforeReadAhead = getInteger( MuninnReadPageCursor.class, "sequentialFaultsBeforeReadAhead", 32 );
+    private static final int maxReadAheadStride = getInteger( MuninnReadPageCursor.class, "maxReadAheadStride", 4 );
+
     private long lockStamp;
+    // Access pattern detection state. Only used when this cursor has been asked to detect sequential access, see MuninnPagedFile#io.
+    private boolean detectSequentialAccess;
+    private boolean faulted;
+    private long lastPinnedPageId;
+    private long stride;
+    private int sequentialFaults;
 
     MuninnReadPageCursor( long victimPage, PageCursorTracer pageCursorTracer,
             VersionContextSupplier versionContextSupplier )
@@ -61,10 +72,49 @@ final class MuninnReadPageCursor extends MuninnPageCursor
         long filePageId = loadPlainCurrentPageId();
         pinEvent = tracer.beginPin( false, filePageId, swapper );
         pin( filePageId );
+        if ( detectSequentialAccess )
+        {
+            observeAccess( filePageId );
+        }
         verifyContext();
         return true;
     }
 
+    void detectSequentialAccess()
+    {
+        detectSequentialAccess = true;
+        faulted = false;
+        lastPinnedPageId = UNBOUND_PAGE_ID;
+        stride = 0;
+        sequentialFaults = 0;
+    }
+
+    /**
+     * Look for cursors that move through the file with a small fixed stride, either forwards or backwards, and that keep page faulting as they go.
+     * Once such a cursor has taken enough page faults, we start pre-fetching for it. Pages that are already in memory do not count, because there is
+     * nothing to gain from pre-fetching those.
+     */
+    private void observeAccess( long filePageId )
+    {
+        long delta = filePageId - lastPinnedPageId;
+        lastPinnedPageId = filePageId;
+        if ( delta == 0 )
+        {
+            return;
+        }
+        if ( delta != stride )
+        {
+            stride = Math.abs( delta ) <= maxReadAheadStride ? delta : 0;
+            sequentialFaults = 0;
+        }
+        else if ( faulted && ++sequentialFaults >= sequentialFaultsBeforeReadAhead )
+        {
+            detectSequentialAccess = false;
+            pagedFile.startPreFetching( this );
+        }
+        faulted = false;
+    }
+
     @Override
     protected boolean tryLockPage( long pageRef )
     {
@@ -88,6 +138,7 @@ final class MuninnReadPageCursor extends MuninnPageCursor
     protected void convertPageFaultLock( long pageRef )
     {
         lockStamp = pagedFile.unlockExclusive( pageRef );
+        faulted = true;
     }
 
     @Override
@@ -57,6 +57,11 @@ final class MuninnWritePageCursor extends MuninnPageCursor
 
     private void eagerlyFlushAndUnlockPage( long pageRef )
     {
+        if ( pagedFile.hasWriteBarrier() )
+        {
+            eagerlyFlushExclusivelyAndUnlockPage( pageRef );
+            return;
+        }
         long flushStamp = pagedFile.unlockWriteAndTryTakeFlushLock( pageRef );
         if ( flushStamp != 0 )
         {
@@ -72,6 +77,29 @@ final class MuninnWritePageCursor extends MuninnPageCursor
         }
     }
 
+    private void eagerlyFlushExclusivelyAndUnlockPage( long pageRef )
+    {
+        // Flush locks let other writers in, so the page could change after going through the write barrier. Eager flushing is only a hint,
+        // so we give up if we cannot get the exclusive lock, or if the page got evicted in the meantime, and leave the page to be flushed later.
+        long filePageId = loadPlainCurrentPageId();
+        pagedFile.unlockWrite( pageRef );
+        if ( pagedFile.tryExclusiveLock( pageRef ) )
+        {
+            try
+            {
+                if ( pagedFile.isBoundTo( pageRef, pagedFile.swapperId, filePageId ) && pagedFile.isModified( pageRef ) &&
+                        pagedFile.flushLockedPage( pageRef, filePageId ) )
+                {
+                    pagedFile.explicitlyMarkPageUnmodifiedUnderExclusiveLock( pageRef );
+                }
+            }
+            finally
+            {
+                pagedFile.unlockExclusive( pageRef );
+            }
+        }
+    }
+
     @Override
     public boolean next() throws IOException
     {
@@ -25,6 +25,7 @@ import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.mem.MemoryAllocator;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageWriteBarrier;
 import org.neo4j.io.pagecache.tracing.EvictionEvent;
 import org.neo4j.io.pagecache.tracing.EvictionEventOpportunity;
 import org.neo4j.io.pagecache.tracing.FlushEvent;
@@ -345,6 +346,14 @@ class PageList
         return usage <= 1;
     }
 
+    /**
+     * @return {@code true} if the page has not been accessed more than once, since it was faulted in or since its usage counter last reached zero.
+     */
+    boolean isUsedAtMostOnce( long pageRef )
+    {
+        return getUsageCounter( pageRef ) <= 1;
+    }
+
     long getFilePageId( long pageRef )
     {
         long filePageId = UnsafeUtil.getLong( offPageBinding( pageRef ) ) >>> SHIFT_FILE_PAGE_ID;
@@ -490,7 +499,7 @@ class PageList
 
                 if ( isModified( pageRef ) )
                 {
-                    flushModifiedPage( pageRef, evictionEvent, filePageId, swapper );
+                    flushModifiedPage( pageRef, evictionEvent, filePageId, swapper, swapperMapping.writeBarrier );
                 }
                 swapper.evicted( filePageId );
             }
@@ -498,12 +507,14 @@ class PageList
         clearBinding( pageRef );
     }
 
-    private void flushModifiedPage( long pageRef, EvictionEvent evictionEvent, long filePageId, PageSwapper swapper )
+    private void flushModifiedPage( long pageRef, EvictionEvent evictionEvent, long filePageId, PageSwapper swapper, PageWriteBarrier writeBarrier )
             throws IOException
     {
         FlushEvent flushEvent = evictionEvent.flushEventOpportunity().beginFlush( filePageId, pageRef, swapper, 1, 0 );
         try
         {
+            // We hold the exclusive lock, so every change in the page was made before we go through the barrier.
+            writeBarrier.beforePageWrite();
             long address = getAddress( pageRef );
             long bytesWritten = swapper.write( filePageId, address );
             explicitlyMarkPageUnmodifiedUnderExclusiveLock( pageRef );
@@ -26,6 +26,7 @@ import java.util.concurrent.locks.LockSupport;
 
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.scheduler.CancelListener;
@@ -48,12 +49,19 @@ import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
  * The pre-fetcher is adaptive because the number of pages the pre-fetcher will move ahead of the scanning cursor, and the length of time the pre-fetcher
  * will wait in between checking on the progress of the scanner, are dynamically computed and updated based on how fast the scanner appears to be.
  * The pre-fetcher also automatically figures out if the scanner is scanning the file in a forward or backwards direction.
+ *
+ * The pre-fetch window is furthermore kept large enough that the scanner does not catch up with the pre-fetcher while it is waiting for a page fault.
+ * This is based on how fast the scanner is moving, and on the page fault latency that pre-fetchers have measured for the file, which is kept in the
+ * {@link MuninnPagedFile} so that later pre-fetchers of the same file can start out with a good window size.
  */
 class PreFetcher implements Runnable, CancelListener
 {
     private static final String TRACER_PRE_FETCHER_TAG = "Pre-fetcher";
+    private static final long MAX_PRE_FETCH_WINDOW = 4096; // Upper bound on the latency based window: 32 MiB worth of 8 KiB pages.
     private final MuninnPageCursor observedCursor;
+    private final MuninnPagedFile pagedFile;
     private final CursorFactory cursorFactory;
+    private final PageSwapper swapper;
     private final PageCacheTracer tracer;
     private final SystemNanoClock clock;
     private volatile boolean cancelled;
@@ -62,10 +70,12 @@ class PreFetcher implements Runnable, CancelListener
     private long tripCount;
     private long pauseNanos = TimeUnit.MILLISECONDS.toNanos( 10 );
 
-    PreFetcher( MuninnPageCursor observedCursor, CursorFactory cursorFactory, PageCacheTracer tracer, SystemNanoClock clock )
+    PreFetcher( MuninnPageCursor observedCursor, CursorFactory cursorFactory, PageSwapper swapper, PageCacheTracer tracer, SystemNanoClock clock )
     {
         this.observedCursor = observedCursor;
+        this.pagedFile = observedCursor.pagedFile;
         this.cursorFactory = cursorFactory;
+        this.swapper = swapper;
         this.tracer = tracer;
         this.clock = clock;
     }
@@ -104,11 +114,6 @@ class PreFetcher implements Runnable, CancelListener
         // Phase 3: We now know what direction to prefetch in.
         // Just keep loading pages on the right side of the cursor until its closed.
         boolean forward = initialPageId < secondPageId;
-        long currentPageId;
-        long cp;
-        long nextPageId;
-        long fromPage;
-        long toPage;
 
         // Offset is a fixed adjustment of the observed cursor position.
         // This moves the start of the pre-fetch range forward for forward pre-fetching,
@@ -126,56 +131,120 @@ class PreFetcher implements Runnable, CancelListener
         try ( PageCursorTracer cursorTracer = tracer.createPageCursorTracer( TRACER_PRE_FETCHER_TAG );
               PageCursor prefetchCursor = cursorFactory.takeReadCursor( 0, PF_SHARED_READ_LOCK, cursorTracer ) )
         {
-            currentPageId = getCurrentObservedPageId();
-            while ( currentPageId != UNBOUND_PAGE_ID )
+            try
             {
-                cp = currentPageId + offset;
-                if ( forward )
-                {
-                    fromPage = cp;
-                    toPage = cp + jump;
-                }
-                else
-                {
-                    fromPage = Math.max( 0, cp + jump );
-                    toPage = cp;
-                }
-                while ( fromPage < toPage )
+                preFetch( prefetchCursor, cursorTracer, forward, offset, jump );
+            }
+            finally
+            {
+                reportPreFetchCounters( cursorTracer );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private void preFetch( PageCursor prefetchCursor, PageCursorTracer cursorTracer, boolean forward, long offset, long jump ) throws IOException
+    {
+        long currentPageId;
+        long cp;
+        long nextPageId;
+        long fromPage;
+        long toPage;
+        long roundStart = clock.nanos();
+        currentPageId = getCurrentObservedPageId();
+        while ( currentPageId != UNBOUND_PAGE_ID )
+        {
+            cp = currentPageId + offset;
+            if ( forward )
+            {
+                fromPage = cp;
+                toPage = cp + jump;
+            }
+            else
+            {
+                fromPage = Math.max( 0, cp + jump );
+                toPage = cp;
+            }
+            if ( fromPage < toPage )
+            {
+                // Let the kernel read the whole range in the background, with many requests in flight,
+                // so touching the pages below mostly finds them in the OS page cache.
+                swapper.readAhead( fromPage, (int) Math.min( toPage - fromPage, Integer.MAX_VALUE ) );
+            }
+            long faultsBefore = cursorTracer.faults();
+            long fetchStart = clock.nanos();
+            while ( fromPage < toPage )
+            {
+                if ( !prefetchCursor.next( fromPage ) || cancelled )
                 {
-                    if ( !prefetchCursor.next( fromPage ) || cancelled )
-                    {
-                        return; // Reached the end of the file. Or got cancelled.
-                    }
-                    fromPage++;
+                    return; // Reached the end of the file. Or got cancelled.
                 }
+                fromPage++;
+            }
+            long faults = cursorTracer.faults() - faultsBefore;
+            if ( faults > 0 )
+            {
+                pagedFile.recordPreFetchFaultLatency( (clock.nanos() - fetchStart) / faults );
+            }
 
-                // Phase 3.5: After each prefetch round, we wait for the cursor to move again.
-                // If it just stops somewhere for more than a second, then we quit.
-                nextPageId = getCurrentObservedPageId();
-                if ( nextPageId == currentPageId )
+            // Phase 3.5: After each prefetch round, we wait for the cursor to move again.
+            // If it just stops somewhere for more than a second, then we quit.
+            nextPageId = getCurrentObservedPageId();
+            if ( nextPageId == currentPageId )
+            {
+                setDeadline( 10, TimeUnit.SECONDS );
+                while ( nextPageId == currentPageId )
                 {
-                    setDeadline( 10, TimeUnit.SECONDS );
-                    while ( nextPageId == currentPageId )
+                    pause();
+                    if ( pastDeadline() )
                     {
-                        pause();
-                        if ( pastDeadline() )
-                        {
-                            return; // The cursor hasn't made any progress for a whole second. Leave it alone.
-                        }
-                        nextPageId = getCurrentObservedPageId();
+                        return; // The cursor hasn't made any progress for a whole second. Leave it alone.
                     }
-                    madeProgress();
-                }
-                if ( nextPageId != UNBOUND_PAGE_ID )
-                {
-                    jump = (nextPageId - currentPageId) * 2;
+                    nextPageId = getCurrentObservedPageId();
                 }
-                currentPageId = nextPageId;
+                madeProgress();
             }
+            if ( nextPageId != UNBOUND_PAGE_ID )
+            {
+                long now = clock.nanos();
+                jump = nextJump( nextPageId - currentPageId, now - roundStart );
+                roundStart = now;
+            }
+            currentPageId = nextPageId;
         }
-        catch ( IOException e )
+    }
+
+    /**
+     * Compute the size of the next pre-fetch range, with the sign giving the direction, from how far the scanner moved during the last round.
+     * The range is at least twice the distance moved, and at least as many pages as the scanner gets through in the time it takes us to page fault.
+     */
+    private long nextJump( long progress, long roundNanos )
+    {
+        long distance = Math.abs( progress );
+        long window = distance * 2;
+        long faultLatency = pagedFile.getPreFetchFaultLatencyNanos();
+        if ( faultLatency > 0 && distance > 0 && roundNanos > 0 )
         {
-            throw new UncheckedIOException( e );
+            long nanosPerPage = Math.max( 1, roundNanos / distance );
+            window = Math.max( window, Math.min( faultLatency / nanosPerPage + 1, MAX_PRE_FETCH_WINDOW ) );
+        }
+        return progress < 0 ? -window : window;
+    }
+
+    private void reportPreFetchCounters( PageCursorTracer cursorTracer )
+    {
+        long hits = cursorTracer.hits();
+        long faults = cursorTracer.faults();
+        if ( hits > 0 )
+        {
+            tracer.preFetchHits( hits );
+        }
+        if ( faults > 0 )
+        {
+            tracer.preFetchFaults( faults );
         }
     }
 
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+
+import static org.neo4j.internal.helpers.Numbers.ceilingPowerOfTwo;
+
+/**
+ * A bounded FIFO queue of the ids of recently faulted pages, used by the {@link EvictionPolicy#SCAN_RESISTANT} eviction policy.
+ * <p>
+ * The queue is a ring buffer that any number of page faulting threads can offer page ids to, and that any number of evicting threads can poll
+ * page ids from. The queue is only a hint: if the producers get more than a full ring ahead of the consumers, then the oldest entries are
+ * overwritten and lost, and the corresponding pages will only be found by the clock arm. Likewise, a page id can be polled after the page has
+ * already been evicted by other means, or even after it has been faulted into a different file page. For this reason, consumers must always
+ * take the appropriate page lock, and re-check the state of a page, before they do anything with it.
+ */
+final class ProbationQueue
+{
+    static final int EMPTY = -1;
+
+    private static final int slotArrayBase = UnsafeUtil.arrayBaseOffset( int[].class );
+    private static final int slotArrayScale = UnsafeUtil.arrayIndexScale( int[].class );
+
+    private final int[] slots;
+    private final long mask;
+    // The position of the next slot to be written.
+    private final AtomicLong head = new AtomicLong();
+    // The position of the next slot to be read.
+    private final AtomicLong tail = new AtomicLong();
+
+    ProbationQueue( int capacity )
+    {
+        int size = ceilingPowerOfTwo( Math.max( capacity, 2 ) );
+        slots = new int[size];
+        mask = size - 1;
+        for ( int i = 0; i < size; i++ )
+        {
+            slots[i] = EMPTY;
+        }
+    }
+
+    /**
+     * Add the given page id to the end of the queue, possibly overwriting the oldest entry if the queue is full.
+     */
+    void offer( int pageId )
+    {
+        long position = head.getAndIncrement();
+        UnsafeUtil.putIntVolatile( slots, slotOffset( position ), pageId );
+    }
+
+    /**
+     * Take the page id at the head of the queue.
+     *
+     * @return the oldest page id in the queue, or {@link #EMPTY} if the queue is empty.
+     */
+    int poll()
+    {
+        for (;;)
+        {
+            long position = tail.get();
+            long limit = head.get();
+            if ( position >= limit )
+            {
+                return EMPTY;
+            }
+            if ( limit - position > slots.length )
+            {
+                // The producers have lapped us, so skip ahead to the oldest entry that has not been overwritten.
+                tail.compareAndSet( position, limit - slots.length );
+                continue;
+            }
+            if ( tail.compareAndSet( position, position + 1 ) )
+            {
+                long offset = slotOffset( position );
+                int pageId = UnsafeUtil.getIntVolatile( slots, offset );
+                if ( pageId != EMPTY && UnsafeUtil.compareAndSwapInt( slots, offset, pageId, EMPTY ) )
+                {
+                    return pageId;
+                }
+                // The producer of this position has not published its page id yet, or another consumer took it after lapping.
+                // Either way, just move on to the next position.
+            }
+        }
+    }
+
+    int capacity()
+    {
+        return slots.length;
+    }
+
+    private long slotOffset( long position )
+    {
+        return UnsafeUtil.arrayOffset( (int) (position & mask), slotArrayBase, slotArrayScale );
+    }
+}
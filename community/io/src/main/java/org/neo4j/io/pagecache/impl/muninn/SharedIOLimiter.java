@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.Flushable;
+
+import org.neo4j.io.pagecache.IOLimiter;
+
+/**
+ * An {@link IOLimiter} that lets several threads flush under the budget of a single limiter.
+ * <p>
+ * Limiters keep the context of a flush in the stamp that the flushing thread passes from one call to the next. Concurrent flushers would each
+ * get a budget of their own that way. This limiter instead keeps a single stamp for all of them, and serialises their calls, so the underlying
+ * limiter sees all the IOs as belonging to one flush, and will throttle all of the flushers when that flush goes too fast.
+ */
+final class SharedIOLimiter implements IOLimiter
+{
+    private final IOLimiter limiter;
+    private long stamp = INITIAL_STAMP;
+
+    private SharedIOLimiter( IOLimiter limiter )
+    {
+        this.limiter = limiter;
+    }
+
+    /**
+     * @return a limiter that can be shared by concurrent flushers, which is the given limiter itself if it does not limit IO.
+     */
+    static IOLimiter share( IOLimiter limiter )
+    {
+        if ( limiter instanceof SharedIOLimiter || !limiter.isLimited() )
+        {
+            return limiter;
+        }
+        return new SharedIOLimiter( limiter );
+    }
+
+    @Override
+    public synchronized long maybeLimitIO( long previousStamp, int recentlyCompletedIOs, Flushable flushable )
+    {
+        stamp = limiter.maybeLimitIO( stamp, recentlyCompletedIOs, flushable );
+        return stamp;
+    }
+
+    @Override
+    public void disableLimit()
+    {
+        limiter.disableLimit();
+    }
+
+    @Override
+    public void enableLimit()
+    {
+        limiter.enableLimit();
+    }
+
+    @Override
+    public boolean isLimited()
+    {
+        return limiter.isLimited();
+    }
+}
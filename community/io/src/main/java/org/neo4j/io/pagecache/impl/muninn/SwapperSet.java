@@ -28,6 +28,7 @@ import java.util.Arrays;
 import java.util.function.Consumer;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageWriteBarrier;
 
 /**
  * The SwapperSet maintains the set of allocated {@link PageSwapper}s, and their mapping to swapper ids.
@@ -40,10 +41,10 @@ import org.neo4j.io.pagecache.PageSwapper;
 final class SwapperSet
 {
     // The sentinel is used to reserve swapper id 0 as a special value.
-    private static final SwapperMapping SENTINEL = new SwapperMapping( 0, null );
+    private static final SwapperMapping SENTINEL = new SwapperMapping( 0, null, PageWriteBarrier.NONE );
     // The tombstone is used as a marker to reserve allocation entries that have been freed, but not yet vacuumed.
     // An allocation cannot be reused until it has been vacuumed.
-    private static final SwapperMapping TOMBSTONE = new SwapperMapping( 0, null );
+    private static final SwapperMapping TOMBSTONE = new SwapperMapping( 0, null, PageWriteBarrier.NONE );
     private static final int MAX_SWAPPER_ID = (1 << 21) - 1;
     private volatile SwapperMapping[] swapperMappings = new SwapperMapping[] { SENTINEL };
     private final MutableIntSet free = new IntHashSet();
@@ -51,17 +52,19 @@ final class SwapperSet
     private int freeCounter; // Used in `free`; Guarded by `this`
 
     /**
-     * The mapping entry between a {@link PageSwapper} and its swapper id.
+     * The mapping entry between a {@link PageSwapper} and its swapper id, along with the {@link PageWriteBarrier} of its file.
      */
     static final class SwapperMapping
     {
         public final int id;
         public final PageSwapper swapper;
+        public final PageWriteBarrier writeBarrier;
 
-        private SwapperMapping( int id, PageSwapper swapper )
+        private SwapperMapping( int id, PageSwapper swapper, PageWriteBarrier writeBarrier )
         {
             this.id = id;
             this.swapper = swapper;
+            this.writeBarrier = writeBarrier;
         }
     }
 
@@ -91,6 +94,14 @@ final class SwapperSet
      * Allocate a new swapper id for the given {@link PageSwapper}.
      */
     synchronized int allocate( PageSwapper swapper )
+    {
+        return allocate( swapper, PageWriteBarrier.NONE );
+    }
+
+    /**
+     * Allocate a new swapper id for the given {@link PageSwapper}, whose modified pages are written through the given {@link PageWriteBarrier}.
+     */
+    synchronized int allocate( PageSwapper swapper, PageWriteBarrier writeBarrier )
     {
         SwapperMapping[] swapperMappings = this.swapperMappings;
 
@@ -101,7 +112,7 @@ final class SwapperSet
             {
                 int id = free.intIterator().next();
                 free.remove( id );
-                swapperMappings[id] = new SwapperMapping( id, swapper );
+                swapperMappings[id] = new SwapperMapping( id, swapper, writeBarrier );
                 this.swapperMappings = swapperMappings; // Volatile store synchronizes-with loads in getters.
                 return id;
             }
@@ -114,7 +125,7 @@ final class SwapperSet
             throw new IllegalStateException( "All swapper ids are allocated: " + MAX_SWAPPER_ID );
         }
         swapperMappings = Arrays.copyOf( swapperMappings, id + 1 );
-        swapperMappings[id] = new SwapperMapping( id, swapper );
+        swapperMappings[id] = new SwapperMapping( id, swapper, writeBarrier );
         this.swapperMappings = swapperMappings; // Volatile store synchronizes-with loads in getters.
         return id;
     }
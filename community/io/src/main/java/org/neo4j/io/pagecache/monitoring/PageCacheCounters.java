@@ -85,6 +85,16 @@ public interface PageCacheCounters
      */
     long evictionExceptions();
 
+    /**
+     * @return The number of pages the pre-fetcher found already in memory, ahead of the cursors it was pre-fetching for, thus far.
+     */
+    long preFetchHits();
+
+    /**
+     * @return The number of page faults the pre-fetcher took on behalf of the cursors it was pre-fetching for, thus far.
+     */
+    long preFetchFaults();
+
     /**
      * @return The cache hit ratio observed thus far.
      */
@@ -95,4 +105,15 @@ public interface PageCacheCounters
      * be determined.
      */
     double usageRatio();
+
+    /**
+     * @return The number of old dirty pages that the background write-back has written to their files, thus far.
+     */
+    long writeBackPages();
+
+    /**
+     * @return The ratio of dirty pages to the total number of pages, as last seen by the background write-back, or {@code 0} if it cannot
+     * be determined.
+     */
+    double dirtyRatio();
 }
@@ -46,7 +46,11 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final LongAdder filesMapped = new LongAdder();
     protected final LongAdder filesUnmapped = new LongAdder();
     protected final LongAdder evictionExceptions = new LongAdder();
+    protected final LongAdder preFetchHits = new LongAdder();
+    protected final LongAdder preFetchFaults = new LongAdder();
     protected final AtomicLong maxPages = new AtomicLong();
+    protected final LongAdder writeBackPages = new LongAdder();
+    protected final AtomicLong dirtyPages = new AtomicLong();
 
     private final FlushEvent flushEvent = new FlushEvent()
     {
@@ -273,6 +277,18 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return evictionExceptions.sum();
     }
 
+    @Override
+    public long preFetchHits()
+    {
+        return preFetchHits.sum();
+    }
+
+    @Override
+    public long preFetchFaults()
+    {
+        return preFetchFaults.sum();
+    }
+
     @Override
     public double hitRatio()
     {
@@ -290,6 +306,23 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return Math.max( 0, (faults.sum() - evictions.sum()) / (double) pages );
     }
 
+    @Override
+    public long writeBackPages()
+    {
+        return writeBackPages.sum();
+    }
+
+    @Override
+    public double dirtyRatio()
+    {
+        long pages = maxPages.get();
+        if ( pages == 0 )
+        {
+            return 0;
+        }
+        return dirtyPages.get() / (double) pages;
+    }
+
     @Override
     public void pins( long pins )
     {
@@ -314,6 +347,18 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         this.faults.add( faults );
     }
 
+    @Override
+    public void preFetchHits( long hits )
+    {
+        this.preFetchHits.add( hits );
+    }
+
+    @Override
+    public void preFetchFaults( long faults )
+    {
+        this.preFetchFaults.add( faults );
+    }
+
     @Override
     public void bytesRead( long bytesRead )
     {
@@ -355,4 +400,16 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     {
         this.maxPages.set( maxPages );
     }
+
+    @Override
+    public void writeBackPages( long pages )
+    {
+        this.writeBackPages.add( pages );
+    }
+
+    @Override
+    public void dirtyPages( long dirtyPages )
+    {
+        this.dirtyPages.set( dirtyPages );
+    }
 }
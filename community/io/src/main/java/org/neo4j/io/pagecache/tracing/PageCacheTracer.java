@@ -143,6 +143,18 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0;
         }
 
+        @Override
+        public long preFetchHits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long preFetchFaults()
+        {
+            return 0;
+        }
+
         @Override
         public double hitRatio()
         {
@@ -155,6 +167,18 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0d;
         }
 
+        @Override
+        public long writeBackPages()
+        {
+            return 0;
+        }
+
+        @Override
+        public double dirtyRatio()
+        {
+            return 0d;
+        }
+
         @Override
         public void pins( long pins )
         {
@@ -175,6 +199,16 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void preFetchHits( long hits )
+        {
+        }
+
+        @Override
+        public void preFetchFaults( long faults )
+        {
+        }
+
         @Override
         public void bytesRead( long bytesRead )
         {
@@ -210,6 +244,16 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void writeBackPages( long pages )
+        {
+        }
+
+        @Override
+        public void dirtyPages( long dirtyPages )
+        {
+        }
+
         @Override
         public String toString()
         {
@@ -277,6 +321,18 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     void faults( long faults );
 
+    /**
+     * Report number of pages the pre-fetcher found already in memory
+     * @param hits number of pre-fetch hits
+     */
+    void preFetchHits( long hits );
+
+    /**
+     * Report number of page faults taken by the pre-fetcher
+     * @param faults number of pre-fetch faults
+     */
+    void preFetchFaults( long faults );
+
     /**
      * Report number of bytes read
      * @param bytesRead number of read bytes
@@ -318,4 +374,16 @@ public interface PageCacheTracer extends PageCacheCounters
      * @param maxPages the total number of available pages.
      */
     void maxPages( long maxPages );
+
+    /**
+     * Report number of pages written by the background write-back
+     * @param pages number of written back pages
+     */
+    void writeBackPages( long pages );
+
+    /**
+     * Sets the number of dirty pages, as counted by the background write-back.
+     * @param dirtyPages the number of dirty pages.
+     */
+    void dirtyPages( long dirtyPages );
 }
@@ -21,6 +21,8 @@ package org.neo4j.io.pagecache.tracing.cursor.context;
 
 import java.util.function.LongSupplier;
 
+import org.neo4j.io.pagecache.PageWriteBarrier;
+
 /**
  * Supplier to create {@link VersionContext} used during version data read and write operations
  */
@@ -39,4 +41,12 @@ public interface VersionContextSupplier
      */
     VersionContext getVersionContext();
 
+    /**
+     * Provide the barrier the page cache goes through before writing modified pages of files mapped with this supplier
+     * @return page write barrier, {@link PageWriteBarrier#NONE} by default
+     */
+    default PageWriteBarrier pageWriteBarrier()
+    {
+        return PageWriteBarrier.NONE;
+    }
 }
@@ -218,6 +218,26 @@ class MemoryAllocatorTest
         UnsafeUtil.getLong( address + ONE_PAGE - Long.BYTES ); // End of allocation.
     }
 
+    @Test
+    void hugePagesAllocatorMustAlignGrabsToHugePages()
+    {
+        // This test relies on the native access bounds checks that are enabled in Unsafeutil during tests.
+        long hugePageSize = MebiByte.toBytes( 2 );
+        closeAllocator();
+        allocator = MemoryAllocator.createAllocator( MebiByte.toBytes( 64 ), new LocalMemoryTracker(), true );
+
+        long smallAllocation = allocator.allocateAligned( PageCache.PAGE_SIZE, 1 );
+        assertThat( smallAllocation % hugePageSize ).isEqualTo( 0L );
+        long largeAllocation = allocator.allocateAligned( MebiByte.toBytes( 40 ), UnsafeUtil.pageSize() );
+        assertThat( largeAllocation % hugePageSize ).isEqualTo( 0L );
+
+        // This must not throw any bad access exceptions.
+        UnsafeUtil.getLong( smallAllocation );
+        UnsafeUtil.getLong( smallAllocation + PageCache.PAGE_SIZE - Long.BYTES );
+        UnsafeUtil.getLong( largeAllocation );
+        UnsafeUtil.getLong( largeAllocation + MebiByte.toBytes( 40 ) - Long.BYTES );
+    }
+
     private void closeAllocator()
     {
         if ( allocator != null )
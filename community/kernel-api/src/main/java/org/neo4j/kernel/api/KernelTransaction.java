@@ -243,6 +243,12 @@ public interface KernelTransaction extends AssertOpen, AutoCloseable
      */
     void markForTermination( Status reason );
 
+    /**
+     * {@link #setMetaData(Map) Meta data} key which, set to {@code true}, makes the transaction commit with
+     * {@link #setRelaxedDurability(boolean) relaxed durability}.
+     */
+    String RELAXED_DURABILITY_META_DATA_KEY = "neo4j.relaxedDurability";
+
     /**
      * Sets the user defined meta data to be associated with started queries.
      * @param data the meta data
@@ -256,6 +262,25 @@ public interface KernelTransaction extends AssertOpen, AutoCloseable
      */
     Map<String,Object> getMetaData();
 
+    /**
+     * Lets this transaction commit as soon as it is appended to the transaction log, without waiting for the log to be forced.
+     * The transaction becomes visible in commit order as usual, but only becomes durable when the log is forced, in the background
+     * within a bounded interval or by a later transaction committing with full durability. A crash before that loses it.
+     * <p>
+     * Clients that can only pass {@link #setMetaData(Map) meta data}, like Bolt drivers, can ask for the same with
+     * {@link #RELAXED_DURABILITY_META_DATA_KEY}.
+     * <p>
+     * The request is ignored, and the transaction commits with full durability, unless relaxed durability is enabled for the database.
+     *
+     * @param relaxedDurability {@code true} to commit with relaxed durability.
+     */
+    void setRelaxedDurability( boolean relaxedDurability );
+
+    /**
+     * @return {@code true} if this transaction commits with relaxed durability, see {@link #setRelaxedDurability(boolean)}.
+     */
+    boolean isRelaxedDurability();
+
     enum Type
     {
         IMPLICIT,
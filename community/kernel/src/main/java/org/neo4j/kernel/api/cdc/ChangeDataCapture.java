@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.cdc;
+
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionIdStore;
+
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_ID;
+
+/**
+ * Change data capture of a database: {@link ChangeStream streams} of the logical changes to nodes and relationships made by its committed
+ * transactions, read back from its transaction log.
+ * <p>
+ * Streams are pulled by their consumers at their own pace and never hold back committing transactions. A consumer that falls so far behind
+ * that the transactions it has yet to read are pruned from the transaction log will fail to read them, see {@link ChangeStream#pull(int)}.
+ * <p>
+ * This is an internal API, like the rest of the kernel: it is a dependency of each database, resolved through the dependency resolver of
+ * {@link org.neo4j.kernel.internal.GraphDatabaseAPI}, by extensions and embedding code that already depend on the kernel. It is not part of
+ * the public graph database API, and changes refer to entities and tokens by id rather than through it.
+ */
+public class ChangeDataCapture
+{
+    private final LogicalTransactionStore transactionStore;
+    private final TransactionIdStore transactionIdStore;
+    private final StorageEngine storageEngine;
+    private final PageCacheTracer pageCacheTracer;
+
+    public ChangeDataCapture( LogicalTransactionStore transactionStore, TransactionIdStore transactionIdStore, StorageEngine storageEngine,
+            PageCacheTracer pageCacheTracer )
+    {
+        this.transactionStore = transactionStore;
+        this.transactionIdStore = transactionIdStore;
+        this.storageEngine = storageEngine;
+        this.pageCacheTracer = pageCacheTracer;
+    }
+
+    /**
+     * @param fromTransactionId id of the first transaction to stream the changes of, f.ex. the {@link ChangeStream#nextTransactionId()} of an
+     * earlier stream to resume where it left off.
+     * @return a new {@link ChangeStream}, which must be {@link ChangeStream#close() closed} when no longer used.
+     */
+    public ChangeStream stream( long fromTransactionId )
+    {
+        if ( fromTransactionId <= BASE_TX_ID )
+        {
+            throw new IllegalArgumentException( "Transaction ids start after " + BASE_TX_ID + ", got " + fromTransactionId );
+        }
+        return new ChangeStream( transactionStore, transactionIdStore, storageEngine, pageCacheTracer, fromTransactionId );
+    }
+
+    /**
+     * @return id of the transaction to stream the changes from to see only changes made from now on.
+     */
+    public long currentTransactionId()
+    {
+        return transactionIdStore.getLastClosedTransactionId() + 1;
+    }
+}
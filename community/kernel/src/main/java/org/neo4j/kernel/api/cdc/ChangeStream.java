@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.cdc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
+import org.neo4j.kernel.impl.transaction.log.NoSuchTransactionException;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
+import org.neo4j.storageengine.api.LogicalChangesVisitor;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionIdStore;
+import org.neo4j.values.storable.Value;
+
+/**
+ * A stream of the changes made by committed transactions, in commit order, starting from a given transaction. Changes are {@link #pull(int) pulled}
+ * in batches of transactions, which lets the consumer decide how much to read and when. Reading stops at the last closed transaction, so a pulled
+ * transaction is always fully applied to the store.
+ * <p>
+ * The log file is kept open between pulls while there are more transactions to read, and reopened once the stream has caught up.
+ * A pull that fails on I/O error hands out nothing and can be retried, starting over from the same transaction. A pull that fails otherwise,
+ * f.ex. because the next transaction has been pruned from the transaction log or its changes cannot be decoded, would fail the same way
+ * every time, so it fails the stream: later pulls fail right away too.
+ * A stream is not thread safe.
+ */
+public class ChangeStream implements AutoCloseable
+{
+    private static final String CHANGE_STREAM_TAG = "changeStream";
+
+    private final LogicalTransactionStore transactionStore;
+    private final TransactionIdStore transactionIdStore;
+    private final StorageEngine storageEngine;
+    private final PageCacheTracer pageCacheTracer;
+    private long nextTransactionId;
+    private TransactionCursor cursor;
+    private Throwable failure;
+
+    ChangeStream( LogicalTransactionStore transactionStore, TransactionIdStore transactionIdStore, StorageEngine storageEngine,
+            PageCacheTracer pageCacheTracer, long fromTransactionId )
+    {
+        this.transactionStore = transactionStore;
+        this.transactionIdStore = transactionIdStore;
+        this.storageEngine = storageEngine;
+        this.pageCacheTracer = pageCacheTracer;
+        this.nextTransactionId = fromTransactionId;
+    }
+
+    /**
+     * Reads the changes of the next committed transactions, if any.
+     *
+     * @param maxTransactions maximum number of transactions to read.
+     * @return the changes of up to {@code maxTransactions} transactions, in commit order, or an empty list if there are no new transactions.
+     * @throws NoSuchTransactionException if the next transaction has been pruned from the transaction log.
+     * @throws IOException on I/O error reading the transaction log.
+     * @throws IllegalStateException if the changes of the next transaction cannot be decoded, or this stream failed an earlier pull for any
+     * reason but an I/O error.
+     */
+    public List<TransactionChanges> pull( int maxTransactions ) throws IOException
+    {
+        if ( maxTransactions <= 0 )
+        {
+            throw new IllegalArgumentException( "Expected a positive number of transactions, got " + maxTransactions );
+        }
+        if ( failure != null )
+        {
+            throw new IllegalStateException( "Change stream failed reading transaction " + nextTransactionId + " and cannot continue", failure );
+        }
+        List<TransactionChanges> batch = new ArrayList<>();
+        long lastClosedTransactionId = transactionIdStore.getLastClosedTransactionId();
+        if ( nextTransactionId > lastClosedTransactionId )
+        {
+            return batch;
+        }
+
+        long transactionId = nextTransactionId;
+        try ( var cursorTracer = pageCacheTracer.createPageCursorTracer( CHANGE_STREAM_TAG ) )
+        {
+            if ( cursor == null )
+            {
+                cursor = transactionStore.getTransactions( transactionId );
+            }
+            while ( batch.size() < maxTransactions && transactionId <= lastClosedTransactionId && cursor.next() )
+            {
+                CommittedTransactionRepresentation transaction = cursor.get();
+                LogEntryCommit commitEntry = transaction.getCommitEntry();
+                if ( commitEntry.getTxId() != transactionId )
+                {
+                    throw new IllegalStateException( "Expected to read transaction " + transactionId + ", but read " + commitEntry.getTxId() );
+                }
+
+                List<StorageCommand> commands = new ArrayList<>();
+                transaction.getTransactionRepresentation().accept( command ->
+                {
+                    commands.add( command );
+                    return false;
+                } );
+                ChangesCollector changes = new ChangesCollector();
+                storageEngine.visitLogicalChanges( commands, changes, cursorTracer );
+                batch.add( new TransactionChanges( transactionId, commitEntry.getTimeWritten(), changes.entityChanges ) );
+                transactionId++;
+            }
+        }
+        catch ( Throwable t )
+        {
+            // Nothing of this batch is handed out, so the next pull starts over from the same transaction, with a new cursor,
+            // unless starting over would fail the same way.
+            if ( !(t instanceof IOException) || t instanceof NoSuchTransactionException )
+            {
+                failure = t;
+            }
+            try
+            {
+                closeCursor();
+            }
+            catch ( IOException e )
+            {
+                t.addSuppressed( e );
+            }
+            throw t;
+        }
+
+        nextTransactionId = transactionId;
+        if ( batch.size() < maxTransactions )
+        {
+            // Caught up with the transaction log as it was when the cursor was opened, so open a new one for the next pull.
+            closeCursor();
+        }
+        return batch;
+    }
+
+    /**
+     * @return id of the next transaction to read, which can be used to resume from where this stream left off with
+     * {@link ChangeDataCapture#stream(long)}.
+     */
+    public long nextTransactionId()
+    {
+        return nextTransactionId;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        closeCursor();
+    }
+
+    private void closeCursor() throws IOException
+    {
+        if ( cursor != null )
+        {
+            TransactionCursor toClose = cursor;
+            cursor = null;
+            toClose.close();
+        }
+    }
+
+    private static class ChangesCollector implements LogicalChangesVisitor
+    {
+        private final List<EntityChange> entityChanges = new ArrayList<>();
+        private List<PropertyChange> propertyChanges;
+
+        @Override
+        public void visitNode( long nodeId, Change change, long[] labelsBefore, long[] labelsAfter )
+        {
+            propertyChanges = new ArrayList<>();
+            entityChanges.add( EntityChange.node( nodeId, change, labelsBefore, labelsAfter, propertyChanges ) );
+        }
+
+        @Override
+        public void visitRelationship( long relationshipId, Change change, int type, long startNodeId, long endNodeId )
+        {
+            propertyChanges = new ArrayList<>();
+            entityChanges.add( EntityChange.relationship( relationshipId, change, type, startNodeId, endNodeId, propertyChanges ) );
+        }
+
+        @Override
+        public void visitProperty( int propertyKeyId, Value before, Value after )
+        {
+            propertyChanges.add( new PropertyChange( propertyKeyId, before, after ) );
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.cdc;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.neo4j.common.EntityType;
+import org.neo4j.storageengine.api.LogicalChangesVisitor.Change;
+
+/**
+ * A node or relationship that was created, deleted or had its labels or properties changed by a transaction. Labels, relationship types and
+ * property keys are referred to by token id.
+ */
+public class EntityChange
+{
+    private final EntityType entityType;
+    private final long id;
+    private final Change change;
+    private final long[] labelsBefore;
+    private final long[] labelsAfter;
+    private final int relationshipType;
+    private final long startNodeId;
+    private final long endNodeId;
+    private final List<PropertyChange> propertyChanges;
+
+    private EntityChange( EntityType entityType, long id, Change change, long[] labelsBefore, long[] labelsAfter, int relationshipType,
+            long startNodeId, long endNodeId, List<PropertyChange> propertyChanges )
+    {
+        this.entityType = entityType;
+        this.id = id;
+        this.change = change;
+        this.labelsBefore = labelsBefore;
+        this.labelsAfter = labelsAfter;
+        this.relationshipType = relationshipType;
+        this.startNodeId = startNodeId;
+        this.endNodeId = endNodeId;
+        this.propertyChanges = propertyChanges;
+    }
+
+    static EntityChange node( long id, Change change, long[] labelsBefore, long[] labelsAfter, List<PropertyChange> propertyChanges )
+    {
+        return new EntityChange( EntityType.NODE, id, change, labelsBefore, labelsAfter, -1, -1, -1, propertyChanges );
+    }
+
+    static EntityChange relationship( long id, Change change, int type, long startNodeId, long endNodeId, List<PropertyChange> propertyChanges )
+    {
+        return new EntityChange( EntityType.RELATIONSHIP, id, change, null, null, type, startNodeId, endNodeId, propertyChanges );
+    }
+
+    public EntityType entityType()
+    {
+        return entityType;
+    }
+
+    public long id()
+    {
+        return id;
+    }
+
+    public Change change()
+    {
+        return change;
+    }
+
+    /**
+     * @return label token ids of a node before the transaction, or {@code null} if the transaction only changed its properties,
+     * or if this is a relationship.
+     */
+    public long[] labelsBefore()
+    {
+        return labelsBefore;
+    }
+
+    /**
+     * @return label token ids of a node after the transaction, or {@code null} if the transaction only changed its properties,
+     * or if this is a relationship.
+     */
+    public long[] labelsAfter()
+    {
+        return labelsAfter;
+    }
+
+    /**
+     * @return type token id of a relationship, or {@code -1} if the transaction only changed its properties, or if this is a node.
+     */
+    public int relationshipType()
+    {
+        return relationshipType;
+    }
+
+    /**
+     * @return start node id of a relationship, or {@code -1} if the transaction only changed its properties, or if this is a node.
+     */
+    public long startNodeId()
+    {
+        return startNodeId;
+    }
+
+    /**
+     * @return end node id of a relationship, or {@code -1} if the transaction only changed its properties, or if this is a node.
+     */
+    public long endNodeId()
+    {
+        return endNodeId;
+    }
+
+    /**
+     * @return the properties that were added, changed or removed, in property key order. The properties of a deleted entity are removed.
+     */
+    public List<PropertyChange> propertyChanges()
+    {
+        return propertyChanges;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "EntityChange{" + entityType + " " + id + " " + change +
+                (entityType == EntityType.NODE ? ", labelsBefore=" + Arrays.toString( labelsBefore ) + ", labelsAfter=" + Arrays.toString( labelsAfter )
+                                               : ", type=" + relationshipType + ", startNodeId=" + startNodeId + ", endNodeId=" + endNodeId) +
+                ", propertyChanges=" + propertyChanges + "}";
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.cdc;
+
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+/**
+ * A property of a node or relationship that was added, changed or removed.
+ */
+public class PropertyChange
+{
+    private final int propertyKeyId;
+    private final Value before;
+    private final Value after;
+
+    PropertyChange( int propertyKeyId, Value before, Value after )
+    {
+        this.propertyKeyId = propertyKeyId;
+        this.before = before;
+        this.after = after;
+    }
+
+    public int propertyKeyId()
+    {
+        return propertyKeyId;
+    }
+
+    /**
+     * @return value before the transaction, or {@link Values#NO_VALUE} if the property was added.
+     */
+    public Value before()
+    {
+        return before;
+    }
+
+    /**
+     * @return value after the transaction, or {@link Values#NO_VALUE} if the property was removed.
+     */
+    public Value after()
+    {
+        return after;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PropertyChange{propertyKeyId=" + propertyKeyId + ", before=" + before + ", after=" + after + "}";
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.cdc;
+
+import java.util.List;
+
+/**
+ * The changes to nodes and relationships made by a committed transaction. A transaction that changed no nodes or relationships,
+ * f.ex. one that only created tokens or schema, has no changes.
+ */
+public class TransactionChanges
+{
+    private final long transactionId;
+    private final long commitTime;
+    private final List<EntityChange> changes;
+
+    TransactionChanges( long transactionId, long commitTime, List<EntityChange> changes )
+    {
+        this.transactionId = transactionId;
+        this.commitTime = commitTime;
+        this.changes = changes;
+    }
+
+    public long transactionId()
+    {
+        return transactionId;
+    }
+
+    /**
+     * @return time the transaction was committed, in milliseconds since the epoch.
+     */
+    public long commitTime()
+    {
+        return commitTime;
+    }
+
+    /**
+     * @return the changed nodes, in id order, followed by the changed relationships, in id order.
+     */
+    public List<EntityChange> changes()
+    {
+        return changes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TransactionChanges{transactionId=" + transactionId + ", commitTime=" + commitTime + ", changes=" + changes + "}";
+    }
+}
@@ -223,6 +223,14 @@ public class ExecutingQuery
         return lockTracer;
     }
 
+    /**
+     * @return whether this query is currently waiting for locks, cheaper to check than taking a {@link #snapshot() snapshot}.
+     */
+    public boolean isWaitingOnLocks()
+    {
+        return status.isWaitingOnLocks();
+    }
+
     // snapshot state
 
     public QuerySnapshot snapshot()
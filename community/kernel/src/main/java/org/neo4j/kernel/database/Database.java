@@ -65,6 +65,7 @@ import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.kernel.api.Kernel;
+import org.neo4j.kernel.api.cdc.ChangeDataCapture;
 import org.neo4j.kernel.api.procedure.GlobalProcedures;
 import org.neo4j.kernel.availability.AvailabilityGuard;
 import org.neo4j.kernel.availability.DatabaseAvailability;
@@ -90,15 +91,19 @@ import org.neo4j.kernel.impl.api.state.ConstraintIndexCreator;
 import org.neo4j.kernel.impl.api.transaction.monitor.KernelTransactionMonitor;
 import org.neo4j.kernel.impl.api.transaction.monitor.TransactionMonitorScheduler;
 import org.neo4j.kernel.impl.constraints.ConstraintSemantics;
+import org.neo4j.kernel.impl.context.WriteAheadVersionContextSupplier;
 import org.neo4j.kernel.impl.factory.AccessCapability;
 import org.neo4j.kernel.impl.factory.AccessCapabilityFactory;
 import org.neo4j.kernel.impl.factory.DbmsInfo;
 import org.neo4j.kernel.impl.factory.FacadeKernelTransactionFactory;
 import org.neo4j.kernel.impl.factory.GraphDatabaseFacade;
 import org.neo4j.kernel.impl.factory.KernelTransactionFactory;
+import org.neo4j.kernel.impl.locking.LockContentionProfiler;
+import org.neo4j.kernel.impl.locking.LockContentionSampler;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.StatementLocksFactory;
 import org.neo4j.kernel.impl.pagecache.PageCacheLifecycle;
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmer;
 import org.neo4j.kernel.impl.query.QueryEngineProvider;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
 import org.neo4j.kernel.impl.store.stats.DatabaseEntityCounters;
@@ -109,6 +114,7 @@ import org.neo4j.kernel.impl.transaction.log.LoggingLogFileMonitor;
 import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.kernel.impl.transaction.log.TransactionLogFlusher;
 import org.neo4j.kernel.impl.transaction.log.TransactionMetadataCache;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointScheduler;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointThreshold;
@@ -141,10 +147,12 @@ import org.neo4j.kernel.internal.locker.LockerLifecycleAdapter;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.kernel.monitoring.DatabaseEventListeners;
+import org.neo4j.kernel.monitoring.tracing.Tracers;
 import org.neo4j.kernel.recovery.LoggingLogTailScannerMonitor;
 import org.neo4j.kernel.recovery.RecoveryStartupChecker;
 import org.neo4j.lock.LockService;
 import org.neo4j.lock.ReentrantLockService;
+import org.neo4j.lock.StripedLockService;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.logging.internal.DatabaseLogProvider;
@@ -212,6 +220,7 @@ public class Database extends LifecycleAdapter
     private final Locks locks;
     private final DatabaseEventListeners eventListeners;
     private final DatabaseTracers tracers;
+    private final LockContentionProfiler lockContentionProfiler;
     private final AccessCapabilityFactory accessCapabilityFactory;
     private final LeaseService leaseService;
 
@@ -252,6 +261,7 @@ public class Database extends LifecycleAdapter
     private MemoryTracker otherDatabaseMemoryTracker;
     private RecoveryCleanupWorkCollector recoveryCleanupWorkCollector;
     private DatabaseAvailability databaseAvailability;
+    private volatile TransactionLogFlusher logFlusher;
 
     public Database( DatabaseCreationContext context )
     {
@@ -290,7 +300,8 @@ public class Database extends LifecycleAdapter
         this.watcherServiceFactory = context.getWatcherServiceFactory();
         this.engineProvider = context.getEngineProvider();
         this.msgLog = internalLogProvider.getLog( getClass() );
-        this.lockService = new ReentrantLockService();
+        this.lockService = databaseConfig.get( GraphDatabaseInternalSettings.striped_record_lock_service )
+                           ? new StripedLockService() : new ReentrantLockService();
         this.commitProcessFactory = context.getCommitProcessFactory();
         this.globalPageCache = context.getPageCache();
         this.collectionsFactorySupplier = context.getCollectionsFactorySupplier();
@@ -299,7 +310,11 @@ public class Database extends LifecycleAdapter
         this.databaseAvailabilityGuard = context.getDatabaseAvailabilityGuardFactory().apply( availabilityGuardTimeout );
         this.databaseFacade = new GraphDatabaseFacade( this, databaseConfig, dbmsInfo, databaseAvailabilityGuard );
         this.kernelTransactionFactory = new FacadeKernelTransactionFactory( databaseConfig, databaseFacade );
-        this.tracers = new DatabaseTracers( context.getTracers() );
+        this.lockContentionProfiler = databaseConfig.get( GraphDatabaseInternalSettings.lock_contention_profiler )
+                                      ? new LockContentionProfiler( clock,
+                                                databaseConfig.get( GraphDatabaseInternalSettings.lock_contention_profiler_tracked_entries ) )
+                                      : null;
+        this.tracers = buildTracers( context.getTracers() );
         this.fileLockerService = context.getFileLockerService();
         this.leaseService = context.getLeaseService();
         this.startupController = context.getStartupController();
@@ -319,7 +334,12 @@ public class Database extends LifecycleAdapter
         try
         {
             databaseDependencies = new Dependencies( globalDependencies );
-            databasePageCache = new DatabasePageCache( globalPageCache, versionContextSupplier, namedDatabaseId.name() );
+            // Transactions committed with relaxed durability are applied before they are forced to the log, so store pages must go through
+            // the log flusher before they are written, to keep the write-ahead log ahead of the store.
+            VersionContextSupplier pageCacheVersionContextSupplier = databaseConfig.get( GraphDatabaseInternalSettings.relaxed_durability_enabled )
+                                                                     ? new WriteAheadVersionContextSupplier( versionContextSupplier, this::flushLog )
+                                                                     : versionContextSupplier;
+            databasePageCache = new DatabasePageCache( globalPageCache, pageCacheVersionContextSupplier, namedDatabaseId.name() );
             databaseMonitors = new Monitors( parentMonitors );
 
             life = new LifeSupport();
@@ -351,6 +371,10 @@ public class Database extends LifecycleAdapter
             databaseDependencies.satisfyDependency( lockService );
             databaseDependencies.satisfyDependency( versionContextSupplier );
             databaseDependencies.satisfyDependency( tracers.getDatabaseTracer() );
+            if ( lockContentionProfiler != null )
+            {
+                databaseDependencies.satisfyDependency( lockContentionProfiler );
+            }
 
             recoveryCleanupWorkCollector = RecoveryCleanupWorkCollector.immediate();
             databaseDependencies.satisfyDependency( recoveryCleanupWorkCollector );
@@ -465,6 +489,8 @@ public class Database extends LifecycleAdapter
             DatabaseTransactionLogModule transactionLogModule =
                     buildTransactionLogs( logFiles, databaseConfig, internalLogProvider, scheduler, forceOperation,
                             logEntryReader, metadataProvider, databaseMonitors, databaseDependencies );
+            databaseDependencies.satisfyDependency( new ChangeDataCapture( databaseDependencies.resolveDependency( LogicalTransactionStore.class ),
+                    metadataProvider, storageEngine, tracers.getPageCacheTracer() ) );
 
             final DatabaseKernelModule kernelModule = buildKernel(
                     logFiles,
@@ -502,6 +528,9 @@ public class Database extends LifecycleAdapter
 
             this.checkpointerLifecycle = new CheckpointerLifecycle( transactionLogModule.checkPointer(), databaseHealth );
 
+            // Warm up the page cache after everything has mapped its files, but before the database becomes available.
+            life.add( new PageCacheWarmer( fs, databasePageCache, scheduler, databaseLayout.databaseDirectory(), namedDatabaseId.name(), databaseConfig,
+                    internalLogProvider.getLog( PageCacheWarmer.class ), tracers.getPageCacheTracer() ) );
             life.add( databaseHealth );
             life.add( databaseAvailabilityGuard );
             life.add( databaseAvailability );
@@ -737,8 +766,13 @@ public class Database extends LifecycleAdapter
 
         final LogRotation logRotation = transactionLogRotation( logFiles, clock, databaseHealth, monitors.newMonitor( LogRotationMonitor.class ) );
 
+        final TransactionLogFlusher logFlusher = config.get( GraphDatabaseInternalSettings.relaxed_durability_enabled )
+                                                 ? life.add( new TransactionLogFlusher( logFiles.getLogFile(), logRotation, metadataProvider, scheduler,
+                                                         config.get( GraphDatabaseInternalSettings.relaxed_durability_flush_interval ) ) )
+                                                 : null;
+        this.logFlusher = logFlusher;
         final BatchingTransactionAppender appender = life.add( new BatchingTransactionAppender(
-                logFiles, logRotation, transactionMetadataCache, metadataProvider, databaseHealth ) );
+                logFiles, logRotation, transactionMetadataCache, metadataProvider, databaseHealth, logFlusher ) );
 
         final LogicalTransactionStore logicalTransactionStore =
                 new PhysicalLogicalTransactionStore( logFiles, transactionMetadataCache, logEntryReader, monitors, true );
@@ -746,9 +780,15 @@ public class Database extends LifecycleAdapter
         CheckPointThreshold threshold = CheckPointThreshold.createThreshold( config, clock, logPruning, logProvider );
 
         var checkpointAppender = logFiles.getCheckpointFile().getCheckpointAppender();
+        // Transactions committed with relaxed durability must be forced to the log before a check point can cover them.
+        CheckPointerImpl.ForceOperation checkPointForceOperation = logFlusher == null ? forceOperation : ( limiter, cursorTracer ) ->
+        {
+            logFlusher.flush();
+            forceOperation.flushAndForce( limiter, cursorTracer );
+        };
         final CheckPointerImpl checkPointer =
-                new CheckPointerImpl( metadataProvider, threshold, forceOperation, logPruning, checkpointAppender, databaseHealth, logProvider,
-                        tracers, ioLimiter, storeCopyCheckPointMutex, clock );
+                new CheckPointerImpl( metadataProvider, threshold, checkPointForceOperation, logPruning, checkpointAppender, databaseHealth, logProvider,
+                        tracers, ioLimiter, storeCopyCheckPointMutex, clock, config.get( GraphDatabaseInternalSettings.checkpoint_pre_flush ) );
 
         long recurringPeriod = threshold.checkFrequencyMillis();
         CheckPointScheduler checkPointScheduler = new CheckPointScheduler( checkPointer, ioLimiter, scheduler,
@@ -758,6 +798,10 @@ public class Database extends LifecycleAdapter
         life.add( checkPointScheduler );
 
         databaseDependencies.satisfyDependencies( checkPointer, logFiles, logicalTransactionStore, logRotation, appender );
+        if ( logFlusher != null )
+        {
+            databaseDependencies.satisfyDependency( logFlusher );
+        }
 
         return new DatabaseTransactionLogModule( checkPointer, appender );
     }
@@ -771,7 +815,7 @@ public class Database extends LifecycleAdapter
     {
         AtomicReference<CpuClock> cpuClockRef = setupCpuClockAtomicReference();
 
-        TransactionCommitProcess transactionCommitProcess = commitProcessFactory.create( appender, storageEngine, databaseConfig );
+        TransactionCommitProcess transactionCommitProcess = commitProcessFactory.create( appender, storageEngine, databaseConfig, scheduler, tracers );
 
         /*
          * This is used by explicit indexes and constraint indexes whenever a transaction is to be spawned
@@ -793,6 +837,7 @@ public class Database extends LifecycleAdapter
                         relationshipTypeScanStore, indexStatisticsStore, databaseDependencies, tracers, leaseService, transactionsMemoryPool ) );
 
         buildTransactionMonitor( kernelTransactions, databaseConfig );
+        buildLockContentionSampler( kernelTransactions, databaseConfig );
 
         KernelImpl kernel = new KernelImpl( kernelTransactions, databaseHealth, transactionStats, globalProcedures, databaseConfig, storageEngine );
 
@@ -835,6 +880,24 @@ public class Database extends LifecycleAdapter
         life.add( transactionMonitorScheduler );
     }
 
+    private DatabaseTracers buildTracers( Tracers tracers )
+    {
+        if ( lockContentionProfiler == null )
+        {
+            return new DatabaseTracers( tracers );
+        }
+        return new DatabaseTracers( tracers.getDatabaseTracer(), tracers.getLockTracer().combine( lockContentionProfiler ), tracers.getPageCacheTracer() );
+    }
+
+    private void buildLockContentionSampler( KernelTransactions kernelTransactions, Config config )
+    {
+        if ( lockContentionProfiler != null )
+        {
+            life.add( new LockContentionSampler( lockContentionProfiler, kernelTransactions, scheduler,
+                    config.get( GraphDatabaseInternalSettings.lock_contention_profiler_sample_interval ), namedDatabaseId.name() ) );
+        }
+    }
+
     @Override
     public synchronized void stop()
     {
@@ -1065,6 +1128,19 @@ public class Database extends LifecycleAdapter
                 .forEach( file -> file.setDeleteOnClose( true ) );
     }
 
+    /**
+     * Write barrier of the store pages of this database, when transactions can commit with relaxed durability. The log flusher only exists
+     * once the transaction logs are built, and there is nothing that could be missing from the log before that, like during recovery.
+     */
+    private void flushLog() throws IOException
+    {
+        TransactionLogFlusher flusher = logFlusher;
+        if ( flusher != null )
+        {
+            flusher.beforePageWrite();
+        }
+    }
+
     private long getAwaitActiveTransactionDeadlineMillis()
     {
         return databaseConfig.get( GraphDatabaseSettings.shutdown_transaction_end_timeout ).toMillis();
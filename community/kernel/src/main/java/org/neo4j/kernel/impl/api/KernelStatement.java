@@ -86,6 +86,7 @@ public class KernelStatement extends CloseableResourceManager implements Stateme
     private int referenceCount;
     private volatile ExecutingQuery executingQuery;
     private final LockTracer systemLockTracer;
+    private CombinedLockTracer combinedLockTracer;
     private final Deque<StackTraceElement[]> statementOpenCloseCalls;
     private final ClockContext clockContext;
     private final VersionContextSupplier versionContextSupplier;
@@ -157,7 +158,18 @@ public class KernelStatement extends CloseableResourceManager implements Stateme
     public LockTracer lockTracer()
     {
         LockTracer tracer = executingQuery != null ? executingQuery.lockTracer() : null;
-        return tracer == null ? systemLockTracer : systemLockTracer.combine( tracer );
+        if ( tracer == null )
+        {
+            return systemLockTracer;
+        }
+        CombinedLockTracer combined = combinedLockTracer;
+        if ( combined == null || combined.queryTracer != tracer )
+        {
+            // Combining allocates, and this is called for every lock a query acquires
+            combined = new CombinedLockTracer( tracer, systemLockTracer.combine( tracer ) );
+            combinedLockTracer = combined;
+        }
+        return combined.tracer;
     }
 
     public long getHits()
@@ -230,6 +242,7 @@ public class KernelStatement extends CloseableResourceManager implements Stateme
     final void stopQueryExecution( ExecutingQuery executingQuery )
     {
         this.executingQuery = executingQuery.getPreviousQuery();
+        this.combinedLockTracer = null;
         transaction.getStatistics().addWaitingTime( executingQuery.reportedWaitingTimeNanos() );
     }
 
@@ -238,6 +251,7 @@ public class KernelStatement extends CloseableResourceManager implements Stateme
         // closing is done by KTI
         transaction.releaseStatementResources();
         executingQuery = null;
+        combinedLockTracer = null;
         initialStatementHits = EMPTY_COUNTER;
         initialStatementFaults = EMPTY_COUNTER;
         closeAllCloseableResources();
@@ -323,4 +337,16 @@ public class KernelStatement extends CloseableResourceManager implements Stateme
             }
         }
     }
+
+    private static class CombinedLockTracer
+    {
+        private final LockTracer queryTracer;
+        private final LockTracer tracer;
+
+        CombinedLockTracer( LockTracer queryTracer, LockTracer tracer )
+        {
+            this.queryTracer = queryTracer;
+            this.tracer = tracer;
+        }
+    }
 }
@@ -199,6 +199,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     private volatile ClientConnectionInfo clientInfo;
     private volatile int reuseCount;
     private volatile Map<String,Object> userMetaData;
+    private boolean relaxedDurability;
     private final AllStoreHolder allStoreHolder;
     private final Operations operations;
     private InternalTransaction internalTransaction;
@@ -481,6 +482,20 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         return userMetaData;
     }
 
+    @Override
+    public void setRelaxedDurability( boolean relaxedDurability )
+    {
+        assertOpen();
+        this.relaxedDurability = relaxedDurability;
+    }
+
+    @Override
+    public boolean isRelaxedDurability()
+    {
+        Map<String,Object> metaData = userMetaData;
+        return relaxedDurability || (metaData != null && Boolean.TRUE.equals( metaData.get( RELAXED_DURABILITY_META_DATA_KEY ) ));
+    }
+
     @Override
     public KernelStatement acquireStatement()
     {
@@ -760,6 +775,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
                     success = true;
                     TransactionToApply batch = new TransactionToApply( transactionRepresentation,
                             versionContextSupplier.getVersionContext(), pageCursorTracer );
+                    batch.relaxedDurability( isRelaxedDurability() );
                     txId = commitProcess.commit( batch, commitEvent, INTERNAL );
                     commitTime = timeCommitted;
                 }
@@ -1025,6 +1041,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             collectionsFactory.release();
             reuseCount++;
             userMetaData = emptyMap();
+            relaxedDurability = false;
             clientInfo = null;
             internalTransaction = null;
             userTransactionId = 0;
@@ -19,31 +19,70 @@
  */
 package org.neo4j.kernel.impl.api;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
 import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.database.DatabaseTracers;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
 import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
+import org.neo4j.kernel.impl.transaction.tracing.TransactionEvent;
+import org.neo4j.scheduler.CallableExecutor;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
 
 import static org.neo4j.kernel.api.exceptions.Status.Transaction.TransactionCommitFailed;
 import static org.neo4j.kernel.api.exceptions.Status.Transaction.TransactionLogError;
 
+/**
+ * Commits batches of transactions by first appending them to the transaction log, and then applying them to the store.
+ * <p>
+ * Long batches can optionally be committed in a pipelined fashion. They are then split into groups, and each group is appended to the log on a
+ * separate thread while the group before it is applied to the store. The groups are still appended, applied and closed in transaction id order.
+ * The trace events and page cursor tracers of the commit are not thread safe, so the appends on the other thread are traced with their own.
+ */
 public class TransactionRepresentationCommitProcess implements TransactionCommitProcess
 {
+    private static final String PIPELINED_APPEND_TAG = "pipelinedCommitAppend";
+
     private final TransactionAppender appender;
     private final StorageEngine storageEngine;
+    private final CallableExecutor pipelineExecutor;
+    private final int pipelineGroupSize;
+    private final DatabaseTracers pipelineTracers;
 
     public TransactionRepresentationCommitProcess( TransactionAppender appender, StorageEngine storageEngine )
+    {
+        this( appender, storageEngine, null, 0, DatabaseTracers.EMPTY );
+    }
+
+    /**
+     * @param pipelineExecutor the executor that appends the next group of a pipelined commit to the log.
+     * @param pipelineGroupSize the number of transactions in each group of a pipelined commit, or zero to never pipeline commits.
+     * @param pipelineTracers the tracers of the appends made by the pipeline executor.
+     */
+    public TransactionRepresentationCommitProcess( TransactionAppender appender, StorageEngine storageEngine, CallableExecutor pipelineExecutor,
+            int pipelineGroupSize, DatabaseTracers pipelineTracers )
     {
         this.appender = appender;
         this.storageEngine = storageEngine;
+        this.pipelineExecutor = pipelineExecutor;
+        this.pipelineGroupSize = pipelineGroupSize;
+        this.pipelineTracers = pipelineTracers;
     }
 
     @Override
     public long commit( TransactionToApply batch, CommitEvent commitEvent, TransactionApplicationMode mode ) throws TransactionFailureException
     {
+        if ( pipelineGroupSize > 0 && isLongerThan( batch, pipelineGroupSize ) )
+        {
+            return commitPipelined( batch, commitEvent, mode );
+        }
         long lastTxId = appendToLog( batch, commitEvent );
         try
         {
@@ -56,6 +95,169 @@ public class TransactionRepresentationCommitProcess implements TransactionCommit
         }
     }
 
+    private long commitPipelined( TransactionToApply batch, CommitEvent commitEvent, TransactionApplicationMode mode )
+            throws TransactionFailureException
+    {
+        List<TransactionToApply> groups = splitIntoGroups( batch );
+        try
+        {
+            long lastTxId = appendToLog( groups.get( 0 ), commitEvent );
+            for ( int i = 0; i < groups.size(); i++ )
+            {
+                TransactionToApply nextGroup = i + 1 < groups.size() ? groups.get( i + 1 ) : null;
+                Future<Long> nextAppend = nextGroup != null ? pipelineExecutor.submit( () -> appendPipelined( nextGroup ) ) : null;
+                try
+                {
+                    applyToStore( groups.get( i ), commitEvent, mode );
+                }
+                catch ( TransactionFailureException e )
+                {
+                    // Just like for a batch committed as a whole, the transactions that made it into the log are closed even though they
+                    // could not be applied. That includes the next group, if its append succeeds.
+                    if ( nextAppend != null )
+                    {
+                        try
+                        {
+                            awaitAppend( nextAppend );
+                            close( nextGroup );
+                        }
+                        catch ( TransactionFailureException appendFailure )
+                        {
+                            e.addSuppressed( appendFailure );
+                        }
+                    }
+                    throw e;
+                }
+                finally
+                {
+                    close( groups.get( i ) );
+                }
+                if ( nextAppend != null )
+                {
+                    lastTxId = awaitAppend( nextAppend );
+                }
+            }
+            return lastTxId;
+        }
+        finally
+        {
+            joinGroups( groups );
+        }
+    }
+
+    private static boolean isLongerThan( TransactionToApply batch, int length )
+    {
+        int count = 0;
+        while ( batch != null && count <= length )
+        {
+            count++;
+            batch = batch.next();
+        }
+        return count > length;
+    }
+
+    /**
+     * Splits the given batch into groups of {@link #pipelineGroupSize} transactions, by unlinking the last transaction of each group from the next.
+     */
+    private List<TransactionToApply> splitIntoGroups( TransactionToApply batch )
+    {
+        List<TransactionToApply> groups = new ArrayList<>();
+        TransactionToApply groupStart = batch;
+        while ( groupStart != null )
+        {
+            groups.add( groupStart );
+            TransactionToApply groupEnd = groupStart;
+            for ( int i = 1; i < pipelineGroupSize && groupEnd.next() != null; i++ )
+            {
+                groupEnd = groupEnd.next();
+            }
+            groupStart = groupEnd.next();
+            groupEnd.next( null );
+        }
+        return groups;
+    }
+
+    /**
+     * Links the groups together again, so that the batch looks the same to the caller as before it was split.
+     */
+    private static void joinGroups( List<TransactionToApply> groups )
+    {
+        for ( int i = 0; i + 1 < groups.size(); i++ )
+        {
+            TransactionToApply groupEnd = groups.get( i );
+            while ( groupEnd.next() != null )
+            {
+                groupEnd = groupEnd.next();
+            }
+            groupEnd.next( groups.get( i + 1 ) );
+        }
+    }
+
+    private static long awaitAppend( Future<Long> append ) throws TransactionFailureException
+    {
+        // The append cannot be abandoned half way, so wait for it even if interrupted.
+        boolean interrupted = false;
+        try
+        {
+            while ( true )
+            {
+                try
+                {
+                    return append.get();
+                }
+                catch ( InterruptedException e )
+                {
+                    interrupted = true;
+                }
+                catch ( ExecutionException e )
+                {
+                    if ( e.getCause() instanceof TransactionFailureException )
+                    {
+                        throw (TransactionFailureException) e.getCause();
+                    }
+                    throw new TransactionFailureException( TransactionLogError, e.getCause(), "Could not append transaction representation to log" );
+                }
+            }
+        }
+        finally
+        {
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Appends the given group on the pipeline executor. This runs at the same time as the committing thread applies the group before it, so the
+     * append is traced with its own events, and the transactions are published as committed with a cursor tracer of its own.
+     */
+    private long appendPipelined( TransactionToApply group ) throws TransactionFailureException
+    {
+        try ( PageCursorTracer cursorTracer = pipelineTracers.getPageCacheTracer().createPageCursorTracer( PIPELINED_APPEND_TAG );
+              TransactionEvent transactionEvent = pipelineTracers.getDatabaseTracer().beginTransaction( cursorTracer );
+              CommitEvent commitEvent = transactionEvent.beginCommitEvent() )
+        {
+            setCommitCursorTracer( group, cursorTracer );
+            try
+            {
+                return appendToLog( group, commitEvent );
+            }
+            finally
+            {
+                setCommitCursorTracer( group, null );
+            }
+        }
+    }
+
+    private static void setCommitCursorTracer( TransactionToApply group, PageCursorTracer cursorTracer )
+    {
+        for ( TransactionToApply tx = group; tx != null; tx = tx.next() )
+        {
+            tx.commitCursorTracer( cursorTracer );
+        }
+    }
+
     private long appendToLog( TransactionToApply batch, CommitEvent commitEvent ) throws TransactionFailureException
     {
         try ( LogAppendEvent logAppendEvent = commitEvent.beginLogAppend() )
@@ -32,6 +32,7 @@ import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.Commitment;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.SerializedCommands;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
 import org.neo4j.storageengine.api.CommandsToApply;
 import org.neo4j.storageengine.api.StorageCommand;
@@ -72,7 +73,10 @@ public class TransactionToApply implements CommandsToApply, AutoCloseable
     private long transactionId;
     private final VersionContext versionContext;
     private final PageCursorTracer cursorTracer;
+    private PageCursorTracer commitCursorTracer;
     private TransactionToApply nextTransactionInBatch;
+    private boolean relaxedDurability;
+    private SerializedCommands serializedCommands;
 
     // These fields are provided by commit process, storage engine, or recovery process
     private Commitment commitment;
@@ -115,9 +119,44 @@ public class TransactionToApply implements CommandsToApply, AutoCloseable
         nextTransactionInBatch = next;
     }
 
+    /**
+     * @param relaxedDurability {@code true} if committing this transaction should not wait for the transaction log to be forced.
+     */
+    public void relaxedDurability( boolean relaxedDurability )
+    {
+        this.relaxedDurability = relaxedDurability;
+    }
+
+    public boolean relaxedDurability()
+    {
+        return relaxedDurability;
+    }
+
+    /**
+     * @param serializedCommands commands of this transaction serialized ahead of appending it, or {@code null}.
+     */
+    public void serializedCommands( SerializedCommands serializedCommands )
+    {
+        this.serializedCommands = serializedCommands;
+    }
+
+    public SerializedCommands serializedCommands()
+    {
+        return serializedCommands;
+    }
+
+    /**
+     * @param commitCursorTracer the cursor tracer to publish this transaction as committed with, when that happens on another thread than the one
+     * that applies the transaction, or {@code null} to use the cursor tracer of the transaction.
+     */
+    public void commitCursorTracer( PageCursorTracer commitCursorTracer )
+    {
+        this.commitCursorTracer = commitCursorTracer;
+    }
+
     public void publishAsCommitted()
     {
-        commitment.publishAsCommitted( cursorTracer );
+        commitment.publishAsCommitted( commitCursorTracer != null ? commitCursorTracer : cursorTracer );
     }
 
     public void publishAsClosed()
@@ -117,6 +117,11 @@ import static org.neo4j.values.storable.Values.stringArray;
 import static org.neo4j.values.storable.Values.stringValue;
 import static org.neo4j.values.storable.Values.timeArray;
 
+/**
+ * A {@link ValuesContainer} appending the values to chunks of off-heap memory. Given a spill file and threshold, the oldest chunks are
+ * spilled to the file once the chunks in memory take up more than the threshold, so that the memory used by the values of a large transaction
+ * stays bounded. Values are read from and removed in a spilled chunk one at a time, which is why each value is then preceded by its length.
+ */
 public class AppendOnlyValuesContainer implements ValuesContainer
 {
     private static final int CHUNK_SIZE = (int) ByteUnit.kibiBytes( 512 );
@@ -126,10 +131,16 @@ public class AppendOnlyValuesContainer implements ValuesContainer
     private final int chunkSize;
     private final List<ByteBuffer> chunks = new ArrayList<>();
     private final List<Memory> allocated = new ArrayList<>();
+    private final List<SpilledChunk> spilledChunks = new ArrayList<>();
     private final Writer writer;
     private final MemoryAllocator allocator;
     private final MemoryTracker memoryTracker;
+    private final ValuesSpillFile spillFile;
+    private final long spillThreshold;
     private ByteBuffer currentChunk;
+    private long inMemoryBytes;
+    private int oldestInMemoryChunk;
+    private ByteBuffer spillReadBuffer;
     private boolean closed;
 
     public AppendOnlyValuesContainer( MemoryAllocator allocator, MemoryTracker memoryTracker )
@@ -137,12 +148,29 @@ public class AppendOnlyValuesContainer implements ValuesContainer
         this( CHUNK_SIZE, allocator, memoryTracker );
     }
 
+    /**
+     * @param spillFile the file to spill chunks to.
+     * @param spillThreshold the number of bytes the chunks in memory may take up before the oldest of them are spilled.
+     */
+    public AppendOnlyValuesContainer( MemoryAllocator allocator, MemoryTracker memoryTracker, ValuesSpillFile spillFile, long spillThreshold )
+    {
+        this( CHUNK_SIZE, allocator, memoryTracker, spillFile, spillThreshold );
+    }
+
     @VisibleForTesting
     AppendOnlyValuesContainer( int chunkSize, MemoryAllocator allocator, MemoryTracker memoryTracker )
+    {
+        this( chunkSize, allocator, memoryTracker, null, 0 );
+    }
+
+    @VisibleForTesting
+    AppendOnlyValuesContainer( int chunkSize, MemoryAllocator allocator, MemoryTracker memoryTracker, ValuesSpillFile spillFile, long spillThreshold )
     {
         this.chunkSize = chunkSize;
         this.allocator = allocator;
         this.memoryTracker = memoryTracker;
+        this.spillFile = spillFile;
+        this.spillThreshold = spillThreshold;
         this.writer = new Writer();
         this.currentChunk = addNewChunk( chunkSize );
     }
@@ -153,11 +181,16 @@ public class AppendOnlyValuesContainer implements ValuesContainer
         assertNotClosed();
         requireNonNull( value, "value cannot be null" );
         final ByteBuffer buf = writer.write( value );
-        if ( buf.remaining() > currentChunk.remaining() )
+        final int lengthBytes = spillFile != null ? Integer.BYTES : 0;
+        if ( lengthBytes + buf.remaining() > currentChunk.remaining() )
         {
-            currentChunk = addNewChunk( max( chunkSize, buf.remaining() ) );
+            currentChunk = addNewChunk( max( chunkSize, lengthBytes + buf.remaining() ) );
         }
 
+        if ( spillFile != null )
+        {
+            currentChunk.putInt( buf.remaining() );
+        }
         final long ref = ((chunks.size() - 1L) << 32) | currentChunk.position();
         currentChunk.put( buf );
         return ref;
@@ -173,14 +206,12 @@ public class AppendOnlyValuesContainer implements ValuesContainer
 
         checkArgument( chunkIdx >= 0 && chunkIdx < chunks.size(), "invalid chunk idx %d (total #%d chunks), ref: 0x%X", chunkIdx, chunks.size(), ref );
         final ByteBuffer chunk = chunks.get( chunkIdx );
+        if ( chunk == null )
+        {
+            return readSpilled( spilledChunks.get( chunkIdx ), offset, ref );
+        }
         checkArgument( offset >= 0 && offset < chunk.position(), "invalid chunk offset (%d), ref: 0x%X", offset, ref );
-        final int typeId = chunk.get( offset ) & 0xFF;
-        checkArgument( typeId != REMOVED, "element is already removed, ref: 0x%X", ref );
-        checkArgument( typeId < VALUE_TYPES.length, "invaling typeId (%d) for ref 0x%X", typeId, ref );
-        offset++;
-
-        final ValueType type = VALUE_TYPES[typeId];
-        return type.getReader().read( chunk, offset );
+        return read( chunk, offset, ref );
     }
 
     @Nonnull
@@ -192,7 +223,14 @@ public class AppendOnlyValuesContainer implements ValuesContainer
         final int chunkIdx = (int) (ref >>> 32);
         final int chunkOffset = (int) ref;
         final ByteBuffer chunk = chunks.get( chunkIdx );
-        chunk.put( chunkOffset, (byte) REMOVED );
+        if ( chunk == null )
+        {
+            spillFile.write( ByteBuffer.wrap( new byte[]{(byte) REMOVED} ), spilledChunks.get( chunkIdx ).position + chunkOffset );
+        }
+        else
+        {
+            chunk.put( chunkOffset, (byte) REMOVED );
+        }
         return removed;
     }
 
@@ -201,11 +239,23 @@ public class AppendOnlyValuesContainer implements ValuesContainer
     {
         assertNotClosed();
         closed = true;
-        allocated.forEach( m -> m.free( memoryTracker ) );
+        for ( Memory memory : allocated )
+        {
+            if ( memory != null )
+            {
+                memory.free( memoryTracker );
+            }
+        }
         allocated.clear();
         chunks.clear();
+        spilledChunks.clear();
         writer.close();
         currentChunk = null;
+        spillReadBuffer = null;
+        if ( spillFile != null )
+        {
+            spillFile.close();
+        }
     }
 
     private void assertNotClosed()
@@ -219,9 +269,79 @@ public class AppendOnlyValuesContainer implements ValuesContainer
         final ByteBuffer chunk = memory.asByteBuffer();
         allocated.add( memory );
         chunks.add( chunk );
+        spilledChunks.add( null );
+        inMemoryBytes += memory.size();
+        if ( spillFile != null )
+        {
+            // The chunks are spilled oldest first, the values of a transaction being read and changed less the longer ago they were added
+            while ( inMemoryBytes > spillThreshold && oldestInMemoryChunk < chunks.size() - 1 )
+            {
+                spill( oldestInMemoryChunk++ );
+            }
+        }
         return chunk;
     }
 
+    private void spill( int chunkIdx )
+    {
+        final ByteBuffer chunk = chunks.get( chunkIdx );
+        final int size = chunk.position();
+        final long position = spillFile.append( chunk.flip() );
+        final Memory memory = allocated.get( chunkIdx );
+        inMemoryBytes -= memory.size();
+        memory.free( memoryTracker );
+        allocated.set( chunkIdx, null );
+        chunks.set( chunkIdx, null );
+        spilledChunks.set( chunkIdx, new SpilledChunk( position, size ) );
+    }
+
+    private Value readSpilled( SpilledChunk spilledChunk, int offset, long ref )
+    {
+        checkArgument( offset >= Integer.BYTES && offset < spilledChunk.size, "invalid chunk offset (%d), ref: 0x%X", offset, ref );
+        final ByteBuffer length = spillReadBuffer( Integer.BYTES );
+        spillFile.read( length, spilledChunk.position + offset - Integer.BYTES );
+        final ByteBuffer value = spillReadBuffer( length.getInt( 0 ) );
+        spillFile.read( value, spilledChunk.position + offset );
+        return read( value, 0, ref );
+    }
+
+    private ByteBuffer spillReadBuffer( int size )
+    {
+        if ( size > chunkSize )
+        {
+            // Don't hold on to the memory of a value larger than a chunk
+            return ByteBuffer.allocate( size );
+        }
+        if ( spillReadBuffer == null || spillReadBuffer.capacity() < size )
+        {
+            spillReadBuffer = ByteBuffer.allocate( size );
+        }
+        return spillReadBuffer.clear().limit( size );
+    }
+
+    private static Value read( ByteBuffer chunk, int offset, long ref )
+    {
+        final int typeId = chunk.get( offset ) & 0xFF;
+        checkArgument( typeId != REMOVED, "element is already removed, ref: 0x%X", ref );
+        checkArgument( typeId < VALUE_TYPES.length, "invaling typeId (%d) for ref 0x%X", typeId, ref );
+        offset++;
+
+        final ValueType type = VALUE_TYPES[typeId];
+        return type.getReader().read( chunk, offset );
+    }
+
+    private static final class SpilledChunk
+    {
+        private final long position;
+        private final int size;
+
+        SpilledChunk( long position, int size )
+        {
+            this.position = position;
+            this.size = size;
+        }
+    }
+
     private static BooleanValue readBoolean( ByteBuffer chunk, int offset )
     {
         return booleanValue( chunk.get( offset ) != 0 );
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import org.neo4j.graphdb.Resource;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+
+import static org.neo4j.util.Preconditions.checkState;
+
+/**
+ * A temporary file that the chunks of an {@link AppendOnlyValuesContainer} are spilled to, so that they no longer take up memory. The file is
+ * created when the first chunk is spilled, and deleted when closed.
+ */
+public class ValuesSpillFile implements Resource
+{
+    public static final String FILE_NAME_PREFIX = "tx-state-";
+
+    private final FileSystemAbstraction fs;
+    private final Path directory;
+    private Path file;
+    private StoreChannel channel;
+    private long size;
+
+    public ValuesSpillFile( FileSystemAbstraction fs, Path directory )
+    {
+        this.fs = fs;
+        this.directory = directory;
+    }
+
+    /**
+     * @return the position in this file that the given bytes were appended at.
+     */
+    long append( ByteBuffer bytes )
+    {
+        try
+        {
+            if ( channel == null )
+            {
+                fs.mkdirs( directory );
+                file = directory.resolve( FILE_NAME_PREFIX + UUID.randomUUID() );
+                channel = fs.write( file );
+            }
+            long position = size;
+            size += bytes.remaining();
+            channel.writeAll( bytes, position );
+            return position;
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( "Unable to spill transaction state to " + directory, e );
+        }
+    }
+
+    void write( ByteBuffer bytes, long position )
+    {
+        checkState( position + bytes.remaining() <= size, "Writing beyond the end of the spill file" );
+        try
+        {
+            channel.writeAll( bytes, position );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( "Unable to write spilled transaction state to " + file, e );
+        }
+    }
+
+    void read( ByteBuffer target, long position )
+    {
+        checkState( position + target.remaining() <= size, "Reading beyond the end of the spill file" );
+        try
+        {
+            while ( target.hasRemaining() )
+            {
+                int read = channel.read( target, position );
+                if ( read == -1 )
+                {
+                    throw new IOException( "Unexpected end of spill file at " + position );
+                }
+                position += read;
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( "Unable to read spilled transaction state from " + file, e );
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if ( channel == null )
+        {
+            return;
+        }
+        try
+        {
+            channel.close();
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( "Unable to close spill file " + file, e );
+        }
+        finally
+        {
+            fs.deleteFile( file );
+            channel = null;
+            size = 0;
+        }
+    }
+}
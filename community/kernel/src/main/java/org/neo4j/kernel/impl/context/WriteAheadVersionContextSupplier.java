@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.context;
+
+import java.util.function.LongSupplier;
+
+import org.neo4j.io.pagecache.PageWriteBarrier;
+import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
+import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
+
+/**
+ * {@link VersionContextSupplier} that supplies the version contexts of another supplier, along with a {@link PageWriteBarrier} that the page
+ * cache goes through before writing modified pages of files mapped with it.
+ */
+public class WriteAheadVersionContextSupplier implements VersionContextSupplier
+{
+    private final VersionContextSupplier delegate;
+    private final PageWriteBarrier writeBarrier;
+
+    public WriteAheadVersionContextSupplier( VersionContextSupplier delegate, PageWriteBarrier writeBarrier )
+    {
+        this.delegate = delegate;
+        this.writeBarrier = writeBarrier;
+    }
+
+    @Override
+    public void init( LongSupplier lastClosedTransactionIdSupplier )
+    {
+        delegate.init( lastClosedTransactionIdSupplier );
+    }
+
+    @Override
+    public VersionContext getVersionContext()
+    {
+        return delegate.getVersionContext();
+    }
+
+    @Override
+    public PageWriteBarrier pageWriteBarrier()
+    {
+        return writeBarrier;
+    }
+}
@@ -630,6 +630,16 @@ public class TransactionImpl extends EntityValidationTransactionImpl
         kernelTransaction().setMetaData( txMeta );
     }
 
+    /**
+     * Lets this transaction commit without waiting for the transaction log to be forced, see {@link KernelTransaction#setRelaxedDurability(boolean)}.
+     *
+     * @param relaxedDurability {@code true} to commit with relaxed durability.
+     */
+    public void setRelaxedDurability( boolean relaxedDurability )
+    {
+        kernelTransaction().setRelaxedDurability( relaxedDurability );
+    }
+
     @Override
     public RelationshipEntity newRelationshipEntity( long id )
     {
@@ -20,23 +20,34 @@
 package org.neo4j.kernel.impl.factory;
 
 import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.kernel.database.DatabaseTracers;
 import org.neo4j.kernel.impl.api.CommitProcessFactory;
 import org.neo4j.kernel.impl.api.ReadOnlyTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionRepresentationCommitProcess;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StorageEngine;
 
 public class CommunityCommitProcessFactory implements CommitProcessFactory
 {
     @Override
-    public TransactionCommitProcess create( TransactionAppender appender, StorageEngine storageEngine, Config config )
+    public TransactionCommitProcess create( TransactionAppender appender, StorageEngine storageEngine, Config config, JobScheduler scheduler,
+            DatabaseTracers tracers )
     {
         if ( config.get( GraphDatabaseSettings.read_only ) )
         {
             return new ReadOnlyTransactionCommitProcess();
         }
+        int pipelineGroupSize = config.get( GraphDatabaseInternalSettings.pipelined_commit_group_size );
+        if ( pipelineGroupSize > 0 )
+        {
+            return new TransactionRepresentationCommitProcess( appender, storageEngine, scheduler.executor( Group.COMMIT_PIPELINE ), pipelineGroupSize,
+                    tracers );
+        }
         return new TransactionRepresentationCommitProcess( appender, storageEngine );
     }
 }
@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.LockType;
+import org.neo4j.lock.LockWaitEvent;
+import org.neo4j.lock.ResourceType;
+import org.neo4j.time.SystemNanoClock;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A {@link LockTracer} profiling where the transactions of a database wait for locks. Every lock wait is counted, along with the time spent
+ * waiting, both per {@link ResourceType resource type} and per resource. Only the most contended resources are kept track of, so that the
+ * memory used by the profile is bounded, which makes their wait times approximate, see {@link Contention#waitTimeErrorNanos()}. Lock waits
+ * don't know which query they are for, so the queries waiting for locks are instead found by {@link LockContentionSampler sampling} the
+ * executing queries, and each sample counts as waiting for the time between samples.
+ * <p>
+ * Nothing is done until a lock client actually has to wait for a lock, so acquiring uncontended locks costs nothing extra.
+ */
+public class LockContentionProfiler implements LockTracer, LockWaitCounters
+{
+    private final SystemNanoClock clock;
+    private final Map<ResourceType,WaitStatistics> resourceTypes = new ConcurrentHashMap<>();
+    private final ContentionTable<Resource> resources;
+    private final ContentionTable<String> queries;
+
+    public LockContentionProfiler( SystemNanoClock clock, int trackedEntries )
+    {
+        this.clock = clock;
+        this.resources = new ContentionTable<>( trackedEntries );
+        this.queries = new ContentionTable<>( trackedEntries );
+    }
+
+    @Override
+    public LockWaitEvent waitForLock( LockType lockType, ResourceType resourceType, long transactionId, long... resourceIds )
+    {
+        long startNanos = clock.nanos();
+        return () -> waited( resourceType, resourceIds, clock.nanos() - startNanos );
+    }
+
+    private void waited( ResourceType resourceType, long[] resourceIds, long waitNanos )
+    {
+        resourceTypes.computeIfAbsent( resourceType, type -> new WaitStatistics( 0 ) ).record( waitNanos );
+        for ( long resourceId : resourceIds )
+        {
+            resources.record( new Resource( resourceType, resourceId ), waitNanos );
+        }
+    }
+
+    /**
+     * Records that a query was found waiting for locks by one of the samples taken the given time apart.
+     */
+    public void sampleWaitingQuery( String query, long sampleIntervalNanos )
+    {
+        queries.record( query, sampleIntervalNanos );
+    }
+
+    /**
+     * @return the lock waits of each resource type that has been waited for, most waited for first.
+     */
+    public List<Contention> resourceTypeContention()
+    {
+        List<Contention> contention = new ArrayList<>();
+        resourceTypes.forEach( ( resourceType, statistics ) -> contention.add( statistics.contention( resourceType, -1, null ) ) );
+        contention.sort( Contention.MOST_WAITED_FOR_FIRST );
+        return contention;
+    }
+
+    /**
+     * @return the lock waits of at most the given number of resources, most waited for first.
+     */
+    public List<Contention> resourceContention( int limit )
+    {
+        return resources.top( limit, ( resource, statistics ) -> statistics.contention( resource.resourceType, resource.resourceId, null ) );
+    }
+
+    /**
+     * @return the sampled lock waits of at most the given number of queries, most waited for first. The number of waits is the number of
+     * samples that found the query waiting.
+     */
+    public List<Contention> queryContention( int limit )
+    {
+        return queries.top( limit, ( query, statistics ) -> statistics.contention( null, -1, query ) );
+    }
+
+    @Override
+    public long getNumberOfLockWaits()
+    {
+        long waits = 0;
+        for ( WaitStatistics statistics : resourceTypes.values() )
+        {
+            waits += statistics.waits.sum();
+        }
+        return waits;
+    }
+
+    @Override
+    public long getTotalLockWaitTimeMillis()
+    {
+        long waitNanos = 0;
+        for ( WaitStatistics statistics : resourceTypes.values() )
+        {
+            waitNanos += statistics.waitNanos.sum();
+        }
+        return NANOSECONDS.toMillis( waitNanos );
+    }
+
+    @Override
+    public long getMaxLockWaitTimeMillis()
+    {
+        long maxWaitNanos = 0;
+        for ( WaitStatistics statistics : resourceTypes.values() )
+        {
+            maxWaitNanos = Math.max( maxWaitNanos, statistics.maxWaitNanos.get() );
+        }
+        return NANOSECONDS.toMillis( maxWaitNanos );
+    }
+
+    /**
+     * The lock waits of a resource type, a resource or a query.
+     */
+    public static class Contention
+    {
+        static final Comparator<Contention> MOST_WAITED_FOR_FIRST = Comparator.comparingLong( Contention::waitTimeNanos ).reversed();
+
+        private final ResourceType resourceType;
+        private final long resourceId;
+        private final String query;
+        private final long waits;
+        private final long waitTimeNanos;
+        private final long waitTimeErrorNanos;
+        private final long maxWaitTimeNanos;
+
+        Contention( ResourceType resourceType, long resourceId, String query, long waits, long waitTimeNanos, long waitTimeErrorNanos,
+                long maxWaitTimeNanos )
+        {
+            this.resourceType = resourceType;
+            this.resourceId = resourceId;
+            this.query = query;
+            this.waits = waits;
+            this.waitTimeNanos = waitTimeNanos;
+            this.waitTimeErrorNanos = waitTimeErrorNanos;
+            this.maxWaitTimeNanos = maxWaitTimeNanos;
+        }
+
+        /**
+         * @return the resource type waited for, or {@code null} for the contention of a query.
+         */
+        public ResourceType resourceType()
+        {
+            return resourceType;
+        }
+
+        /**
+         * @return the id of the resource waited for, or {@code -1} for the contention of a resource type or a query.
+         */
+        public long resourceId()
+        {
+            return resourceId;
+        }
+
+        /**
+         * @return the obfuscated text of the query waiting, or {@code null} for the contention of a resource type or a resource.
+         */
+        public String query()
+        {
+            return query;
+        }
+
+        public long waits()
+        {
+            return waits;
+        }
+
+        /**
+         * @return the time waited. For a resource or a query, this may include up to {@link #waitTimeErrorNanos()} of time waited for other
+         * resources or queries, that were no longer kept track of to make room for this one.
+         */
+        public long waitTimeNanos()
+        {
+            return waitTimeNanos;
+        }
+
+        /**
+         * @return how much the {@link #waitTimeNanos() time waited} may be overestimated, which is always {@code 0} for a resource type.
+         */
+        public long waitTimeErrorNanos()
+        {
+            return waitTimeErrorNanos;
+        }
+
+        public long maxWaitTimeNanos()
+        {
+            return maxWaitTimeNanos;
+        }
+    }
+
+    private static class WaitStatistics
+    {
+        private final LongAdder waits = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final long inheritedWaitNanos;
+
+        WaitStatistics( long inheritedWaitNanos )
+        {
+            this.inheritedWaitNanos = inheritedWaitNanos;
+            waitNanos.add( inheritedWaitNanos );
+        }
+
+        void record( long nanos )
+        {
+            waits.increment();
+            waitNanos.add( nanos );
+            long max = maxWaitNanos.get();
+            while ( nanos > max && !maxWaitNanos.compareAndSet( max, nanos ) )
+            {
+                max = maxWaitNanos.get();
+            }
+        }
+
+        Contention contention( ResourceType resourceType, long resourceId, String query )
+        {
+            return new Contention( resourceType, resourceId, query, waits.sum(), waitNanos.sum(), inheritedWaitNanos, maxWaitNanos.get() );
+        }
+    }
+
+    /**
+     * The wait statistics of a bounded number of keys, kept the Space-Saving way. When full, the key with the least time waited is forgotten to
+     * make room for a new key, which inherits its time waited. That overestimates the time waited for the new key by at most the inherited
+     * time, but lets a key that is waited for a lot, and only starts to be waited for once the table is full, stay in the table. Had it
+     * started from nothing, it would have been the least waited for key, and so forgotten again, as soon as the next new key came along.
+     */
+    private static class ContentionTable<K>
+    {
+        private final ConcurrentHashMap<K,WaitStatistics> entries = new ConcurrentHashMap<>();
+        private final int capacity;
+
+        ContentionTable( int capacity )
+        {
+            this.capacity = capacity;
+        }
+
+        void record( K key, long nanos )
+        {
+            WaitStatistics statistics = entries.get( key );
+            if ( statistics == null )
+            {
+                statistics = track( key );
+            }
+            statistics.record( nanos );
+        }
+
+        private synchronized WaitStatistics track( K key )
+        {
+            WaitStatistics statistics = entries.get( key );
+            if ( statistics == null )
+            {
+                long inheritedWaitNanos = entries.size() >= capacity ? evictLeastWaitedFor() : 0;
+                statistics = new WaitStatistics( inheritedWaitNanos );
+                entries.put( key, statistics );
+            }
+            return statistics;
+        }
+
+        /**
+         * @return the time waited for the evicted key.
+         */
+        private long evictLeastWaitedFor()
+        {
+            K leastWaitedFor = null;
+            long leastWaitNanos = Long.MAX_VALUE;
+            for ( Map.Entry<K,WaitStatistics> entry : entries.entrySet() )
+            {
+                long waitNanos = entry.getValue().waitNanos.sum();
+                if ( waitNanos < leastWaitNanos )
+                {
+                    leastWaitedFor = entry.getKey();
+                    leastWaitNanos = waitNanos;
+                }
+            }
+            if ( leastWaitedFor == null )
+            {
+                return 0;
+            }
+            entries.remove( leastWaitedFor );
+            return leastWaitNanos;
+        }
+
+        List<Contention> top( int limit, ContentionFactory<K> factory )
+        {
+            List<Contention> contention = new ArrayList<>();
+            entries.forEach( ( key, statistics ) -> contention.add( factory.contention( key, statistics ) ) );
+            contention.sort( Contention.MOST_WAITED_FOR_FIRST );
+            return contention.size() > limit ? new ArrayList<>( contention.subList( 0, limit ) ) : contention;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ContentionFactory<K>
+    {
+        Contention contention( K key, WaitStatistics statistics );
+    }
+
+    private static class Resource
+    {
+        private final ResourceType resourceType;
+        private final long resourceId;
+
+        Resource( ResourceType resourceType, long resourceId )
+        {
+            this.resourceType = resourceType;
+            this.resourceId = resourceId;
+        }
+
+        @Override
+        public boolean equals( Object o )
+        {
+            if ( this == o )
+            {
+                return true;
+            }
+            if ( o == null || getClass() != o.getClass() )
+            {
+                return false;
+            }
+            Resource that = (Resource) o;
+            return resourceId == that.resourceId && resourceType.equals( that.resourceType );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * resourceType.typeId() + Long.hashCode( resourceId );
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.kernel.api.KernelTransactionHandle;
+import org.neo4j.kernel.api.query.ExecutingQuery;
+import org.neo4j.kernel.impl.api.KernelTransactions;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobMonitoringParams;
+import org.neo4j.scheduler.JobScheduler;
+
+/**
+ * Periodically looks for the executing queries that are waiting for locks, and records them in the {@link LockContentionProfiler}.
+ */
+public class LockContentionSampler extends LifecycleAdapter implements Runnable
+{
+    private final LockContentionProfiler profiler;
+    private final KernelTransactions kernelTransactions;
+    private final JobScheduler scheduler;
+    private final long sampleIntervalNanos;
+    private final String databaseName;
+    private JobHandle<?> samplerJobHandle;
+
+    public LockContentionSampler( LockContentionProfiler profiler, KernelTransactions kernelTransactions, JobScheduler scheduler,
+            Duration sampleInterval, String databaseName )
+    {
+        this.profiler = profiler;
+        this.kernelTransactions = kernelTransactions;
+        this.scheduler = scheduler;
+        this.sampleIntervalNanos = sampleInterval.toNanos();
+        this.databaseName = databaseName;
+    }
+
+    @Override
+    public void start()
+    {
+        var monitoringParams = JobMonitoringParams.systemJob( databaseName, "Sampling of queries waiting for locks" );
+        samplerJobHandle = scheduler.scheduleRecurring( Group.LOCK_CONTENTION_PROFILER, monitoringParams, this,
+                sampleIntervalNanos, TimeUnit.NANOSECONDS );
+    }
+
+    @Override
+    public void stop()
+    {
+        if ( samplerJobHandle != null )
+        {
+            samplerJobHandle.cancel();
+            samplerJobHandle = null;
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        for ( KernelTransactionHandle transaction : kernelTransactions.executingTransactions() )
+        {
+            ExecutingQuery query = transaction.executingQuery().orElse( null );
+            if ( query != null && query.isWaitingOnLocks() )
+            {
+                query.snapshot().obfuscatedQueryText().ifPresent( text -> profiler.sampleWaitingQuery( text, sampleIntervalNanos ) );
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.lock.ResourceType;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * The lock of a single resource. Whether it is held, and by whom, is kept in a single {@code long} that is updated with compare-and-set:
+ * the high 32 bits hold the unsigned {@link StripedLockClient#getLockSessionId() id} of the client holding it exclusively, or zero, and the low 32 bits
+ * the number of clients holding it shared. Each client holds a lock at most once, re-entrance is counted by the client itself.
+ * <p>
+ * A lock that is no longer held by anyone is marked dead and removed from its lock table, so that locks don't outlive their use.
+ * A client finding a dead lock looks it up anew. The holders and waiters of a lock are also kept in concurrent collections, which are
+ * only used for introspection, deadlock detection and waking up waiters, and so don't need to be updated atomically with the state.
+ */
+final class ResourceLock
+{
+    private static final long DEAD = -1;
+    private static final int OWNER_SHIFT = Integer.SIZE;
+    private static final long SHARED_MASK = 0xFFFF_FFFFL;
+
+    private final ResourceType resourceType;
+    private final long resourceId;
+    private final AtomicLong state = new AtomicLong();
+    private final Set<StripedLockClient> sharedHolders = ConcurrentHashMap.newKeySet();
+    private final Queue<StripedLockClient> waiters = new ConcurrentLinkedQueue<>();
+    private volatile StripedLockClient exclusiveHolder;
+
+    ResourceLock( ResourceType resourceType, long resourceId )
+    {
+        this.resourceType = resourceType;
+        this.resourceId = resourceId;
+    }
+
+    ResourceType resourceType()
+    {
+        return resourceType;
+    }
+
+    long resourceId()
+    {
+        return resourceId;
+    }
+
+    boolean isDead()
+    {
+        return state.get() == DEAD;
+    }
+
+    /**
+     * @return {@code true} if the shared lock was acquired, {@code false} if another client holds it exclusively, or this lock is dead.
+     */
+    boolean tryAcquireShared( StripedLockClient client )
+    {
+        long current;
+        do
+        {
+            current = state.get();
+            long owner = owner( current );
+            if ( current == DEAD || (owner != 0 && owner != ownerId( client )) )
+            {
+                return false;
+            }
+        }
+        while ( !state.compareAndSet( current, current + 1 ) );
+        sharedHolders.add( client );
+        return true;
+    }
+
+    /**
+     * @param holdsShared whether the client already holds this lock shared, and so is upgrading it.
+     * @return {@code true} if the exclusive lock was acquired, {@code false} if any other client holds it, or this lock is dead.
+     */
+    boolean tryAcquireExclusive( StripedLockClient client, boolean holdsShared )
+    {
+        long current;
+        do
+        {
+            current = state.get();
+            if ( current == DEAD || owner( current ) != 0 || sharedCount( current ) != (holdsShared ? 1 : 0) )
+            {
+                return false;
+            }
+        }
+        while ( !state.compareAndSet( current, current | (ownerId( client ) << OWNER_SHIFT) ) );
+        exclusiveHolder = client;
+        return true;
+    }
+
+    /**
+     * @return {@code true} if this lock is no longer held by anyone, and so is now dead.
+     */
+    boolean releaseShared( StripedLockClient client )
+    {
+        sharedHolders.remove( client );
+        return released( state.decrementAndGet() );
+    }
+
+    /**
+     * @return {@code true} if this lock is no longer held by anyone, and so is now dead.
+     */
+    boolean releaseExclusive( StripedLockClient client )
+    {
+        exclusiveHolder = null;
+        long current;
+        long next;
+        do
+        {
+            current = state.get();
+            next = current & SHARED_MASK;
+        }
+        while ( !state.compareAndSet( current, next ) );
+        return released( next );
+    }
+
+    private boolean released( long remaining )
+    {
+        boolean dead = remaining == 0 && state.compareAndSet( 0, DEAD );
+        for ( StripedLockClient waiter : waiters )
+        {
+            waiter.wakeUp();
+        }
+        return dead;
+    }
+
+    void addWaiter( StripedLockClient client )
+    {
+        waiters.add( client );
+    }
+
+    void removeWaiter( StripedLockClient client )
+    {
+        waiters.remove( client );
+    }
+
+    /**
+     * @return the clients that hold this lock in a way that keeps the given client from acquiring it.
+     */
+    List<StripedLockClient> blockers( StripedLockClient client, boolean exclusive )
+    {
+        List<StripedLockClient> blockers = new ArrayList<>();
+        StripedLockClient owner = exclusiveHolder;
+        if ( owner != null && owner != client )
+        {
+            blockers.add( owner );
+        }
+        if ( exclusive )
+        {
+            for ( StripedLockClient holder : sharedHolders )
+            {
+                if ( holder != client )
+                {
+                    blockers.add( holder );
+                }
+            }
+        }
+        return blockers;
+    }
+
+    StripedLockClient exclusiveHolder()
+    {
+        return exclusiveHolder;
+    }
+
+    Set<StripedLockClient> sharedHolders()
+    {
+        return sharedHolders;
+    }
+
+    /**
+     * @return the time in milliseconds the longest waiting client has been waiting for this lock.
+     */
+    long maxWaitTime( long nowNanos )
+    {
+        long max = 0;
+        for ( StripedLockClient waiter : waiters )
+        {
+            max = Math.max( max, nowNanos - waiter.waitStartNanos() );
+        }
+        return NANOSECONDS.toMillis( max );
+    }
+
+    String describe()
+    {
+        long current = state.get();
+        return current == DEAD ? format( "%s: dead", this )
+                               : format( "%s: exclusive owner=%d, shared count=%d, waiters=%d",
+                                       this, owner( current ), sharedCount( current ), waiters.size() );
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "ResourceLock[%s(%d)]", resourceType, resourceId );
+    }
+
+    /**
+     * Session ids are handed out from a counter that wraps, so they are stored and compared as unsigned, like the owner is read from the state.
+     */
+    private static long ownerId( StripedLockClient client )
+    {
+        return Integer.toUnsignedLong( client.getLockSessionId() );
+    }
+
+    private static long owner( long state )
+    {
+        return state >>> OWNER_SHIFT;
+    }
+
+    private static long sharedCount( long state )
+    {
+        return state & SHARED_MASK;
+    }
+}
@@ -0,0 +1,599 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableLongIntMap;
+import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.api.LeaseClient;
+import org.neo4j.kernel.impl.locking.ActiveLock;
+import org.neo4j.kernel.impl.locking.LockAcquisitionTimeoutException;
+import org.neo4j.kernel.impl.locking.LockClientStateHolder;
+import org.neo4j.kernel.impl.locking.LockClientStoppedException;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.LockType;
+import org.neo4j.lock.LockWaitEvent;
+import org.neo4j.lock.ResourceType;
+import org.neo4j.lock.ResourceTypes;
+import org.neo4j.time.SystemNanoClock;
+
+import static java.lang.String.format;
+import static org.neo4j.lock.LockType.EXCLUSIVE;
+import static org.neo4j.lock.LockType.SHARED;
+
+/**
+ * Lock client of the {@link StripedLockManager}. Which locks the client holds, and how many times, is kept by the client itself, so only the
+ * first acquisition and the last release of a lock touch the shared {@link ResourceLock}.
+ */
+public class StripedLockClient implements Locks.Client
+{
+    /**
+     * The longest a waiting client parks before checking for deadlocks, timeouts and being stopped again, if it isn't woken up before that.
+     */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos( 10 );
+
+    private final StripedLockManager manager;
+    private final int lockSessionId;
+    private final SystemNanoClock clock;
+    private final long lockAcquisitionTimeoutNanos;
+    private final MutableIntObjectMap<MutableLongIntMap> sharedLocks = new IntObjectHashMap<>();
+    private final MutableIntObjectMap<MutableLongIntMap> exclusiveLocks = new IntObjectHashMap<>();
+    private final LockClientStateHolder stateHolder = new LockClientStateHolder();
+    private volatile long transactionId = INVALID_TRANSACTION_ID;
+
+    // What this client is waiting for, read by other clients detecting deadlocks and listing locks.
+    private volatile Thread waitingThread;
+    private volatile ResourceLock waitingFor;
+    private volatile boolean waitingForExclusive;
+    private volatile long waitStartNanos;
+
+    StripedLockClient( StripedLockManager manager, int lockSessionId, SystemNanoClock clock, long lockAcquisitionTimeoutNanos )
+    {
+        this.manager = manager;
+        this.lockSessionId = lockSessionId;
+        this.clock = clock;
+        this.lockAcquisitionTimeoutNanos = lockAcquisitionTimeoutNanos;
+    }
+
+    @Override
+    public void initialize( LeaseClient leaseClient, long transactionId )
+    {
+        this.transactionId = transactionId;
+    }
+
+    @Override
+    public void acquireShared( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localShared( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                if ( !reEnter( localLocks, resourceId ) )
+                {
+                    if ( !acquire( tracer, resourceType, resourceId, false, false ) )
+                    {
+                        throw new LockClientStoppedException( this );
+                    }
+                    localLocks.put( resourceId, 1 );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void acquireExclusive( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localExclusive( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                if ( !reEnter( localLocks, resourceId ) )
+                {
+                    if ( !acquire( tracer, resourceType, resourceId, true, localShared( resourceType ).containsKey( resourceId ) ) )
+                    {
+                        throw new LockClientStoppedException( this );
+                    }
+                    localLocks.put( resourceId, 1 );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean tryExclusiveLock( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localExclusive( resourceType );
+            if ( reEnter( localLocks, resourceId ) )
+            {
+                return true;
+            }
+            if ( tryAcquire( resourceType, resourceId, true, localShared( resourceType ).containsKey( resourceId ) ) )
+            {
+                localLocks.put( resourceId, 1 );
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean trySharedLock( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localShared( resourceType );
+            if ( reEnter( localLocks, resourceId ) )
+            {
+                return true;
+            }
+            if ( tryAcquire( resourceType, resourceId, false, false ) )
+            {
+                localLocks.put( resourceId, 1 );
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean reEnterShared( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            return reEnter( localShared( resourceType ), resourceId );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean reEnterExclusive( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            return reEnter( localExclusive( resourceType ), resourceId );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    private static boolean reEnter( MutableLongIntMap localLocks, long resourceId )
+    {
+        int count = localLocks.getIfAbsent( resourceId, 0 );
+        if ( count > 0 )
+        {
+            localLocks.put( resourceId, count + 1 );
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void releaseShared( ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localShared( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                if ( releaseLocal( localLocks, resourceType, resourceId, SHARED ) )
+                {
+                    release( resourceType, resourceId, false );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void releaseExclusive( ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localExclusive( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                if ( releaseLocal( localLocks, resourceType, resourceId, EXCLUSIVE ) )
+                {
+                    release( resourceType, resourceId, true );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    /**
+     * @return {@code true} if this was the last re-entrant hold of the lock, which should then be released.
+     */
+    private boolean releaseLocal( MutableLongIntMap localLocks, ResourceType resourceType, long resourceId, LockType lockType )
+    {
+        int count = localLocks.getIfAbsent( resourceId, 0 );
+        if ( count == 0 )
+        {
+            throw new IllegalStateException( format( "%s can not release %s lock on %s(%d), since it does not hold it.",
+                    this, lockType, resourceType, resourceId ) );
+        }
+        if ( count == 1 )
+        {
+            localLocks.remove( resourceId );
+            return true;
+        }
+        localLocks.put( resourceId, count - 1 );
+        return false;
+    }
+
+    @Override
+    public void prepare()
+    {
+        stateHolder.prepare( this );
+    }
+
+    @Override
+    public void stop()
+    {
+        // closing client to prevent any new client to come
+        if ( stateHolder.stopClient() )
+        {
+            // wake up and terminate waiters
+            terminateAllWaitersAndWaitForClientsToLeave();
+            releaseLocks();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        stateHolder.closeClient();
+        terminateAllWaitersAndWaitForClientsToLeave();
+        releaseLocks();
+        transactionId = INVALID_TRANSACTION_ID;
+    }
+
+    private void terminateAllWaitersAndWaitForClientsToLeave()
+    {
+        // A waiter sees that this client is stopped when it is woken up, and gives up.
+        wakeUp();
+        while ( stateHolder.hasActiveClients() )
+        {
+            wakeUp();
+            LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 20 ) );
+        }
+    }
+
+    private synchronized void releaseLocks()
+    {
+        exclusiveLocks.forEachKeyValue( ( typeId, localLocks ) ->
+                localLocks.forEachKey( resourceId -> release( ResourceTypes.fromId( typeId ), resourceId, true ) ) );
+        sharedLocks.forEachKeyValue( ( typeId, localLocks ) ->
+                localLocks.forEachKey( resourceId -> release( ResourceTypes.fromId( typeId ), resourceId, false ) ) );
+        exclusiveLocks.clear();
+        sharedLocks.clear();
+    }
+
+    @Override
+    public int getLockSessionId()
+    {
+        return lockSessionId;
+    }
+
+    @Override
+    public Stream<ActiveLock> activeLocks()
+    {
+        List<ActiveLock> locks = new ArrayList<>();
+        collectActiveLocks( locks, exclusiveLocks, EXCLUSIVE );
+        collectActiveLocks( locks, sharedLocks, SHARED );
+        return locks.stream();
+    }
+
+    private void collectActiveLocks( List<ActiveLock> locks, MutableIntObjectMap<MutableLongIntMap> localLocks, LockType lockType )
+    {
+        long userTransactionId = transactionId;
+        localLocks.forEachKeyValue( ( typeId, resourceIds ) ->
+        {
+            ResourceType resourceType = ResourceTypes.fromId( typeId );
+            resourceIds.forEachKey( resourceId -> locks.add( new ActiveLock( resourceType, lockType, userTransactionId, resourceId ) ) );
+        } );
+    }
+
+    @Override
+    public long activeLockCount()
+    {
+        long count = 0;
+        for ( MutableLongIntMap localLocks : exclusiveLocks.values() )
+        {
+            count += localLocks.size();
+        }
+        for ( MutableLongIntMap localLocks : sharedLocks.values() )
+        {
+            count += localLocks.size();
+        }
+        return count;
+    }
+
+    long transactionId()
+    {
+        return transactionId;
+    }
+
+    long waitStartNanos()
+    {
+        return waitStartNanos;
+    }
+
+    void wakeUp()
+    {
+        Thread thread = waitingThread;
+        if ( thread != null )
+        {
+            LockSupport.unpark( thread );
+        }
+    }
+
+    /**
+     * Acquires the lock, waiting for it if it is held by other clients.
+     *
+     * @return {@code true} if the lock was acquired, {@code false} if this client was stopped while waiting for it.
+     */
+    private boolean acquire( LockTracer tracer, ResourceType resourceType, long resourceId, boolean exclusive, boolean holdsShared )
+    {
+        LockWaitEvent waitEvent = null;
+        boolean interrupted = false;
+        try
+        {
+            while ( true )
+            {
+                ResourceLock lock = manager.lock( resourceType, resourceId );
+                if ( tryAcquire( lock, exclusive, holdsShared ) )
+                {
+                    return true;
+                }
+                if ( lock.isDead() )
+                {
+                    manager.remove( lock );
+                    continue;
+                }
+
+                if ( waitEvent == null )
+                {
+                    waitEvent = tracer.waitForLock( exclusive ? EXCLUSIVE : SHARED, resourceType, transactionId, resourceId );
+                    waitStartNanos = clock.nanos();
+                }
+                waitingThread = Thread.currentThread();
+                waitingForExclusive = exclusive;
+                waitingFor = lock;
+                // Register as waiter before trying again, so that a release in between is sure to wake us up.
+                lock.addWaiter( this );
+                try
+                {
+                    while ( !lock.isDead() )
+                    {
+                        if ( tryAcquire( lock, exclusive, holdsShared ) )
+                        {
+                            return true;
+                        }
+                        if ( stateHolder.isStopped() )
+                        {
+                            return false;
+                        }
+                        assertNotExpired( resourceType, resourceId );
+                        detectDeadlock( lock, exclusive );
+                        waitForLock( MAX_PARK_NANOS );
+                        interrupted |= Thread.interrupted();
+                    }
+                }
+                finally
+                {
+                    lock.removeWaiter( this );
+                    waitingFor = null;
+                    waitingThread = null;
+                }
+            }
+        }
+        finally
+        {
+            if ( waitEvent != null )
+            {
+                waitEvent.close();
+            }
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void waitForLock( long maxParkNanos )
+    {
+        long parkNanos = maxParkNanos;
+        if ( lockAcquisitionTimeoutNanos > 0 )
+        {
+            parkNanos = Math.max( 1, Math.min( parkNanos, lockAcquisitionTimeoutNanos - (clock.nanos() - waitStartNanos) ) );
+        }
+        LockSupport.parkNanos( this, parkNanos );
+    }
+
+    private boolean tryAcquire( ResourceType resourceType, long resourceId, boolean exclusive, boolean holdsShared )
+    {
+        while ( true )
+        {
+            ResourceLock lock = manager.lock( resourceType, resourceId );
+            if ( tryAcquire( lock, exclusive, holdsShared ) )
+            {
+                return true;
+            }
+            if ( !lock.isDead() )
+            {
+                return false;
+            }
+            manager.remove( lock );
+        }
+    }
+
+    private boolean tryAcquire( ResourceLock lock, boolean exclusive, boolean holdsShared )
+    {
+        return exclusive ? lock.tryAcquireExclusive( this, holdsShared ) : lock.tryAcquireShared( this );
+    }
+
+    private void release( ResourceType resourceType, long resourceId, boolean exclusive )
+    {
+        ResourceLock lock = manager.existingLock( resourceType, resourceId );
+        if ( exclusive ? lock.releaseExclusive( this ) : lock.releaseShared( this ) )
+        {
+            manager.remove( lock );
+        }
+    }
+
+    private void assertNotExpired( ResourceType resourceType, long resourceId )
+    {
+        if ( lockAcquisitionTimeoutNanos > 0 && clock.nanos() - waitStartNanos >= lockAcquisitionTimeoutNanos )
+        {
+            throw new LockAcquisitionTimeoutException( resourceType, resourceId, lockAcquisitionTimeoutNanos );
+        }
+    }
+
+    /**
+     * Looks for a cycle of waiting clients, from the holders of the given lock, through the holders of the locks they wait for, back to this
+     * client. Every client in such a cycle sees it, so to abort only one of them, the one that started waiting last aborts.
+     */
+    private void detectDeadlock( ResourceLock lock, boolean exclusive )
+    {
+        Set<StripedLockClient> visited = new HashSet<>();
+        Deque<StripedLockClient> cycle = new ArrayDeque<>();
+        for ( StripedLockClient blocker : lock.blockers( this, exclusive ) )
+        {
+            if ( waitsFor( blocker, visited, cycle ) )
+            {
+                if ( startedWaitingLast( cycle ) )
+                {
+                    throw new DeadlockDetectedException( format( "%s can't acquire %s lock on %s, since it would deadlock with %s.",
+                            this, exclusive ? EXCLUSIVE : SHARED, lock, cycle ) );
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the given client waits for this client, directly or through other clients, which are then added to the path.
+     */
+    private boolean waitsFor( StripedLockClient client, Set<StripedLockClient> visited, Deque<StripedLockClient> path )
+    {
+        if ( client == this )
+        {
+            return true;
+        }
+        ResourceLock lock = client.waitingFor;
+        if ( lock == null || !visited.add( client ) )
+        {
+            return false;
+        }
+        path.addLast( client );
+        for ( StripedLockClient blocker : lock.blockers( client, client.waitingForExclusive ) )
+        {
+            if ( waitsFor( blocker, visited, path ) )
+            {
+                return true;
+            }
+        }
+        path.removeLast();
+        return false;
+    }
+
+    private boolean startedWaitingLast( Deque<StripedLockClient> cycle )
+    {
+        for ( StripedLockClient client : cycle )
+        {
+            long otherWaitStart = client.waitStartNanos;
+            if ( otherWaitStart > waitStartNanos || (otherWaitStart == waitStartNanos && client.lockSessionId > lockSessionId) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private MutableLongIntMap localShared( ResourceType resourceType )
+    {
+        return sharedLocks.getIfAbsentPut( resourceType.typeId(), LongIntHashMap::new );
+    }
+
+    private MutableLongIntMap localExclusive( ResourceType resourceType )
+    {
+        return exclusiveLocks.getIfAbsentPut( resourceType.typeId(), LongIntHashMap::new );
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "%s[%d]", getClass().getSimpleName(), getLockSessionId() );
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.lock.LockType;
+import org.neo4j.lock.ResourceType;
+import org.neo4j.time.SystemNanoClock;
+import org.neo4j.util.VisibleForTesting;
+
+/**
+ * A {@link Locks} implementation without any global monitor. The locks of each resource type are kept in their own lock table, a
+ * {@link ConcurrentHashMap} striped over the resource ids, and each {@link ResourceLock} is acquired and released with compare-and-set.
+ * Clients waiting for a lock park, and are woken up when the lock is released.
+ * <p>
+ * Deadlocks are detected by the waiting clients themselves, by following the clients they wait for and the clients those in turn wait for.
+ * Only the clients on that path are looked at, rather than taking a global lock to walk a global wait-for graph.
+ */
+public class StripedLockManager implements Locks
+{
+    private final ConcurrentHashMap<Long,ResourceLock>[] lockTables;
+    private final ResourceType[] resourceTypes;
+    private final SystemNanoClock clock;
+    private final long lockAcquisitionTimeoutNanos;
+    private final AtomicInteger lockSessionIds;
+    private volatile boolean closed;
+
+    public StripedLockManager( Config config, SystemNanoClock clock, ResourceType[] resourceTypes )
+    {
+        this( config, clock, resourceTypes, 0 );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @VisibleForTesting
+    StripedLockManager( Config config, SystemNanoClock clock, ResourceType[] resourceTypes, int lastLockSessionId )
+    {
+        int maxTypeId = 0;
+        for ( ResourceType resourceType : resourceTypes )
+        {
+            maxTypeId = Math.max( maxTypeId, resourceType.typeId() );
+        }
+        this.lockTables = new ConcurrentHashMap[maxTypeId + 1];
+        this.resourceTypes = new ResourceType[maxTypeId + 1];
+        for ( ResourceType resourceType : resourceTypes )
+        {
+            this.lockTables[resourceType.typeId()] = new ConcurrentHashMap<>( 16, 0.75f, Runtime.getRuntime().availableProcessors() );
+            this.resourceTypes[resourceType.typeId()] = resourceType;
+        }
+        this.clock = clock;
+        this.lockSessionIds = new AtomicInteger( lastLockSessionId );
+        this.lockAcquisitionTimeoutNanos = config.get( GraphDatabaseSettings.lock_acquisition_timeout ).toNanos();
+    }
+
+    @Override
+    public Client newClient()
+    {
+        if ( closed )
+        {
+            throw new IllegalStateException( this + " already closed" );
+        }
+        return new StripedLockClient( this, nextLockSessionId(), clock, lockAcquisitionTimeoutNanos );
+    }
+
+    /**
+     * The session ids wrap around, but zero is never handed out since it means that a {@link ResourceLock} has no exclusive owner.
+     */
+    private int nextLockSessionId()
+    {
+        int id;
+        do
+        {
+            id = lockSessionIds.incrementAndGet();
+        }
+        while ( id == 0 );
+        return id;
+    }
+
+    /**
+     * @return the lock of the given resource, which may turn out to be {@link ResourceLock#isDead() dead} by the time it is acquired.
+     */
+    ResourceLock lock( ResourceType resourceType, long resourceId )
+    {
+        ConcurrentHashMap<Long,ResourceLock> lockTable = lockTables[resourceType.typeId()];
+        ResourceLock lock = lockTable.get( resourceId );
+        return lock != null ? lock : lockTable.computeIfAbsent( resourceId, id -> new ResourceLock( resourceType, id ) );
+    }
+
+    /**
+     * @return the lock of the given resource, if it exists.
+     */
+    ResourceLock existingLock( ResourceType resourceType, long resourceId )
+    {
+        return lockTables[resourceType.typeId()].get( resourceId );
+    }
+
+    /**
+     * Removes a {@link ResourceLock#isDead() dead} lock from its lock table, so that it can be replaced by a new lock of the same resource.
+     */
+    void remove( ResourceLock lock )
+    {
+        lockTables[lock.resourceType().typeId()].remove( lock.resourceId(), lock );
+    }
+
+    @Override
+    public void accept( Visitor visitor )
+    {
+        long now = clock.nanos();
+        for ( int typeId = 0; typeId < lockTables.length; typeId++ )
+        {
+            if ( lockTables[typeId] == null )
+            {
+                continue;
+            }
+            ResourceType resourceType = resourceTypes[typeId];
+            for ( ResourceLock lock : lockTables[typeId].values() )
+            {
+                StripedLockClient owner = lock.exclusiveHolder();
+                LockType lockType = owner != null ? LockType.EXCLUSIVE : LockType.SHARED;
+                Set<StripedLockClient> holders = new HashSet<>( lock.sharedHolders() );
+                if ( owner != null )
+                {
+                    holders.add( owner );
+                }
+                for ( StripedLockClient holder : holders )
+                {
+                    visitor.visit( lockType, resourceType, holder.transactionId(), lock.resourceId(), lock.describe(),
+                            lock.maxWaitTime( now ), System.identityHashCode( lock ) );
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+    }
+}
@@ -108,11 +108,15 @@ class DetachingRelationshipDeleter
         }
         while ( retry );
 
-        // Then finally remove all relationships incident on our node.
+        // Then finally remove all relationships incident on our node, locking them all in one go, also following the id ordering.
+        long[] sortedRelIds = relIds.toSortedArray();
+        if ( sortedRelIds.length > 0 )
+        {
+            locks.acquireExclusive( lockTracer, ResourceTypes.RELATIONSHIP, sortedRelIds );
+        }
         int relationshipsDeleted = 0;
-        for ( long relId : relIds.toSortedArray() )
+        for ( long relId : sortedRelIds )
         {
-            locks.acquireExclusive( lockTracer, ResourceTypes.RELATIONSHIP, relId );
             if ( relationshipDeleter.test( relId ) )
             {
                 relationshipsDeleted++;
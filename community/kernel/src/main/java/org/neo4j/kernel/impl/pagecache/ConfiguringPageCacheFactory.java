@@ -27,7 +27,9 @@ import org.neo4j.io.mem.MemoryAllocator;
 import org.neo4j.io.os.OsBeanUtil;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.impl.CompressingPageSwapperFactory;
 import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.FileQuotas;
 import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
@@ -38,6 +40,14 @@ import org.neo4j.memory.MemoryTracker;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.time.SystemNanoClock;
 
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_compressed_files;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_eviction_policy;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_file_quotas;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_huge_pages;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_prefer_direct_io;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_write_back_dirty_ratio;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_write_back_enabled;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_write_back_max_pages_per_second;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory;
 import static org.neo4j.configuration.SettingValueParsers.BYTES;
 import static org.neo4j.io.mem.MemoryAllocator.createAllocator;
@@ -96,12 +106,18 @@ public class ConfiguringPageCacheFactory
         var memoryTracker = memoryPool.getPoolMemoryTracker();
         MemoryAllocator memoryAllocator = buildMemoryAllocator( pageCacheMaxMemory, memoryTracker );
         var bufferFactory = new ConfigurableIOBufferFactory( config, memoryTracker );
-        return new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer, versionContextSupplier, scheduler, clock, memoryTracker, bufferFactory );
+        MuninnPageCache pageCache = new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer, versionContextSupplier, scheduler, clock,
+                memoryTracker, bufferFactory, config.get( pagecache_eviction_policy ), FileQuotas.parse( config.get( pagecache_file_quotas ) ) );
+        if ( config.get( pagecache_write_back_enabled ) )
+        {
+            pageCache.enableBackgroundWriteBack( config.get( pagecache_write_back_dirty_ratio ), config.get( pagecache_write_back_max_pages_per_second ) );
+        }
+        return pageCache;
     }
 
     private MemoryAllocator buildMemoryAllocator( long pageCacheMaxMemory, MemoryTracker memoryTracker )
     {
-        return createAllocator( pageCacheMaxMemory, memoryTracker );
+        return createAllocator( pageCacheMaxMemory, memoryTracker, config.get( pagecache_huge_pages ) );
     }
 
     private long getPageCacheMaxMemory( Config config )
@@ -179,8 +195,13 @@ public class ConfiguringPageCacheFactory
         log.info( msg );
     }
 
-    private static PageSwapperFactory createAndConfigureSwapperFactory( FileSystemAbstraction fs )
+    private PageSwapperFactory createAndConfigureSwapperFactory( FileSystemAbstraction fs )
     {
-        return new SingleFilePageSwapperFactory( fs );
+        SingleFilePageSwapperFactory.Monitor monitor = ( file, cause ) ->
+                log.warn( "The file system of %s does not support direct I/O, so it is read and written through the operating system cache.", file );
+        PageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory( fs, config.get( pagecache_prefer_direct_io ), monitor );
+        // Files that were compressed before are still compressed without any globs configured, so the compressing factory is always in place.
+        // Compressed pages are written from unaligned buffers, so only the files that are not compressed may prefer direct IO.
+        return new CompressingPageSwapperFactory( fs, swapperFactory, new SingleFilePageSwapperFactory( fs ), config.get( pagecache_compressed_files ) );
     }
 }
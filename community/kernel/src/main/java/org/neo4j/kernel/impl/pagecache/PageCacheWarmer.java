@@ -0,0 +1,372 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.lang.Math.toIntExact;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_warmer_enabled;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_enabled;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch_allowlist;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_profiling_interval;
+import static org.neo4j.configuration.GraphDatabaseSettings.read_only;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.scheduler.JobMonitoringParams.systemJob;
+
+/**
+ * Keeps profiles of which pages of the database files are resident in the page cache, and uses them to load those pages back in when the database
+ * starts, so that the database does not have to run on a cold page cache for a long time after a restart.
+ * <p>
+ * A profile is a compact bitmap with one bit per page of a mapped file, stored compressed in the {@value #PROFILES_DIRECTORY} directory of the
+ * database. Profiles are written periodically while the database is running, unless it is read only. When the database starts, the pages in the
+ * profiles are loaded by multiple threads, each working its way through a range of a file in file offset order, so the storage sees mostly
+ * sequential reads. The start of the database is held back until the warmup is done, so the hot set is resident before the database starts
+ * accepting any work.
+ * <p>
+ * If {@link org.neo4j.configuration.GraphDatabaseSettings#pagecache_warmup_prefetch} is enabled, the matching files are loaded in full instead.
+ * <p>
+ * None of this happens unless {@link org.neo4j.configuration.GraphDatabaseInternalSettings#pagecache_warmer_enabled} is set, so by default no
+ * profiles are written to the database directory and the start of the database is not held back.
+ */
+public class PageCacheWarmer extends LifecycleAdapter
+{
+    static final String PROFILES_DIRECTORY = "profiles";
+    static final String PROFILE_SUFFIX = ".cacheprof";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final String PAGE_CACHE_WARMER_TAG = "pageCacheWarmer";
+    private static final int PAGES_PER_LOAD_RANGE = 1 << 16; // 512 MiB worth of 8 KiB pages.
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final JobScheduler scheduler;
+    private final Path databaseDirectory;
+    private final Path profilesDirectory;
+    private final String databaseName;
+    private final Config config;
+    private final Log log;
+    private final PageCacheTracer pageCacheTracer;
+    private final int loadParallelism;
+    private volatile boolean stopped;
+    private JobHandle<?> profilingJob;
+
+    public PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, Path databaseDirectory, String databaseName,
+            Config config, Log log, PageCacheTracer pageCacheTracer )
+    {
+        this( fs, pageCache, scheduler, databaseDirectory, databaseName, config, log, pageCacheTracer, Runtime.getRuntime().availableProcessors() );
+    }
+
+    PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, Path databaseDirectory, String databaseName,
+            Config config, Log log, PageCacheTracer pageCacheTracer, int loadParallelism )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.scheduler = scheduler;
+        this.databaseDirectory = databaseDirectory;
+        this.profilesDirectory = databaseDirectory.resolve( PROFILES_DIRECTORY );
+        this.databaseName = databaseName;
+        this.config = config;
+        this.log = log;
+        this.pageCacheTracer = pageCacheTracer;
+        this.loadParallelism = Math.max( 1, loadParallelism );
+    }
+
+    @Override
+    public synchronized void start() throws Exception
+    {
+        if ( !config.get( pagecache_warmer_enabled ) || !config.get( pagecache_warmup_enabled ) )
+        {
+            return;
+        }
+        stopped = false;
+        long startTime = System.nanoTime();
+        long pagesLoaded = reheat();
+        if ( pagesLoaded > 0 )
+        {
+            log.info( "Page cache warmup completed. %d pages loaded. Duration: %s.", pagesLoaded,
+                    Duration.ofNanos( System.nanoTime() - startTime ) );
+        }
+        if ( !config.get( pagecache_warmup_prefetch ) && !config.get( read_only ) )
+        {
+            long interval = config.get( pagecache_warmup_profiling_interval ).toMillis();
+            profilingJob = scheduler.scheduleRecurring( Group.FILE_IO_HELPER, systemJob( databaseName, "Profiling of page cache" ),
+                    this::profileQuietly, interval, interval, MILLISECONDS );
+        }
+    }
+
+    @Override
+    public synchronized void stop()
+    {
+        stopped = true;
+        if ( profilingJob != null )
+        {
+            profilingJob.cancel();
+            profilingJob = null;
+        }
+    }
+
+    /**
+     * Load the pages in the latest profiles, or the whole files if pre-fetching is enabled, into the page cache.
+     * @return the number of pages that were loaded.
+     */
+    long reheat() throws IOException
+    {
+        boolean prefetch = config.get( pagecache_warmup_prefetch );
+        Pattern allowlist = Pattern.compile( config.get( pagecache_warmup_prefetch_allowlist ) );
+        Queue<LoadRange> ranges = new ConcurrentLinkedQueue<>();
+        for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+        {
+            BitSet pages = prefetch ? allPagesIfAllowed( pagedFile, allowlist ) : readProfile( pagedFile );
+            if ( pages == null || pages.isEmpty() )
+            {
+                continue;
+            }
+            for ( int from = 0; from < pages.length(); from += PAGES_PER_LOAD_RANGE )
+            {
+                ranges.add( new LoadRange( pagedFile, pages, from, Math.min( pages.length(), from + PAGES_PER_LOAD_RANGE ) ) );
+            }
+        }
+        if ( ranges.isEmpty() )
+        {
+            return 0;
+        }
+
+        // Loading more pages than fit in the cache would only evict pages we loaded earlier.
+        AtomicLong budget = new AtomicLong( pageCache.maxCachedPages() );
+        AtomicLong pagesLoaded = new AtomicLong();
+        List<JobHandle<?>> loaders = new ArrayList<>();
+        for ( int i = 0; i < Math.min( loadParallelism, ranges.size() ); i++ )
+        {
+            loaders.add( scheduler.schedule( Group.FILE_IO_HELPER, systemJob( databaseName, "Page cache warmup" ),
+                    () -> loadRanges( ranges, budget, pagesLoaded ) ) );
+        }
+        for ( JobHandle<?> loader : loaders )
+        {
+            try
+            {
+                loader.waitTermination();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new IOException( "Interrupted while warming up the page cache", e );
+            }
+            catch ( ExecutionException e )
+            {
+                throw new IOException( "Failed to warm up the page cache", e.getCause() );
+            }
+        }
+        return pagesLoaded.get();
+    }
+
+    private void loadRanges( Queue<LoadRange> ranges, AtomicLong budget, AtomicLong pagesLoaded )
+    {
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( PAGE_CACHE_WARMER_TAG ) )
+        {
+            LoadRange range;
+            while ( !stopped && (range = ranges.poll()) != null )
+            {
+                if ( !range.load( cursorTracer, budget, pagesLoaded ) )
+                {
+                    return; // The page cache is full.
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            // The file might have been unmapped while we were loading it, which is fine, since we are only warming up.
+            log.debug( "Page cache warmup of a file range failed.", e );
+        }
+    }
+
+    private void profileQuietly()
+    {
+        try
+        {
+            profile();
+        }
+        catch ( IOException e )
+        {
+            // Files might be unmapped under our feet. We will get another chance at the next profiling.
+            log.debug( "Page cache profiling failed.", e );
+        }
+    }
+
+    /**
+     * Write a new profile of the currently resident pages of every mapped file.
+     */
+    void profile() throws IOException
+    {
+        for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+        {
+            if ( stopped )
+            {
+                return;
+            }
+            Path profile = profileFile( pagedFile );
+            if ( profile == null )
+            {
+                continue;
+            }
+            BitSet residentPages = new BitSet();
+            try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( PAGE_CACHE_WARMER_TAG );
+                  PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT, cursorTracer ) )
+            {
+                while ( cursor.next() )
+                {
+                    long pageId = cursor.getCurrentPageId();
+                    if ( pageId != PageCursor.UNBOUND_PAGE_ID )
+                    {
+                        residentPages.set( toIntExact( pageId ) );
+                    }
+                }
+            }
+            writeProfile( profile, residentPages );
+        }
+    }
+
+    private void writeProfile( Path profile, BitSet residentPages ) throws IOException
+    {
+        if ( residentPages.isEmpty() )
+        {
+            fs.deleteFile( profile );
+            return;
+        }
+        fs.mkdirs( profile.getParent() );
+        Path tmpProfile = profile.resolveSibling( profile.getFileName() + TMP_SUFFIX );
+        try ( OutputStream out = new GZIPOutputStream( fs.openAsOutputStream( tmpProfile, false ) ) )
+        {
+            out.write( residentPages.toByteArray() );
+        }
+        fs.renameFile( tmpProfile, profile, REPLACE_EXISTING, ATOMIC_MOVE );
+    }
+
+    private BitSet readProfile( PagedFile pagedFile )
+    {
+        Path profile = profileFile( pagedFile );
+        if ( profile == null || !fs.fileExists( profile ) )
+        {
+            return null;
+        }
+        try ( InputStream in = new GZIPInputStream( fs.openAsInputStream( profile ) ) )
+        {
+            return BitSet.valueOf( in.readAllBytes() );
+        }
+        catch ( IOException e )
+        {
+            // A broken profile only means that we start with a colder cache.
+            log.warn( "Ignoring unreadable page cache profile " + profile, e );
+            return null;
+        }
+    }
+
+    private static BitSet allPagesIfAllowed( PagedFile pagedFile, Pattern allowlist ) throws IOException
+    {
+        if ( !allowlist.matcher( pagedFile.path().getFileName().toString() ).matches() )
+        {
+            return null;
+        }
+        BitSet pages = new BitSet();
+        pages.set( 0, toIntExact( pagedFile.getLastPageId() + 1 ) );
+        return pages;
+    }
+
+    private Path profileFile( PagedFile pagedFile )
+    {
+        Path path = pagedFile.path();
+        if ( !path.startsWith( databaseDirectory ) )
+        {
+            return null;
+        }
+        Path relativePath = databaseDirectory.relativize( path );
+        return profilesDirectory.resolve( relativePath ).resolveSibling( relativePath.getFileName() + PROFILE_SUFFIX );
+    }
+
+    private static class LoadRange
+    {
+        private final PagedFile pagedFile;
+        private final BitSet pages;
+        private final int fromPage;
+        private final int toPage;
+
+        LoadRange( PagedFile pagedFile, BitSet pages, int fromPage, int toPage )
+        {
+            this.pagedFile = pagedFile;
+            this.pages = pages;
+            this.fromPage = fromPage;
+            this.toPage = toPage;
+        }
+
+        /**
+         * Touch the pages in this range in file offset order.
+         * @return {@code false} if the budget of pages ran out, {@code true} otherwise.
+         */
+        boolean load( PageCursorTracer cursorTracer, AtomicLong budget, AtomicLong pagesLoaded ) throws IOException
+        {
+            try ( PageCursor cursor = pagedFile.io( fromPage, PF_SHARED_READ_LOCK, cursorTracer ) )
+            {
+                for ( int pageId = pages.nextSetBit( fromPage ); pageId >= 0 && pageId < toPage; pageId = pages.nextSetBit( pageId + 1 ) )
+                {
+                    if ( budget.decrementAndGet() < 0 )
+                    {
+                        return false;
+                    }
+                    if ( !cursor.next( pageId ) )
+                    {
+                        return true; // The file has been truncated since the profile was taken.
+                    }
+                    pagesLoaded.incrementAndGet();
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -20,6 +20,11 @@
 package org.neo4j.kernel.impl.transaction.log;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.neo4j.kernel.impl.api.TransactionToApply;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
@@ -38,6 +43,15 @@ import static org.neo4j.kernel.impl.api.TransactionToApply.TRANSACTION_ID_NOT_SP
 /**
  * Concurrently appends transactions to the transaction log, while coordinating with the log rotation and forcing the
  * log file in batches for higher throughput in a concurrent scenario.
+ * <p>
+ * Committing threads do not each take the log file monitor to append their own batch. Instead they push their batches onto a lock-free stack of
+ * pending appends, and whichever committer manages to take the append lock becomes the appender for all batches pending at that time. It appends
+ * the whole group under a single acquisition of the log file monitor and then hands the outcome back to each of the committers in it. New
+ * committers keep queuing up while a group is being appended, and form the next group. The committers of a group then force the log together,
+ * since {@link LogFile#forceAfterAppend(org.neo4j.kernel.impl.transaction.tracing.LogForceEvents)} lets one force cover all of them.
+ * <p>
+ * Committers of batches with {@link TransactionToApply#relaxedDurability() relaxed durability} do not force the log, and leave it to the
+ * {@link TransactionLogFlusher}. Their transactions are published as committed right away, since any later force of the log covers them too.
  */
 public class BatchingTransactionAppender extends LifecycleAdapter implements TransactionAppender
 {
@@ -46,18 +60,32 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     private final LogRotation logRotation;
     private final TransactionIdStore transactionIdStore;
     private final Health databaseHealth;
+    private final AtomicReference<PendingAppend> pendingAppends = new AtomicReference<>( PendingAppend.END );
+    private final Lock appendLock = new ReentrantLock();
+    private final TransactionLogFlusher logFlusher;
 
     private TransactionLogWriter transactionLogWriter;
     private int previousChecksum;
 
     public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation, TransactionMetadataCache transactionMetadataCache,
             TransactionIdStore transactionIdStore, Health databaseHealth )
+    {
+        this( logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth, null );
+    }
+
+    /**
+     * @param logFlusher forces the log after transactions committed with {@link TransactionToApply#relaxedDurability() relaxed durability},
+     * or {@code null} to force the log after every transaction.
+     */
+    public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation, TransactionMetadataCache transactionMetadataCache,
+            TransactionIdStore transactionIdStore, Health databaseHealth, TransactionLogFlusher logFlusher )
     {
         this.logFile = logFiles.getLogFile();
         this.logRotation = logRotation;
         this.transactionIdStore = transactionIdStore;
         this.databaseHealth = databaseHealth;
         this.transactionMetadataCache = transactionMetadataCache;
+        this.logFlusher = logFlusher;
         this.previousChecksum = transactionIdStore.getLastCommittedTransaction().checksum();
     }
 
@@ -70,6 +98,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         this.transactionIdStore = transactionIdStore;
         this.databaseHealth = databaseHealth;
         this.transactionMetadataCache = transactionMetadataCache;
+        this.logFlusher = null;
         this.previousChecksum = previousChecksum;
     }
 
@@ -82,35 +111,65 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     @Override
     public long append( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
     {
-        // Assigned base tx id just to make compiler happy
-        long lastTransactionId = TransactionIdStore.BASE_TX_ID;
-        // Synchronized with logFile to get absolute control over concurrent rotations happening
-        synchronized ( logFile )
+        // Serializing the commands is the bulk of the work of appending a transaction, so do it before waiting for our turn to append.
+        serializeCommands( batch );
+        try
+        {
+            return appendSerialized( batch, logAppendEvent );
+        }
+        finally
         {
-            // Assert that kernel is healthy before making any changes
-            databaseHealth.assertHealthy( IOException.class );
-            try ( SerializeTransactionEvent serialiseEvent = logAppendEvent.beginSerializeTransaction() )
+            releaseSerializedCommands( batch );
+        }
+    }
+
+    private long appendSerialized( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
+    {
+        // There's a benign race here, where we add our pending append before we update its next pointer.
+        // This is okay, however, because takePendingAppends() spins when it sees a null next pointer.
+        PendingAppend pendingAppend = new PendingAppend( batch, logAppendEvent, Thread.currentThread() );
+        pendingAppend.next = pendingAppends.getAndSet( pendingAppend );
+        boolean interrupted = false;
+        do
+        {
+            if ( appendLock.tryLock() )
             {
-                // Append all transactions in this batch to the log under the same logFile monitor
-                TransactionToApply tx = batch;
-                while ( tx != null )
+                PendingAppend group;
+                try
+                {
+                    group = appendGroup();
+                }
+                finally
                 {
-                    long transactionId = transactionIdStore.nextCommittingTransactionId();
-
-                    // If we're in a scenario where we're merely replicating transactions, i.e. transaction
-                    // id have already been generated by another entity we simply check that our id
-                    // that we generated match that id. If it doesn't we've run into a problem we can't ´
-                    // really recover from and would point to a bug somewhere.
-                    matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
-
-                    TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId, logAppendEvent, previousChecksum );
-                    previousChecksum = commitment.getTransactionChecksum();
-                    tx.commitment( commitment, transactionId );
-                    tx.logPosition( commitment.logPosition() );
-                    tx = tx.next();
-                    lastTransactionId = transactionId;
+                    appendLock.unlock();
+
+                    // Anyone who queued up while we were appending will be parked, so wake up the most recent one to append the next group.
+                    pendingAppends.get().unpark();
                 }
+                completeGroup( group );
             }
+            else
+            {
+                LockSupport.parkNanos( this, TimeUnit.MILLISECONDS.toNanos( 100 ) );
+                // Our batch is already queued and will be appended regardless, so we keep waiting for it. The interrupt status is cleared while we
+                // wait, since parking returns right away for an interrupted thread, and is restored once we are done.
+                interrupted |= Thread.interrupted();
+            }
+        }
+        while ( !pendingAppend.done );
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        pendingAppend.rethrowFailure();
+
+        if ( relaxedDurability( batch ) )
+        {
+            // The log is forced in the background, or by the next committer with full durability, whichever comes first.
+            // Both of them check the need for log rotation too.
+            publishAsCommitted( batch );
+            return pendingAppend.lastTransactionId;
         }
 
         // At this point we've appended all transactions in this batch, but we can't mark any of them
@@ -124,13 +183,131 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             boolean logRotated = logRotation.rotateLogIfNeeded( logAppendEvent );
             logAppendEvent.setLogRotated( logRotated );
         }
+        if ( logFlusher != null )
+        {
+            logFlusher.forced( pendingAppend.lastTransactionId );
+        }
 
         // Mark all transactions as committed
         publishAsCommitted( batch );
 
+        return pendingAppend.lastTransactionId;
+    }
+
+    /**
+     * Appends all batches that are pending at this time to the log, in the order they were queued.
+     * The outcome of each append is recorded in its {@link PendingAppend}, for the committer to pick up. Once a batch has failed to append, the
+     * batches queued after it are not appended, and fail too.
+     */
+    private PendingAppend appendGroup()
+    {
+        PendingAppend group = takePendingAppends();
+        if ( group == PendingAppend.END )
+        {
+            // Our own batch was already appended as part of the group of another committer.
+            return group;
+        }
+        // Synchronized with logFile to get absolute control over concurrent rotations happening
+        synchronized ( logFile )
+        {
+            Throwable groupFailure = null;
+            for ( PendingAppend pendingAppend = group; pendingAppend != PendingAppend.END; pendingAppend = pendingAppend.next )
+            {
+                if ( groupFailure != null )
+                {
+                    pendingAppend.failure = new IOException( "Transaction batch was not appended, because an earlier batch in the same group failed to append",
+                            groupFailure );
+                    continue;
+                }
+                try
+                {
+                    pendingAppend.lastTransactionId = appendBatch( pendingAppend.batch, pendingAppend.logAppendEvent );
+                    if ( relaxedDurability( pendingAppend.batch ) )
+                    {
+                        logFlusher.appended( pendingAppend.lastTransactionId );
+                    }
+                }
+                catch ( Throwable t )
+                {
+                    pendingAppend.failure = t;
+                    groupFailure = t;
+                }
+            }
+        }
+        return group;
+    }
+
+    /**
+     * @return the pending appends in the order they were queued, leaving an empty stack behind.
+     */
+    private PendingAppend takePendingAppends()
+    {
+        PendingAppend stack = pendingAppends.getAndSet( PendingAppend.END );
+        PendingAppend queue = PendingAppend.END;
+        while ( stack != PendingAppend.END )
+        {
+            PendingAppend next;
+            do
+            {
+                // Spin because of the race:y update when consing.
+                next = stack.next;
+            }
+            while ( next == null );
+            stack.next = queue;
+            queue = stack;
+            stack = next;
+        }
+        return queue;
+    }
+
+    private long appendBatch( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
+    {
+        // Assigned base tx id just to make compiler happy
+        long lastTransactionId = TransactionIdStore.BASE_TX_ID;
+        // Assert that kernel is healthy before making any changes
+        databaseHealth.assertHealthy( IOException.class );
+        try ( SerializeTransactionEvent serialiseEvent = logAppendEvent.beginSerializeTransaction() )
+        {
+            // Append all transactions in this batch to the log under the same logFile monitor
+            TransactionToApply tx = batch;
+            while ( tx != null )
+            {
+                long transactionId = transactionIdStore.nextCommittingTransactionId();
+
+                // If we're in a scenario where we're merely replicating transactions, i.e. transaction
+                // id have already been generated by another entity we simply check that our id
+                // that we generated match that id. If it doesn't we've run into a problem we can't ´
+                // really recover from and would point to a bug somewhere.
+                matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
+
+                TransactionCommitment commitment =
+                        appendToLog( tx.transactionRepresentation(), tx.serializedCommands(), transactionId, logAppendEvent, previousChecksum );
+                previousChecksum = commitment.getTransactionChecksum();
+                tx.commitment( commitment, transactionId );
+                tx.logPosition( commitment.logPosition() );
+                tx = tx.next();
+                lastTransactionId = transactionId;
+            }
+        }
         return lastTransactionId;
     }
 
+    /**
+     * Lets the committers of the given group know that their batches have been appended, or failed to.
+     */
+    private static void completeGroup( PendingAppend group )
+    {
+        PendingAppend pendingAppend = group;
+        while ( pendingAppend != PendingAppend.END )
+        {
+            // Read the next pointer before completing, since the committer is then free to go.
+            PendingAppend next = pendingAppend.next;
+            pendingAppend.done = true;
+            pendingAppend.unpark();
+            pendingAppend = next;
+        }
+    }
+
     private void matchAgainstExpectedTransactionIdIfAny( long transactionId, TransactionToApply tx )
     {
         long expectedTransactionId = tx.transactionId();
@@ -148,6 +325,51 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         }
     }
 
+    private boolean relaxedDurability( TransactionToApply batch )
+    {
+        if ( logFlusher == null )
+        {
+            return false;
+        }
+        for ( TransactionToApply tx = batch; tx != null; tx = tx.next() )
+        {
+            if ( !tx.relaxedDurability() )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void serializeCommands( TransactionToApply batch ) throws IOException
+    {
+        try
+        {
+            for ( TransactionToApply tx = batch; tx != null; tx = tx.next() )
+            {
+                tx.serializedCommands( transactionLogWriter.serializeCommands( tx.transactionRepresentation() ) );
+            }
+        }
+        catch ( Throwable t )
+        {
+            releaseSerializedCommands( batch );
+            throw t;
+        }
+    }
+
+    private static void releaseSerializedCommands( TransactionToApply batch )
+    {
+        for ( TransactionToApply tx = batch; tx != null; tx = tx.next() )
+        {
+            SerializedCommands serializedCommands = tx.serializedCommands();
+            if ( serializedCommands != null )
+            {
+                tx.serializedCommands( null );
+                serializedCommands.close();
+            }
+        }
+    }
+
     private static void publishAsCommitted( TransactionToApply batch )
     {
         while ( batch != null )
@@ -161,8 +383,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
      * @return A TransactionCommitment instance with metadata about the committed transaction, such as whether or not
      * this transaction contains any explicit index changes.
      */
-    private TransactionCommitment appendToLog( TransactionRepresentation transaction, long transactionId, LogAppendEvent logAppendEvent, int previousChecksum )
-            throws IOException
+    private TransactionCommitment appendToLog( TransactionRepresentation transaction, SerializedCommands serializedCommands, long transactionId,
+            LogAppendEvent logAppendEvent, int previousChecksum ) throws IOException
     {
         // The outcome of this try block is either of:
         // a) transaction successfully appended, at which point we return a Commitment to be used after force
@@ -173,7 +395,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         try
         {
             var logPositionBeforeCommit = transactionLogWriter.getCurrentPosition();
-            int checksum = transactionLogWriter.append( transaction, transactionId, previousChecksum );
+            int checksum = transactionLogWriter.append( transaction, serializedCommands, transactionId, previousChecksum );
             var logPositionAfterCommit = transactionLogWriter.getCurrentPosition();
             logAppendEvent.appendToLogFile( logPositionBeforeCommit, logPositionAfterCommit );
 
@@ -187,4 +409,57 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             throw panic;
         }
     }
+
+    /**
+     * A batch of transactions queued up for appending, together with the outcome of appending it.
+     */
+    private static class PendingAppend
+    {
+        static final PendingAppend END = new PendingAppend( null, LogAppendEvent.NULL, null );
+
+        static
+        {
+            END.next = END;
+        }
+
+        final TransactionToApply batch;
+        final LogAppendEvent logAppendEvent;
+        final Thread thread;
+        volatile PendingAppend next;
+        volatile boolean done;
+        long lastTransactionId;
+        Throwable failure;
+
+        PendingAppend( TransactionToApply batch, LogAppendEvent logAppendEvent, Thread thread )
+        {
+            this.batch = batch;
+            this.logAppendEvent = logAppendEvent;
+            this.thread = thread;
+        }
+
+        void unpark()
+        {
+            LockSupport.unpark( thread );
+        }
+
+        void rethrowFailure() throws IOException
+        {
+            if ( failure instanceof IOException )
+            {
+                throw (IOException) failure;
+            }
+            if ( failure instanceof RuntimeException )
+            {
+                throw (RuntimeException) failure;
+            }
+            if ( failure instanceof Error )
+            {
+                throw (Error) failure;
+            }
+            if ( failure != null )
+            {
+                throw new IOException( failure );
+            }
+        }
+    }
 }
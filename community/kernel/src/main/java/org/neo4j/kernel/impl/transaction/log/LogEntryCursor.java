@@ -20,19 +20,27 @@
 package org.neo4j.kernel.impl.transaction.log;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import org.neo4j.cursor.IOCursor;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommand;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCompressedCommands;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 
 /**
  * {@link IOCursor} abstraction on top of a {@link LogEntryReader}
+ * <p>
+ * The commands of {@link LogEntryCompressedCommands compressed commands} entries are handed out one by one, like the commands of uncompressed
+ * transactions. The commands not yet handed out are kept by the cursor, and not by the reader, since the reader is shared.
  */
 public class LogEntryCursor implements IOCursor<LogEntry>
 {
     private final LogEntryReader logEntryReader;
     private final ReadableClosablePositionAwareChecksumChannel channel;
     private final LogPositionMarker position = new LogPositionMarker();
+    private final Deque<LogEntryCommand> decompressedCommands = new ArrayDeque<>();
     private LogEntry entry;
 
     public LogEntryCursor( LogEntryReader logEntryReader, ReadableClosablePositionAwareChecksumChannel channel )
@@ -50,9 +58,17 @@ public class LogEntryCursor implements IOCursor<LogEntry>
     @Override
     public boolean next() throws IOException
     {
-        entry = logEntryReader.readLogEntry( channel );
-
-        return entry != null;
+        while ( decompressedCommands.isEmpty() )
+        {
+            entry = logEntryReader.readLogEntry( channel );
+            if ( !(entry instanceof LogEntryCompressedCommands) )
+            {
+                return entry != null;
+            }
+            decompressedCommands.addAll( ((LogEntryCompressedCommands) entry).getCommands() );
+        }
+        entry = decompressedCommands.poll();
+        return true;
     }
 
     @Override
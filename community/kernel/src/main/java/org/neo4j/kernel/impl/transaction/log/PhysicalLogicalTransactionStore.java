@@ -89,9 +89,12 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
             LogVersionLocator headerVisitor = new LogVersionLocator( transactionIdToStartFrom );
             logFile.accept( headerVisitor );
 
+            // ask the index of that version where in it to start looking
+            LogPosition startPosition = logFile.getTransactionLogIndex().lookup( transactionIdToStartFrom, headerVisitor.getLogHeader() );
+
             // ask LogFile
             TransactionPositionLocator transactionPositionLocator = new TransactionPositionLocator( transactionIdToStartFrom, logEntryReader );
-            logFile.accept( transactionPositionLocator, headerVisitor.getLogPosition() );
+            logFile.accept( transactionPositionLocator, startPosition );
             LogPosition position = transactionPositionLocator.getAndCacheFoundLogPosition( transactionMetadataCache );
             return new PhysicalTransactionCursor( logFile.getReader( position ), logEntryReader );
         }
@@ -168,6 +171,7 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
     {
         private final long transactionId;
         private LogPosition foundPosition;
+        private LogHeader foundHeader;
 
         public LogVersionLocator( long transactionId )
         {
@@ -182,6 +186,7 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
             if ( foundIt )
             {
                 foundPosition = position;
+                foundHeader = logHeader;
             }
             return !foundIt; // continue as long we don't find it
         }
@@ -194,5 +199,14 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
             }
             return foundPosition;
         }
+
+        public LogHeader getLogHeader() throws NoSuchTransactionException
+        {
+            if ( foundHeader == null )
+            {
+                throw new NoSuchTransactionException( transactionId, "Couldn't find any log containing " + transactionId );
+            }
+            return foundHeader;
+        }
     }
 }
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.nio.ByteBuffer;
+
+import org.neo4j.collection.pool.LinkedQueuePool;
+import org.neo4j.io.fs.WritableChannel;
+import org.neo4j.io.memory.ByteBuffers;
+import org.neo4j.memory.MemoryTracker;
+
+/**
+ * The command entries of a transaction, serialized into an off-heap buffer ahead of appending the transaction, so that appending it
+ * only has to copy the bytes into the log channel. Instances are {@link Pool pooled} and returned to their pool on {@link #close()}.
+ */
+public class SerializedCommands implements WritableChannel, AutoCloseable
+{
+    private final Pool pool;
+    private ByteBuffer buffer;
+    private byte parserSetVersion;
+
+    private SerializedCommands( Pool pool )
+    {
+        this.pool = pool;
+        this.buffer = ByteBuffers.allocateDirect( pool.bufferSize, pool.memoryTracker );
+    }
+
+    void begin( byte parserSetVersion )
+    {
+        this.parserSetVersion = parserSetVersion;
+        buffer.clear();
+    }
+
+    /**
+     * @return version of the log entry parser set the commands were serialized with.
+     */
+    byte parserSetVersion()
+    {
+        return parserSetVersion;
+    }
+
+    /**
+     * @return a view of the serialized bytes, positioned at the first of them.
+     */
+    ByteBuffer bytes()
+    {
+        return buffer.duplicate().flip();
+    }
+
+    @Override
+    public SerializedCommands put( byte value )
+    {
+        bufferWithGuaranteedSpace( Byte.BYTES ).put( value );
+        return this;
+    }
+
+    @Override
+    public SerializedCommands putShort( short value )
+    {
+        bufferWithGuaranteedSpace( Short.BYTES ).putShort( value );
+        return this;
+    }
+
+    @Override
+    public SerializedCommands putInt( int value )
+    {
+        bufferWithGuaranteedSpace( Integer.BYTES ).putInt( value );
+        return this;
+    }
+
+    @Override
+    public SerializedCommands putLong( long value )
+    {
+        bufferWithGuaranteedSpace( Long.BYTES ).putLong( value );
+        return this;
+    }
+
+    @Override
+    public SerializedCommands putFloat( float value )
+    {
+        bufferWithGuaranteedSpace( Float.BYTES ).putFloat( value );
+        return this;
+    }
+
+    @Override
+    public SerializedCommands putDouble( double value )
+    {
+        bufferWithGuaranteedSpace( Double.BYTES ).putDouble( value );
+        return this;
+    }
+
+    @Override
+    public SerializedCommands put( byte[] value, int length )
+    {
+        bufferWithGuaranteedSpace( length ).put( value, 0, length );
+        return this;
+    }
+
+    @Override
+    public void close()
+    {
+        pool.release( this );
+    }
+
+    private ByteBuffer bufferWithGuaranteedSpace( int spaceInBytes )
+    {
+        if ( buffer.remaining() < spaceInBytes )
+        {
+            long required = (long) buffer.position() + spaceInBytes;
+            int capacity = (int) Math.min( Integer.MAX_VALUE - 8, Math.max( required, buffer.capacity() * 2L ) );
+            if ( capacity < required )
+            {
+                throw new IllegalStateException( "Commands of transaction too large to serialize, requiring " + required + " bytes." );
+            }
+            ByteBuffer grown = ByteBuffers.allocateDirect( capacity, pool.memoryTracker );
+            grown.put( buffer.flip() );
+            ByteBuffers.releaseBuffer( buffer, pool.memoryTracker );
+            buffer = grown;
+        }
+        return buffer;
+    }
+
+    /**
+     * Shrinks buffers grown by a large transaction back to the base size, so that they don't hold on to that memory while pooled.
+     */
+    private void shrink()
+    {
+        if ( buffer.capacity() > pool.bufferSize )
+        {
+            ByteBuffers.releaseBuffer( buffer, pool.memoryTracker );
+            buffer = ByteBuffers.allocateDirect( pool.bufferSize, pool.memoryTracker );
+        }
+    }
+
+    private void free()
+    {
+        ByteBuffers.releaseBuffer( buffer, pool.memoryTracker );
+    }
+
+    /**
+     * Pool of {@link SerializedCommands}, sized after the peak number of transactions serializing their commands concurrently.
+     */
+    public static class Pool extends LinkedQueuePool<SerializedCommands>
+    {
+        private final int bufferSize;
+        private final MemoryTracker memoryTracker;
+
+        public Pool( int bufferSize, MemoryTracker memoryTracker )
+        {
+            super( Runtime.getRuntime().availableProcessors(), null );
+            this.bufferSize = bufferSize;
+            this.memoryTracker = memoryTracker;
+        }
+
+        @Override
+        protected SerializedCommands create()
+        {
+            return new SerializedCommands( this );
+        }
+
+        @Override
+        public void release( SerializedCommands commands )
+        {
+            commands.shrink();
+            super.release( commands );
+        }
+
+        @Override
+        protected void dispose( SerializedCommands commands )
+        {
+            commands.free();
+            super.dispose( commands );
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.io.pagecache.PageWriteBarrier;
+import org.neo4j.kernel.impl.transaction.log.files.LogFile;
+import org.neo4j.kernel.impl.transaction.log.rotation.LogRotation;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.TransactionIdStore;
+import org.neo4j.util.VisibleForTesting;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Forces the transaction log in the background after transactions committed with relaxed durability, which do not wait for the log to be
+ * forced when committing, so that they become durable within a bounded interval. A flush is only scheduled when such a transaction is
+ * appended, and none is scheduled already. The background flush also rotates the log when needed, so that the committers of such transactions
+ * don't have to check for it.
+ * <p>
+ * It also keeps track of the last durable transaction, which lags behind the last committed transaction while there are transactions committed
+ * with relaxed durability that have not been forced yet. Since the log is forced in the order it was appended, every transaction up to the
+ * last durable one is durable.
+ * <p>
+ * Transactions committed with relaxed durability are applied to the store before they are durable, so the flusher is also the
+ * {@link PageWriteBarrier} of the store files: pages are only written to their files after the log is forced past every transaction appended
+ * before the pages were locked, which keeps the changes in the store covered by the log.
+ */
+public class TransactionLogFlusher extends LifecycleAdapter implements PageWriteBarrier
+{
+    private final LogFile logFile;
+    private final LogRotation logRotation;
+    private final TransactionIdStore transactionIdStore;
+    private final JobScheduler scheduler;
+    private final Duration interval;
+    private final AtomicLong durableTransactionId = new AtomicLong();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile long appendedTransactionId;
+    private volatile JobHandle<?> flushJob;
+    private volatile boolean started;
+
+    public TransactionLogFlusher( LogFile logFile, LogRotation logRotation, TransactionIdStore transactionIdStore, JobScheduler scheduler,
+            Duration interval )
+    {
+        this.logFile = logFile;
+        this.logRotation = logRotation;
+        this.transactionIdStore = transactionIdStore;
+        this.scheduler = scheduler;
+        this.interval = interval;
+    }
+
+    @Override
+    public void start()
+    {
+        // Everything in the log is durable after recovery.
+        long lastCommittedTransactionId = transactionIdStore.getLastCommittedTransactionId();
+        appendedTransactionId = lastCommittedTransactionId;
+        durableTransactionId.set( lastCommittedTransactionId );
+        flushScheduled.set( false );
+        started = true;
+    }
+
+    @Override
+    public void stop() throws IOException
+    {
+        started = false;
+        JobHandle<?> job = flushJob;
+        if ( job != null )
+        {
+            job.cancel();
+            flushJob = null;
+        }
+        flush();
+    }
+
+    /**
+     * Called by the appender, in log order, with the last transaction of every batch with relaxed durability it appends, before any of
+     * its transactions are applied. Schedules a flush of the log, unless one is scheduled already.
+     *
+     * @param transactionId id of the last appended transaction.
+     */
+    void appended( long transactionId )
+    {
+        appendedTransactionId = transactionId;
+        if ( started && flushScheduled.compareAndSet( false, true ) )
+        {
+            flushJob = scheduler.schedule( Group.TRANSACTION_LOG_FLUSH, this::flushInBackground, interval.toMillis(), MILLISECONDS );
+        }
+    }
+
+    /**
+     * Called when the log has been forced up to and including the given transaction.
+     *
+     * @param transactionId id of the last transaction known to be forced.
+     */
+    void forced( long transactionId )
+    {
+        durableTransactionId.accumulateAndGet( transactionId, Math::max );
+    }
+
+    /**
+     * Forces the log, if transactions with relaxed durability have been appended since it was last forced.
+     *
+     * @throws IOException if the log could not be forced, which also panics the database.
+     */
+    public void flush() throws IOException
+    {
+        long transactionId = appendedTransactionId;
+        if ( transactionId > durableTransactionId.get() )
+        {
+            if ( Thread.holdsLock( logFile ) )
+            {
+                // Pages are written under the log file monitor too, when rotation faults in a page of the store and evicts another. Whoever
+                // holds the force lock at that point is waiting for the monitor to empty the log buffer, so waiting for them here would
+                // deadlock. Holding the monitor keeps appenders out of the buffer anyway, so the log can be forced right away.
+                logFile.flush();
+            }
+            else
+            {
+                logFile.forceAfterAppend( LogAppendEvent.NULL );
+            }
+            forced( transactionId );
+        }
+    }
+
+    @Override
+    public void beforePageWrite() throws IOException
+    {
+        flush();
+    }
+
+    /**
+     * @return id of the last transaction that is durable in the transaction log. It is the same as the last committed transaction, unless
+     * transactions committed with relaxed durability are still waiting for the log to be forced.
+     */
+    @VisibleForTesting
+    long getLastDurableTransactionId()
+    {
+        return durableTransactionId.get();
+    }
+
+    private void flushInBackground()
+    {
+        // Cleared before reading what to flush, so that a transaction appended after that schedules another flush.
+        flushScheduled.set( false );
+        try
+        {
+            flush();
+            logRotation.rotateLogIfNeeded( LogAppendEvent.NULL );
+        }
+        catch ( IOException e )
+        {
+            // Failing to force or rotate the log panics the database, which fails the commits that follow, so there is nothing more to do here.
+        }
+    }
+}
@@ -24,17 +24,70 @@ import java.io.IOException;
 import org.neo4j.kernel.database.LogEntryWriterFactory;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
+import org.neo4j.kernel.impl.transaction.log.files.TransactionLogIndex;
 import org.neo4j.util.VisibleForTesting;
 
 public class TransactionLogWriter
 {
     private final FlushablePositionAwareChecksumChannel channel;
     private final LogEntryWriterFactory logEntryWriterFactory;
+    private final TransactionLogIndex transactionLogIndex;
+    private final SerializedCommands.Pool serializedCommandsPool;
 
     public TransactionLogWriter( FlushablePositionAwareChecksumChannel channel, LogEntryWriterFactory logEntryWriterFactory )
+    {
+        this( channel, logEntryWriterFactory, null );
+    }
+
+    /**
+     * @param transactionLogIndex index to add the positions of the appended transactions to, or {@code null} if there is none.
+     */
+    public TransactionLogWriter( FlushablePositionAwareChecksumChannel channel, LogEntryWriterFactory logEntryWriterFactory,
+            TransactionLogIndex transactionLogIndex )
+    {
+        this( channel, logEntryWriterFactory, transactionLogIndex, null );
+    }
+
+    /**
+     * @param transactionLogIndex index to add the positions of the appended transactions to, or {@code null} if there is none.
+     * @param serializedCommandsPool pool of buffers to {@link #serializeCommands(TransactionRepresentation) serialize commands} into ahead of
+     * appending their transactions, or {@code null} if commands are serialized while appending.
+     */
+    public TransactionLogWriter( FlushablePositionAwareChecksumChannel channel, LogEntryWriterFactory logEntryWriterFactory,
+            TransactionLogIndex transactionLogIndex, SerializedCommands.Pool serializedCommandsPool )
     {
         this.channel = channel;
         this.logEntryWriterFactory = logEntryWriterFactory;
+        this.transactionLogIndex = transactionLogIndex;
+        this.serializedCommandsPool = serializedCommandsPool;
+    }
+
+    /**
+     * Serializes the commands of a transaction ahead of {@link #append(TransactionRepresentation, SerializedCommands, long, int) appending} it,
+     * so that it can be done without holding the lock of the log file.
+     *
+     * @return the serialized commands, which must be closed once the transaction has been appended, or {@code null} if commands are
+     * serialized while appending.
+     */
+    public SerializedCommands serializeCommands( TransactionRepresentation transaction ) throws IOException
+    {
+        if ( serializedCommandsPool == null )
+        {
+            return null;
+        }
+        LogEntryWriter<FlushablePositionAwareChecksumChannel> writer = logEntryWriterFactory.createEntryWriter( channel );
+        SerializedCommands commands = serializedCommandsPool.acquire();
+        try
+        {
+            commands.begin( writer.getParserSetVersion() );
+            writer.serialize( transaction, commands );
+            return commands;
+        }
+        catch ( Throwable t )
+        {
+            commands.close();
+            throw t;
+        }
     }
 
     /**
@@ -43,11 +96,34 @@ public class TransactionLogWriter
      */
     public int append( TransactionRepresentation transaction, long transactionId, int previousChecksum ) throws IOException
     {
+        return append( transaction, null, transactionId, previousChecksum );
+    }
+
+    /**
+     * Append a transaction to the transaction log file, copying its commands from the ones serialized ahead, if they were serialized
+     * in the log format still in use.
+     * @param commands commands of the transaction {@link #serializeCommands(TransactionRepresentation) serialized ahead}, or {@code null}.
+     * @return checksum of the transaction
+     */
+    public int append( TransactionRepresentation transaction, SerializedCommands commands, long transactionId, int previousChecksum )
+            throws IOException
+    {
+        if ( transactionLogIndex != null && transactionLogIndex.indexes( transactionId ) )
+        {
+            transactionLogIndex.add( transactionId, channel.getCurrentPosition() );
+        }
         LogEntryWriter<FlushablePositionAwareChecksumChannel> writer = logEntryWriterFactory.createEntryWriter( channel );
         writer.writeStartEntry( transaction.getTimeStarted(), transaction.getLatestCommittedTxWhenStarted(), previousChecksum, transaction.additionalHeader() );
 
         // Write all the commands to the log channel
-        writer.serialize( transaction );
+        if ( commands != null && commands.parserSetVersion() == writer.getParserSetVersion() )
+        {
+            channel.putAll( commands.bytes() );
+        }
+        else
+        {
+            writer.serialize( transaction );
+        }
 
         // Write commit record
         return writer.writeCommitEntry( transactionId, transaction.getTimeCommitted() );
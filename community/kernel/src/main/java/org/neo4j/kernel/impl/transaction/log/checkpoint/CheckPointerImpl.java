@@ -56,6 +56,7 @@ public class CheckPointerImpl extends LifecycleAdapter implements CheckPointer
     private final DatabaseTracers tracers;
     private final StoreCopyCheckPointMutex mutex;
     private final Clock clock;
+    private final boolean preFlush;
 
     private volatile long lastCheckPointedTx;
 
@@ -71,6 +72,29 @@ public class CheckPointerImpl extends LifecycleAdapter implements CheckPointer
             IOLimiter ioLimiter,
             StoreCopyCheckPointMutex mutex,
             Clock clock )
+    {
+        this( metadataProvider, threshold, forceOperation, logPruning, checkpointAppender, databaseHealth, logProvider, tracers, ioLimiter, mutex,
+                clock, false );
+    }
+
+    /**
+     * @param preFlush whether to flush the store, and record a check point for what that flush covers, before the position of a check point is
+     * chosen. The check point then covers the transactions that were committed during the first flush, while the second flush only has to write
+     * what they dirtied, and a failure during the second flush recovers from the first.
+     */
+    public CheckPointerImpl(
+            MetadataProvider metadataProvider,
+            CheckPointThreshold threshold,
+            ForceOperation forceOperation,
+            LogPruning logPruning,
+            CheckpointAppender checkpointAppender,
+            Health databaseHealth,
+            LogProvider logProvider,
+            DatabaseTracers tracers,
+            IOLimiter ioLimiter,
+            StoreCopyCheckPointMutex mutex,
+            Clock clock,
+            boolean preFlush )
     {
         this.checkpointAppender = checkpointAppender;
         this.metadataProvider = metadataProvider;
@@ -83,6 +107,7 @@ public class CheckPointerImpl extends LifecycleAdapter implements CheckPointer
         this.tracers = tracers;
         this.mutex = mutex;
         this.clock = clock;
+        this.preFlush = preFlush;
     }
 
     @Override
@@ -175,6 +200,10 @@ public class CheckPointerImpl extends LifecycleAdapter implements CheckPointer
         try ( var cursorTracer = pageCacheTracer.createPageCursorTracer( CHECKPOINT_TAG );
               LogCheckPointEvent event = databaseTracer.beginCheckPoint() )
         {
+            if ( preFlush )
+            {
+                preFlush( triggerInfo, event, cursorTracer );
+            }
             long[] lastClosedTransaction = metadataProvider.getLastClosedTransaction();
             long lastClosedTransactionId = lastClosedTransaction[0];
             LogPosition logPosition = new LogPosition( lastClosedTransaction[1], lastClosedTransaction[2] );
@@ -222,6 +251,25 @@ public class CheckPointerImpl extends LifecycleAdapter implements CheckPointer
         }
     }
 
+    private void preFlush( TriggerInfo triggerInfo, LogCheckPointEvent event, PageCursorTracer cursorTracer ) throws IOException
+    {
+        /*
+         * The pre-flush is a check point of its own. Everything up to the last closed transaction at its start is on disk once it is done, so
+         * that position is recorded right away. If we then fail during the main flush, recovery starts from here rather than from the previous
+         * check point. The main flush only has to write the pages dirtied while the pre-flush ran.
+         */
+        long[] lastClosedTransaction = metadataProvider.getLastClosedTransaction();
+        LogPosition logPosition = new LogPosition( lastClosedTransaction[1], lastClosedTransaction[2] );
+        String reason = triggerInfo.describe( lastClosedTransaction[0] ) + " pre-flush";
+        databaseHealth.assertHealthy( IOException.class );
+        msgLog.info( reason + " checkpoint started..." );
+        Stopwatch startTime = Stopwatch.start();
+        forceOperation.flushAndForce( ioLimiter, cursorTracer );
+        databaseHealth.assertHealthy( IOException.class );
+        checkpointAppender.checkPoint( event, logPosition, clock.instant(), reason );
+        msgLog.info( reason + " checkpoint completed in " + duration( startTime.elapsed( MILLISECONDS ) ) );
+    }
+
     @Override
     public long lastCheckPointedTransactionId()
     {
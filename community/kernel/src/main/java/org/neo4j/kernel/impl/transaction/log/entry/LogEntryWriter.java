@@ -31,6 +31,7 @@ import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.storageengine.api.StorageCommand;
 
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.COMMAND;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.COMPRESSED_COMMANDS;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.LEGACY_CHECK_POINT;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.TX_COMMIT;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.TX_START;
@@ -40,11 +41,13 @@ public class LogEntryWriter<T extends WritableChecksumChannel>
     private final Visitor<StorageCommand,IOException> serializer;
     protected final T channel;
     private final byte parserSetVersion;
+    private final boolean compressCommands;
 
     public LogEntryWriter( T channel, LogEntryParserSet parserSet )
     {
         this.channel = channel;
         this.parserSetVersion = parserSet.versionByte();
+        this.compressCommands = parserSet.version() == LogEntryParserSetVersion.LogEntryV4_2_ZSTD;
         this.serializer = new StorageCommandSerializer( channel, this );
     }
 
@@ -86,7 +89,45 @@ public class LogEntryWriter<T extends WritableChecksumChannel>
 
     public void serialize( TransactionRepresentation tx ) throws IOException
     {
-        tx.accept( serializer );
+        serialize( tx, channel );
+    }
+
+    /**
+     * Writes the command entries of a transaction to another channel than the one of this writer, in the format of this writer, so that
+     * they can be serialized ahead of appending the transaction and then be copied as is into the channel of this writer.
+     */
+    public void serialize( TransactionRepresentation tx, WritableChannel target ) throws IOException
+    {
+        if ( compressCommands )
+        {
+            serializeCompressed( tx, target );
+        }
+        else
+        {
+            tx.accept( target == channel ? serializer : new StorageCommandSerializer( target, this ) );
+        }
+    }
+
+    private void serializeCompressed( TransactionRepresentation tx, WritableChannel target ) throws IOException
+    {
+        CompressedCommands.Writer commands = new CompressedCommands.Writer();
+        tx.accept( command ->
+        {
+            command.serialize( commands );
+            return false;
+        } );
+        if ( !commands.isEmpty() )
+        {
+            if ( commands.isCompressible() )
+            {
+                writeLogEntryHeader( COMPRESSED_COMMANDS, target );
+                commands.writeCompressed( target );
+            }
+            else
+            {
+                tx.accept( target == channel ? serializer : new StorageCommandSerializer( target, this ) );
+            }
+        }
     }
 
     public void serialize( CommittedTransactionRepresentation tx ) throws IOException
@@ -118,6 +159,11 @@ public class LogEntryWriter<T extends WritableChecksumChannel>
         channel.putChecksum();
     }
 
+    public byte getParserSetVersion()
+    {
+        return parserSetVersion;
+    }
+
     public T getChannel()
     {
         return channel;
@@ -74,6 +74,11 @@ public interface LogFile extends RotatableFile
 
     TransactionLogFileInformation getLogFileInformation();
 
+    /**
+     * @return the sparse index of the positions of the transactions in the log files.
+     */
+    TransactionLogIndex getTransactionLogIndex();
+
     PhysicalLogVersionedStoreChannel openForVersion( long version ) throws IOException;
 
     PhysicalLogVersionedStoreChannel createLogChannelForVersion( long versionUsed, LongSupplier lastCommittedTransactionId ) throws IOException;
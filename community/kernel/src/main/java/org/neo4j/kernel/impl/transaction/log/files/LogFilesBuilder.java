@@ -40,6 +40,7 @@ import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.database.DatabaseTracers;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetVersion;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.entry.TransactionLogVersionSelector;
 import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
@@ -50,6 +51,7 @@ import org.neo4j.memory.MemoryTracker;
 import org.neo4j.monitoring.DatabaseHealth;
 import org.neo4j.monitoring.Monitors;
 import org.neo4j.monitoring.PanicEventGenerator;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.CommandReaderFactory;
 import org.neo4j.storageengine.api.LogVersionRepository;
 import org.neo4j.storageengine.api.StorageEngineFactory;
@@ -59,6 +61,7 @@ import org.neo4j.storageengine.api.TransactionIdStore;
 
 import static java.util.Objects.requireNonNull;
 import static java.util.Objects.requireNonNullElseGet;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.compress_transaction_log_commands;
 import static org.neo4j.configuration.GraphDatabaseInternalSettings.fail_on_corrupted_log_files;
 import static org.neo4j.configuration.GraphDatabaseSettings.logical_log_rotation_threshold;
 import static org.neo4j.configuration.GraphDatabaseSettings.preallocate_logical_logs;
@@ -328,11 +331,41 @@ public class LogFilesBuilder
                 }
             }
         }
+        if ( config.get( compress_transaction_log_commands ) )
+        {
+            transactionLogVersionProvider = compressingCommands( transactionLogVersionProvider );
+        }
 
         return new TransactionLogFilesContext( rotationThreshold, tryPreallocateTransactionLogs, logEntryReader, lastCommittedIdSupplier,
                 committingTransactionIdSupplier, lastClosedTransactionPositionSupplier, logVersionRepositorySupplier,
                 fileSystem, logProvider, databaseTracers, storeIdSupplier, nativeAccess, memoryTracker, monitors, config.get( fail_on_corrupted_log_files ),
-                health, transactionLogVersionProvider, clock, config );
+                health, transactionLogVersionProvider, clock, config, getJobScheduler() );
+    }
+
+    private static TransactionLogVersionProvider compressingCommands( TransactionLogVersionProvider versionProvider )
+    {
+        // Only the latest format has a compressed counterpart, older formats are still written as they are.
+        return () ->
+        {
+            LogEntryParserSetVersion version = versionProvider.getVersion();
+            return version == LogEntryParserSetVersion.LogEntryV4_2 ? LogEntryParserSetVersion.LogEntryV4_2_ZSTD : version;
+        };
+    }
+
+    private JobScheduler getJobScheduler()
+    {
+        if ( dependencies != null )
+        {
+            try
+            {
+                return dependencies.resolveDependency( JobScheduler.class );
+            }
+            catch ( UnsatisfiedDependencyException e )
+            {
+                // Without a scheduler the log files do not do any work in the background.
+            }
+        }
+        return null;
     }
 
     private Clock getClock()
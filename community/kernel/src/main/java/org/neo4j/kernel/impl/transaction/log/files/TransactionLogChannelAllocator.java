@@ -22,6 +22,8 @@ package org.neo4j.kernel.impl.transaction.log.files;
 import java.io.IOException;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.LongSupplier;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
@@ -33,6 +35,10 @@ import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeaderWriter;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.kernel.impl.transaction.tracing.LogFileCreateEvent;
+import org.neo4j.logging.Log;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
 
 import static java.lang.String.format;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
@@ -47,9 +53,24 @@ public class TransactionLogChannelAllocator
     private final LogHeaderCache logHeaderCache;
     private final ChannelNativeAccessor nativeChannelAccessor;
     private final DatabaseTracer databaseTracer;
+    private final JobScheduler preallocationScheduler;
+    private final AtomicBoolean preallocatedFileReady = new AtomicBoolean();
+    private final AtomicBoolean preallocationScheduled = new AtomicBoolean();
+    private volatile JobHandle<?> preallocationJob = JobHandle.EMPTY;
 
     public TransactionLogChannelAllocator( TransactionLogFilesContext logFilesContext, TransactionLogFilesHelper fileHelper, LogHeaderCache logHeaderCache,
             ChannelNativeAccessor nativeChannelAccessor )
+    {
+        this( logFilesContext, fileHelper, logHeaderCache, nativeChannelAccessor, false );
+    }
+
+    /**
+     * @param preallocateInBackground whether the space of the next log file should be preallocated by a background job, so that
+     * creating the file only has to move the preallocated file into place. Requires a job scheduler in the context, and that log
+     * preallocation is enabled.
+     */
+    public TransactionLogChannelAllocator( TransactionLogFilesContext logFilesContext, TransactionLogFilesHelper fileHelper, LogHeaderCache logHeaderCache,
+            ChannelNativeAccessor nativeChannelAccessor, boolean preallocateInBackground )
     {
         this.logFilesContext = logFilesContext;
         this.fileSystem = logFilesContext.getFileSystem();
@@ -57,6 +78,7 @@ public class TransactionLogChannelAllocator
         this.fileHelper = fileHelper;
         this.logHeaderCache = logHeaderCache;
         this.nativeChannelAccessor = nativeChannelAccessor;
+        this.preallocationScheduler = preallocateInBackground ? logFilesContext.getJobScheduler() : null;
     }
 
     public PhysicalLogVersionedStoreChannel createLogChannel( long version, LongSupplier lastCommittedTransactionId ) throws IOException
@@ -81,6 +103,7 @@ public class TransactionLogChannelAllocator
                 }
             }
             byte formatVersion = header == null ? CURRENT_LOG_FORMAT_VERSION : header.getLogFormatVersion();
+            schedulePreallocation( version + 1 );
             return new PhysicalLogVersionedStoreChannel( storeChannel, version, formatVersion, logFile, nativeChannelAccessor );
         }
     }
@@ -140,6 +163,12 @@ public class TransactionLogChannelAllocator
     {
         Path file = fileHelper.getLogFileForVersion( version );
         boolean fileExist = fileSystem.fileExists( file );
+        if ( !fileExist && preallocatedFileReady.compareAndSet( true, false ) )
+        {
+            // The space of this file has already been allocated in the background, so all that is left is to move it into place.
+            fileSystem.renameFile( fileHelper.getPreallocatedLogFile(), file );
+            return new AllocatedFile( file, fileSystem.write( file ) );
+        }
         StoreChannel storeChannel = fileSystem.write( file );
         if ( fileExist )
         {
@@ -152,6 +181,80 @@ public class TransactionLogChannelAllocator
         return new AllocatedFile( file, storeChannel );
     }
 
+    private void schedulePreallocation( long nextVersion )
+    {
+        if ( preallocationScheduler == null || !logFilesContext.getTryPreallocateTransactionLogs().get() || preallocatedFileReady.get() ||
+                !preallocationScheduled.compareAndSet( false, true ) )
+        {
+            return;
+        }
+        preallocationJob = preallocationScheduler.schedule( Group.FILE_IO_HELPER, () ->
+        {
+            try
+            {
+                preallocatedFileReady.set( preallocate( nextVersion ) );
+            }
+            finally
+            {
+                preallocationScheduled.set( false );
+            }
+        } );
+    }
+
+    private boolean preallocate( long version )
+    {
+        Path preallocatedFile = fileHelper.getPreallocatedLogFile();
+        try
+        {
+            try ( StoreChannel channel = fileSystem.write( preallocatedFile ) )
+            {
+                nativeChannelAccessor.preallocateSpace( channel, version );
+                // Preallocation can fail, or be unsupported on this platform, in which case the file should not be used.
+                return channel.size() > 0;
+            }
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Failed to preallocate the next transaction log file " + preallocatedFile + " in the background.", e );
+            return false;
+        }
+    }
+
+    /**
+     * Waits for any ongoing background preallocation, and removes the preallocated log file, if there is one.
+     */
+    public void close()
+    {
+        if ( preallocationScheduler == null )
+        {
+            return;
+        }
+        awaitPreallocation();
+        preallocatedFileReady.set( false );
+        fileSystem.deleteFile( fileHelper.getPreallocatedLogFile() );
+    }
+
+    void awaitPreallocation()
+    {
+        try
+        {
+            preallocationJob.waitTermination();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch ( ExecutionException e )
+        {
+            getLog().warn( "Background preallocation of the next transaction log file failed.", e );
+        }
+    }
+
+    private Log getLog()
+    {
+        return logFilesContext.getLogProvider().getLog( getClass() );
+    }
+
     private static class AllocatedFile
     {
         private final Path path;
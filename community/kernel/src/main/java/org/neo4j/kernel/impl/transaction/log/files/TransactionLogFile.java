@@ -51,6 +51,7 @@ import org.neo4j.kernel.impl.transaction.log.PositionAwarePhysicalFlushableCheck
 import org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel;
 import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
 import org.neo4j.kernel.impl.transaction.log.ReaderLogVersionBridge;
+import org.neo4j.kernel.impl.transaction.log.SerializedCommands;
 import org.neo4j.kernel.impl.transaction.log.TransactionLogWriter;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
@@ -65,6 +66,9 @@ import org.neo4j.storageengine.api.LogVersionRepository;
 
 import static java.lang.Math.min;
 import static java.lang.Runtime.getRuntime;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pre_serialize_transaction_commands;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.preallocate_logical_logs_in_background;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.transaction_log_index_interval;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
 
 /**
@@ -73,6 +77,7 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLo
 public class TransactionLogFile extends LifecycleAdapter implements LogFile
 {
     private static final String TRANSACTION_LOG_FILE_ROTATION_TAG = "transactionLogFileRotation";
+    private static final int SERIALIZED_COMMANDS_BUFFER_SIZE = (int) ByteUnit.kibiBytes( 32 );
     private final AtomicReference<ThreadLink> threadLinkHead = new AtomicReference<>( ThreadLink.END );
     private final Lock forceLock = new ReentrantLock();
     private final AtomicLong rotateAtSize;
@@ -83,6 +88,7 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
     private final MemoryTracker memoryTracker;
     private final TransactionLogFileInformation logFileInformation;
     private final TransactionLogChannelAllocator channelAllocator;
+    private final TransactionLogIndex transactionLogIndex;
     private final DatabaseHealth databaseHealth;
 
     private volatile PhysicalLogVersionedStoreChannel channel;
@@ -91,6 +97,7 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
     private final LogHeaderCache logHeaderCache;
     private final FileSystemAbstraction fileSystem;
     private TransactionLogWriter transactionLogWriter;
+    private SerializedCommands.Pool serializedCommandsPool;
 
     TransactionLogFile( LogFiles logFiles, TransactionLogFilesContext context, String name )
     {
@@ -102,7 +109,8 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
         this.logHeaderCache = new LogHeaderCache( 1000 );
         this.logFileInformation = new TransactionLogFileInformation( logFiles, logHeaderCache, context );
         this.channelAllocator = new TransactionLogChannelAllocator( context, fileHelper, logHeaderCache,
-                new LogFileChannelNativeAccessor( fileSystem, context ) );
+                new LogFileChannelNativeAccessor( fileSystem, context ), context.getConfig().get( preallocate_logical_logs_in_background ) );
+        this.transactionLogIndex = new TransactionLogIndex( context, fileHelper, context.getConfig().get( transaction_log_index_interval ) );
         this.readerLogVersionBridge = new ReaderLogVersionBridge( this );
         this.pageCacheTracer = context.getDatabaseTracers().getPageCacheTracer();
         this.memoryTracker = context.getMemoryTracker();
@@ -124,7 +132,12 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
         seekChannelPosition( currentLogVersion );
 
         writer = new PositionAwarePhysicalFlushableChecksumChannel( channel, new NativeScopedBuffer( calculateLogBufferSize(), memoryTracker ) );
-        transactionLogWriter = new TransactionLogWriter( writer, new DbmsLogEntryWriterFactory( context.getTransactionLogVersionProvider() ) );
+        if ( context.getConfig().get( pre_serialize_transaction_commands ) )
+        {
+            serializedCommandsPool = new SerializedCommands.Pool( SERIALIZED_COMMANDS_BUFFER_SIZE, memoryTracker );
+        }
+        transactionLogWriter = new TransactionLogWriter( writer, new DbmsLogEntryWriterFactory( context.getTransactionLogVersionProvider() ),
+                transactionLogIndex, serializedCommandsPool );
     }
 
     // In order to be able to write into a logfile after life.stop during shutdown sequence
@@ -134,6 +147,11 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
     public void shutdown() throws IOException
     {
         IOUtils.closeAll( writer );
+        channelAllocator.close();
+        if ( serializedCommandsPool != null )
+        {
+            serializedCommandsPool.close();
+        }
     }
 
     @Override
@@ -186,6 +204,12 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
         return transactionLogWriter;
     }
 
+    @Override
+    public TransactionLogIndex getTransactionLogIndex()
+    {
+        return transactionLogIndex;
+    }
+
     @Override
     public void flush() throws IOException
     {
@@ -453,6 +477,7 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
          */
         writer.prepareForFlush().flush();
         currentLog.truncate( currentLog.position() );
+        transactionLogIndex.rotated( extractHeader( currentLog.getVersion() ) );
 
         /*
          * The log version is now in the store, flushed and persistent. If we crash
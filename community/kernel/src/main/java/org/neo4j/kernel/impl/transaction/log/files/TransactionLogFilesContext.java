@@ -36,6 +36,7 @@ import org.neo4j.logging.LogProvider;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.monitoring.DatabaseHealth;
 import org.neo4j.monitoring.Monitors;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.LogVersionRepository;
 import org.neo4j.storageengine.api.StoreId;
 
@@ -60,13 +61,14 @@ public class TransactionLogFilesContext
     private final TransactionLogVersionProvider transactionLogVersionProvider;
     private final Clock clock;
     private final Config config;
+    private final JobScheduler jobScheduler;
 
     public TransactionLogFilesContext( AtomicLong rotationThreshold, AtomicBoolean tryPreallocateTransactionLogs, LogEntryReader logEntryReader,
             LongSupplier lastCommittedTransactionIdSupplier, LongSupplier committingTransactionIdSupplier, Supplier<LogPosition> lastClosedPositionSupplier,
             Supplier<LogVersionRepository> logVersionRepositorySupplier,FileSystemAbstraction fileSystem, LogProvider logProvider,
             DatabaseTracers databaseTracers, Supplier<StoreId> storeId, NativeAccess nativeAccess,
             MemoryTracker memoryTracker, Monitors monitors, boolean failOnCorruptedLogFiles, DatabaseHealth databaseHealth,
-            TransactionLogVersionProvider transactionLogVersionProvider, Clock clock, Config config )
+            TransactionLogVersionProvider transactionLogVersionProvider, Clock clock, Config config, JobScheduler jobScheduler )
     {
         this.rotationThreshold = rotationThreshold;
         this.tryPreallocateTransactionLogs = tryPreallocateTransactionLogs;
@@ -87,6 +89,7 @@ public class TransactionLogFilesContext
         this.transactionLogVersionProvider = transactionLogVersionProvider;
         this.clock = clock;
         this.config = config;
+        this.jobScheduler = jobScheduler;
     }
 
     AtomicLong getRotationThreshold()
@@ -183,4 +186,12 @@ public class TransactionLogFilesContext
     {
         return config;
     }
+
+    /**
+     * @return the scheduler for background work on the log files, or {@code null} if there is none.
+     */
+    JobScheduler getJobScheduler()
+    {
+        return jobScheduler;
+    }
 }
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.memory.HeapScopedBuffer;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
+import org.neo4j.logging.Log;
+import org.neo4j.memory.MemoryTracker;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * A sparse index from transaction id to the position of the start of the transaction in its log file, of every {@code interval}:th transaction.
+ * The index of the log file currently written to is kept in memory, and written to a file next to the log file when it is rotated away.
+ * <p>
+ * Looking up a transaction can then start reading its log file at the closest indexed transaction before it, found with a binary search,
+ * rather than at the start of the log file. The index is only a shortcut: log files without an index file, like the ones written before the
+ * index was enabled, or the part of the current log file written before a restart, are still read from their start.
+ * <pre>
+ *     INDEX FILE: [PREVIOUS_COMMITTED_TX_ID][TX_ID][BYTE_OFFSET]...
+ *     PREVIOUS_COMMITTED_TX_ID: 8B last committed transaction id of the header of the log file, to verify the index belongs to it
+ *     TX_ID, BYTE_OFFSET: 8B each, an indexed transaction and the position of its start entry in the log file, in transaction id order
+ * </pre>
+ */
+public class TransactionLogIndex
+{
+    private static final int HEADER_SIZE = Long.BYTES;
+    private static final int ENTRY_SIZE = Long.BYTES * 2;
+    private static final long NO_VERSION = -1;
+
+    private final FileSystemAbstraction fileSystem;
+    private final TransactionLogFilesHelper fileHelper;
+    private final MemoryTracker memoryTracker;
+    private final Log log;
+    private final int interval;
+
+    private final MutableLongList transactionIds = new LongArrayList();
+    private final MutableLongList byteOffsets = new LongArrayList();
+    private long logVersion = NO_VERSION;
+
+    TransactionLogIndex( TransactionLogFilesContext context, TransactionLogFilesHelper fileHelper, int interval )
+    {
+        this.fileSystem = context.getFileSystem();
+        this.fileHelper = fileHelper;
+        this.memoryTracker = context.getMemoryTracker();
+        this.log = context.getLogProvider().getLog( getClass() );
+        this.interval = interval;
+    }
+
+    /**
+     * @param transactionId id of the transaction about to be appended.
+     * @return {@code true} if the position of the given transaction should be {@link #add(long, LogPosition) added} to the index.
+     */
+    public boolean indexes( long transactionId )
+    {
+        return interval > 0 && transactionId % interval == 0;
+    }
+
+    /**
+     * Adds a transaction appended to the log file currently written to.
+     *
+     * @param transactionId id of the appended transaction.
+     * @param startPosition position of the start entry of the transaction.
+     */
+    public synchronized void add( long transactionId, LogPosition startPosition )
+    {
+        if ( startPosition.getLogVersion() != logVersion )
+        {
+            // The first transaction indexed since start up, which may be in the middle of the current log file.
+            clear( startPosition.getLogVersion() );
+        }
+        transactionIds.add( transactionId );
+        byteOffsets.add( startPosition.getByteOffset() );
+    }
+
+    /**
+     * Looks up where to start reading the given log file to find the given transaction.
+     *
+     * @param transactionId id of the transaction to look up.
+     * @param logHeader header of the log file containing the transaction.
+     * @return the position of the closest indexed transaction at or before the given one, or the start of the log file if there is none.
+     */
+    public LogPosition lookup( long transactionId, LogHeader logHeader )
+    {
+        long version = logHeader.getLogVersion();
+        synchronized ( this )
+        {
+            if ( version == logVersion )
+            {
+                int index = transactionIds.binarySearch( transactionId );
+                index = index >= 0 ? index : -index - 2;
+                return index >= 0 ? new LogPosition( version, byteOffsets.get( index ) ) : logHeader.getStartPosition();
+            }
+        }
+
+        Path indexFile = fileHelper.getIndexFileForVersion( version );
+        try
+        {
+            long byteOffset = lookup( indexFile, transactionId, logHeader.getLastCommittedTxId() );
+            return byteOffset >= 0 ? new LogPosition( version, byteOffset ) : logHeader.getStartPosition();
+        }
+        catch ( NoSuchFileException e )
+        {
+            return logHeader.getStartPosition();
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Failed to read transaction log index " + indexFile + ", reading the log file from its start instead.", e );
+            return logHeader.getStartPosition();
+        }
+    }
+
+    private long lookup( Path indexFile, long transactionId, long previousCommittedTxId ) throws IOException
+    {
+        try ( StoreChannel channel = fileSystem.read( indexFile );
+              var scopedBuffer = new HeapScopedBuffer( ENTRY_SIZE, memoryTracker ) )
+        {
+            long size = channel.size();
+            ByteBuffer buffer = scopedBuffer.getBuffer();
+            if ( size < HEADER_SIZE || (size - HEADER_SIZE) % ENTRY_SIZE != 0 || read( channel, buffer, 0, HEADER_SIZE ) != previousCommittedTxId )
+            {
+                // The index is not complete, or belongs to another log file of the same version.
+                return -1;
+            }
+
+            // Find the last indexed transaction at or before the one looked up.
+            long low = 0;
+            long high = (size - HEADER_SIZE) / ENTRY_SIZE - 1;
+            long found = -1;
+            while ( low <= high )
+            {
+                long middle = (low + high) >>> 1;
+                long position = HEADER_SIZE + middle * ENTRY_SIZE;
+                if ( read( channel, buffer, position, ENTRY_SIZE ) <= transactionId )
+                {
+                    found = buffer.getLong();
+                    low = middle + 1;
+                }
+                else
+                {
+                    high = middle - 1;
+                }
+            }
+            return found;
+        }
+    }
+
+    private static long read( StoreChannel channel, ByteBuffer buffer, long position, int length ) throws IOException
+    {
+        buffer.clear().limit( length );
+        channel.position( position );
+        channel.readAll( buffer );
+        buffer.flip();
+        return buffer.getLong();
+    }
+
+    /**
+     * Writes the index of the log file that was rotated away to its index file, and deletes the index files of log files that no longer exist.
+     * Failing to do so is logged rather than thrown, since it only means that looking up transactions in that log file is not sped up.
+     *
+     * @param logHeader header of the log file that was rotated away.
+     */
+    synchronized void rotated( LogHeader logHeader )
+    {
+        long version = logHeader.getLogVersion();
+        try
+        {
+            if ( version == logVersion && !transactionIds.isEmpty() )
+            {
+                write( fileHelper.getIndexFileForVersion( version ), logHeader.getLastCommittedTxId() );
+            }
+            deleteIndexFilesOfPrunedLogFiles();
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Failed to write transaction log index of log version " + version + ".", e );
+        }
+        finally
+        {
+            clear( version + 1 );
+        }
+    }
+
+    /**
+     * Deletes the index files of the log file of the given version and all later ones, when the log file of the given version has been truncated
+     * and the later ones deleted. An index file of a truncated log file could otherwise point past its end, or into transactions appended after
+     * the truncation, since its header still matches.
+     *
+     * @param version the version of the truncated log file.
+     */
+    public synchronized void truncated( long version ) throws IOException
+    {
+        for ( Path indexFile : fileHelper.getMatchedIndexFiles() )
+        {
+            if ( fileHelper.getLogVersion( indexFile ) >= version )
+            {
+                fileSystem.deleteFile( indexFile );
+            }
+        }
+        if ( logVersion >= version )
+        {
+            clear( version );
+        }
+    }
+
+    private void write( Path indexFile, long previousCommittedTxId ) throws IOException
+    {
+        Path tempFile = indexFile.resolveSibling( indexFile.getFileName() + ".tmp" );
+        try ( StoreChannel channel = fileSystem.write( tempFile );
+              var scopedBuffer = new HeapScopedBuffer( HEADER_SIZE + transactionIds.size() * ENTRY_SIZE, memoryTracker ) )
+        {
+            ByteBuffer buffer = scopedBuffer.getBuffer();
+            buffer.putLong( previousCommittedTxId );
+            for ( int i = 0; i < transactionIds.size(); i++ )
+            {
+                buffer.putLong( transactionIds.get( i ) ).putLong( byteOffsets.get( i ) );
+            }
+            buffer.flip();
+            channel.truncate( 0 );
+            channel.writeAll( buffer );
+            channel.force( false );
+        }
+        fileSystem.renameFile( tempFile, indexFile, REPLACE_EXISTING, ATOMIC_MOVE );
+    }
+
+    private void deleteIndexFilesOfPrunedLogFiles()
+    {
+        for ( Path indexFile : fileHelper.getMatchedIndexFiles() )
+        {
+            if ( !fileSystem.fileExists( fileHelper.getLogFileForVersion( fileHelper.getLogVersion( indexFile ) ) ) )
+            {
+                fileSystem.deleteFile( indexFile );
+            }
+        }
+    }
+
+    private void clear( long version )
+    {
+        transactionIds.clear();
+        byteOffsets.clear();
+        logVersion = version;
+    }
+}
@@ -22,13 +22,16 @@ package org.neo4j.kernel.impl.util.collection;
 import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
 import org.eclipse.collections.api.set.primitive.MutableLongSet;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 
 import org.neo4j.graphdb.Resource;
+import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.kernel.impl.api.state.AppendOnlyValuesContainer;
 import org.neo4j.kernel.impl.api.state.ValuesContainer;
 import org.neo4j.kernel.impl.api.state.ValuesMap;
+import org.neo4j.kernel.impl.api.state.ValuesSpillFile;
 import org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSets;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.values.storable.Value;
@@ -38,13 +41,28 @@ import static org.neo4j.kernel.impl.util.diffsets.TrackableDiffSets.newMutableLo
 public class OffHeapCollectionsFactory implements CollectionsFactory
 {
     private final MemoryAllocator allocator;
+    private final FileSystemAbstraction fs;
+    private final Path spillDirectory;
+    private final long valuesSpillThreshold;
 
     private final Collection<Resource> resources = new ArrayList<>();
     private ValuesContainer valuesContainer;
 
     public OffHeapCollectionsFactory( OffHeapBlockAllocator blockAllocator )
+    {
+        this( blockAllocator, null, null, 0 );
+    }
+
+    /**
+     * @param valuesSpillThreshold the number of bytes the property values of a transaction may take up in memory before the oldest of them
+     * are spilled to a temporary file in the given directory, or zero to keep all of them in memory.
+     */
+    public OffHeapCollectionsFactory( OffHeapBlockAllocator blockAllocator, FileSystemAbstraction fs, Path spillDirectory, long valuesSpillThreshold )
     {
         this.allocator = new OffHeapMemoryAllocator( blockAllocator );
+        this.fs = fs;
+        this.spillDirectory = spillDirectory;
+        this.valuesSpillThreshold = valuesSpillThreshold;
     }
 
     @Override
@@ -66,7 +84,9 @@ public class OffHeapCollectionsFactory implements CollectionsFactory
     {
         if ( valuesContainer == null )
         {
-            valuesContainer = new AppendOnlyValuesContainer( allocator, memoryTracker );
+            valuesContainer = valuesSpillThreshold > 0
+                              ? new AppendOnlyValuesContainer( allocator, memoryTracker, new ValuesSpillFile( fs, spillDirectory ), valuesSpillThreshold )
+                              : new AppendOnlyValuesContainer( allocator, memoryTracker );
         }
         final LinearProbeLongLongHashMap refs = new LinearProbeLongLongHashMap( allocator, memoryTracker );
         resources.add( refs );
@@ -100,6 +100,7 @@ public class CorruptedLogsTruncator
         LogFile transactionLogFile = logFiles.getLogFile();
         truncateFilesFromVersion( recoveredTransactionLogVersion, recoveredTransactionOffset, transactionLogFile.getHighestLogVersion(),
                 transactionLogFile::getLogFileForVersion );
+        transactionLogFile.getTransactionLogIndex().truncated( recoveredTransactionLogVersion );
 
         if ( corruptCheckpoint.isPresent() )
         {
@@ -31,6 +31,7 @@ import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.logging.Log;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.LogVersionRepository;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
@@ -47,16 +48,31 @@ public class DefaultRecoveryService implements RecoveryService
     private final LogicalTransactionStore logicalTransactionStore;
     private final LogVersionRepository logVersionRepository;
     private final Log log;
+    private final JobScheduler scheduler;
+    private final int readAheadTransactions;
 
     DefaultRecoveryService( StorageEngine storageEngine, TransactionIdStore transactionIdStore,
             LogicalTransactionStore logicalTransactionStore, LogVersionRepository logVersionRepository, LogFiles logFiles,
             RecoveryStartInformationProvider.Monitor monitor, Log log )
+    {
+        this( storageEngine, transactionIdStore, logicalTransactionStore, logVersionRepository, logFiles, monitor, log, null, 0 );
+    }
+
+    /**
+     * @param scheduler scheduler of the job that reads transactions ahead of the ones being recovered.
+     * @param readAheadTransactions the number of transactions to read ahead of the one being recovered, or zero to not read ahead.
+     */
+    DefaultRecoveryService( StorageEngine storageEngine, TransactionIdStore transactionIdStore,
+            LogicalTransactionStore logicalTransactionStore, LogVersionRepository logVersionRepository, LogFiles logFiles,
+            RecoveryStartInformationProvider.Monitor monitor, Log log, JobScheduler scheduler, int readAheadTransactions )
     {
         this.storageEngine = storageEngine;
         this.transactionIdStore = transactionIdStore;
         this.logicalTransactionStore = logicalTransactionStore;
         this.logVersionRepository = logVersionRepository;
         this.log = log;
+        this.scheduler = scheduler;
+        this.readAheadTransactions = readAheadTransactions;
         this.recoveryStartInformationProvider = new RecoveryStartInformationProvider( logFiles, monitor );
     }
 
@@ -75,7 +91,12 @@ public class DefaultRecoveryService implements RecoveryService
     @Override
     public TransactionCursor getTransactions( LogPosition position ) throws IOException
     {
-        return logicalTransactionStore.getTransactions( position );
+        TransactionCursor transactions = logicalTransactionStore.getTransactions( position );
+        if ( readAheadTransactions > 0 )
+        {
+            return new ReadAheadTransactionCursor( transactions, readAheadTransactions, scheduler );
+        }
+        return transactions;
     }
 
     @Override
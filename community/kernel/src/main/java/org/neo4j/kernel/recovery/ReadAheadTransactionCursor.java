@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+/**
+ * A {@link TransactionCursor} that reads and decodes the transactions of another cursor in a background job, up to a given number of
+ * transactions ahead of the consumer. This lets recovery read the transaction log while the previous transactions are applied to the store.
+ * <p>
+ * Transactions, their positions and any failure to read them, are handed over to the consumer in log order, so the consumer sees exactly
+ * what it would have seen reading the other cursor directly.
+ */
+class ReadAheadTransactionCursor implements TransactionCursor
+{
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final TransactionCursor cursor;
+    private final LogPosition startPosition;
+    private final BlockingQueue<ReadTransaction> readTransactions;
+    private final JobHandle<?> reader;
+    private volatile boolean closed;
+    private ReadTransaction current;
+
+    ReadAheadTransactionCursor( TransactionCursor cursor, int readAheadTransactions, JobScheduler scheduler )
+    {
+        this.cursor = cursor;
+        this.readTransactions = new ArrayBlockingQueue<>( readAheadTransactions );
+        this.startPosition = cursor.position();
+        this.current = new ReadTransaction( null, startPosition, false, null );
+        this.reader = scheduler.schedule( Group.FILE_IO_HELPER, this::readAhead );
+    }
+
+    private void readAhead()
+    {
+        LogPosition position = startPosition;
+        try
+        {
+            while ( cursor.next() )
+            {
+                position = cursor.position();
+                if ( !hand( new ReadTransaction( cursor.get(), position, false, null ) ) )
+                {
+                    return;
+                }
+            }
+            hand( new ReadTransaction( null, cursor.position(), true, null ) );
+        }
+        catch ( Throwable t )
+        {
+            hand( new ReadTransaction( null, position, true, t ) );
+        }
+    }
+
+    private boolean hand( ReadTransaction transaction )
+    {
+        try
+        {
+            // The reader must not be interrupted, since that would close the channel of the log file it reads, so it checks for close instead.
+            while ( !closed )
+            {
+                if ( readTransactions.offer( transaction, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS ) )
+                {
+                    return true;
+                }
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean next() throws IOException
+    {
+        if ( current.end )
+        {
+            return false;
+        }
+        try
+        {
+            current = readTransactions.take();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( "Interrupted while waiting for the next transaction to be read.", e );
+        }
+        if ( current.failure != null )
+        {
+            rethrow( current.failure );
+        }
+        return !current.end;
+    }
+
+    @Override
+    public CommittedTransactionRepresentation get()
+    {
+        return current.transaction;
+    }
+
+    @Override
+    public LogPosition position()
+    {
+        return current.position;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        readTransactions.clear();
+        try
+        {
+            reader.waitTermination();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch ( ExecutionException e )
+        {
+            // Failures to read are handed over to the consumer, so there is nothing more to report here.
+        }
+        finally
+        {
+            cursor.close();
+        }
+    }
+
+    private static void rethrow( Throwable failure ) throws IOException
+    {
+        if ( failure instanceof IOException )
+        {
+            throw (IOException) failure;
+        }
+        if ( failure instanceof RuntimeException )
+        {
+            throw (RuntimeException) failure;
+        }
+        if ( failure instanceof Error )
+        {
+            throw (Error) failure;
+        }
+        throw new IOException( failure );
+    }
+
+    private static class ReadTransaction
+    {
+        private final CommittedTransactionRepresentation transaction;
+        private final LogPosition position;
+        private final boolean end;
+        private final Throwable failure;
+
+        ReadTransaction( CommittedTransactionRepresentation transaction, LogPosition position, boolean end, Throwable failure )
+        {
+            this.transaction = transaction;
+            this.position = position;
+            this.end = end;
+            this.failure = failure;
+        }
+    }
+}
@@ -22,17 +22,23 @@ package org.neo4j.kernel.impl.api;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.FakeCommitment;
 import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.database.DatabaseTracers;
 import org.neo4j.kernel.impl.transaction.log.TestableTransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.scheduler.CallableExecutorService;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
 import org.neo4j.storageengine.api.TransactionIdStore;
@@ -43,8 +49,10 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.neo4j.internal.helpers.Exceptions.contains;
@@ -127,6 +135,58 @@ class TransactionRepresentationCommitProcessTest
         verify( transactionIdStore ).transactionCommitted( txId, FakeCommitment.CHECKSUM, FakeCommitment.TIMESTAMP, NULL );
     }
 
+    @Test
+    void shouldApplyLongBatchesInGroupsWhilePipeliningTheirAppends() throws Exception
+    {
+        // GIVEN
+        TransactionIdStore transactionIdStore = mock( TransactionIdStore.class );
+        TransactionAppender appender = new TestableTransactionAppender( transactionIdStore );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenReturn( 1L, 2L, 3L, 4L, 5L );
+        StorageEngine storageEngine = mock( StorageEngine.class );
+        List<Long> appliedGroups = new ArrayList<>();
+        doAnswer( invocation ->
+        {
+            TransactionToApply group = invocation.getArgument( 0 );
+            appliedGroups.add( group.transactionId() );
+            assertThat( batchLength( group ) ).isLessThanOrEqualTo( 2 );
+            return null;
+        } ).when( storageEngine ).apply( any( TransactionToApply.class ), any( TransactionApplicationMode.class ) );
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            TransactionCommitProcess commitProcess = new TransactionRepresentationCommitProcess(
+                    appender, storageEngine, new CallableExecutorService( executor ), 2, DatabaseTracers.EMPTY );
+            TransactionToApply batch = mockedTransaction();
+            batch.next( mockedTransaction() );
+            batch.next().next( mockedTransaction() );
+            batch.next().next().next( mockedTransaction() );
+            batch.next().next().next().next( mockedTransaction() );
+
+            // WHEN
+            long lastTxId = commitProcess.commit( batch, commitEvent, INTERNAL );
+
+            // THEN
+            assertThat( lastTxId ).isEqualTo( 5 );
+            assertThat( appliedGroups ).containsExactly( 1L, 3L, 5L );
+            assertThat( batchLength( batch ) ).isEqualTo( 5 );
+            verify( transactionIdStore, times( 5 ) ).transactionClosed( anyLong(), anyLong(), anyLong(), any( PageCursorTracer.class ) );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static int batchLength( TransactionToApply batch )
+    {
+        int length = 0;
+        for ( ; batch != null; batch = batch.next() )
+        {
+            length++;
+        }
+        return length;
+    }
+
     private TransactionToApply mockedTransaction()
     {
         TransactionRepresentation transaction = mock( TransactionRepresentation.class );
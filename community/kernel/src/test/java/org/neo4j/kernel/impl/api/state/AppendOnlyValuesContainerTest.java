@@ -31,6 +31,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -46,6 +48,7 @@ import java.util.function.Function;
 import java.util.stream.Stream;
 
 import org.neo4j.graphdb.spatial.Point;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
 import org.neo4j.kernel.impl.util.collection.CachingOffHeapBlockAllocator;
 import org.neo4j.kernel.impl.util.collection.OffHeapMemoryAllocator;
 import org.neo4j.memory.EmptyMemoryTracker;
@@ -73,6 +76,7 @@ import static org.apache.commons.lang3.ArrayUtils.EMPTY_INT_ARRAY;
 import static org.apache.commons.lang3.ArrayUtils.EMPTY_LONG_ARRAY;
 import static org.apache.commons.lang3.ArrayUtils.EMPTY_SHORT_ARRAY;
 import static org.apache.commons.lang3.ArrayUtils.EMPTY_STRING_ARRAY;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.eclipse.collections.impl.tuple.primitive.PrimitiveTuples.pair;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -88,6 +92,7 @@ class AppendOnlyValuesContainerTest
     private RandomRule rnd;
 
     private final CachingOffHeapBlockAllocator blockAllocator = new CachingOffHeapBlockAllocator();
+    private final EphemeralFileSystemAbstraction fs = new EphemeralFileSystemAbstraction();
     private final MemoryTracker memoryTracker = new LocalMemoryTracker();
 
     private final AppendOnlyValuesContainer container = new AppendOnlyValuesContainer( new OffHeapMemoryAllocator( blockAllocator ), memoryTracker );
@@ -98,11 +103,12 @@ class AppendOnlyValuesContainerTest
     }
 
     @AfterEach
-    void afterEach()
+    void afterEach() throws IOException
     {
         container.close();
         assertEquals( 0, memoryTracker.usedNativeMemory(), "Got memory leak" );
         blockAllocator.release();
+        fs.close();
     }
 
     @TestFactory
@@ -262,8 +268,50 @@ class AppendOnlyValuesContainerTest
         assertThrows( IllegalStateException.class, container2::close );
     }
 
+    @Test
+    void spillOldestChunksOverThreshold() throws IOException
+    {
+        final Path spillDirectory = Path.of( "spill" );
+        final AppendOnlyValuesContainer container2 =
+                new AppendOnlyValuesContainer( 64, new OffHeapMemoryAllocator( blockAllocator ), memoryTracker, new ValuesSpillFile( fs, spillDirectory ),
+                        128 );
+        final long usedBeforeAdding = memoryTracker.usedNativeMemory();
+        final List<Long> refs = new ArrayList<>();
+        for ( int i = 0; i < 100; i++ )
+        {
+            refs.add( container2.add( longValue( i ) ) );
+            assertThat( memoryTracker.usedNativeMemory() - usedBeforeAdding ).isLessThanOrEqualTo( 128 );
+        }
+        assertEquals( 1, fs.listFiles( spillDirectory ).length );
+
+        assertEquals( longValue( 0 ), container2.remove( refs.get( 0 ) ) );
+        assertThrows( IllegalArgumentException.class, () -> container2.get( refs.get( 0 ) ) );
+        for ( int i = 1; i < refs.size(); i++ )
+        {
+            assertEquals( longValue( i ), container2.get( refs.get( i ) ) );
+        }
+
+        container2.close();
+        assertEquals( 0, fs.listFiles( spillDirectory ).length );
+    }
+
     @Test
     void randomizedTest()
+    {
+        randomizedTest( container );
+    }
+
+    @Test
+    void randomizedSpillingTest()
+    {
+        final AppendOnlyValuesContainer container2 =
+                new AppendOnlyValuesContainer( 1024, new OffHeapMemoryAllocator( blockAllocator ), memoryTracker,
+                        new ValuesSpillFile( fs, Path.of( "spill" ) ), 4096 );
+        randomizedTest( container2 );
+        container2.close();
+    }
+
+    private void randomizedTest( AppendOnlyValuesContainer container )
     {
         final int count = 10000 + rnd.nextInt( 1000 );
 
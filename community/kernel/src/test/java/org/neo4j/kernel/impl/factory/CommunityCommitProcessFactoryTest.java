@@ -23,10 +23,12 @@ import org.junit.jupiter.api.Test;
 
 import org.neo4j.configuration.Config;
 import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.kernel.database.DatabaseTracers;
 import org.neo4j.kernel.impl.api.ReadOnlyTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionRepresentationCommitProcess;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StorageEngine;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -42,7 +44,7 @@ class CommunityCommitProcessFactoryTest
         Config config = Config.defaults( GraphDatabaseSettings.read_only, true );
 
         TransactionCommitProcess commitProcess = factory.create( mock( TransactionAppender.class ),
-                mock( StorageEngine.class ), config );
+                mock( StorageEngine.class ), config, mock( JobScheduler.class ), DatabaseTracers.EMPTY );
 
         assertThat( commitProcess ).isInstanceOf( ReadOnlyTransactionCommitProcess.class );
     }
@@ -53,7 +55,7 @@ class CommunityCommitProcessFactoryTest
         CommunityCommitProcessFactory factory = new CommunityCommitProcessFactory();
 
         TransactionCommitProcess commitProcess = factory.create( mock( TransactionAppender.class ),
-                mock( StorageEngine.class ), Config.defaults() );
+                mock( StorageEngine.class ), Config.defaults(), mock( JobScheduler.class ), DatabaseTracers.EMPTY );
 
         assertThat( commitProcess ).isInstanceOf( TransactionRepresentationCommitProcess.class );
     }
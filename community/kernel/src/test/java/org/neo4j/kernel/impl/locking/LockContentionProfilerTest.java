@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import org.neo4j.kernel.impl.locking.LockContentionProfiler.Contention;
+import org.neo4j.lock.LockWaitEvent;
+import org.neo4j.time.Clocks;
+import org.neo4j.time.FakeClock;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.neo4j.lock.LockType.EXCLUSIVE;
+import static org.neo4j.lock.LockType.SHARED;
+import static org.neo4j.lock.ResourceTypes.LABEL;
+import static org.neo4j.lock.ResourceTypes.NODE;
+import static org.neo4j.lock.ResourceTypes.RELATIONSHIP;
+
+class LockContentionProfilerTest
+{
+    private final FakeClock clock = Clocks.fakeClock();
+    private final LockContentionProfiler profiler = new LockContentionProfiler( clock, 2 );
+
+    @Test
+    void shouldProfileWaitsPerResourceTypeAndResource()
+    {
+        waitForNode( 10, 1 );
+        waitForNode( 30, 1 );
+        waitForNode( 5, 2 );
+        waitForRelationships( 100, 7, 8 );
+
+        List<Contention> resourceTypes = profiler.resourceTypeContention();
+        assertEquals( 2, resourceTypes.size() );
+        assertContention( resourceTypes.get( 0 ), 1, 100, 100 );
+        assertEquals( RELATIONSHIP, resourceTypes.get( 0 ).resourceType() );
+        assertContention( resourceTypes.get( 1 ), 3, 45, 30 );
+        assertEquals( NODE, resourceTypes.get( 1 ).resourceType() );
+        assertEquals( -1, resourceTypes.get( 1 ).resourceId() );
+
+        assertEquals( 4, profiler.getNumberOfLockWaits() );
+        assertEquals( 145, profiler.getTotalLockWaitTimeMillis() );
+        assertEquals( 100, profiler.getMaxLockWaitTimeMillis() );
+    }
+
+    @Test
+    void shouldKeepTheMostWaitedForResources()
+    {
+        waitForNode( 50, 1 );
+        waitForNode( 10, 2 );
+        waitForNode( 30, 3 );
+        waitForNode( 30, 3 );
+
+        // Resource 3 inherits the 10 ms waited for resource 2, which it replaced
+        List<Contention> resources = profiler.resourceContention( 10 );
+        assertEquals( 2, resources.size() );
+        assertEquals( 3, resources.get( 0 ).resourceId() );
+        assertContention( resources.get( 0 ), 2, 70, 30 );
+        assertEquals( MILLISECONDS.toNanos( 10 ), resources.get( 0 ).waitTimeErrorNanos() );
+        assertEquals( 1, resources.get( 1 ).resourceId() );
+        assertContention( resources.get( 1 ), 1, 50, 50 );
+        assertEquals( 0, resources.get( 1 ).waitTimeErrorNanos() );
+
+        List<Contention> top = profiler.resourceContention( 1 );
+        assertEquals( 1, top.size() );
+        assertEquals( 3, top.get( 0 ).resourceId() );
+    }
+
+    @Test
+    void shouldKeepResourceWaitedForMostThatArrivesAfterTableIsFull()
+    {
+        // given
+        waitForNode( 50, 1 );
+        waitForNode( 40, 2 );
+
+        // when
+        for ( int i = 0; i < 10; i++ )
+        {
+            waitForNode( 12, 3 );
+            waitForNode( 1, 100 + i );
+        }
+
+        // then
+        List<Contention> top = profiler.resourceContention( 1 );
+        assertEquals( 3, top.get( 0 ).resourceId() );
+        assertContention( top.get( 0 ), 10, 160, 12 );
+        assertEquals( MILLISECONDS.toNanos( 40 ), top.get( 0 ).waitTimeErrorNanos() );
+    }
+
+    @Test
+    void shouldProfileSampledQueries()
+    {
+        long sampleIntervalNanos = MILLISECONDS.toNanos( 100 );
+        profiler.sampleWaitingQuery( "MATCH (n) SET n.p = $p", sampleIntervalNanos );
+        profiler.sampleWaitingQuery( "MATCH (n) SET n.p = $p", sampleIntervalNanos );
+        profiler.sampleWaitingQuery( "CREATE (n)", sampleIntervalNanos );
+
+        List<Contention> queries = profiler.queryContention( 10 );
+        assertEquals( 2, queries.size() );
+        assertEquals( "MATCH (n) SET n.p = $p", queries.get( 0 ).query() );
+        assertNull( queries.get( 0 ).resourceType() );
+        assertContention( queries.get( 0 ), 2, 200, 100 );
+        assertEquals( "CREATE (n)", queries.get( 1 ).query() );
+
+        // Sampled queries are not lock waits of their own
+        assertEquals( 0, profiler.getNumberOfLockWaits() );
+    }
+
+    @Test
+    void shouldNotProfileAnythingWithoutWaits()
+    {
+        profiler.waitForLock( SHARED, LABEL, 1, 1 );
+
+        assertEquals( 0, profiler.getNumberOfLockWaits() );
+        assertEquals( 0, profiler.resourceTypeContention().size() );
+        assertEquals( 0, profiler.resourceContention( 10 ).size() );
+    }
+
+    private void waitForNode( long millis, long nodeId )
+    {
+        try ( LockWaitEvent event = profiler.waitForLock( EXCLUSIVE, NODE, 1, nodeId ) )
+        {
+            clock.forward( millis, MILLISECONDS );
+        }
+    }
+
+    private void waitForRelationships( long millis, long... relationshipIds )
+    {
+        try ( LockWaitEvent event = profiler.waitForLock( EXCLUSIVE, RELATIONSHIP, 1, relationshipIds ) )
+        {
+            clock.forward( millis, MILLISECONDS );
+        }
+    }
+
+    private static void assertContention( Contention contention, long waits, long waitTimeMillis, long maxWaitTimeMillis )
+    {
+        assertEquals( waits, contention.waits() );
+        assertEquals( MILLISECONDS.toNanos( waitTimeMillis ), contention.waitTimeNanos() );
+        assertEquals( MILLISECONDS.toNanos( maxWaitTimeMillis ), contention.maxWaitTimeNanos() );
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.lock.ResourceTypes;
+import org.neo4j.test.Race;
+import org.neo4j.time.Clocks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.neo4j.lock.LockTracer.NONE;
+import static org.neo4j.lock.ResourceTypes.NODE;
+
+class StripedLockManagerTest
+{
+    private static final int RESOURCES = 4;
+
+    private final StripedLockManager locks = new StripedLockManager( Config.defaults(), Clocks.nanoClock(), ResourceTypes.values() );
+
+    @AfterEach
+    void tearDown()
+    {
+        locks.close();
+    }
+
+    @Test
+    void shouldRemoveLocksNoLongerHeldFromLockTable()
+    {
+        try ( Locks.Client client = locks.newClient() )
+        {
+            client.initialize( null, 1 );
+            client.acquireShared( NONE, NODE, 1 );
+            client.acquireShared( NONE, NODE, 1 );
+            client.acquireExclusive( NONE, NODE, 1 );
+            assertNotNull( locks.existingLock( NODE, 1 ) );
+
+            client.releaseExclusive( NODE, 1 );
+            client.releaseShared( NODE, 1 );
+            assertNotNull( locks.existingLock( NODE, 1 ) );
+
+            client.releaseShared( NODE, 1 );
+            assertNull( locks.existingLock( NODE, 1 ) );
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource( ints = {Integer.MAX_VALUE - 2, -3} )
+    void shouldRecogniseOwnLocksWhenLockSessionIdsWrapAround( int lastLockSessionId )
+    {
+        StripedLockManager wrappingLocks = new StripedLockManager( Config.defaults(), Clocks.nanoClock(), ResourceTypes.values(), lastLockSessionId );
+        try
+        {
+            for ( int i = 0; i < 3; i++ )
+            {
+                try ( Locks.Client client = wrappingLocks.newClient();
+                      Locks.Client other = wrappingLocks.newClient() )
+                {
+                    assertNotEquals( 0, client.getLockSessionId() );
+                    assertNotEquals( 0, other.getLockSessionId() );
+                    client.initialize( null, 1 );
+                    other.initialize( null, 1 );
+
+                    client.acquireExclusive( NONE, NODE, 1 );
+                    client.acquireShared( NONE, NODE, 1 );
+                    assertFalse( other.trySharedLock( NODE, 1 ) );
+                    assertFalse( other.tryExclusiveLock( NODE, 1 ) );
+
+                    client.releaseShared( NODE, 1 );
+                    client.releaseExclusive( NODE, 1 );
+                    assertNull( wrappingLocks.existingLock( NODE, 1 ) );
+                }
+            }
+        }
+        finally
+        {
+            wrappingLocks.close();
+        }
+    }
+
+    @Test
+    void shouldNeverGrantConflictingLocksUnderContention() throws Throwable
+    {
+        AtomicIntegerArray exclusiveHolders = new AtomicIntegerArray( RESOURCES );
+        AtomicIntegerArray sharedHolders = new AtomicIntegerArray( RESOURCES );
+        Race race = new Race();
+        race.addContestants( Runtime.getRuntime().availableProcessors() * 2, () ->
+        {
+            long resourceId = ThreadLocalRandom.current().nextInt( RESOURCES );
+            int id = (int) resourceId;
+            try ( Locks.Client client = locks.newClient() )
+            {
+                client.initialize( null, 1 );
+                if ( ThreadLocalRandom.current().nextBoolean() )
+                {
+                    client.acquireExclusive( NONE, NODE, resourceId );
+                    assertEquals( 1, exclusiveHolders.incrementAndGet( id ) );
+                    assertEquals( 0, sharedHolders.get( id ) );
+                    exclusiveHolders.decrementAndGet( id );
+                    client.releaseExclusive( NODE, resourceId );
+                }
+                else
+                {
+                    client.acquireShared( NONE, NODE, resourceId );
+                    sharedHolders.incrementAndGet( id );
+                    assertEquals( 0, exclusiveHolders.get( id ) );
+                    sharedHolders.decrementAndGet( id );
+                    client.releaseShared( NODE, resourceId );
+                }
+            }
+        }, 1_000 );
+        race.go();
+
+        for ( int id = 0; id < RESOURCES; id++ )
+        {
+            assertNull( locks.existingLock( NODE, id ) );
+        }
+    }
+}
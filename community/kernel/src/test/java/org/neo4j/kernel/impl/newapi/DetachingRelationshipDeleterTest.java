@@ -74,14 +74,27 @@ class DetachingRelationshipDeleterTest
 
         // then
         inOrder.verify( locks ).acquireExclusive( NONE, NODE, 3L, 40L, 41L, nodeId, 43L, 49L );
-        inOrder.verify( locks ).acquireExclusive( NONE, RELATIONSHIP, 2L );
-        inOrder.verify( locks ).acquireExclusive( NONE, RELATIONSHIP, 3L );
-        inOrder.verify( locks ).acquireExclusive( NONE, RELATIONSHIP, 22L );
-        inOrder.verify( locks ).acquireExclusive( NONE, RELATIONSHIP, 23L );
-        inOrder.verify( locks ).acquireExclusive( NONE, RELATIONSHIP, 50L );
+        inOrder.verify( locks ).acquireExclusive( NONE, RELATIONSHIP, 2L, 3L, 21L, 22L, 23L, 50L );
         assertEquals( set( 21L, 22L, 23L, 2L, 3L, 50L ), collector.set );
     }
 
+    @Test
+    void shouldReleaseLocksOfRelationshipsNotDeleted()
+    {
+        // given
+        DetachingRelationshipDeleter locking = new DetachingRelationshipDeleter( relationshipId -> relationshipId != 22L );
+        returnRelationships( ktx, new TestRelationshipChain( nodeId ).outgoing( 21L, 43L, TYPE ).incoming( 22L, 40L, TYPE ) );
+        when( ktx.statementLocks() ).thenReturn( new SimpleStatementLocks( locks ) );
+
+        // when
+        int deleted = locking.lockNodesAndDeleteRelationships( nodeId, ktx );
+
+        // then
+        assertEquals( 1, deleted );
+        verify( locks ).acquireExclusive( NONE, RELATIONSHIP, 21L, 22L );
+        verify( locks ).releaseExclusive( RELATIONSHIP, 22L );
+    }
+
     @Test
     void lockNodeWithoutRelationships()
     {
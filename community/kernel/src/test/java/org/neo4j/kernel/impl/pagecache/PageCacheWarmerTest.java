@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.logging.NullLog;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.EphemeralPageCacheExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.collections.api.factory.Sets.immutable;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.tracing.PageCacheTracer.NULL;
+
+@EphemeralPageCacheExtension
+class PageCacheWarmerTest
+{
+    @Inject
+    private FileSystemAbstraction fs;
+    @Inject
+    private PageCache pageCache;
+    @Inject
+    private TestDirectory testDirectory;
+
+    private JobScheduler jobScheduler;
+    private Path databaseDirectory;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        jobScheduler = new ThreadPoolJobScheduler();
+        databaseDirectory = testDirectory.directory( "neo4j" );
+        file = databaseDirectory.resolve( "store" );
+        try ( PagedFile pagedFile = pageCache.map( file, pageCache.pageSize(), immutable.of( CREATE ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, PageCursorTracer.NULL ) )
+        {
+            for ( int i = 0; i < 100; i++ )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( i );
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        jobScheduler.close();
+    }
+
+    @Test
+    void reheatMustLoadPagesOfLatestProfile() throws IOException
+    {
+        try ( PagedFile pagedFile = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            touchPages( pagedFile, 10, 20 );
+            createWarmer( Config.defaults() ).profile();
+        }
+        assertTrue( fs.fileExists( databaseDirectory.resolve( PageCacheWarmer.PROFILES_DIRECTORY ).resolve( "store" + PageCacheWarmer.PROFILE_SUFFIX ) ) );
+
+        try ( PagedFile pagedFile = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            assertThat( residentPages( pagedFile ) ).isEmpty();
+
+            assertThat( createWarmer( Config.defaults() ).reheat() ).isEqualTo( 10 );
+            assertThat( residentPages( pagedFile ) ).containsExactly( 10L, 11L, 12L, 13L, 14L, 15L, 16L, 17L, 18L, 19L );
+        }
+    }
+
+    @Test
+    void profileWithoutResidentPagesMustRemoveOldProfile() throws IOException
+    {
+        Path profile = databaseDirectory.resolve( PageCacheWarmer.PROFILES_DIRECTORY ).resolve( "store" + PageCacheWarmer.PROFILE_SUFFIX );
+        try ( PagedFile pagedFile = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            touchPages( pagedFile, 0, 1 );
+            createWarmer( Config.defaults() ).profile();
+        }
+        assertTrue( fs.fileExists( profile ) );
+
+        try ( PagedFile ignored = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            createWarmer( Config.defaults() ).profile();
+        }
+        assertFalse( fs.fileExists( profile ) );
+    }
+
+    @Test
+    void reheatMustLoadWholeFilesWhenPreFetchIsEnabled() throws IOException
+    {
+        try ( PagedFile pagedFile = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            assertThat( createWarmer( Config.defaults( pagecache_warmup_prefetch, true ) ).reheat() ).isEqualTo( 100 );
+            assertThat( residentPages( pagedFile ) ).hasSize( 100 );
+        }
+    }
+
+    private PageCacheWarmer createWarmer( Config config )
+    {
+        return new PageCacheWarmer( fs, pageCache, jobScheduler, databaseDirectory, "neo4j", config, NullLog.getInstance(), NULL, 4 );
+    }
+
+    private static void touchPages( PagedFile pagedFile, long fromPageId, long toPageId ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( fromPageId, PF_SHARED_READ_LOCK, PageCursorTracer.NULL ) )
+        {
+            for ( long pageId = fromPageId; pageId < toPageId; pageId++ )
+            {
+                assertTrue( cursor.next( pageId ) );
+            }
+        }
+    }
+
+    private static List<Long> residentPages( PagedFile pagedFile ) throws IOException
+    {
+        List<Long> pages = new ArrayList<>();
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT, PageCursorTracer.NULL ) )
+        {
+            while ( cursor.next() )
+            {
+                if ( cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                {
+                    pages.add( cursor.getCurrentPageId() );
+                }
+            }
+        }
+        return pages;
+    }
+}
@@ -26,9 +26,15 @@ import org.mockito.Mockito;
 
 import java.io.Flushable;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.neo4j.io.ByteUnit;
 import org.neo4j.io.memory.HeapScopedBuffer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.database.DbmsLogEntryWriterFactory;
@@ -44,27 +50,36 @@ import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.TransactionLogFiles;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
 import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.memory.LocalMemoryTracker;
 import org.neo4j.monitoring.DatabaseHealth;
 import org.neo4j.monitoring.Health;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StorageCommand;
 import org.neo4j.storageengine.api.TransactionId;
 import org.neo4j.storageengine.api.TransactionIdStore;
+import org.neo4j.test.Race;
 import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.LifeExtension;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.neo4j.internal.kernel.api.security.AuthSubject.ANONYMOUS;
@@ -75,6 +90,7 @@ import static org.neo4j.kernel.impl.transaction.log.rotation.LogRotation.NO_ROTA
 import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
 import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
 import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_COMMIT_TIMESTAMP;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_ID;
 
 @ExtendWith( LifeExtension.class )
 class BatchingTransactionAppenderTest
@@ -150,6 +166,83 @@ class BatchingTransactionAppenderTest
         assertNull( tx.next() );
     }
 
+    @Test
+    void shouldAppendConcurrentlyCommittingTransactionsInGroups() throws Throwable
+    {
+        // GIVEN
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( (int) ByteUnit.mebiBytes( 1 ) );
+        when( logFile.getTransactionLogWriter() ).thenReturn( new TransactionLogWriter( channel, new DbmsLogEntryWriterFactory( LATEST::version ) ) );
+        AtomicLong nextTxId = new AtomicLong( BASE_TX_ID );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenAnswer( invocation -> nextTxId.incrementAndGet() );
+        TransactionAppender appender = life.add( createTransactionAppender() );
+
+        // WHEN
+        int committers = 8;
+        int transactionsPerCommitter = 100;
+        Set<Long> appendedTransactionIds = ConcurrentHashMap.newKeySet();
+        Race race = new Race().withEndCondition( () -> false );
+        race.addContestants( committers, Race.throwing( () ->
+        {
+            TransactionRepresentation transaction = transaction( singleTestCommand(), new byte[0], 0, 1, 0 );
+            appendedTransactionIds.add( appender.append( new TransactionToApply( transaction, NULL ), logAppendEvent ) );
+        } ), transactionsPerCommitter );
+        race.go();
+
+        // THEN
+        int transactions = committers * transactionsPerCommitter;
+        assertThat( appendedTransactionIds ).hasSize( transactions );
+        try ( PhysicalTransactionCursor reader = new PhysicalTransactionCursor( channel, logEntryReader() ) )
+        {
+            for ( long txId = BASE_TX_ID + 1; txId <= BASE_TX_ID + transactions; txId++ )
+            {
+                assertTrue( reader.next() );
+                assertEquals( txId, reader.get().getCommitEntry().getTxId() );
+            }
+            assertFalse( reader.next() );
+        }
+    }
+
+    @Test
+    void shouldLeaveForcingTheLogToFlusherForTransactionsWithRelaxedDurability() throws Exception
+    {
+        // GIVEN
+        when( logFile.getTransactionLogWriter() ).thenReturn( new TransactionLogWriter( channel, new DbmsLogEntryWriterFactory( LATEST::version ) ) );
+        when( transactionIdStore.getLastCommittedTransaction() ).thenReturn( new TransactionId( BASE_TX_ID, BASE_TX_CHECKSUM, BASE_TX_COMMIT_TIMESTAMP ) );
+        when( transactionIdStore.getLastCommittedTransactionId() ).thenReturn( BASE_TX_ID );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenReturn( BASE_TX_ID + 1, BASE_TX_ID + 2 );
+        JobScheduler scheduler = mock( JobScheduler.class );
+        TransactionLogFlusher logFlusher = new TransactionLogFlusher( logFile, NO_ROTATION, transactionIdStore, scheduler, Duration.ofSeconds( 1 ) );
+        logFlusher.start();
+        TransactionAppender appender =
+                life.add( new BatchingTransactionAppender( logFiles, NO_ROTATION, positionCache, transactionIdStore, databaseHealth, logFlusher ) );
+
+        // WHEN
+        TransactionToApply relaxed = new TransactionToApply( transaction( singleTestCommand(), new byte[0], 0, 1, 0 ), NULL );
+        relaxed.relaxedDurability( true );
+        appender.append( relaxed, logAppendEvent );
+
+        // THEN
+        verify( logFile, never() ).forceAfterAppend( any() );
+        verify( scheduler ).schedule( eq( Group.TRANSACTION_LOG_FLUSH ), any( Runnable.class ), eq( 1000L ), eq( MILLISECONDS ) );
+        verify( transactionIdStore ).transactionCommitted( eq( BASE_TX_ID + 1 ), anyInt(), anyLong(), any() );
+        assertEquals( BASE_TX_ID, logFlusher.getLastDurableTransactionId() );
+
+        logFlusher.flush();
+        verify( logFile ).forceAfterAppend( any() );
+        assertEquals( BASE_TX_ID + 1, logFlusher.getLastDurableTransactionId() );
+
+        // WHEN
+        appender.append( new TransactionToApply( transaction( singleTestCommand(), new byte[0], 0, 1, 0 ), NULL ), logAppendEvent );
+
+        // THEN
+        verify( logFile, times( 2 ) ).forceAfterAppend( any() );
+        assertEquals( BASE_TX_ID + 2, logFlusher.getLastDurableTransactionId() );
+        logFlusher.flush();
+        verify( logFile, times( 2 ) ).forceAfterAppend( any() );
+        // Only transactions with relaxed durability need a flush to be scheduled.
+        verify( scheduler ).schedule( any( Group.class ), any( Runnable.class ), anyLong(), any() );
+    }
+
     @Test
     void shouldAppendCommittedTransactions() throws Exception
     {
@@ -248,6 +341,48 @@ class BatchingTransactionAppenderTest
         verify( databaseHealth ).panic( failure );
     }
 
+    @Test
+    void shouldAppendTransactionsWithCommandsSerializedAheadAsIfSerializedWhileAppending() throws Exception
+    {
+        // GIVEN
+        InMemoryClosableChannel serializedAheadChannel = new InMemoryClosableChannel( (int) ByteUnit.kibiBytes( 64 ) );
+        InMemoryClosableChannel serializedWhileAppendingChannel = new InMemoryClosableChannel( (int) ByteUnit.kibiBytes( 64 ) );
+        LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+        SerializedCommands.Pool pool = new SerializedCommands.Pool( 16, memoryTracker );
+        when( logFile.getTransactionLogWriter() ).thenReturn(
+                new TransactionLogWriter( serializedAheadChannel, new DbmsLogEntryWriterFactory( LATEST::version ), null, pool ) );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenReturn( 2L, 3L );
+        TransactionAppender appender = life.add( createTransactionAppender() );
+        TransactionRepresentation small = transaction( singleTestCommand(), new byte[0], 0, 1, 0 );
+        TransactionRepresentation large = transaction( List.of( new TestCommand( 100 ), new TestCommand( 1000 ) ), new byte[]{1, 2}, 0, 1, 0 );
+
+        // WHEN
+        TransactionToApply batch = batchOf( small, large );
+        appender.append( batch, logAppendEvent );
+        TransactionLogWriter writer = new TransactionLogWriter( serializedWhileAppendingChannel, new DbmsLogEntryWriterFactory( LATEST::version ) );
+        writer.append( large, 3L, writer.append( small, 2L, BASE_TX_CHECKSUM ) );
+
+        // THEN
+        for ( TransactionToApply tx = batch; tx != null; tx = tx.next() )
+        {
+            assertNull( tx.serializedCommands() );
+        }
+        try ( PhysicalTransactionCursor serializedAhead = new PhysicalTransactionCursor( serializedAheadChannel, logEntryReader() );
+              PhysicalTransactionCursor serializedWhileAppending = new PhysicalTransactionCursor( serializedWhileAppendingChannel, logEntryReader() ) )
+        {
+            for ( TransactionRepresentation transaction : List.of( small, large ) )
+            {
+                assertTrue( serializedAhead.next() );
+                assertTrue( serializedWhileAppending.next() );
+                assertEquals( transaction, serializedAhead.get().getTransactionRepresentation() );
+                assertEquals( serializedWhileAppending.get().getCommitEntry(), serializedAhead.get().getCommitEntry() );
+            }
+            assertFalse( serializedAhead.next() );
+        }
+        pool.close();
+        assertEquals( 0, memoryTracker.usedNativeMemory() );
+    }
+
     @Test
     void shouldNotCallTransactionClosedOnFailedForceLogToDisk() throws Exception
     {
@@ -285,6 +420,7 @@ class BatchingTransactionAppenderTest
     void shouldKernelPanicIfTransactionIdsMismatch()
     {
         // Given
+        when( logFile.getTransactionLogWriter() ).thenReturn( new TransactionLogWriter( channel, new DbmsLogEntryWriterFactory( LATEST::version ) ) );
         BatchingTransactionAppender appender = life.add( createTransactionAppender() );
         when( transactionIdStore.nextCommittingTransactionId() ).thenReturn( 42L );
         TransactionToApply batch = new TransactionToApply( mock( TransactionRepresentation.class ), 43L, NULL );
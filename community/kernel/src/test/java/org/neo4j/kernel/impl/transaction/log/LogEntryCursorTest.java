@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.neo4j.kernel.impl.api.TestCommand;
+import org.neo4j.kernel.impl.api.TestCommandReaderFactory;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommand;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV4_2Zstd;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogEntryCursorTest
+{
+    private final LogEntryReader logEntryReader = new VersionAwareLogEntryReader( new TestCommandReaderFactory() );
+
+    @Test
+    void shouldHandOutCompressedCommandsOneByOne() throws IOException
+    {
+        // given
+        List<StorageCommand> commands = List.of( new TestCommand( new byte[] {1} ), new TestCommand( new byte[] {2} ) );
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( true );
+        writeCompressedTransaction( channel, commands, 42 );
+
+        // when
+        try ( LogEntryCursor cursor = new LogEntryCursor( logEntryReader, channel ) )
+        {
+            // then
+            assertNextCommands( cursor, commands );
+            assertNextCommit( cursor, 42 );
+            assertFalse( cursor.next() );
+        }
+    }
+
+    @Test
+    void shouldKeepCompressedCommandsOfCursorsSharingAReaderApart() throws IOException
+    {
+        // given
+        List<StorageCommand> commandsA = List.of( new TestCommand( new byte[] {1} ), new TestCommand( new byte[] {2} ) );
+        List<StorageCommand> commandsB = List.of( new TestCommand( new byte[] {3} ), new TestCommand( new byte[] {4} ), new TestCommand( new byte[] {5} ) );
+        InMemoryClosableChannel channelA = new InMemoryClosableChannel( true );
+        InMemoryClosableChannel channelB = new InMemoryClosableChannel( true );
+        writeCompressedTransaction( channelA, commandsA, 1 );
+        writeCompressedTransaction( channelB, commandsB, 2 );
+
+        // when
+        try ( LogEntryCursor cursorA = new LogEntryCursor( logEntryReader, channelA );
+              LogEntryCursor cursorB = new LogEntryCursor( logEntryReader, channelB ) )
+        {
+            // then
+            assertNextCommand( cursorA, commandsA.get( 0 ) );
+            assertNextCommand( cursorB, commandsB.get( 0 ) );
+            assertNextCommand( cursorB, commandsB.get( 1 ) );
+            assertNextCommand( cursorA, commandsA.get( 1 ) );
+            assertNextCommit( cursorA, 1 );
+            assertNextCommand( cursorB, commandsB.get( 2 ) );
+            assertNextCommit( cursorB, 2 );
+            assertFalse( cursorA.next() );
+            assertFalse( cursorB.next() );
+        }
+    }
+
+    private static void writeCompressedTransaction( InMemoryClosableChannel channel, List<StorageCommand> commands, long txId ) throws IOException
+    {
+        LogEntryWriter<InMemoryClosableChannel> writer = new LogEntryWriter<>( channel, LogEntryParserSetV4_2Zstd.V4_2_ZSTD );
+        channel.beginChecksum();
+        writer.serialize( new PhysicalTransactionRepresentation( commands ) );
+        writer.writeCommitEntry( txId, 21 );
+    }
+
+    private static void assertNextCommands( LogEntryCursor cursor, List<StorageCommand> commands ) throws IOException
+    {
+        for ( StorageCommand command : commands )
+        {
+            assertNextCommand( cursor, command );
+        }
+    }
+
+    private static void assertNextCommand( LogEntryCursor cursor, StorageCommand command ) throws IOException
+    {
+        assertTrue( cursor.next() );
+        assertEquals( new LogEntryCommand( command ), cursor.get() );
+    }
+
+    private static void assertNextCommit( LogEntryCursor cursor, long txId ) throws IOException
+    {
+        assertTrue( cursor.next() );
+        assertEquals( txId, ((LogEntryCommit) cursor.get()).getTxId() );
+    }
+}
@@ -27,6 +27,7 @@ import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Random;
 
 import org.neo4j.io.fs.DefaultFileSystemAbstraction;
@@ -105,6 +106,33 @@ class PhysicalFlushableChannelTest
         assertArrayEquals( bytes, writtenBytes );
     }
 
+    @Test
+    void shouldBeAbleToWriteByteBuffersGreaterThanTheBufferSize() throws IOException
+    {
+        final Path firstFile = directory.homePath().resolve( "file1" );
+        StoreChannel storeChannel = fileSystem.write( firstFile );
+        PhysicalLogVersionedStoreChannel versionedStoreChannel =
+                new PhysicalLogVersionedStoreChannel( storeChannel, 1, (byte) -1, firstFile, nativeChannelAccessor );
+        int length = 26_145;
+        byte[] bytes = generateBytes( length );
+        ByteBuffer source = ByteBuffer.wrap( bytes );
+        try ( PhysicalFlushableChannel channel = new PhysicalFlushableChannel( versionedStoreChannel, new HeapScopedBuffer( 100, INSTANCE ) ) )
+        {
+            channel.put( (byte) 1 );
+            channel.putAll( source );
+        }
+        assertEquals( source.limit(), source.position() );
+
+        byte[] writtenBytes = new byte[length + 1];
+        try ( InputStream in = Files.newInputStream( firstFile ) )
+        {
+            in.read( writtenBytes );
+        }
+
+        assertEquals( 1, writtenBytes[0] );
+        assertArrayEquals( bytes, Arrays.copyOfRange( writtenBytes, 1, writtenBytes.length ) );
+    }
+
     @Test
     void releaseBufferMemoryOnClose() throws IOException
     {
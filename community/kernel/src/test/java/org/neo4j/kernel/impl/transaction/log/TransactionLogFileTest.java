@@ -527,6 +527,24 @@ class TransactionLogFileTest
             return NativeCallResult.SUCCESS;
         }
 
+        @Override
+        public NativeCallResult tryAdviseWillNeed( int fd, long offset, long length )
+        {
+            return NativeCallResult.SUCCESS;
+        }
+
+        @Override
+        public NativeCallResult tryStartWriteBack( int fd, long offset, long length )
+        {
+            return NativeCallResult.SUCCESS;
+        }
+
+        @Override
+        public NativeCallResult tryAdviseHugePages( long address, long length )
+        {
+            return NativeCallResult.SUCCESS;
+        }
+
         @Override
         public NativeCallResult tryPreallocateSpace( int fd, long bytes )
         {
@@ -142,6 +142,34 @@ class CheckPointerImplTest
         verifyNoMoreInteractions( forceOperation, health, appender, threshold, tracer );
     }
 
+    @Test
+    void shouldCheckPointBeforeAndAfterPreFlush() throws Throwable
+    {
+        // Given
+        CheckPointerImpl checkPointing = checkPointer( new StoreCopyCheckPointMutex(), true );
+        mockTxIdStore();
+        long transactionIdAfterPreFlush = transactionId + 10;
+        LogPosition logPositionAfterPreFlush = new LogPosition( logPosition.getLogVersion(), logPosition.getByteOffset() + 1000 );
+        doAnswer( invocation ->
+        {
+            when( metadataProvider.getLastClosedTransaction() ).thenReturn(
+                    new long[]{transactionIdAfterPreFlush, logPositionAfterPreFlush.getLogVersion(), logPositionAfterPreFlush.getByteOffset()} );
+            return null;
+        } ).doNothing().when( forceOperation ).flushAndForce( limiter, NULL );
+
+        checkPointing.start();
+
+        // When
+        long txId = checkPointing.forceCheckPoint( INFO );
+
+        // Then
+        assertEquals( transactionIdAfterPreFlush, txId );
+        verify( forceOperation, times( 2 ) ).flushAndForce( limiter, NULL );
+        verify( appender ).checkPoint( any( LogCheckPointEvent.class ), eq( logPosition ), any( Instant.class ), any( String.class ) );
+        verify( appender ).checkPoint( any( LogCheckPointEvent.class ), eq( logPositionAfterPreFlush ), any( Instant.class ), any( String.class ) );
+        verify( threshold ).checkPointHappened( transactionIdAfterPreFlush );
+    }
+
     @Test
     void shouldForceCheckPointAlways() throws Throwable
     {
@@ -542,13 +570,18 @@ class CheckPointerImplTest
     }
 
     private CheckPointerImpl checkPointer( StoreCopyCheckPointMutex mutex )
+    {
+        return checkPointer( mutex, false );
+    }
+
+    private CheckPointerImpl checkPointer( StoreCopyCheckPointMutex mutex, boolean preFlush )
     {
         var databaseTracers = mock( DatabaseTracers.class );
         when( databaseTracers.getDatabaseTracer() ).thenReturn( tracer );
         when( databaseTracers.getPageCacheTracer() ).thenReturn( PageCacheTracer.NULL );
         when( metadataProvider.getStoreId() ).thenReturn( storeId );
         return new CheckPointerImpl( metadataProvider, threshold, forceOperation, logPruning, appender, health,
-                NullLogProvider.getInstance(), databaseTracers, limiter, mutex, clock );
+                NullLogProvider.getInstance(), databaseTracers, limiter, mutex, clock, preFlush );
     }
 
     private CheckPointerImpl checkPointer()
@@ -23,12 +23,15 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.neo4j.kernel.impl.api.TestCommand;
 import org.neo4j.kernel.impl.api.TestCommandReaderFactory;
 import org.neo4j.kernel.impl.transaction.log.InMemoryClosableChannel;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
 import org.neo4j.storageengine.api.CommandReader;
+import org.neo4j.storageengine.api.StorageCommand;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -93,6 +96,50 @@ class VersionAwareLogEntryReaderTest
         assertEquals( command, logEntry );
     }
 
+    @Test
+    void shouldReadCompressedCommandsAsOneLogEntry() throws IOException
+    {
+        // given
+        List<StorageCommand> commands = List.of(
+                new TestCommand( new byte[] {1, 2, 3} ), new TestCommand( new byte[100] ), new TestCommand( new byte[] {4} ) );
+        final InMemoryClosableChannel channel = new InMemoryClosableChannel( true );
+        final LogEntryWriter<InMemoryClosableChannel> writer = new LogEntryWriter<>( channel, LogEntryParserSetV4_2Zstd.V4_2_ZSTD );
+
+        channel.beginChecksum();
+        writer.serialize( new PhysicalTransactionRepresentation( commands ) );
+        int checksum = writer.writeCommitEntry( 42, 21 );
+        final LogEntryCommit commit = new LogEntryCommit( LogEntryParserSetVersion.LogEntryV4_2_ZSTD.getVersionByte(), 42, 21, checksum );
+
+        // when
+        LogEntry logEntry = logEntryReader.readLogEntry( channel );
+
+        // then
+        assertTrue( logEntry instanceof LogEntryCompressedCommands );
+        List<LogEntryCommand> commandEntries = ((LogEntryCompressedCommands) logEntry).getCommands();
+        assertEquals( commands.size(), commandEntries.size() );
+        for ( int i = 0; i < commands.size(); i++ )
+        {
+            assertEquals( new LogEntryCommand( commands.get( i ) ), commandEntries.get( i ) );
+            assertEquals( LogEntryParserSetVersion.LogEntryV4_2_ZSTD.getVersionByte(), commandEntries.get( i ).getVersion() );
+        }
+        assertEquals( commit, logEntryReader.readLogEntry( channel ) );
+        assertNull( logEntryReader.readLogEntry( channel ) );
+    }
+
+    @Test
+    void shouldFailOnCompressedCommandsWithImpossibleLengthsWithoutAllocatingThem()
+    {
+        // given
+        final InMemoryClosableChannel channel = new InMemoryClosableChannel( true );
+        channel.put( LogEntryParserSetVersion.LogEntryV4_2_ZSTD.getVersionByte() )
+                .put( LogEntryTypeCodes.COMPRESSED_COMMANDS )
+                .putInt( 10 )
+                .putInt( Integer.MAX_VALUE );
+
+        // when/then
+        assertThrows( IOException.class, () -> logEntryReader.readLogEntry( channel ) );
+    }
+
     @Test
     void shouldReadACheckPointLogEntry() throws IOException
     {
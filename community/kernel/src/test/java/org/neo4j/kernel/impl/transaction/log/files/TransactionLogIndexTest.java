@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.kernel.impl.api.TestCommand;
+import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
+import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.TransactionLogWriter;
+import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
+import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.storageengine.api.StoreId;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.LifeExtension;
+import org.neo4j.test.extension.Neo4jLayoutExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.transaction_log_index_interval;
+import static org.neo4j.internal.kernel.api.security.AuthSubject.ANONYMOUS;
+import static org.neo4j.kernel.impl.transaction.log.TestLogEntryReader.logEntryReader;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
+
+@Neo4jLayoutExtension
+@ExtendWith( LifeExtension.class )
+class TransactionLogIndexTest
+{
+    @Inject
+    private DatabaseLayout databaseLayout;
+    @Inject
+    private FileSystemAbstraction fileSystem;
+    @Inject
+    private LifeSupport life;
+
+    private LogFile logFile;
+    private TransactionLogFilesHelper fileHelper;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        LogFiles logFiles = LogFilesBuilder.builder( databaseLayout, fileSystem )
+                .withTransactionIdStore( new SimpleTransactionIdStore() )
+                .withLogVersionRepository( new SimpleLogVersionRepository() )
+                .withLogEntryReader( logEntryReader() )
+                .withStoreId( StoreId.UNKNOWN )
+                .withConfig( Config.defaults( transaction_log_index_interval, 4 ) )
+                .build();
+        life.add( logFiles );
+        life.start();
+        logFile = logFiles.getLogFile();
+        fileHelper = new TransactionLogFilesHelper( fileSystem, logFiles.logFilesDirectory() );
+    }
+
+    @Test
+    void shouldLookUpClosestIndexedTransactionInRotatedAndCurrentLogFiles() throws IOException
+    {
+        Map<Long,LogPosition> positions = append( 2, 10 );
+        logFile.rotate();
+        positions.putAll( append( 11, 20 ) );
+
+        TransactionLogIndex index = logFile.getTransactionLogIndex();
+        LogHeader rotatedHeader = logFile.extractHeader( 0 );
+        LogHeader currentHeader = logFile.extractHeader( 1 );
+        assertEquals( rotatedHeader.getStartPosition(), index.lookup( 3, rotatedHeader ) );
+        assertEquals( positions.get( 4L ), index.lookup( 4, rotatedHeader ) );
+        assertEquals( positions.get( 4L ), index.lookup( 7, rotatedHeader ) );
+        assertEquals( positions.get( 8L ), index.lookup( 10, rotatedHeader ) );
+        assertEquals( currentHeader.getStartPosition(), index.lookup( 11, currentHeader ) );
+        assertEquals( positions.get( 12L ), index.lookup( 15, currentHeader ) );
+        assertEquals( positions.get( 20L ), index.lookup( 20, currentHeader ) );
+    }
+
+    @Test
+    void shouldLookUpFromStartOfLogFileWithoutCompleteIndexFile() throws IOException
+    {
+        append( 1, 10 );
+        logFile.rotate();
+
+        TransactionLogIndex index = logFile.getTransactionLogIndex();
+        LogHeader rotatedHeader = logFile.extractHeader( 0 );
+        Path indexFile = fileHelper.getIndexFileForVersion( 0 );
+        try ( StoreChannel channel = fileSystem.write( indexFile ) )
+        {
+            channel.truncate( channel.size() - 1 );
+        }
+        assertEquals( rotatedHeader.getStartPosition(), index.lookup( 9, rotatedHeader ) );
+
+        fileSystem.deleteFile( indexFile );
+        assertEquals( rotatedHeader.getStartPosition(), index.lookup( 9, rotatedHeader ) );
+    }
+
+    @Test
+    void shouldDeleteIndexFilesOfPrunedLogFilesOnRotation() throws IOException
+    {
+        append( 1, 10 );
+        logFile.rotate();
+        append( 11, 20 );
+        logFile.rotate();
+        assertTrue( fileSystem.fileExists( fileHelper.getIndexFileForVersion( 0 ) ) );
+        assertTrue( fileSystem.fileExists( fileHelper.getIndexFileForVersion( 1 ) ) );
+
+        fileSystem.deleteFile( logFile.getLogFileForVersion( 0 ) );
+        append( 21, 30 );
+        logFile.rotate();
+
+        assertFalse( fileSystem.fileExists( fileHelper.getIndexFileForVersion( 0 ) ) );
+        assertTrue( fileSystem.fileExists( fileHelper.getIndexFileForVersion( 1 ) ) );
+        assertTrue( fileSystem.fileExists( fileHelper.getIndexFileForVersion( 2 ) ) );
+        assertEquals( 2, fileHelper.getMatchedIndexFiles().length );
+    }
+
+    @Test
+    void shouldDeleteIndexFilesOfTruncatedLogFiles() throws IOException
+    {
+        append( 1, 10 );
+        logFile.rotate();
+        append( 11, 20 );
+        logFile.rotate();
+
+        TransactionLogIndex index = logFile.getTransactionLogIndex();
+        index.truncated( 1 );
+
+        assertTrue( fileSystem.fileExists( fileHelper.getIndexFileForVersion( 0 ) ) );
+        assertFalse( fileSystem.fileExists( fileHelper.getIndexFileForVersion( 1 ) ) );
+        LogHeader truncatedHeader = logFile.extractHeader( 1 );
+        assertEquals( truncatedHeader.getStartPosition(), index.lookup( 19, truncatedHeader ) );
+    }
+
+    @Test
+    void shouldMatchIndexFilesWithDefaultFileNameFilter() throws IOException
+    {
+        append( 1, 10 );
+        logFile.rotate();
+
+        Path indexFile = fileHelper.getIndexFileForVersion( 0 );
+        assertTrue( TransactionLogFiles.DEFAULT_FILENAME_FILTER.accept( indexFile ) );
+        assertTrue( TransactionLogFilesHelper.DEFAULT_FILENAME_PREDICATE.test( indexFile.getFileName().toString() ) );
+    }
+
+    private Map<Long,LogPosition> append( long fromTransactionId, long toTransactionId ) throws IOException
+    {
+        Map<Long,LogPosition> positions = new HashMap<>();
+        TransactionLogWriter writer = logFile.getTransactionLogWriter();
+        for ( long transactionId = fromTransactionId; transactionId <= toTransactionId; transactionId++ )
+        {
+            positions.put( transactionId, writer.getCurrentPosition() );
+            PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation( List.of( new TestCommand() ) );
+            transaction.setHeader( new byte[0], 1, transactionId - 1, 2, -1, ANONYMOUS );
+            writer.append( transaction, transactionId, BASE_TX_CHECKSUM );
+        }
+        return positions;
+    }
+}
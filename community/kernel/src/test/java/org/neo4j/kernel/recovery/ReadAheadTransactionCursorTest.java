@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.impl.scheduler.JobSchedulerFactory;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+import org.neo4j.scheduler.JobScheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ReadAheadTransactionCursorTest
+{
+    private JobScheduler scheduler;
+
+    @BeforeEach
+    void setUp()
+    {
+        scheduler = JobSchedulerFactory.createInitialisedScheduler();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        scheduler.close();
+    }
+
+    @Test
+    void shouldReadTheSameTransactionsAndPositionsAsTheCursorItReadsAheadOf() throws IOException
+    {
+        List<CommittedTransactionRepresentation> transactions = transactions( 10 );
+        ListTransactionCursor cursor = new ListTransactionCursor( transactions, -1 );
+
+        try ( ReadAheadTransactionCursor readAhead = new ReadAheadTransactionCursor( cursor, 3, scheduler ) )
+        {
+            assertEquals( position( 0 ), readAhead.position() );
+            for ( int i = 0; i < transactions.size(); i++ )
+            {
+                assertTrue( readAhead.next() );
+                assertSame( transactions.get( i ), readAhead.get() );
+                assertEquals( position( i + 1 ), readAhead.position() );
+            }
+            assertFalse( readAhead.next() );
+            assertEquals( position( transactions.size() ), readAhead.position() );
+            assertFalse( readAhead.next() );
+        }
+        assertTrue( cursor.closed );
+    }
+
+    @Test
+    void shouldHandOverFailureToReadAfterTheTransactionsReadBeforeIt() throws IOException
+    {
+        List<CommittedTransactionRepresentation> transactions = transactions( 5 );
+
+        try ( ReadAheadTransactionCursor readAhead = new ReadAheadTransactionCursor( new ListTransactionCursor( transactions, 3 ), 10, scheduler ) )
+        {
+            for ( int i = 0; i < 3; i++ )
+            {
+                assertTrue( readAhead.next() );
+                assertSame( transactions.get( i ), readAhead.get() );
+            }
+            IOException failure = assertThrows( IOException.class, readAhead::next );
+            assertEquals( "Corrupted transaction 3", failure.getMessage() );
+            assertFalse( readAhead.next() );
+        }
+    }
+
+    @Test
+    void shouldCloseCursorWithoutReadingAllTransactions() throws IOException
+    {
+        ListTransactionCursor cursor = new ListTransactionCursor( transactions( 100 ), -1 );
+
+        try ( ReadAheadTransactionCursor readAhead = new ReadAheadTransactionCursor( cursor, 2, scheduler ) )
+        {
+            assertTrue( readAhead.next() );
+        }
+        assertTrue( cursor.closed );
+    }
+
+    private static List<CommittedTransactionRepresentation> transactions( int count )
+    {
+        List<CommittedTransactionRepresentation> transactions = new ArrayList<>();
+        for ( int i = 0; i < count; i++ )
+        {
+            transactions.add( mock( CommittedTransactionRepresentation.class ) );
+        }
+        return transactions;
+    }
+
+    private static LogPosition position( int transactionsRead )
+    {
+        return new LogPosition( 0, 64 + transactionsRead * 100L );
+    }
+
+    private static class ListTransactionCursor implements TransactionCursor
+    {
+        private final List<CommittedTransactionRepresentation> transactions;
+        private final int failAt;
+        private int read;
+        private volatile boolean closed;
+
+        ListTransactionCursor( List<CommittedTransactionRepresentation> transactions, int failAt )
+        {
+            this.transactions = transactions;
+            this.failAt = failAt;
+        }
+
+        @Override
+        public boolean next() throws IOException
+        {
+            if ( read == failAt )
+            {
+                throw new IOException( "Corrupted transaction " + read );
+            }
+            if ( read == transactions.size() )
+            {
+                return false;
+            }
+            read++;
+            return true;
+        }
+
+        @Override
+        public CommittedTransactionRepresentation get()
+        {
+            return transactions.get( read - 1 );
+        }
+
+        @Override
+        public LogPosition position()
+        {
+            return ReadAheadTransactionCursorTest.position( read );
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,435 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.lock;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.lang.Thread.currentThread;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+import static java.util.concurrent.locks.LockSupport.unpark;
+
+/**
+ * A {@link LockService} keeping its locks in a fixed number of stripes, each an open-addressed table of primitive arrays keyed by the locked
+ * entity. A stripe is only guarded for the few instructions it takes to look up or update an entry, with a compare-and-set spin lock rather
+ * than a monitor, and unlike {@link ReentrantLockService} acquiring a lock does not allocate any queue elements or keys.
+ * <p>
+ * Like {@link ReentrantLockService} the locks are mutex locks, reentrant from the same thread. Fairness is achieved by handing out tickets to
+ * the threads waiting for a lock, which get the lock in ticket order. A waiting thread first spins, and then parks until the lock is released.
+ */
+public final class StripedLockService implements LockService
+{
+    private static final int SPINS_BEFORE_PARKING = 100;
+    private static final int INITIAL_STRIPE_CAPACITY = 16;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final long maxParkNanos;
+
+    public StripedLockService()
+    {
+        this( Runtime.getRuntime().availableProcessors() * 4, 1, TimeUnit.MILLISECONDS );
+    }
+
+    StripedLockService( int minStripes, long maxParkTime, TimeUnit unit )
+    {
+        int numberOfStripes = Integer.highestOneBit( Math.max( 1, minStripes - 1 ) ) << 1;
+        this.stripes = new Stripe[numberOfStripes];
+        for ( int i = 0; i < numberOfStripes; i++ )
+        {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = numberOfStripes - 1;
+        this.maxParkNanos = unit.toNanos( maxParkTime );
+    }
+
+    int lockCount()
+    {
+        int count = 0;
+        for ( Stripe stripe : stripes )
+        {
+            stripe.lock();
+            try
+            {
+                count += stripe.size;
+            }
+            finally
+            {
+                stripe.unlock();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Lock acquireNodeLock( long nodeId, LockType type )
+    {
+        return acquire( nodeId << 1 );
+    }
+
+    @Override
+    public Lock acquireRelationshipLock( long relationshipId, LockType type )
+    {
+        return acquire( (relationshipId << 1) | 1 );
+    }
+
+    private Lock acquire( long key )
+    {
+        long hash = hash( key );
+        Stripe stripe = stripes[(int) hash & stripeMask];
+        int ticket;
+        stripe.lock();
+        try
+        {
+            int slot = stripe.find( key, hash );
+            if ( slot == -1 )
+            {
+                // No one holds or waits for this lock, we got it
+                stripe.insert( key, hash, currentThread() );
+                return new EntityLock( key, hash );
+            }
+            if ( stripe.owners[slot] == currentThread() )
+            {
+                // Re-entering the lock
+                stripe.holds[slot]++;
+                return new EntityLock( key, hash );
+            }
+            ticket = stripe.nextTickets[slot]++;
+        }
+        finally
+        {
+            stripe.unlock();
+        }
+        awaitTurn( stripe, key, hash, ticket );
+        return new EntityLock( key, hash );
+    }
+
+    private void awaitTurn( Stripe stripe, long key, long hash, int ticket )
+    {
+        Thread thread = currentThread();
+        boolean parked = false;
+        for ( int spins = 0; ; spins++ )
+        {
+            stripe.lock();
+            try
+            {
+                int slot = stripe.find( key, hash );
+                if ( stripe.servingTickets[slot] == ticket )
+                {
+                    stripe.owners[slot] = thread;
+                    stripe.holds[slot] = 1;
+                    if ( parked )
+                    {
+                        stripe.removeParked( thread );
+                    }
+                    return;
+                }
+                if ( !parked && spins >= SPINS_BEFORE_PARKING )
+                {
+                    // Registered before parking, under the stripe lock, so that a release after this point unparks us
+                    stripe.addParked( thread );
+                    parked = true;
+                }
+            }
+            finally
+            {
+                stripe.unlock();
+            }
+            if ( parked )
+            {
+                parkNanos( stripe, maxParkNanos );
+            }
+            else
+            {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private void release( long key, long hash )
+    {
+        Stripe stripe = stripes[(int) hash & stripeMask];
+        stripe.lock();
+        try
+        {
+            int slot = stripe.find( key, hash );
+            if ( slot == -1 )
+            {
+                throw new IllegalStateException( "Releasing " + describe( key ) + " which isn't locked" );
+            }
+            if ( --stripe.holds[slot] > 0 )
+            {
+                return;
+            }
+            stripe.owners[slot] = null;
+            if ( ++stripe.servingTickets[slot] == stripe.nextTickets[slot] )
+            {
+                // No one is waiting for this lock
+                stripe.remove( slot );
+            }
+            else
+            {
+                stripe.unparkAll();
+            }
+        }
+        finally
+        {
+            stripe.unlock();
+        }
+    }
+
+    private String heldBy( long key, long hash )
+    {
+        Stripe stripe = stripes[(int) hash & stripeMask];
+        stripe.lock();
+        try
+        {
+            int slot = stripe.find( key, hash );
+            return slot == -1 || stripe.owners[slot] == null ? null : stripe.holds[slot] + "*" + stripe.owners[slot];
+        }
+        finally
+        {
+            stripe.unlock();
+        }
+    }
+
+    private static String describe( long key )
+    {
+        return ((key & 1) == 0 ? "LockedNode" : "LockedRelationship") + "[id=" + (key >>> 1);
+    }
+
+    private static long hash( long key )
+    {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    private final class EntityLock extends Lock
+    {
+        private final long key;
+        private final long hash;
+        private boolean released;
+
+        EntityLock( long key, long hash )
+        {
+            this.key = key;
+            this.hash = hash;
+        }
+
+        @Override
+        public void release()
+        {
+            if ( released )
+            {
+                return;
+            }
+            released = true;
+            StripedLockService.this.release( key, hash );
+        }
+
+        @Override
+        public String toString()
+        {
+            StringBuilder repr = new StringBuilder( describe( key ) );
+            String heldBy = released ? null : heldBy( key, hash );
+            return repr.append( heldBy != null ? "; HELD_BY=" + heldBy : "; RELEASED" ).append( ']' ).toString();
+        }
+    }
+
+    /**
+     * An open-addressed table, with linear probing, of the locks of the entities hashing to this stripe. Only accessed while holding
+     * {@link #lock() its lock}. Entries are removed with backward shifting, so that no tombstones are left behind.
+     */
+    private static final class Stripe
+    {
+        private static final long FREE = -1;
+
+        private final AtomicBoolean guard = new AtomicBoolean();
+        private long[] keys;
+        private Thread[] owners;
+        private int[] holds;
+        private int[] nextTickets;
+        private int[] servingTickets;
+        private int size;
+        private Thread[] parked = new Thread[4];
+        private int parkedCount;
+
+        Stripe()
+        {
+            allocate( INITIAL_STRIPE_CAPACITY );
+        }
+
+        void lock()
+        {
+            while ( !guard.compareAndSet( false, true ) )
+            {
+                Thread.onSpinWait();
+            }
+        }
+
+        void unlock()
+        {
+            guard.set( false );
+        }
+
+        int find( long key, long hash )
+        {
+            int mask = keys.length - 1;
+            for ( int slot = index( hash, mask ); ; slot = (slot + 1) & mask )
+            {
+                if ( keys[slot] == key )
+                {
+                    return slot;
+                }
+                if ( keys[slot] == FREE )
+                {
+                    return -1;
+                }
+            }
+        }
+
+        void insert( long key, long hash, Thread owner )
+        {
+            if ( (size + 1) * 2 > keys.length )
+            {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = index( hash, mask );
+            while ( keys[slot] != FREE )
+            {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            owners[slot] = owner;
+            holds[slot] = 1;
+            nextTickets[slot] = 1;
+            servingTickets[slot] = 0;
+            size++;
+        }
+
+        void remove( int slot )
+        {
+            int mask = keys.length - 1;
+            int hole = slot;
+            for ( int next = (hole + 1) & mask; keys[next] != FREE; next = (next + 1) & mask )
+            {
+                int home = index( hash( keys[next] ), mask );
+                // Move the entry into the hole unless its home slot lies cyclically in (hole, next]
+                if ( ((next - home) & mask) >= ((next - hole) & mask) )
+                {
+                    move( next, hole );
+                    hole = next;
+                }
+            }
+            keys[hole] = FREE;
+            owners[hole] = null;
+            size--;
+            if ( size == 0 && keys.length > INITIAL_STRIPE_CAPACITY )
+            {
+                // Don't hold on to the memory of a large transaction's locks
+                allocate( INITIAL_STRIPE_CAPACITY );
+            }
+        }
+
+        void addParked( Thread thread )
+        {
+            if ( parkedCount == parked.length )
+            {
+                parked = Arrays.copyOf( parked, parkedCount * 2 );
+            }
+            parked[parkedCount++] = thread;
+        }
+
+        void removeParked( Thread thread )
+        {
+            for ( int i = 0; i < parkedCount; i++ )
+            {
+                if ( parked[i] == thread )
+                {
+                    parked[i] = parked[--parkedCount];
+                    parked[parkedCount] = null;
+                    return;
+                }
+            }
+        }
+
+        void unparkAll()
+        {
+            for ( int i = 0; i < parkedCount; i++ )
+            {
+                unpark( parked[i] );
+            }
+        }
+
+        private void move( int from, int to )
+        {
+            keys[to] = keys[from];
+            owners[to] = owners[from];
+            holds[to] = holds[from];
+            nextTickets[to] = nextTickets[from];
+            servingTickets[to] = servingTickets[from];
+        }
+
+        private void grow()
+        {
+            long[] oldKeys = keys;
+            Thread[] oldOwners = owners;
+            int[] oldHolds = holds;
+            int[] oldNextTickets = nextTickets;
+            int[] oldServingTickets = servingTickets;
+            allocate( oldKeys.length * 2 );
+            int mask = keys.length - 1;
+            for ( int i = 0; i < oldKeys.length; i++ )
+            {
+                if ( oldKeys[i] != FREE )
+                {
+                    int slot = index( hash( oldKeys[i] ), mask );
+                    while ( keys[slot] != FREE )
+                    {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    owners[slot] = oldOwners[i];
+                    holds[slot] = oldHolds[i];
+                    nextTickets[slot] = oldNextTickets[i];
+                    servingTickets[slot] = oldServingTickets[i];
+                }
+            }
+        }
+
+        private void allocate( int capacity )
+        {
+            keys = new long[capacity];
+            Arrays.fill( keys, FREE );
+            owners = new Thread[capacity];
+            holds = new int[capacity];
+            nextTickets = new int[capacity];
+            servingTickets = new int[capacity];
+        }
+
+        private static int index( long hash, int mask )
+        {
+            // The low bits of the hash pick the stripe, so use the high bits for the slot within it
+            return (int) (hash >>> 32) & mask;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.lock;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.lang.Thread.currentThread;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.locks.LockSupport.getBlocker;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.neo4j.lock.LockType.EXCLUSIVE;
+
+class StripedLockServiceTest
+{
+    private final StripedLockService locks = new StripedLockService();
+
+    @Test
+    void shouldAllowReEntrance()
+    {
+        var lock = locks.acquireNodeLock( 11, EXCLUSIVE );
+        var lock2 = locks.acquireNodeLock( 11, EXCLUSIVE );
+        var lock3 = locks.acquireNodeLock( 11, EXCLUSIVE );
+
+        lock3.release();
+        lock2.release();
+        assertEquals( 1, locks.lockCount() );
+        lock.release();
+        assertEquals( 0, locks.lockCount() );
+    }
+
+    @Test
+    @Timeout( 60 )
+    void shouldBlockOnLockedLock()
+    {
+        // given
+        var executor = Executors.newSingleThreadExecutor();
+
+        try
+        {
+            var threadHolder = new AtomicReference<Thread>();
+            try ( var lock = locks.acquireNodeLock( 17, EXCLUSIVE ) )
+            {
+                executor.execute( () -> {
+                    threadHolder.set( currentThread() );
+                    locks.acquireNodeLock( 17, EXCLUSIVE );
+                } );
+
+                while ( true )
+                {
+                    if ( threadHolder.get() != null )
+                    {
+                        var blocker = getBlocker( threadHolder.get() );
+                        if ( blocker != null )
+                        {
+                            return;
+                        }
+                    }
+                    parkNanos( MILLISECONDS.toNanos( 10 ) );
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldNotConfuseNodeAndRelationshipLocks()
+    {
+        try ( Lock node = locks.acquireNodeLock( 5, EXCLUSIVE ); Lock relationship = locks.acquireRelationshipLock( 5, EXCLUSIVE ) )
+        {
+            assertEquals( 2, locks.lockCount() );
+            assertEquals( "LockedRelationship[id=5; HELD_BY=1*" + currentThread() + "]", relationship.toString() );
+        }
+        assertEquals( 0, locks.lockCount() );
+    }
+
+    @Test
+    void shouldNotLeaveResidualLockStateAfterManyLocksHaveBeenReleased()
+    {
+        // when
+        List<Lock> held = new ArrayList<>();
+        for ( long nodeId = 0; nodeId < 10_000; nodeId++ )
+        {
+            held.add( locks.acquireNodeLock( nodeId, EXCLUSIVE ) );
+        }
+        assertEquals( 10_000, locks.lockCount() );
+        for ( int i = held.size() - 1; i >= 0; i -= 2 )
+        {
+            held.get( i ).release();
+        }
+        held.forEach( Lock::release );
+
+        // then
+        assertEquals( 0, locks.lockCount() );
+    }
+
+    @Test
+    void shouldPresentLockStateInStringRepresentationOfLock()
+    {
+        // given
+        Lock first;
+        Lock second;
+
+        // when
+        var currentThread = currentThread();
+        try ( Lock lock = first = locks.acquireNodeLock( 666, EXCLUSIVE ) )
+        {
+            // then
+            assertEquals( "LockedNode[id=666; HELD_BY=1*" + currentThread + "]", lock.toString() );
+
+            // when
+            try ( Lock inner = second = locks.acquireNodeLock( 666, EXCLUSIVE ) )
+            {
+                assertEquals( "LockedNode[id=666; HELD_BY=2*" + currentThread + "]", lock.toString() );
+                assertEquals( lock.toString(), inner.toString() );
+            }
+
+            // then
+            assertEquals( "LockedNode[id=666; HELD_BY=1*" + currentThread + "]", lock.toString() );
+            assertEquals( "LockedNode[id=666; RELEASED]", second.toString() );
+        }
+
+        // then
+        assertEquals( "LockedNode[id=666; RELEASED]", first.toString() );
+        assertEquals( "LockedNode[id=666; RELEASED]", second.toString() );
+    }
+
+    @Test
+    @Timeout( 60 )
+    void shouldKeepLocksMutuallyExclusiveWhenApplyingFromManyThreads() throws Exception
+    {
+        // given a few stripes and few entities, so that both stripes and locks are contended
+        StripedLockService locks = new StripedLockService( 2, 1, MILLISECONDS );
+        int entities = 64;
+        AtomicIntegerArray holders = new AtomicIntegerArray( entities );
+        int threads = Runtime.getRuntime().availableProcessors() * 2;
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int t = 0; t < threads; t++ )
+            {
+                futures.add( executor.submit( () ->
+                {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for ( int transaction = 0; transaction < 2_000; transaction++ )
+                    {
+                        // like applying a transaction, lock the entities it changes in id order, and release them all when done
+                        int first = random.nextInt( entities - 4 );
+                        try ( LockGroup group = new LockGroup() )
+                        {
+                            for ( int id = first; id < first + 4; id++ )
+                            {
+                                group.add( locks.acquireNodeLock( id, EXCLUSIVE ) );
+                                assertEquals( 1, holders.incrementAndGet( id ) );
+                            }
+                            for ( int id = first; id < first + 4; id++ )
+                            {
+                                holders.decrementAndGet( id );
+                            }
+                        }
+                    }
+                } ) );
+            }
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        // then
+        assertEquals( 0, locks.lockCount() );
+    }
+}
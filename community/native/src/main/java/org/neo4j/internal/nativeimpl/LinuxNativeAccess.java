@@ -47,6 +47,18 @@ public class LinuxNativeAccess implements NativeAccess
      */
     private static final int POSIX_FADV_DONTNEED = 4;
 
+    /**
+     * Flag for sync_file_range, defined in fcntl.h, that initiates write-out of all dirty pages in the specified range which are not presently
+     * under write-out. For more info check man page for sync_file_range.
+     */
+    private static final int SYNC_FILE_RANGE_WRITE = 2;
+
+    /**
+     * Constant defined in mman.h that enables transparent huge pages for the pages in the specified range.
+     * For more info check man page for madvise.
+     */
+    private static final int MADV_HUGEPAGE = 14;
+
     private static final int EINVAL = 22;
     private static final int ERANGE = 34;
 
@@ -98,6 +110,27 @@ public class LinuxNativeAccess implements NativeAccess
      */
     private static native int posix_fallocate( int fd, long offset, long len ) throws LastErrorException;
 
+    /**
+     * Synchronize a file segment with disk. Depending on the flags, this can initiate write-out of the dirty pages in the range, and/or wait for
+     * write-out of those pages to complete. No file metadata is written out, and there are no guarantees about durability of the data.
+     * @param fd file descriptor
+     * @param offset offset in the file
+     * @param nbytes length of the range in bytes, or 0 for everything until the end of the file
+     * @param flags sync options
+     * @return 0 on success. On error, -1 is returned, and errno is set to indicate the error
+     */
+    private static native int sync_file_range( int fd, long offset, long nbytes, int flags ) throws LastErrorException;
+
+    /**
+     * Give advice about use of memory. Allows the kernel to choose appropriate read-ahead and caching techniques, or backing pages, for the
+     * given range of memory. The range starts at addr, which must be page aligned, and extends for length bytes.
+     * @param addr start address of the range
+     * @param length length of the range in bytes
+     * @param advice advise options
+     * @return 0 on success. On error, -1 is returned, and errno is set to indicate the error
+     */
+    private static native int madvise( long addr, long length, int advice ) throws LastErrorException;
+
     /**
      * Return pointer to a string describing error number, possibly using the LC_MESSAGES part of the current locale to select the appropriate language.
      * @param errnum error number to describe
@@ -142,6 +175,47 @@ public class LinuxNativeAccess implements NativeAccess
         return wrapResult( () -> posix_fadvise( fd, 0, 0, POSIX_FADV_WILLNEED ) );
     }
 
+    @Override
+    public NativeCallResult tryAdviseWillNeed( int fd, long offset, long length )
+    {
+        if ( fd <= 0 )
+        {
+            return new NativeCallResult( ERROR, "Incorrect file descriptor." );
+        }
+        if ( offset < 0 || length <= 0 )
+        {
+            return new NativeCallResult( ERROR, "Advised range should be non empty and start at a non negative offset. Requested offset: " + offset +
+                    ", length: " + length );
+        }
+        return wrapResult( () -> posix_fadvise( fd, offset, length, POSIX_FADV_WILLNEED ) );
+    }
+
+    @Override
+    public NativeCallResult tryStartWriteBack( int fd, long offset, long length )
+    {
+        if ( fd <= 0 )
+        {
+            return new NativeCallResult( ERROR, "Incorrect file descriptor." );
+        }
+        if ( offset < 0 || length <= 0 )
+        {
+            return new NativeCallResult( ERROR, "Write-back range should be non empty and start at a non negative offset. Requested offset: " + offset +
+                    ", length: " + length );
+        }
+        return wrapResult( () -> sync_file_range( fd, offset, length, SYNC_FILE_RANGE_WRITE ) );
+    }
+
+    @Override
+    public NativeCallResult tryAdviseHugePages( long address, long length )
+    {
+        if ( address == 0 || length <= 0 )
+        {
+            return new NativeCallResult( ERROR, "Advised memory range should be non empty and start at a non null address. Requested address: " +
+                    address + ", length: " + length );
+        }
+        return wrapResult( () -> madvise( address, length, MADV_HUGEPAGE ) );
+    }
+
     @Override
     public NativeCallResult tryPreallocateSpace( int fd, long bytes )
     {
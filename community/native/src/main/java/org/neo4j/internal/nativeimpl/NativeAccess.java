@@ -61,6 +61,37 @@ public interface NativeAccess
      */
     NativeCallResult tryAdviseToKeepInCache( int fd );
 
+    /**
+     * Try to advice that the given range of the file referenced by provided file descriptor will be read in the near future.
+     * The kernel can then start reading the range in asynchronously, with many requests in flight at the same time, so subsequent reads of the
+     * range will not have to wait for the storage device.
+     * @param fd file descriptor
+     * @param offset offset of the range in the file
+     * @param length length of the range in bytes
+     * @return returns zero on success, or an error number on failure
+     */
+    NativeCallResult tryAdviseWillNeed( int fd, long offset, long length );
+
+    /**
+     * Try to initiate write-out of all dirty data in the given range of the file referenced by provided file descriptor, without waiting for the
+     * write-out to complete. This does not make the data durable; the file still has to be forced for that, but the force will then have less
+     * work left to do.
+     * @param fd file descriptor
+     * @param offset offset of the range in the file
+     * @param length length of the range in bytes
+     * @return returns zero on success, or an error number on failure
+     */
+    NativeCallResult tryStartWriteBack( int fd, long offset, long length );
+
+    /**
+     * Try to advise that the given range of memory should be backed by transparent huge pages. This reduces the number of TLB misses when
+     * large amounts of memory, like the page cache, are accessed randomly. Only the huge page aligned parts of the range can be backed by huge pages.
+     * @param address page aligned start address of the memory range
+     * @param length length of the range in bytes
+     * @return returns zero on success, or an error number on failure
+     */
+    NativeCallResult tryAdviseHugePages( long address, long length );
+
     /**
      * Try to preallocate disk space for file referenced by provided file descriptor.
      * @param fd file descriptor
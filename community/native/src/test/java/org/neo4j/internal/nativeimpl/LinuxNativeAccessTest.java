@@ -28,6 +28,7 @@ import org.junit.jupiter.api.io.TempDir;
 
 import java.io.FileDescriptor;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channel;
 import java.nio.channels.FileChannel;
 import java.nio.file.FileStore;
@@ -145,6 +146,78 @@ class LinuxNativeAccessTest
             }
         }
 
+        @Test
+        void failToAdviseWillNeedOnLinuxForIncorrectDescriptorOrRange() throws IOException, IllegalAccessException, ClassNotFoundException
+        {
+            assertEquals( ERROR, nativeAccess.tryAdviseWillNeed( 0, 0, 1024 ).getErrorCode() );
+            assertEquals( ERROR, nativeAccess.tryAdviseWillNeed( -1, 0, 1024 ).getErrorCode() );
+
+            Path file = tempFile.resolve( "willNeedFile" );
+            try ( Channel channel = FileChannel.open( file, READ, WRITE, CREATE ) )
+            {
+                int descriptor = getDescriptor( channel );
+                assertEquals( ERROR, nativeAccess.tryAdviseWillNeed( descriptor, -1, 1024 ).getErrorCode() );
+                assertEquals( ERROR, nativeAccess.tryAdviseWillNeed( descriptor, 0, 0 ).getErrorCode() );
+            }
+
+            int descriptor = getClosedDescriptor( file );
+            assertTrue( nativeAccess.tryAdviseWillNeed( descriptor, 0, 1024 ).isError() );
+        }
+
+        @Test
+        void adviseWillNeedOnLinuxForCorrectDescriptor() throws IOException, IllegalAccessException, ClassNotFoundException
+        {
+            Path file = tempFile.resolve( "correctWillNeedFile" );
+            try ( Channel channel = FileChannel.open( file, READ, WRITE, CREATE ) )
+            {
+                int descriptor = getDescriptor( channel );
+                var nativeCallResult = nativeAccess.tryAdviseWillNeed( descriptor, 0, 8192 );
+                assertEquals( 0, nativeCallResult.getErrorCode() );
+                assertFalse( nativeCallResult.isError() );
+            }
+        }
+
+        @Test
+        void failToStartWriteBackOnLinuxForIncorrectDescriptorOrRange() throws IOException, IllegalAccessException, ClassNotFoundException
+        {
+            assertEquals( ERROR, nativeAccess.tryStartWriteBack( 0, 0, 1024 ).getErrorCode() );
+            assertEquals( ERROR, nativeAccess.tryStartWriteBack( -1, 0, 1024 ).getErrorCode() );
+
+            Path file = tempFile.resolve( "writeBackFile" );
+            try ( Channel channel = FileChannel.open( file, READ, WRITE, CREATE ) )
+            {
+                int descriptor = getDescriptor( channel );
+                assertEquals( ERROR, nativeAccess.tryStartWriteBack( descriptor, -1, 1024 ).getErrorCode() );
+                assertEquals( ERROR, nativeAccess.tryStartWriteBack( descriptor, 0, 0 ).getErrorCode() );
+            }
+
+            int descriptor = getClosedDescriptor( file );
+            assertTrue( nativeAccess.tryStartWriteBack( descriptor, 0, 1024 ).isError() );
+        }
+
+        @Test
+        void startWriteBackOnLinuxForCorrectDescriptor() throws IOException, IllegalAccessException, ClassNotFoundException
+        {
+            Path file = tempFile.resolve( "correctWriteBackFile" );
+            try ( FileChannel channel = FileChannel.open( file, READ, WRITE, CREATE ) )
+            {
+                channel.write( ByteBuffer.allocate( 8192 ) );
+                int descriptor = getDescriptor( channel );
+                var nativeCallResult = nativeAccess.tryStartWriteBack( descriptor, 0, 8192 );
+                assertEquals( 0, nativeCallResult.getErrorCode() );
+                assertFalse( nativeCallResult.isError() );
+            }
+        }
+
+        @Test
+        void failToAdviseHugePagesOnLinuxForIncorrectRange()
+        {
+            assertEquals( ERROR, nativeAccess.tryAdviseHugePages( 0, 4096 ).getErrorCode() );
+            assertEquals( ERROR, nativeAccess.tryAdviseHugePages( 4096, 0 ).getErrorCode() );
+            // The start address of the range must be page aligned.
+            assertTrue( nativeAccess.tryAdviseHugePages( 1, 4096 ).isError() );
+        }
+
         @Test
         void failToSkipCacheOnLinuxForIncorrectDescriptor() throws IOException, IllegalAccessException, ClassNotFoundException
         {
@@ -19,6 +19,9 @@
  */
 package org.neo4j.graphdb.factory.module;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.function.Supplier;
 
 import org.neo4j.annotations.api.IgnoreApiCheck;
@@ -48,6 +51,7 @@ import org.neo4j.kernel.extension.ExtensionFactory;
 import org.neo4j.kernel.extension.ExtensionFailureStrategies;
 import org.neo4j.kernel.extension.GlobalExtensions;
 import org.neo4j.kernel.extension.context.GlobalExtensionContext;
+import org.neo4j.kernel.impl.api.state.ValuesSpillFile;
 import org.neo4j.kernel.impl.cache.VmPauseMonitorComponent;
 import org.neo4j.kernel.impl.factory.DbmsInfo;
 import org.neo4j.kernel.impl.pagecache.ConfiguringPageCacheFactory;
@@ -213,7 +217,7 @@ public class GlobalModule
                 logService.getInternalLog( Tracers.class ), globalMonitors, jobScheduler, globalClock ) );
         globalDependencies.satisfyDependency( tracers.getPageCacheTracer() );
 
-        collectionsFactorySupplier = createCollectionsFactorySupplier( globalConfig, globalLife );
+        collectionsFactorySupplier = createCollectionsFactorySupplier( globalConfig, globalLife, fileSystem );
 
         pageCache = tryResolveOrCreate( PageCache.class,
                 () -> createPageCache( fileSystem, globalConfig, logService, tracers, jobScheduler, globalClock, memoryPools ) );
@@ -379,7 +383,7 @@ public class GlobalModule
         return pageCache;
     }
 
-    private static CollectionsFactorySupplier createCollectionsFactorySupplier( Config config, LifeSupport life )
+    private static CollectionsFactorySupplier createCollectionsFactorySupplier( Config config, LifeSupport life, FileSystemAbstraction fs )
     {
         final TransactionStateMemoryAllocation allocation = config.get( tx_state_memory_allocation );
         switch ( allocation )
@@ -401,12 +405,41 @@ public class GlobalModule
                 sharedBlockAllocator = allocator;
             }
             life.add( onShutdown( sharedBlockAllocator::release ) );
+            final long valuesSpillThreshold = config.get( GraphDatabaseInternalSettings.tx_state_values_spill_threshold );
+            if ( valuesSpillThreshold > 0 )
+            {
+                final Path spillDirectory = config.get( GraphDatabaseInternalSettings.tx_state_spill_directory );
+                deleteSpillFiles( fs, spillDirectory );
+                return () -> new OffHeapCollectionsFactory( sharedBlockAllocator, fs, spillDirectory, valuesSpillThreshold );
+            }
             return () -> new OffHeapCollectionsFactory( sharedBlockAllocator );
         default:
             throw new IllegalArgumentException( "Unknown transaction state memory allocation value: " + allocation );
         }
     }
 
+    private static void deleteSpillFiles( FileSystemAbstraction fs, Path spillDirectory )
+    {
+        // Left behind by transactions that were running when the dbms was killed. The directory is configurable, and so may hold other files,
+        // which are left alone.
+        try
+        {
+            if ( !fs.isDirectory( spillDirectory ) )
+            {
+                return;
+            }
+            Path[] spillFiles = fs.listFiles( spillDirectory, file -> file.getFileName().toString().startsWith( ValuesSpillFile.FILE_NAME_PREFIX ) );
+            for ( Path spillFile : spillFiles )
+            {
+                fs.deleteFileOrThrow( spillFile );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( "Unable to delete the transaction state spill files in " + spillDirectory, e );
+        }
+    }
+
     public FileWatcher getFileWatcher()
     {
         return fileSystemWatcher.getFileWatcher();
@@ -69,6 +69,8 @@ import org.neo4j.kernel.database.DatabaseIdRepository;
 import org.neo4j.kernel.database.NamedDatabaseId;
 import org.neo4j.kernel.impl.api.KernelTransactions;
 import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.kernel.impl.locking.LockContentionProfiler;
+import org.neo4j.kernel.impl.locking.LockContentionProfiler.Contention;
 import org.neo4j.kernel.impl.query.FunctionInformation;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
@@ -561,6 +563,43 @@ public class BuiltInDbmsProcedures
         return result.stream();
     }
 
+    @Admin
+    @SystemProcedure
+    @Description( "List where the transactions of each database have waited for locks: the time waited for each resource type, for the most " +
+            "waited for resources, and, as sampled, by the queries most often found waiting for locks." )
+    @Procedure( name = "dbms.listLockContention", mode = DBMS )
+    public Stream<LockContentionResult> listLockContention( @Name( value = "limit", defaultValue = "10" ) long limit ) throws InvalidArgumentsException
+    {
+        if ( limit < 0 )
+        {
+            throw new InvalidArgumentsException( "Limit must not be negative, was: " + limit );
+        }
+        int maxResults = (int) Math.min( limit, Integer.MAX_VALUE );
+        List<LockContentionResult> result = new ArrayList<>();
+        for ( DatabaseContext databaseContext : getDatabaseManager().registeredDatabases().values() )
+        {
+            Dependencies dependencies = databaseContext.dependencies();
+            if ( databaseContext.database().isStarted() && dependencies != null && dependencies.containsDependency( LockContentionProfiler.class ) )
+            {
+                String databaseName = databaseContext.databaseFacade().databaseName();
+                LockContentionProfiler profiler = dependencies.resolveDependency( LockContentionProfiler.class );
+                for ( Contention contention : profiler.resourceTypeContention() )
+                {
+                    result.add( new LockContentionResult( databaseName, LockContentionResult.RESOURCE_TYPE, contention ) );
+                }
+                for ( Contention contention : profiler.resourceContention( maxResults ) )
+                {
+                    result.add( new LockContentionResult( databaseName, LockContentionResult.RESOURCE, contention ) );
+                }
+                for ( Contention contention : profiler.queryContention( maxResults ) )
+                {
+                    result.add( new LockContentionResult( databaseName, LockContentionResult.QUERY, contention ) );
+                }
+            }
+        }
+        return result.stream();
+    }
+
     @SystemProcedure
     @Description( "List all accepted network connections at this instance that are visible to the user." )
     @Procedure( name = "dbms.listConnections", mode = DBMS )
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.procedure.builtin;
+
+import org.neo4j.kernel.impl.locking.LockContentionProfiler.Contention;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+public class LockContentionResult
+{
+    static final String RESOURCE_TYPE = "RESOURCE_TYPE";
+    static final String RESOURCE = "RESOURCE";
+    static final String QUERY = "QUERY";
+
+    public final String database;
+    public final String kind;
+    public final String resourceType;
+    public final Long resourceId;
+    public final String query;
+    public final long waits;
+    public final long waitTimeMillis;
+    public final Long waitTimeErrorMillis;
+    public final Long maxWaitTimeMillis;
+
+    LockContentionResult( String database, String kind, Contention contention )
+    {
+        this.database = database;
+        this.kind = kind;
+        this.resourceType = contention.resourceType() != null ? contention.resourceType().name() : null;
+        this.resourceId = kind.equals( RESOURCE ) ? contention.resourceId() : null;
+        this.query = contention.query();
+        this.waits = contention.waits();
+        this.waitTimeMillis = NANOSECONDS.toMillis( contention.waitTimeNanos() );
+        // Only the most waited for resources and queries are kept track of, and how much their wait times are overestimated by that is known
+        this.waitTimeErrorMillis = kind.equals( RESOURCE_TYPE ) ? null : NANOSECONDS.toMillis( contention.waitTimeErrorNanos() );
+        // Queries are sampled, so how long each of their waits took isn't known
+        this.maxWaitTimeMillis = kind.equals( QUERY ) ? null : NANOSECONDS.toMillis( contention.maxWaitTimeNanos() );
+    }
+}
@@ -320,6 +320,18 @@ public class StubKernelTransaction implements KernelTransaction
         throw new UnsupportedOperationException( "not implemented" );
     }
 
+    @Override
+    public void setRelaxedDurability( boolean relaxedDurability )
+    {
+        throw new UnsupportedOperationException( "not implemented" );
+    }
+
+    @Override
+    public boolean isRelaxedDurability()
+    {
+        throw new UnsupportedOperationException( "not implemented" );
+    }
+
     @Override
     public void assertOpen()
     {
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.neo4j.internal.helpers.collection.Pair;
+import org.neo4j.internal.recordstorage.Command.NodeCommand;
+import org.neo4j.internal.recordstorage.Command.RelationshipCommand;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.PropertyType;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.storageengine.api.LogicalChangesVisitor;
+import org.neo4j.storageengine.api.LogicalChangesVisitor.Change;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.neo4j.kernel.impl.store.AbstractDynamicStore.readFullByteArrayFromHeavyRecords;
+import static org.neo4j.kernel.impl.store.DynamicArrayStore.getRightArray;
+import static org.neo4j.kernel.impl.store.NodeLabelsField.parseLabelsField;
+import static org.neo4j.values.storable.Values.NO_VALUE;
+
+/**
+ * Derives the logical changes to nodes and relationships from the commands of a committed transaction, the same way {@link OnlineIndexUpdates}
+ * derives index updates from them. Entities that only had their record updated, f.ex. because a relationship was added to their chain,
+ * without changing their labels or properties, are not visited.
+ * <p>
+ * Unlike index updates, which are made while the transaction is applied, the changes are derived long after later transactions may have changed
+ * or reused the dynamic records of the values. So dynamic labels and property values are only decoded from the dynamic records that the commands
+ * carry, never read from the store, and a command that does not carry them fails the extraction.
+ */
+class LogicalChangesExtractor
+{
+    private final PropertyStore propertyStore;
+
+    LogicalChangesExtractor( PropertyStore propertyStore )
+    {
+        this.propertyStore = propertyStore;
+    }
+
+    void extract( Collection<StorageCommand> commands, LogicalChangesVisitor visitor, PageCursorTracer cursorTracer ) throws IOException
+    {
+        PropertyCommandsExtractor commandsExtractor = new PropertyCommandsExtractor();
+        for ( StorageCommand command : commands )
+        {
+            ((Command) command).handle( commandsExtractor );
+        }
+        PropertyPhysicalToLogicalConverter converter = new CommandPropertyConverter( propertyStore, cursorTracer );
+        PropertyChangeList properties = new PropertyChangeList();
+
+        EntityCommandGrouper<NodeCommand>.Cursor nodeCommands = commandsExtractor.getNodeCommands();
+        while ( nodeCommands.nextEntity() )
+        {
+            NodeCommand command = nodeCommands.currentEntityCommand();
+            properties.clear();
+            converter.convertPropertyRecord( nodeCommands, properties );
+            long[] labelsBefore = null;
+            long[] labelsAfter = null;
+            if ( command != null )
+            {
+                labelsBefore = labels( command.getBefore() );
+                labelsAfter = labels( command.getAfter() );
+            }
+            Change change = change( command );
+            if ( change != Change.UPDATED || !Arrays.equals( labelsBefore, labelsAfter ) || !properties.isEmpty() )
+            {
+                visitor.visitNode( nodeCommands.currentEntityId(), change, labelsBefore, labelsAfter );
+                properties.visit( visitor );
+            }
+        }
+
+        EntityCommandGrouper<RelationshipCommand>.Cursor relationshipCommands = commandsExtractor.getRelationshipCommands();
+        while ( relationshipCommands.nextEntity() )
+        {
+            RelationshipCommand command = relationshipCommands.currentEntityCommand();
+            properties.clear();
+            converter.convertPropertyRecord( relationshipCommands, properties );
+            Change change = change( command );
+            if ( change != Change.UPDATED || !properties.isEmpty() )
+            {
+                long relationshipId = relationshipCommands.currentEntityId();
+                if ( command != null )
+                {
+                    RelationshipRecord record = change == Change.DELETED ? command.getBefore() : command.getAfter();
+                    visitor.visitRelationship( relationshipId, change, record.getType(), record.getFirstNode(), record.getSecondNode() );
+                }
+                else
+                {
+                    visitor.visitRelationship( relationshipId, change, -1, -1, -1 );
+                }
+                properties.visit( visitor );
+            }
+        }
+    }
+
+    private static long[] labels( NodeRecord node )
+    {
+        long[] labels = parseLabelsField( node ).getIfLoaded();
+        if ( labels == null )
+        {
+            throw new IllegalStateException( "The command of " + node + " does not carry its dynamic label records" );
+        }
+        return labels;
+    }
+
+    private static Change change( Command command )
+    {
+        if ( command == null )
+        {
+            return Change.UPDATED;
+        }
+        switch ( command.getMode() )
+        {
+        case CREATE:
+            return Change.CREATED;
+        case DELETE:
+            return Change.DELETED;
+        default:
+            return Change.UPDATED;
+        }
+    }
+
+    /**
+     * Decodes dynamic property values from the dynamic records in the property commands, rather than from the store.
+     */
+    private static class CommandPropertyConverter extends PropertyPhysicalToLogicalConverter
+    {
+        CommandPropertyConverter( PropertyStore propertyStore, PageCursorTracer cursorTracer )
+        {
+            super( propertyStore, cursorTracer );
+        }
+
+        @Override
+        protected Value valueOf( PropertyBlock block )
+        {
+            if ( block == null )
+            {
+                return null;
+            }
+            PropertyType type = block.getType();
+            if ( type != PropertyType.STRING && type != PropertyType.ARRAY )
+            {
+                return super.valueOf( block );
+            }
+            if ( block.isLight() )
+            {
+                throw new IllegalStateException( "The property command of " + block + " does not carry its dynamic value records" );
+            }
+            Pair<byte[],byte[]> value = readFullByteArrayFromHeavyRecords( block.getValueRecords(), type );
+            // A string doesn't have a header in the data array
+            return type == PropertyType.STRING ? Values.utf8Value( value.other() ) : getRightArray( value );
+        }
+    }
+
+    /**
+     * The property changes of the current entity, kept until it is known whether the entity is visited at all.
+     */
+    private static class PropertyChangeList implements PropertyPhysicalToLogicalConverter.PropertyChanges
+    {
+        private final MutableIntList keys = new IntArrayList();
+        private final List<Value> before = new ArrayList<>();
+        private final List<Value> after = new ArrayList<>();
+
+        @Override
+        public void added( int propertyKeyId, Value value )
+        {
+            add( propertyKeyId, NO_VALUE, value );
+        }
+
+        @Override
+        public void changed( int propertyKeyId, Value before, Value after )
+        {
+            add( propertyKeyId, before, after );
+        }
+
+        @Override
+        public void removed( int propertyKeyId, Value value )
+        {
+            add( propertyKeyId, value, NO_VALUE );
+        }
+
+        private void add( int propertyKeyId, Value valueBefore, Value valueAfter )
+        {
+            keys.add( propertyKeyId );
+            before.add( valueBefore );
+            after.add( valueAfter );
+        }
+
+        boolean isEmpty()
+        {
+            return keys.isEmpty();
+        }
+
+        void visit( LogicalChangesVisitor visitor )
+        {
+            for ( int i = 0; i < keys.size(); i++ )
+            {
+                visitor.visitProperty( keys.get( i ), before.get( i ), after.get( i ) );
+            }
+        }
+
+        void clear()
+        {
+            keys.clear();
+            before.clear();
+            after.clear();
+        }
+    }
+}
@@ -49,6 +49,33 @@ public class PropertyPhysicalToLogicalConverter
      * Converts physical changes to PropertyRecords for a entity into logical updates
      */
     public void convertPropertyRecord( EntityCommandGrouper<?>.Cursor changes, EntityUpdates.Builder properties )
+    {
+        convertPropertyRecord( changes, new PropertyChanges()
+        {
+            @Override
+            public void added( int propertyKeyId, Value value )
+            {
+                properties.added( propertyKeyId, value );
+            }
+
+            @Override
+            public void changed( int propertyKeyId, Value before, Value after )
+            {
+                properties.changed( propertyKeyId, before, after );
+            }
+
+            @Override
+            public void removed( int propertyKeyId, Value value )
+            {
+                properties.removed( propertyKeyId, value );
+            }
+        } );
+    }
+
+    /**
+     * Converts physical changes to PropertyRecords for a entity into logical changes
+     */
+    public void convertPropertyRecord( EntityCommandGrouper<?>.Cursor changes, PropertyChanges properties )
     {
         mapBlocks( changes );
 
@@ -151,7 +178,7 @@ public class PropertyPhysicalToLogicalConverter
         Arrays.sort( afterBlocks, 0, afterBlocksCursor, BLOCK_COMPARATOR );
     }
 
-    private Value valueOf( PropertyBlock block )
+    protected Value valueOf( PropertyBlock block )
     {
         if ( block == null )
         {
@@ -159,4 +186,16 @@ public class PropertyPhysicalToLogicalConverter
         }
         return block.getType().value( block, propertyStore, cursorTracer );
     }
+
+    /**
+     * Receives the logical property changes of an entity.
+     */
+    public interface PropertyChanges
+    {
+        void added( int propertyKeyId, Value value );
+
+        void changed( int propertyKeyId, Value before, Value after );
+
+        void removed( int propertyKeyId, Value value );
+    }
 }
@@ -79,6 +79,7 @@ import org.neo4j.storageengine.api.CommandsToApply;
 import org.neo4j.storageengine.api.ConstraintRuleAccessor;
 import org.neo4j.storageengine.api.EntityTokenUpdateListener;
 import org.neo4j.storageengine.api.IndexUpdateListener;
+import org.neo4j.storageengine.api.LogicalChangesVisitor;
 import org.neo4j.storageengine.api.MetadataProvider;
 import org.neo4j.storageengine.api.StorageCommand;
 import org.neo4j.storageengine.api.StorageEngine;
@@ -423,6 +424,13 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         executeAll( countsStore::close, neoStores::close );
     }
 
+    @Override
+    public void visitLogicalChanges( Collection<StorageCommand> commands, LogicalChangesVisitor visitor, PageCursorTracer cursorTracer )
+            throws IOException
+    {
+        new LogicalChangesExtractor( neoStores.getPropertyStore() ).extract( commands, visitor, cursorTracer );
+    }
+
     @Override
     public void flushAndForce( IOLimiter limiter, PageCursorTracer cursorTracer ) throws IOException
     {
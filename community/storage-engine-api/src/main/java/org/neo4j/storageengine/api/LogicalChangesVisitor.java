@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.storageengine.api;
+
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+/**
+ * Receives the logical changes to nodes and relationships that the {@link StorageCommand commands} of a committed transaction made, see
+ * {@link StorageEngine#visitLogicalChanges(java.util.Collection, LogicalChangesVisitor, org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer)}.
+ * <p>
+ * Entities are visited in id order, nodes before relationships, and the changed properties of an entity are visited right after the entity itself.
+ * Entities are referred to by id, and labels, relationship types and property keys by token id.
+ */
+public interface LogicalChangesVisitor
+{
+    enum Change
+    {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    /**
+     * A node was created, deleted or had its labels or properties changed.
+     *
+     * @param nodeId id of the node.
+     * @param change how the node changed.
+     * @param labelsBefore label token ids of the node before the transaction, or {@code null} if the transaction did not change the node itself,
+     * only its properties.
+     * @param labelsAfter label token ids of the node after the transaction, or {@code null} if the transaction did not change the node itself,
+     * only its properties.
+     */
+    void visitNode( long nodeId, Change change, long[] labelsBefore, long[] labelsAfter );
+
+    /**
+     * A relationship was created, deleted or had its properties changed.
+     *
+     * @param relationshipId id of the relationship.
+     * @param change how the relationship changed.
+     * @param type relationship type token id, or {@code -1} if the transaction did not change the relationship itself, only its properties.
+     * @param startNodeId id of the start node, or {@code -1} if the transaction did not change the relationship itself, only its properties.
+     * @param endNodeId id of the end node, or {@code -1} if the transaction did not change the relationship itself, only its properties.
+     */
+    void visitRelationship( long relationshipId, Change change, int type, long startNodeId, long endNodeId );
+
+    /**
+     * A property of the node or relationship visited last was added, changed or removed.
+     *
+     * @param propertyKeyId property key token id.
+     * @param before value before the transaction, or {@link Values#NO_VALUE} if the property was added.
+     * @param after value after the transaction, or {@link Values#NO_VALUE} if the property was removed.
+     */
+    void visitProperty( int propertyKeyId, Value before, Value after );
+}
@@ -113,6 +113,19 @@ public interface StorageEngine extends Lifecycle
      */
     void apply( CommandsToApply batch, TransactionApplicationMode mode ) throws Exception;
 
+    /**
+     * Visits the logical changes to nodes and relationships that the given commands of a committed transaction made, f.ex. as read back from
+     * the transaction log. Values are decoded from the commands alone, never read from this storage, since later transactions may have
+     * changed them since.
+     *
+     * @param commands {@link StorageCommand commands} of a committed transaction.
+     * @param visitor {@link LogicalChangesVisitor} to receive the changes.
+     * @param cursorTracer underlying page cursor tracer
+     * @throws IOException on I/O error.
+     * @throws IllegalStateException if the commands do not carry a value that was changed, in which case visiting them again fails the same way.
+     */
+    void visitLogicalChanges( Collection<StorageCommand> commands, LogicalChangesVisitor visitor, PageCursorTracer cursorTracer ) throws IOException;
+
     /**
      * Flushes and forces all changes down to underlying storage. This is a blocking call and when it returns
      * all changes applied to this storage engine will be durable.
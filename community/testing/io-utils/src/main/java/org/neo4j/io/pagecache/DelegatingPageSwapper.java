@@ -108,6 +108,18 @@ public class DelegatingPageSwapper implements PageSwapper
         delegate.allocate( newFileSize );
     }
 
+    @Override
+    public void readAhead( long startFilePageId, int pageCount )
+    {
+        delegate.readAhead( startFilePageId, pageCount );
+    }
+
+    @Override
+    public void startWriteBack( long startFilePageId, int pageCount )
+    {
+        delegate.startWriteBack( startFilePageId, pageCount );
+    }
+
     @Override
     public void closeAndDelete() throws IOException
     {
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.io.fs.ReadableChannel;
+import org.neo4j.io.fs.WritableChannel;
+import org.neo4j.storageengine.api.CommandReader;
+import org.neo4j.storageengine.api.CommandReaderFactory;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.util.FeatureToggles;
+
+/**
+ * The commands of a transaction compressed together with zstd, as written by the {@link LogEntryParserSetVersion#LogEntryV4_2_ZSTD} log entry
+ * version:
+ * <pre>
+ *     COMPRESSED COMMANDS LOG ENTRY: [VERSION][TYPE][UNCOMPRESSED_LENGTH][COMPRESSED_LENGTH][COMPRESSED_COMMANDS]
+ *     UNCOMPRESSED_LENGTH: 4B length of the commands when decompressed
+ *     COMPRESSED_LENGTH: 4B length of the zstd frame that follows
+ *     COMPRESSED_COMMANDS: the commands serialized back to back, without log entry headers, compressed into one zstd frame
+ * </pre>
+ * Compressing the commands of a transaction together, rather than one by one, lets zstd find the redundancy between them, like the
+ * repeated record headers and property blocks of the commands of a large transaction.
+ */
+public final class CompressedCommands
+{
+    private static final int COMPRESSION_LEVEL = FeatureToggles.getInteger( CompressedCommands.class, "compressionLevel", 3 );
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    /**
+     * The largest commands that are compressed together. Reading checks the lengths against it before allocating anything, so that a
+     * corrupt entry fails with an {@link IOException} rather than running out of memory.
+     */
+    static final int MAX_UNCOMPRESSED_LENGTH = 256 * 1024 * 1024;
+
+    private CompressedCommands()
+    {
+        throw new AssertionError( "No instances" );
+    }
+
+    /**
+     * Reads and decompresses the commands of a compressed commands log entry, after its header.
+     *
+     * @param channel channel positioned after the header of the log entry.
+     * @param commandReaderFactory factory of the reader for the commands.
+     * @return the commands, in the order they were written.
+     * @throws IOException if the commands could not be read, or could not be decompressed.
+     */
+    static List<StorageCommand> read( ReadableChannel channel, CommandReaderFactory commandReaderFactory ) throws IOException
+    {
+        int uncompressedLength = channel.getInt();
+        int compressedLength = channel.getInt();
+        if ( uncompressedLength < 0 || uncompressedLength > MAX_UNCOMPRESSED_LENGTH ||
+             compressedLength < 0 || compressedLength > Zstd.compressBound( uncompressedLength ) )
+        {
+            throw new IOException( "Invalid compressed commands lengths. Uncompressed: " + uncompressedLength + ", compressed: " + compressedLength );
+        }
+        byte[] compressed = new byte[compressedLength];
+        channel.get( compressed, compressedLength );
+        byte[] uncompressed = new byte[uncompressedLength];
+        long result = Zstd.decompressByteArray( uncompressed, 0, uncompressedLength, compressed, 0, compressedLength );
+        if ( Zstd.isError( result ) || result != uncompressedLength )
+        {
+            throw new IOException( "Failed to decompress the commands of a transaction: " +
+                    (Zstd.isError( result ) ? Zstd.getErrorName( result ) : "got " + result + " bytes, expected " + uncompressedLength) );
+        }
+
+        CommandReader commandReader = commandReaderFactory.get( LogEntryParserSetV4_2.COMMAND_FORMAT );
+        HeapReadableChannel commandsChannel = new HeapReadableChannel( ByteBuffer.wrap( uncompressed ) );
+        List<StorageCommand> commands = new ArrayList<>();
+        while ( commandsChannel.hasRemaining() )
+        {
+            StorageCommand command = commandReader.read( commandsChannel );
+            if ( command == null )
+            {
+                throw new IOException( "Compressed commands ended with an incomplete command." );
+            }
+            commands.add( command );
+        }
+        return commands;
+    }
+
+    /**
+     * Collects the serialized commands of a transaction on the heap, so that they can be compressed together.
+     */
+    public static class Writer implements WritableChannel
+    {
+        private ByteBuffer buffer = ByteBuffer.allocate( INITIAL_BUFFER_SIZE );
+
+        /**
+         * @return {@code true} if no commands have been written to this writer.
+         */
+        public boolean isEmpty()
+        {
+            return buffer.position() == 0;
+        }
+
+        /**
+         * @return {@code true} if the commands written to this writer are small enough to be written as one compressed commands log entry.
+         */
+        public boolean isCompressible()
+        {
+            return buffer.position() <= MAX_UNCOMPRESSED_LENGTH;
+        }
+
+        /**
+         * Writes the lengths and the compressed commands of a compressed commands log entry, that is everything after the header of the entry.
+         *
+         * @param channel channel to write the compressed commands to.
+         * @throws IOException if the commands could not be written, or could not be compressed.
+         */
+        public void writeCompressed( WritableChannel channel ) throws IOException
+        {
+            int uncompressedLength = buffer.position();
+            byte[] compressed = new byte[(int) Zstd.compressBound( uncompressedLength )];
+            long compressedLength = Zstd.compressByteArray( compressed, 0, compressed.length, buffer.array(), 0, uncompressedLength, COMPRESSION_LEVEL );
+            if ( Zstd.isError( compressedLength ) )
+            {
+                throw new IOException( "Failed to compress the commands of a transaction: " + Zstd.getErrorName( compressedLength ) );
+            }
+            channel.putInt( uncompressedLength )
+                    .putInt( (int) compressedLength )
+                    .put( compressed, (int) compressedLength );
+        }
+
+        @Override
+        public Writer put( byte value )
+        {
+            ensureRemaining( Byte.BYTES ).put( value );
+            return this;
+        }
+
+        @Override
+        public Writer putShort( short value )
+        {
+            ensureRemaining( Short.BYTES ).putShort( value );
+            return this;
+        }
+
+        @Override
+        public Writer putInt( int value )
+        {
+            ensureRemaining( Integer.BYTES ).putInt( value );
+            return this;
+        }
+
+        @Override
+        public Writer putLong( long value )
+        {
+            ensureRemaining( Long.BYTES ).putLong( value );
+            return this;
+        }
+
+        @Override
+        public Writer putFloat( float value )
+        {
+            ensureRemaining( Float.BYTES ).putFloat( value );
+            return this;
+        }
+
+        @Override
+        public Writer putDouble( double value )
+        {
+            ensureRemaining( Double.BYTES ).putDouble( value );
+            return this;
+        }
+
+        @Override
+        public Writer put( byte[] value, int length )
+        {
+            ensureRemaining( length ).put( value, 0, length );
+            return this;
+        }
+
+        private ByteBuffer ensureRemaining( int bytes )
+        {
+            if ( buffer.remaining() < bytes )
+            {
+                ByteBuffer grown = ByteBuffer.allocate( Math.max( buffer.capacity() * 2, buffer.position() + bytes ) );
+                buffer.flip();
+                grown.put( buffer );
+                buffer = grown;
+            }
+            return buffer;
+        }
+    }
+
+    private static class HeapReadableChannel implements ReadableChannel
+    {
+        private final ByteBuffer buffer;
+
+        HeapReadableChannel( ByteBuffer buffer )
+        {
+            this.buffer = buffer;
+        }
+
+        boolean hasRemaining()
+        {
+            return buffer.hasRemaining();
+        }
+
+        @Override
+        public byte get()
+        {
+            return buffer.get();
+        }
+
+        @Override
+        public short getShort()
+        {
+            return buffer.getShort();
+        }
+
+        @Override
+        public int getInt()
+        {
+            return buffer.getInt();
+        }
+
+        @Override
+        public long getLong()
+        {
+            return buffer.getLong();
+        }
+
+        @Override
+        public float getFloat()
+        {
+            return buffer.getFloat();
+        }
+
+        @Override
+        public double getDouble()
+        {
+            return buffer.getDouble();
+        }
+
+        @Override
+        public void get( byte[] bytes, int length )
+        {
+            buffer.get( bytes, 0, length );
+        }
+
+        @Override
+        public void close()
+        {   // nothing to close
+        }
+    }
+}
@@ -31,9 +31,19 @@ public class LogEntryParserSetV4_2 extends LogEntryParserSet
 {
     public static final LogEntryParserSet V4_2 = new LogEntryParserSetV4_2();
 
+    /**
+     * The commands of this log entry version, and of the versions that build on it, are read in the format of this version.
+     */
+    static final byte COMMAND_FORMAT = LogEntryParserSetVersion.LogEntryV4_2.getVersionByte();
+
     private LogEntryParserSetV4_2()
     {
-        super( LogEntryParserSetVersion.LogEntryV4_2 );
+        this( LogEntryParserSetVersion.LogEntryV4_2 );
+    }
+
+    LogEntryParserSetV4_2( LogEntryParserSetVersion version )
+    {
+        super( version );
         register( new LogEntryParser( LogEntryTypeCodes.TX_START )
         {
             @Override
@@ -56,7 +66,7 @@ public class LogEntryParserSetV4_2 extends LogEntryParserSet
             public LogEntry parse( byte version, ReadableChecksumChannel channel, LogPositionMarker marker, CommandReaderFactory commandReaderFactory )
                     throws IOException
             {
-                StorageCommand command = commandReaderFactory.get( version ).read( channel );
+                StorageCommand command = commandReaderFactory.get( COMMAND_FORMAT ).read( channel );
                 return command == null ? null : new LogEntryCommand( version, command );
             }
         } );
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.io.fs.ReadableChecksumChannel;
+import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
+import org.neo4j.storageengine.api.CommandReaderFactory;
+import org.neo4j.storageengine.api.StorageCommand;
+
+/**
+ * The 4.2 log entries, where the commands of each transaction can also be written together as one {@link CompressedCommands compressed} entry.
+ */
+public class LogEntryParserSetV4_2Zstd extends LogEntryParserSetV4_2
+{
+    public static final LogEntryParserSet V4_2_ZSTD = new LogEntryParserSetV4_2Zstd();
+
+    private LogEntryParserSetV4_2Zstd()
+    {
+        super( LogEntryParserSetVersion.LogEntryV4_2_ZSTD );
+        register( new LogEntryParser( LogEntryTypeCodes.COMPRESSED_COMMANDS )
+        {
+            @Override
+            public LogEntry parse( byte version, ReadableChecksumChannel channel, LogPositionMarker marker, CommandReaderFactory commandReaderFactory )
+                    throws IOException
+            {
+                List<StorageCommand> commands = CompressedCommands.read( channel, commandReaderFactory );
+                List<LogEntryCommand> entries = new ArrayList<>( commands.size() );
+                for ( StorageCommand command : commands )
+                {
+                    entries.add( new LogEntryCommand( version, command ) );
+                }
+                return new LogEntryCompressedCommands( version, entries );
+            }
+        } );
+    }
+}
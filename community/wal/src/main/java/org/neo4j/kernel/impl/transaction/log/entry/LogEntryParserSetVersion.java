@@ -25,7 +25,9 @@ public enum LogEntryParserSetVersion
     LogEntryV4_0( (byte) 1 ), // 4.0 to 4.1. Added checksums to the log files.
     LogEntryV4_2( (byte) 2 ), // 4.2+. Removed checkpoint entries.
 
-    CheckpointEntryV4_2( (byte) 3 ); // 4.2+. Checkpoint entries in separate file.
+    CheckpointEntryV4_2( (byte) 3 ), // 4.2+. Checkpoint entries in separate file.
+
+    LogEntryV4_2_ZSTD( (byte) 4 ); // 4.2+, opt-in. The commands of each transaction compressed together with zstd.
 
     private final byte version;
 
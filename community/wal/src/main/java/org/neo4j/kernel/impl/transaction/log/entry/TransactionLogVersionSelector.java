@@ -26,6 +26,7 @@ import org.neo4j.storageengine.api.StorageCommand;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV2_3.V2_3;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV4_0.V4_0;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV4_2.V4_2;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV4_2Zstd.V4_2_ZSTD;
 
 /**
  * Sitting at the top of the log entry chain it's about time to explain the general architecture around log entry reading and justify its complications.
@@ -68,5 +69,6 @@ public class TransactionLogVersionSelector extends LogVersionSelector
         register( V2_3 );
         register( V4_0 );
         register( V4_2 );
+        register( V4_2_ZSTD );
     }
 }
@@ -35,9 +35,13 @@ public class TransactionLogFilesHelper
 {
     public static final String DEFAULT_NAME = "neostore.transaction.db";
     public static final String CHECKPOINT_FILE_PREFIX = "checkpoint";
-    static final DirectoryStream.Filter<Path> DEFAULT_FILENAME_FILTER = new LogicalLogFilenameFilter( quote( DEFAULT_NAME ), quote( CHECKPOINT_FILE_PREFIX ) );
-    public static final Predicate<String> DEFAULT_FILENAME_PREDICATE = file -> file.startsWith( DEFAULT_NAME ) || file.startsWith( CHECKPOINT_FILE_PREFIX );
-
+    private static final String PREALLOCATED_PREFIX = "preallocated.";
+    private static final String INDEX_PREFIX = "index.";
+    // The transaction index files are included, so that tools that move the log files around move them too.
+    static final DirectoryStream.Filter<Path> DEFAULT_FILENAME_FILTER =
+            new LogicalLogFilenameFilter( quote( DEFAULT_NAME ), quote( CHECKPOINT_FILE_PREFIX ), quote( INDEX_PREFIX + DEFAULT_NAME ) );
+    public static final Predicate<String> DEFAULT_FILENAME_PREDICATE = file -> file.startsWith( DEFAULT_NAME ) || file.startsWith( CHECKPOINT_FILE_PREFIX ) ||
+            file.startsWith( INDEX_PREFIX + DEFAULT_NAME );
     private static final String VERSION_SUFFIX = ".";
     private static final String REGEX_VERSION_SUFFIX = "\\.";
     private static final Path[] EMPTY_FILES_ARRAY = {};
@@ -45,6 +49,7 @@ public class TransactionLogFilesHelper
     private final Path logBaseName;
     private final FileSystemAbstraction fileSystem;
     private final DirectoryStream.Filter<Path> filenameFilter;
+    private final DirectoryStream.Filter<Path> indexFilenameFilter;
 
     public TransactionLogFilesHelper( FileSystemAbstraction fileSystem, Path directory )
     {
@@ -56,6 +61,8 @@ public class TransactionLogFilesHelper
         this.fileSystem = fileSystem;
         this.logBaseName = directory.resolve( name );
         this.filenameFilter = new LogicalLogFilenameFilter( quote( name ) );
+        Pattern indexFilenamePattern = compile( quote( INDEX_PREFIX + name ) + REGEX_VERSION_SUFFIX + "\\d+" );
+        this.indexFilenameFilter = entry -> indexFilenamePattern.matcher( entry.getFileName().toString() ).matches();
     }
 
     public Path getLogFileForVersion( long version )
@@ -63,6 +70,32 @@ public class TransactionLogFilesHelper
         return Path.of( logBaseName.toAbsolutePath().toString() + VERSION_SUFFIX + version );
     }
 
+    /**
+     * @return the file where the space of the next log file is preallocated ahead of rotation. It does not match the log file name filter.
+     */
+    public Path getPreallocatedLogFile()
+    {
+        return logBaseName.toAbsolutePath().resolveSibling( PREALLOCATED_PREFIX + logBaseName.getFileName() );
+    }
+
+    /**
+     * @param version the version of the log file.
+     * @return the file of the transaction index of the log file of the given version. It does not match the log file name filter of this
+     * helper, but does match {@link #DEFAULT_FILENAME_FILTER}.
+     */
+    public Path getIndexFileForVersion( long version )
+    {
+        return logBaseName.toAbsolutePath().resolveSibling( INDEX_PREFIX + logBaseName.getFileName() + VERSION_SUFFIX + version );
+    }
+
+    /**
+     * @return the transaction index files of all log versions, in no particular order.
+     */
+    public Path[] getMatchedIndexFiles()
+    {
+        return fileSystem.listFiles( logBaseName.getParent(), indexFilenameFilter );
+    }
+
     public long getLogVersion( Path historyLogFile )
     {
         String historyLogFilename = historyLogFile.getFileName().toString();